@@ -0,0 +1,149 @@
+package multicast.chat;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import multicast.common.CommonUtils;
+
+/**
+ *
+ * Benchmark of the Codec of the Operation Messages, against the Data Output/Input Streams used before
+ * (i.e., a new Byte Array Output Stream, Data Output Stream, Byte Array Input Stream and Data Input Stream
+ * per Operation Message), for a TEXT Operation Message encoded and decoded,
+ * with and without requesting its Username and Text Message.
+ *
+ * NOTE:
+ * - Usage: java -jar benchmarks/target/benchmarks.jar MulticastChatOperationMessageCodecBenchmark
+ * - The bytes allocated per Operation Message are measured with the GC Profiler (i.e., -prof gc);
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MulticastChatOperationMessageCodecBenchmark {
+
+	// Invariants/Constants:
+	/**
+	 * The Username of the TEXT Operation Message
+	 */
+	private static final String USERNAME = "peer1";
+
+	/**
+	 * The Text Message of the TEXT Operation Message
+	 */
+	private static final String TEXT_MESSAGE = "Hello, (Secure) Multicast Chat!";
+
+
+	// Global Instance Variables:
+	/**
+	 * The buffer where the Operation Messages are encoded and decoded
+	 */
+	private final byte[] buffer = new byte[CommonUtils.DEFAULT_MESSAGE_DATAGRAM_PACKET_RECEIVED_SIZE];
+
+	/**
+	 * The Codec of the Operation Messages
+	 */
+	private final MulticastChatOperationMessageCodec operationMessageCodec = new MulticastChatOperationMessageCodec();
+
+
+	// Methods:
+	/**
+	 * Writes and reads the TEXT Operation Message, with the Data Output/Input Streams (i.e., as done before the Codec).
+	 *
+	 * @return the checksum of the TEXT Operation Message read
+	 *
+	 * @throws IOException if the Operation Message is not written or read
+	 */
+	@Benchmark
+	public long dataOutputInputStreams() throws IOException {
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+
+		dataOutputStream.writeLong(CommonUtils.SECURE_MULTICAST_CHAT_MAGIC_NUMBER);
+		dataOutputStream.writeInt(CommonUtils.TEXT_MESSAGE);
+		dataOutputStream.writeUTF(USERNAME);
+		dataOutputStream.writeUTF(TEXT_MESSAGE);
+
+		byte[] operationMessageSerialized = byteArrayOutputStream.toByteArray();
+
+		DataInputStream dataInputStream =
+				new DataInputStream(new ByteArrayInputStream(operationMessageSerialized, 0, operationMessageSerialized.length));
+
+		return dataInputStream.readLong() + dataInputStream.readInt() +
+			   dataInputStream.readUTF().length() + dataInputStream.readUTF().length();
+	}
+
+	/**
+	 * Encodes and decodes the TEXT Operation Message, with the Codec, without requesting its Username and Text Message.
+	 *
+	 * @return the checksum of the TEXT Operation Message decoded
+	 *
+	 * @throws IOException if the Operation Message is not encoded or decoded
+	 */
+	@Benchmark
+	public long codecLazyStrings() throws IOException {
+		int sizeOfOperationMessage = MulticastChatOperationMessageCodec.encode(this.buffer, 0, CommonUtils.TEXT_MESSAGE,
+																			   USERNAME, TEXT_MESSAGE);
+
+		this.operationMessageCodec.decode(this.buffer, 0, sizeOfOperationMessage);
+
+		return this.operationMessageCodec.getOperationMessageCode() + this.operationMessageCodec.getSizeOfTextMessage();
+	}
+
+	/**
+	 * Encodes and decodes the TEXT Operation Message, with the Codec, requesting its Username and Text Message.
+	 *
+	 * @return the checksum of the TEXT Operation Message decoded
+	 *
+	 * @throws IOException if the Operation Message is not encoded or decoded
+	 */
+	@Benchmark
+	public long codecStringsRequested() throws IOException {
+		int sizeOfOperationMessage = MulticastChatOperationMessageCodec.encode(this.buffer, 0, CommonUtils.TEXT_MESSAGE,
+																			   USERNAME, TEXT_MESSAGE);
+
+		this.operationMessageCodec.decode(this.buffer, 0, sizeOfOperationMessage);
+
+		return this.operationMessageCodec.getOperationMessageCode() +
+			   this.operationMessageCodec.getUsername().length() + this.operationMessageCodec.getTextMessage().length();
+	}
+
+}
@@ -0,0 +1,176 @@
+package multicast.common;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Benchmark of the Common Codecs, against the previous conversions of the Common Utilities
+ * (i.e., a new Byte Array and a new Byte Buffer per Integer Number, copied to and from the buffer of the Secure Message,
+ * and String.getBytes), for the Integer Numbers, the Long Numbers and the Strings.
+ *
+ * NOTE:
+ * - Usage: java -jar benchmarks/target/benchmarks.jar CommonCodecsBenchmark
+ * - The bytes allocated per operation are measured with the GC Profiler (i.e., -prof gc);
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommonCodecsBenchmark {
+
+	// Global Instance Variables:
+	/**
+	 * The buffer of the Secure Message, where the Numbers and the Strings are written and read
+	 */
+	private final byte[] buffer = new byte[256];
+
+	/**
+	 * The Integer Number (and the Long Number) written and read, changed in each operation
+	 */
+	private int integerNumber;
+
+
+	// Methods:
+	/**
+	 * Writes and reads an Integer Number, through a new Byte Array and a new Byte Buffer (i.e., as done before the Codecs).
+	 *
+	 * @return the Integer Number read
+	 */
+	@Benchmark
+	public int intByteBufferWrap() {
+		int offset = ( ++this.integerNumber & 0x7F );
+
+		byte[] integerNumberSerialized = new byte[CommonUtils.INTEGER_IN_BYTES_LENGTH];
+		ByteBuffer.wrap(integerNumberSerialized).order(ByteOrder.nativeOrder()).putInt(this.integerNumber);
+		System.arraycopy(integerNumberSerialized, 0, this.buffer, offset, CommonUtils.INTEGER_IN_BYTES_LENGTH);
+
+		byte[] integerNumberDeserialized = Arrays.copyOfRange(this.buffer, offset, offset + CommonUtils.INTEGER_IN_BYTES_LENGTH);
+
+		return ByteBuffer.wrap(integerNumberDeserialized).order(ByteOrder.nativeOrder()).getInt();
+	}
+
+	/**
+	 * Writes and reads an Integer Number, directly in the buffer of the Secure Message, with the Codecs.
+	 *
+	 * @return the Integer Number read
+	 */
+	@Benchmark
+	public int intCommonCodecs() {
+		int offset = ( ++this.integerNumber & 0x7F );
+
+		CommonCodecs.writeIntNativeOrder(this.buffer, offset, this.integerNumber);
+
+		return CommonCodecs.readIntNativeOrder(this.buffer, offset);
+	}
+
+	/**
+	 * Writes and reads a Long Number, through a new Byte Array and a new Byte Buffer (i.e., as done before the Codecs).
+	 *
+	 * @return the Long Number read
+	 */
+	@Benchmark
+	public long longByteBufferWrap() {
+		int offset = ( ++this.integerNumber & 0x7F );
+
+		byte[] longNumberSerialized = new byte[CommonUtils.LONG_LENGTH];
+		ByteBuffer.wrap(longNumberSerialized).order(ByteOrder.nativeOrder()).putLong(this.integerNumber);
+		System.arraycopy(longNumberSerialized, 0, this.buffer, offset, CommonUtils.LONG_LENGTH);
+
+		byte[] longNumberDeserialized = Arrays.copyOfRange(this.buffer, offset, offset + CommonUtils.LONG_LENGTH);
+
+		return ByteBuffer.wrap(longNumberDeserialized).order(ByteOrder.nativeOrder()).getLong();
+	}
+
+	/**
+	 * Writes and reads a Long Number, directly in the buffer of the Secure Message, with the Codecs.
+	 *
+	 * @return the Long Number read
+	 */
+	@Benchmark
+	public long longCommonCodecs() {
+		int offset = ( ++this.integerNumber & 0x7F );
+
+		CommonCodecs.writeLongNativeOrder(this.buffer, offset, this.integerNumber);
+
+		return CommonCodecs.readLongNativeOrder(this.buffer, offset);
+	}
+
+	/**
+	 * Encodes the String in UTF-8, with String.getBytes (i.e., as done before the Codecs).
+	 *
+	 * @param stringState the String encoded
+	 *
+	 * @return the String encoded in UTF-8
+	 */
+	@Benchmark
+	public byte[] stringGetBytes(StringState stringState) {
+		return stringState.string.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Encodes the String in UTF-8, directly in the buffer of the Secure Message, with the Codecs.
+	 *
+	 * @param stringState the String encoded
+	 *
+	 * @return the offset after the String written, in the buffer
+	 */
+	@Benchmark
+	public int stringCommonCodecs(StringState stringState) {
+		return CommonCodecs.writeString(this.buffer, 0, stringState.string);
+	}
+
+
+
+	/**
+	 * Class for the String encoded (i.e., only a parameter of the benchmarks of the Strings).
+	 */
+	@State(Scope.Benchmark)
+	public static class StringState {
+
+		/**
+		 * The String encoded (i.e., an ASCII, a Latin and a CJK one, with a surrogate pair)
+		 */
+		@Param({ "peer1", "R\u00faben Andr\u00e9", "\u30e6\u30fc\u30b6\u30fc\ud83d\udd12" })
+		private String string;
+	}
+
+}
@@ -0,0 +1,186 @@
+package multicast.sockets.messages;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.security.GeneralSecurityException;
+import java.security.Security;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import multicast.common.MessageType;
+import multicast.common.VersionNumber;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionCipherSuite;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionParameters;
+
+/**
+ *
+ * Benchmark of the Final Secure Message's Encoder, in the VERSION_01 and VERSION_02 formats,
+ * and of the Final Secure Message's Decoder, for the Sessions of SMCP.conf given.
+ *
+ * NOTE:
+ * - Usage: java -jar benchmarks/target/benchmarks.jar FinalSecureMessageEncoderBenchmark [-p sessionID=<ip>:<port>]
+ * - It must be run from the root of the project (i.e., where res/SMCP.conf and the Keystore are);
+ * - The bytes allocated per Secure Message are measured with the GC Profiler (i.e., -prof gc);
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FinalSecureMessageEncoderBenchmark {
+
+	// Invariants/Constants:
+	/**
+	 * The Message serialized, sent in each Secure Message
+	 */
+	private static final byte[] MESSAGE_SERIALIZED = "Hello, Secure Multicast Chat!".getBytes();
+
+	/**
+	 * The Message's Type of the Secure Messages
+	 */
+	private static final byte MESSAGE_TYPE = MessageType.MESSAGE_TYPE_1.getMessageType();
+
+
+	// Global Instance Variables:
+	/**
+	 * The ID of the Session measured (i.e., <ip>:<port>), in SMCP.conf
+	 */
+	@Param({ "224.1.1.3:6789", "224.1.1.5:9999" })
+	private String sessionID;
+
+	/**
+	 * The Final Secure Message's Encoder, in the VERSION_01 format
+	 */
+	private FinalSecureMessageEncoder finalSecureMessageEncoder;
+
+	/**
+	 * The Final Secure Message's Encoder, in the VERSION_02 format (i.e., the compact one)
+	 */
+	private FinalSecureMessageEncoder compactFinalSecureMessageEncoder;
+
+	/**
+	 * The Final Secure Message's Decoder
+	 */
+	private FinalSecureMessageDecoder finalSecureMessageDecoder;
+
+	/**
+	 * The Final Secure Message serialized, in the VERSION_02 format, decoded by the benchmark of the Decoder
+	 */
+	private byte[] compactFinalSecureMessageSerialized;
+
+	/**
+	 * The size of the Final Secure Message serialized, in the VERSION_02 format
+	 */
+	private int sizeOfCompactFinalSecureMessage;
+
+	/**
+	 * The buffer received, where the Final Secure Message serialized is copied and deciphered in place, for each decoding
+	 */
+	private byte[] datagramPacketReceivedBuffer;
+
+	/**
+	 * The Sequence Number of the next Secure Message encoded
+	 */
+	private int sequenceNumber;
+
+
+	// Methods:
+	/**
+	 * Compiles the Cipher Suite of the Session measured and builds its Encoders and its Decoder.
+	 *
+	 * @throws GeneralSecurityException if the Cipher Suite of the Session could not be compiled
+	 */
+	@Setup
+	public void setup() throws GeneralSecurityException {
+		Security.addProvider(new BouncyCastleProvider());
+
+		SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite =
+				SecureMulticastChatSessionCipherSuite.compileCipherSuite(new SecureMulticastChatSessionParameters("res/SMCP.conf",
+																												   this.sessionID));
+
+		this.finalSecureMessageEncoder = new FinalSecureMessageEncoder("peer1", secureMulticastChatSessionCipherSuite,
+																	   VersionNumber.VERSION_01.getVersionNumber());
+		this.compactFinalSecureMessageEncoder = new FinalSecureMessageEncoder("peer1", secureMulticastChatSessionCipherSuite,
+																			  VersionNumber.VERSION_02.getVersionNumber());
+		this.finalSecureMessageDecoder = new FinalSecureMessageDecoder(secureMulticastChatSessionCipherSuite);
+
+		this.sizeOfCompactFinalSecureMessage = this.compactFinalSecureMessageEncoder.encode(MESSAGE_SERIALIZED, 0, MESSAGE_SERIALIZED.length,
+																							 1, 42, MESSAGE_TYPE);
+		this.compactFinalSecureMessageSerialized = this.compactFinalSecureMessageEncoder.getFinalSecureMessageSerialized().clone();
+		this.datagramPacketReceivedBuffer = new byte[this.compactFinalSecureMessageSerialized.length];
+	}
+
+	/**
+	 * Encodes a Secure Message, in the VERSION_01 format.
+	 *
+	 * @return the size of the Final Secure Message serialized
+	 */
+	@Benchmark
+	public int encodeVersion01() {
+		this.sequenceNumber++;
+
+		return this.finalSecureMessageEncoder.encode(MESSAGE_SERIALIZED, 0, MESSAGE_SERIALIZED.length,
+													 this.sequenceNumber, this.sequenceNumber, MESSAGE_TYPE);
+	}
+
+	/**
+	 * Encodes a Secure Message, in the VERSION_02 format (i.e., the compact one).
+	 *
+	 * @return the size of the Final Secure Message serialized
+	 */
+	@Benchmark
+	public int encodeVersion02() {
+		this.sequenceNumber++;
+
+		return this.compactFinalSecureMessageEncoder.encode(MESSAGE_SERIALIZED, 0, MESSAGE_SERIALIZED.length,
+															this.sequenceNumber, this.sequenceNumber, MESSAGE_TYPE);
+	}
+
+	/**
+	 * Decodes a Secure Message, in the VERSION_02 format (i.e., the compact one),
+	 * copied to the buffer received, since its Secure Message's Payload is deciphered in place.
+	 *
+	 * @return true if the Secure Message was decoded and accepted
+	 */
+	@Benchmark
+	public boolean decodeVersion02() {
+		System.arraycopy(this.compactFinalSecureMessageSerialized, 0, this.datagramPacketReceivedBuffer, 0,
+						 this.sizeOfCompactFinalSecureMessage);
+
+		return this.finalSecureMessageDecoder.decode(this.datagramPacketReceivedBuffer, 0, this.sizeOfCompactFinalSecureMessage);
+	}
+
+}
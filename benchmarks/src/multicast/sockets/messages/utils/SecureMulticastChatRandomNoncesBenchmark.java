@@ -0,0 +1,159 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Benchmark of the table of the Random Nonces, against the Concurrent Hash Map (of boxed Integers and Longs) used before,
+ * per Random Nonce checked and inserted, with the Random Nonces expired removed periodically
+ * (as done by the Cleaning Random Nonces Service).
+ *
+ * NOTE:
+ * - Usage: java -jar benchmarks/target/benchmarks.jar SecureMulticastChatRandomNoncesBenchmark [-p numLiveRandomNonces=...]
+ * - The time is simulated (i.e., one millisecond per Random Nonce), so there are always numLiveRandomNonces not expired,
+ *   in 10 generations (plus the current one);
+ * - The bytes allocated per Random Nonce are measured with the GC Profiler (i.e., -prof gc);
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecureMulticastChatRandomNoncesBenchmark {
+
+	// Global Instance Variables:
+	/**
+	 * The number of Random Nonces not expired (i.e., their timeout, in simulated milliseconds)
+	 */
+	@Param({ "100000" })
+	private int numLiveRandomNonces;
+
+	/**
+	 * The number of Random Nonces between each removal of the Random Nonces expired
+	 */
+	private int cleaningRate;
+
+	/**
+	 * The Concurrent Hash Map of the Random Nonces (i.e., as used before the table)
+	 */
+	private ConcurrentMap<Integer, Long> randomNoncesMap;
+
+	/**
+	 * The table of the Random Nonces
+	 */
+	private SecureMulticastChatRandomNonces randomNonces;
+
+	/**
+	 * The Generator of the Random Nonces
+	 */
+	private Random random;
+
+	/**
+	 * The simulated time (i.e., one millisecond per Random Nonce)
+	 */
+	private long systemTime;
+
+
+	// Methods:
+	/**
+	 * Builds the Concurrent Hash Map and the table of the Random Nonces, empty, for each iteration.
+	 */
+	@Setup(Level.Iteration)
+	public void setup() {
+		this.cleaningRate = Math.max(this.numLiveRandomNonces / 10, 1);
+
+		this.randomNoncesMap = new ConcurrentHashMap<>();
+		this.randomNonces = new SecureMulticastChatRandomNonces(this.numLiveRandomNonces + this.cleaningRate,
+																this.numLiveRandomNonces, this.cleaningRate);
+		this.random = new Random(42);
+		this.systemTime = 0;
+	}
+
+	/**
+	 * Checks and inserts a Random Nonce in the Concurrent Hash Map, removing the Random Nonces expired periodically,
+	 * by scanning all of them.
+	 *
+	 * @return true if the Random Nonce was not accepted yet, and false, otherwise
+	 */
+	@Benchmark
+	public boolean concurrentHashMap() {
+		int randomNonce = this.random.nextInt();
+		long systemTime = ++this.systemTime;
+
+		boolean isNew = !this.randomNoncesMap.containsKey(randomNonce);
+
+		if(isNew) {
+			this.randomNoncesMap.put(randomNonce, systemTime);
+		}
+
+		if(( systemTime % this.cleaningRate ) == 0) {
+			for(Entry<Integer, Long> randomNonceTimestamp : this.randomNoncesMap.entrySet()) {
+				if(( randomNonceTimestamp.getValue() + this.numLiveRandomNonces ) < systemTime) {
+					this.randomNoncesMap.remove(randomNonceTimestamp.getKey());
+				}
+			}
+		}
+
+		return isNew;
+	}
+
+	/**
+	 * Checks and inserts a Random Nonce in the table, dropping the generations expired periodically.
+	 *
+	 * @return true if the Random Nonce was not accepted yet, and false, otherwise
+	 */
+	@Benchmark
+	public boolean secureMulticastChatRandomNonces() {
+		int randomNonce = this.random.nextInt();
+		long systemTime = ++this.systemTime;
+
+		boolean isNew = ( this.randomNonces.add(randomNonce, systemTime) != SecureMulticastChatRandomNonces.AdditionResult.DUPLICATE );
+
+		if(( systemTime % this.cleaningRate ) == 0) {
+			this.randomNonces.expire(systemTime);
+		}
+
+		return isNew;
+	}
+
+}
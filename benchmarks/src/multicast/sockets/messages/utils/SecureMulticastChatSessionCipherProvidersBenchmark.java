@@ -0,0 +1,129 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.security.GeneralSecurityException;
+import java.security.Security;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.KeyGenerator;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Benchmark of the Symmetric Encryption of a typical Secure Message's Payload, with each Cryptographic Provider
+ * able to cipher the transformation, as done during the startup by the selection of the Cryptographic Providers,
+ * but with the warm-up and the measurement controlled by JMH.
+ *
+ * NOTE:
+ * - Usage: java -jar benchmarks/target/benchmarks.jar SecureMulticastChatSessionCipherProvidersBenchmark
+ * - Other transformations and Cryptographic Providers are measured with -p transformation=... -p provider=...;
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecureMulticastChatSessionCipherProvidersBenchmark {
+
+	// Invariants/Constants:
+	/**
+	 * The size of the payload ciphered, in bytes (i.e., the size of a typical Secure Message's Payload)
+	 */
+	private static final int PAYLOAD_SIZE = 256;
+
+
+	// Global Instance Variables:
+	/**
+	 * The transformation measured (i.e., SEA/MODE/PADDING)
+	 */
+	@Param({ "AES/CTR/NoPadding", "AES/CBC/PKCS5Padding", "AES/GCM/NoPadding" })
+	private String transformation;
+
+	/**
+	 * The name of the Cryptographic Provider measured
+	 */
+	@Param({ "SunJCE", "BC" })
+	private String provider;
+
+	/**
+	 * The Cipher Contexts of the transformation, with the Cryptographic Provider measured
+	 */
+	private SecureMulticastChatSessionCipherContexts cipherContexts;
+
+	/**
+	 * The Generator of the Initialization Vectors (i.e., a new one for each payload, as required by the GCM Mode)
+	 */
+	private SecureMulticastChatSessionIVGenerator ivGenerator;
+
+	/**
+	 * The payload ciphered
+	 */
+	private byte[] payload;
+
+
+	// Methods:
+	/**
+	 * Builds the Cipher Contexts of the transformation, with the Cryptographic Provider measured.
+	 *
+	 * @throws GeneralSecurityException if the Secret Key could not be generated
+	 */
+	@Setup
+	public void setup() throws GeneralSecurityException {
+		Security.addProvider(new BouncyCastleProvider());
+
+		String symmetricEncryptionMode = this.transformation.split("/")[1];
+
+		this.cipherContexts = new SecureMulticastChatSessionCipherContexts(this.transformation, Security.getProvider(this.provider),
+																		  KeyGenerator.getInstance("AES").generateKey(), true);
+		this.ivGenerator = new SecureMulticastChatSessionIVGenerator(symmetricEncryptionMode,
+																	 symmetricEncryptionMode.equals("GCM") ? 12 : 16);
+		this.payload = new byte[PAYLOAD_SIZE];
+	}
+
+	/**
+	 * Ciphers the payload, with a new Initialization Vector.
+	 *
+	 * @return the payload ciphered
+	 *
+	 * @throws GeneralSecurityException if an error occurred during the Symmetric Encryption
+	 */
+	@Benchmark
+	public byte[] cipher() throws GeneralSecurityException {
+		return this.cipherContexts.getEncryptionCipher(this.ivGenerator.nextIV()).doFinal(this.payload);
+	}
+
+}
@@ -0,0 +1,118 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Benchmark of the generation of the Initialization Vectors, comparing
+ * the creation of a new SecureRandom per Secure Message with the COUNTER and the BUFFERED_DRBG Modes.
+ *
+ * NOTE:
+ * - Usage: java -jar benchmarks/target/benchmarks.jar SecureMulticastChatSessionIVGeneratorBenchmark
+ * - The percentiles of the latencies are measured with the SampleTime Mode (i.e., -bm sample);
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecureMulticastChatSessionIVGeneratorBenchmark {
+
+	// Invariants/Constants:
+	/**
+	 * The length of the Initialization Vectors generated (i.e., the size of the block of AES)
+	 */
+	private static final int IV_LENGTH = 16;
+
+
+	// Global Instance Variables:
+	/**
+	 * The Generator of the Initialization Vectors, in the COUNTER Mode (i.e., the one of the CTR Mode)
+	 */
+	private SecureMulticastChatSessionIVGenerator counterGenerator;
+
+	/**
+	 * The Generator of the Initialization Vectors, in the BUFFERED_DRBG Mode (i.e., the one of the CBC Mode)
+	 */
+	private SecureMulticastChatSessionIVGenerator bufferedGenerator;
+
+
+	// Methods:
+	/**
+	 * Builds the Generators of the Initialization Vectors measured.
+	 */
+	@Setup
+	public void setup() {
+		this.counterGenerator = new SecureMulticastChatSessionIVGenerator("CTR", IV_LENGTH);
+		this.bufferedGenerator = new SecureMulticastChatSessionIVGenerator("CBC", IV_LENGTH);
+	}
+
+	/**
+	 * Generates an Initialization Vector with a new SecureRandom (i.e., as done before the Generator).
+	 *
+	 * @return the Initialization Vector generated
+	 */
+	@Benchmark
+	public byte[] newSecureRandomPerIV() {
+		byte[] IVBytes = new byte[IV_LENGTH];
+		new SecureRandom().nextBytes(IVBytes);
+
+		return IVBytes;
+	}
+
+	/**
+	 * Generates an Initialization Vector in the COUNTER Mode.
+	 *
+	 * @return the Initialization Vector generated
+	 */
+	@Benchmark
+	public byte[] counterMode() {
+		return this.counterGenerator.nextIV();
+	}
+
+	/**
+	 * Generates an Initialization Vector in the BUFFERED_DRBG Mode.
+	 *
+	 * @return the Initialization Vector generated
+	 */
+	@Benchmark
+	public byte[] bufferedDRBGMode() {
+		return this.bufferedGenerator.nextIV();
+	}
+
+}
@@ -0,0 +1,194 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.security.GeneralSecurityException;
+import java.security.Security;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.KeyGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import multicast.sockets.messages.utils.SecureMulticastChatSessionKeystreamGenerator.PrecomputedKeystream;
+
+/**
+ *
+ * Benchmark of the latency of the Symmetric Encryption of a typical Secure Message's Payload,
+ * comparing the Session's Cipher with the keystreams precomputed, for the CTR and OFB Modes of AES.
+ *
+ * The keystream precomputed is taken from the pool before each invocation (i.e., out of the measurement),
+ * waiting for the background Thread, if the pool is empty, as in the idle gap between two interactive Secure Messages,
+ * so only the XOR of the Plain Text with the keystream is measured.
+ *
+ * NOTE:
+ * - Usage: java -jar benchmarks/target/benchmarks.jar SecureMulticastChatSessionKeystreamGeneratorBenchmark
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecureMulticastChatSessionKeystreamGeneratorBenchmark {
+
+	// Invariants/Constants:
+	/**
+	 * The size of the payload ciphered, in bytes (i.e., the size of a typical Secure Message's Payload)
+	 */
+	private static final int PAYLOAD_SIZE = 200;
+
+	/**
+	 * The size of the block of AES, in bytes
+	 */
+	private static final int BLOCK_SIZE = 16;
+
+	/**
+	 * The maximum number of keystreams precomputed
+	 */
+	private static final int KEYSTREAM_POOL_CAPACITY = 64;
+
+
+	// Global Instance Variables:
+	/**
+	 * The Symmetric Encryption's Mode measured
+	 */
+	@Param({ "CTR", "OFB" })
+	private String mode;
+
+	/**
+	 * The Cipher Contexts of the Session
+	 */
+	private SecureMulticastChatSessionCipherContexts cipherContexts;
+
+	/**
+	 * The Initialization Vectors' Generator of the Session
+	 */
+	private SecureMulticastChatSessionIVGenerator ivGenerator;
+
+	/**
+	 * The Keystream Generator of the Session
+	 */
+	private SecureMulticastChatSessionKeystreamGenerator keystreamGenerator;
+
+	/**
+	 * The payload ciphered
+	 */
+	private byte[] payload;
+
+
+	// Methods:
+	/**
+	 * Builds the Cipher Contexts, the Initialization Vectors' Generator and the Keystream Generator of the Session.
+	 *
+	 * @throws GeneralSecurityException if the Secret Key could not be generated
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws GeneralSecurityException {
+		this.cipherContexts = new SecureMulticastChatSessionCipherContexts("AES/" + this.mode + "/NoPadding",
+																		  Security.getProvider("SunJCE"),
+																		  KeyGenerator.getInstance("AES").generateKey(), true);
+		this.ivGenerator = new SecureMulticastChatSessionIVGenerator(this.mode, BLOCK_SIZE);
+		this.keystreamGenerator = SecureMulticastChatSessionKeystreamGenerator.newKeystreamGenerator("benchmark", this.mode,
+																									  "NoPadding", this.cipherContexts,
+																									  this.ivGenerator, BLOCK_SIZE,
+																									  KEYSTREAM_POOL_CAPACITY);
+		this.keystreamGenerator.acquire();
+		this.payload = new byte[PAYLOAD_SIZE];
+	}
+
+	/**
+	 * Releases the Keystream Generator of the Session, stopping its background Thread.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.keystreamGenerator.release();
+	}
+
+	/**
+	 * Ciphers the payload with the Session's Cipher, with a new Initialization Vector.
+	 *
+	 * @return the payload ciphered
+	 *
+	 * @throws GeneralSecurityException if an error occurred during the Symmetric Encryption
+	 */
+	@Benchmark
+	public byte[] sessionCipher() throws GeneralSecurityException {
+		return this.cipherContexts.getEncryptionCipher(this.ivGenerator.nextIV()).doFinal(this.payload);
+	}
+
+	/**
+	 * Ciphers the payload with the keystream precomputed.
+	 *
+	 * @param precomputedKeystreamState the keystream precomputed, taken from the pool for this invocation
+	 *
+	 * @return the payload ciphered
+	 */
+	@Benchmark
+	public byte[] precomputedKeystream(PrecomputedKeystreamState precomputedKeystreamState) {
+		return precomputedKeystreamState.precomputedKeystream.cipher(this.payload);
+	}
+
+
+
+	/**
+	 * Class for the keystream precomputed of each invocation (i.e., only taken by the benchmark of the keystreams).
+	 */
+	@State(Scope.Thread)
+	public static class PrecomputedKeystreamState {
+
+		/**
+		 * The keystream precomputed, taken from the pool for the next invocation
+		 */
+		private PrecomputedKeystream precomputedKeystream;
+
+		/**
+		 * Takes a keystream precomputed from the pool, waiting for the background Thread, if the pool is empty.
+		 *
+		 * @param benchmark the benchmark, with the Keystream Generator of the Session
+		 *
+		 * @throws InterruptedException if the waiting for the background Thread was interrupted
+		 */
+		@Setup(Level.Invocation)
+		public void takePrecomputedKeystream(SecureMulticastChatSessionKeystreamGeneratorBenchmark benchmark)
+				throws InterruptedException {
+
+			while(( this.precomputedKeystream = benchmark.keystreamGenerator.takePrecomputedKeystream(PAYLOAD_SIZE) ) == null) {
+				Thread.sleep(1);
+			}
+		}
+	}
+
+}
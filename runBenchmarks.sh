@@ -0,0 +1,4 @@
+#!/bin/bash
+mvn install -DskipTests
+mvn -f benchmarks/pom.xml clean package
+java -jar benchmarks/target/benchmarks.jar "$@"
@@ -18,11 +18,13 @@ package multicast.chat;
 
 import java.io.*;
 import java.net.*;
+import java.security.GeneralSecurityException;
 import java.util.Date;
 
 import multicast.chat.listener.SecureMulticastChatEventListener;
 import multicast.common.CommonUtils;
 import multicast.sockets.SecureMulticastSocket;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionCipherSuite;
 import multicast.sockets.messages.utils.SecureMulticastChatSessionParameters;
 
 /**
@@ -68,6 +70,12 @@ public class MulticastChat extends Thread {
 	 */
 	protected SecureMulticastChatSessionParameters secureMulticastChatSessionParameters;
 	
+	/**
+	 * The compiled Cipher Suite of the (Secure) Multicast Chat's Session,
+	 * compiled from the (Secure) Multicast Chat's Session's Parameters, only once, at the startup
+	 */
+	protected SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite;
+	
 	/**
 	 * The Username or NickName of the User (Client) of the (Secure) Multicast Chat
 	 */
@@ -89,6 +97,16 @@ public class MulticastChat extends Thread {
 	 */
 	protected boolean isSecureMulticastChatActive;
 	
+	/**
+	 * The buffer where the Operation Messages to be sent are encoded (reused for all the Operation Messages sent)
+	 */
+	protected byte[] operationMessageToBeSentBuffer;
+	
+	/**
+	 * The Datagram Packet of the Operation Messages to be sent (reused for all the Operation Messages sent)
+	 */
+	protected DatagramPacket datagramPacketToBeSent;
+	
 	
 	// Constructors:
 	/**
@@ -118,6 +136,17 @@ public class MulticastChat extends Thread {
 	    this.ipMulticastGroup = ipMulticastGroup;
 
 	    this.secureMulticastChatSessionParameters = new SecureMulticastChatSessionParameters(propertiesFilename, this.ipMulticastGroup.getHostAddress()+":"+port);
+	    
+	    // Compiles the (Secure) Multicast Chat's Session's Parameters, rejecting
+	    // the combinations of algorithms not supported, before joining to the Session
+	    try {
+	    	this.secureMulticastChatSessionCipherSuite = 
+	    			SecureMulticastChatSessionCipherSuite.compileCipherSuite(this.secureMulticastChatSessionParameters);
+	    }
+	    catch (GeneralSecurityException generalSecurityException) {
+	    	printError("The (Secure) Multicast Chat's Session is not supported: " + generalSecurityException.getMessage());
+	    	throw new IOException(generalSecurityException.getMessage(), generalSecurityException);
+	    }
 	    	    
 	    this.secureMulticastChatEventListener = secureMulticastChatEventListener;
 	    
@@ -130,11 +159,16 @@ public class MulticastChat extends Thread {
 	    //this.multicastChatSocket.joinGroup(ipMulticastGroup);
 	    	    
 	    // Create and Configure the Secure Multicast Chat Socket
-	    this.secureMulticastChatSocket = new SecureMulticastSocket(this.userUsername, port, this.secureMulticastChatSessionParameters);
+	    this.secureMulticastChatSocket = new SecureMulticastSocket(this.userUsername, port, this.secureMulticastChatSessionCipherSuite);
 	    	    
 	    this.secureMulticastChatSocket.setSoTimeout(CommonUtils.DEFAULT_SECURE_MULTICAST_SOCKET_TIMEOUT_MILLIS);
 	    this.secureMulticastChatSocket.setTimeToLive(timeToLive);
 	    this.secureMulticastChatSocket.joinGroup(ipMulticastGroup);
+	    
+	    // Creates the buffer and the Datagram Packet of the Operation Messages to be sent, only once
+	    this.operationMessageToBeSentBuffer = new byte[CommonUtils.DEFAULT_MESSAGE_DATAGRAM_PACKET_RECEIVED_SIZE];
+	    this.datagramPacketToBeSent = new DatagramPacket(this.operationMessageToBeSentBuffer, 0, this.ipMulticastGroup,
+	    												 this.secureMulticastChatSocket.getLocalPort());
 	
 	    // Start the Receiving Operation Messages' Thread
 	    this.start();
@@ -179,39 +213,15 @@ public class MulticastChat extends Thread {
 	 */
 	protected void sendJoinOperationMessage() throws IOException {
 		
-		// Creates a Byte Array Output Stream and the Data Output Stream,
-		// which this Byte Array Output Stream will be placed
-		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-		DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
-		
-		// Writes the information related to the Byte Array Output Stream in
-		// the Data Output Stream, which this Byte Array Output Stream will be placed
-		dataOutputStream.writeLong(CommonUtils.SECURE_MULTICAST_CHAT_MAGIC_NUMBER);
-		dataOutputStream.writeInt(CommonUtils.JOIN_MESSAGE);
-		dataOutputStream.writeUTF(this.userUsername);
-		
-		// Closes the Data Output Stream,
-		// which this Byte Array Output Stream was placed
-		dataOutputStream.close();
-		
-		// Creates the Byte Array Data, where the Byte Array Output Stream will be kept
-		byte[] byteArrayData = byteArrayOutputStream.toByteArray();
-		
-		// Creates the final Datagram Packet to be sent,
-		// with all the information contained in the Byte Array Data previously created
-		DatagramPacket datagramPacketToBeSent = new DatagramPacket(byteArrayData, byteArrayData.length,
-																   this.ipMulticastGroup, 
-    										   		               this.secureMulticastChatSocket.getLocalPort());
-				
-		// Sends the final Datagram Packet through the (Secure) Multicast Chat Socket previously created
-		this.secureMulticastChatSocket.send(datagramPacketToBeSent);
+		// Encodes and sends the JOIN Operation Message, with the Username of the User (Client)
+		this.sendOperationMessage(CommonUtils.JOIN_MESSAGE, null);
 	} 
 
 	/**
 	 * Receives and processes a JOIN Operation Message on the (Secure) Multicast Chat with notification for
 	 * the other Participants' Event Listeners.
 	 * 
-	 * @param dataInputStream the Data Input Stream, containing the information of the User (Client),
+	 * @param operationMessageCodec the flyweight of the Operation Message received, containing the information of the User (Client),
 	 *        who sent the JOIN Operation Message on the (Secure) Multicast Chat
 	 * 
 	 * @param inetAddress the Inet Address of the User (Client),
@@ -223,17 +233,15 @@ public class MulticastChat extends Thread {
 	 * @throws IOException an Input/Output Exception to be thrown,
 	 *         in the case of an Input/Output error occurred
 	 */
-	protected void receiveAndProcessJoinOperationMessage(DataInputStream dataInputStream,
+	protected void receiveAndProcessJoinOperationMessage(MulticastChatOperationMessageCodec operationMessageCodec,
 														 InetAddress inetAddress, 
 														 int port) throws IOException {
 		
-		// The Username or Nickname of the User (Client) who sent the JOIN Operation Message to the (Secure) Multicast Chat 
-		String userUsername = dataInputStream.readUTF();
-
 		// Triggers the Event of JOIN of the User (Client) on the (Secure) Multicast Chat,
-		// in order to, notify all the other Participants' Event Listeners  
+		// in order to, notify all the other Participants' Event Listeners
+		// (being the Username of the User (Client) only built, if requested by the Event Listener)
 		try {
-			this.secureMulticastChatEventListener.secureMulticastChatParticipantJoined(userUsername, inetAddress, port);
+			this.secureMulticastChatEventListener.secureMulticastChatParticipantJoined(operationMessageCodec, inetAddress, port);
     	}
     	catch (Throwable throwableException) {
     		// Empty catch body
@@ -248,35 +256,15 @@ public class MulticastChat extends Thread {
 	 */
 	protected void sendLeaveOperationMessage() throws IOException {
 
-		// Creates a Byte Array Output Stream and the Data Output Stream,
-		// which this Byte Array Output Stream will be placed
-		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-		DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
-		
-		// Writes the information related to the Byte Array Output Stream in
-		// the Data Output Stream, which this Byte Array Output Stream will be placed
-		dataOutputStream.writeLong(CommonUtils.SECURE_MULTICAST_CHAT_MAGIC_NUMBER);
-		dataOutputStream.writeInt(CommonUtils.LEAVE_MESSAGE);
-		dataOutputStream.writeUTF(this.userUsername);
-		
-		// Creates the Byte Array Data, where the Byte Array Output Stream will be kept
-		byte[] byteArrayData = byteArrayOutputStream.toByteArray();
-				
-		// Creates the final Datagram Packet to be sent,
-		// with all the information contained in the Byte Array Data previously created
-		DatagramPacket datagramPacketToBeSent = new DatagramPacket(byteArrayData, byteArrayData.length,
-																   this.ipMulticastGroup, 
-    										   					   this.secureMulticastChatSocket.getLocalPort());
-		
-		// Sends the final Datagram Packet through the (Secure) Multicast Chat Socket previously created
-		this.secureMulticastChatSocket.send(datagramPacketToBeSent);
+		// Encodes and sends the LEAVE Operation Message, with the Username of the User (Client)
+		this.sendOperationMessage(CommonUtils.LEAVE_MESSAGE, null);
 	} 
 	
 	/**
 	 * Receives and processes a LEAVE Operation Message on the (Secure) Multicast Chat with notification for
 	 * the other Participants' Event Listeners.
 	 * 
-	 * @param dataInputStream the Data Input Stream, containing the information of the User (Client),
+	 * @param operationMessageCodec the flyweight of the Operation Message received, containing the information of the User (Client),
 	 *        who sent the LEAVE Operation Message on the (Secure) Multicast Chat
 	 * 
 	 * @param inetAddress the Inet Address of the User (Client),
@@ -288,17 +276,15 @@ public class MulticastChat extends Thread {
 	 * @throws IOException an Input/Output Exception to be thrown,
 	 *         in the case of an Input/Output error occurred
 	 */
-	protected void receiveAndProcessLeaveOperationMessage(DataInputStream dataInputStream,
+	protected void receiveAndProcessLeaveOperationMessage(MulticastChatOperationMessageCodec operationMessageCodec,
 														  InetAddress inetAddress, 
                                 						  int port) throws IOException {
 		
-		// The Username or Nickname of the User (Client) who sent the LEAVE Operation Message to the (Secure) Multicast Chat 
-		String userUsername = dataInputStream.readUTF();
-		
 		// Triggers the Event of LEAVE of the User (Client) on the (Secure) Multicast Chat,
-		// in order to, notify all the other Participants' Event Listeners  
+		// in order to, notify all the other Participants' Event Listeners
+		// (being the Username of the User (Client) only built, if requested by the Event Listener)
 		try {
-			this.secureMulticastChatEventListener.secureMulticastChatParticipantLeft(userUsername, inetAddress, port);
+			this.secureMulticastChatEventListener.secureMulticastChatParticipantLeft(operationMessageCodec, inetAddress, port);
     	}
     	catch (Throwable throwableException) {
     		// Empty catch body
@@ -316,36 +302,46 @@ public class MulticastChat extends Thread {
 	 */
 	public void sendMessage(String textMessage) throws IOException {
 		
-		// Creates a Byte Array Output Stream and the Data Output Stream,
-		// which this Byte Array Output Stream will be placed
-		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-		DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
-		
-		// Writes the information related to the Byte Array Output Stream in
-		// the Data Output Stream, which this Byte Array Output Stream will be placed
-		dataOutputStream.writeLong(CommonUtils.SECURE_MULTICAST_CHAT_MAGIC_NUMBER);
-		dataOutputStream.writeInt(CommonUtils.TEXT_MESSAGE);
-		dataOutputStream.writeUTF(this.userUsername);
-		dataOutputStream.writeUTF(textMessage);
+		// Encodes and sends the TEXT Operation Message, with the Username of the User (Client) and the Text Message
+		this.sendOperationMessage(CommonUtils.TEXT_MESSAGE, textMessage);
+	} 
+	
+	/**
+	 * Sends an Operation Message to the (Secure) Multicast Chat, encoded directly into the buffer of the Operation Messages
+	 * to be sent, which is reused (as the Datagram Packet to be sent), so only one Operation Message is sent at a time.
+	 * 
+	 * @param operationMessageCode the Operation Message's Code
+	 * 
+	 * @param textMessage the real content of the TEXT Operation Message (null, for the other Operation Messages)
+	 * 
+	 * @throws IOException an Input/Output Exception to be thrown,
+	 *         in the case of an Input/Output error occurred (or if the Operation Message is too long to be sent)
+	 */
+	protected void sendOperationMessage(int operationMessageCode, String textMessage) throws IOException {
 		
-		// Creates the Byte Array Data, where the Byte Array Output Stream will be kept
-		byte[] byteArrayData = byteArrayOutputStream.toByteArray();
+		synchronized(this.operationMessageToBeSentBuffer) {
+			
+			if(MulticastChatOperationMessageCodec.sizeOfOperationMessage(this.userUsername, textMessage) 
+					> this.operationMessageToBeSentBuffer.length) {
 				
-		// Creates the final Datagram Packet to be sent,
-		// with all the information contained in the Byte Array Data previously created
-		DatagramPacket datagramPacketToBeSent = new DatagramPacket(byteArrayData, byteArrayData.length,
-																   this.ipMulticastGroup, 
-    										   					   this.secureMulticastChatSocket.getLocalPort());
-		
-		// Sends the final Datagram Packet through the (Secure) Multicast Chat Socket previously created
-		this.secureMulticastChatSocket.send(datagramPacketToBeSent);
-	} 
+				throw new IOException("The Operation Message it's too long to be sent!!!");
+			}
+			
+			int sizeOfOperationMessage = MulticastChatOperationMessageCodec.encode(this.operationMessageToBeSentBuffer, 0,
+																				   operationMessageCode, this.userUsername, textMessage);
+			
+			this.datagramPacketToBeSent.setData(this.operationMessageToBeSentBuffer, 0, sizeOfOperationMessage);
+			
+			// Sends the Datagram Packet through the (Secure) Multicast Chat Socket previously created
+			this.secureMulticastChatSocket.send(this.datagramPacketToBeSent);
+		}
+	}
 		
 	/**
 	 * Receives and processes a TEXT Operation Message on the (Secure) Multicast Chat with notification for
 	 * the other Participants' Event Listeners.
 	 * 
-	 * @param dataInputStream the Data Input Stream, containing the information of the User (Client),
+	 * @param operationMessageCodec the flyweight of the Operation Message received, containing the information of the User (Client),
 	 *        who sent the TEXT Operation Message on the (Secure) Multicast Chat
 	 * 
 	 * @param inetAddress the Inet Address of the User (Client),
@@ -357,20 +353,15 @@ public class MulticastChat extends Thread {
 	 * @throws IOException an Input/Output Exception to be thrown,
 	 *         in the case of an Input/Output error occurred
 	 */
-	protected void receiveAndProcessTextOperationMessage(DataInputStream dataInputStream,
+	protected void receiveAndProcessTextOperationMessage(MulticastChatOperationMessageCodec operationMessageCodec,
 														  InetAddress inetAddress, 
                                 						  int port) throws IOException {
 		
-		// The Username or Nickname of the User (Client) who sent the TEXT Operation Message to the (Secure) Multicast Chat 
-		String userUsername = dataInputStream.readUTF();
-		
-		// The real content of the TEXT Operation Message, which the User (Client) pretends to send
-		String textMessage = dataInputStream.readUTF();
-		
 		// Triggers the Event of TEXT of the User (Client) on the (Secure) Multicast Chat,
-		// in order to, notify all the other Participants' Event Listeners  
+		// in order to, notify all the other Participants' Event Listeners
+		// (being the Username and the Text Message only built, if requested by the Event Listener)
 		try {
-			this.secureMulticastChatEventListener.secureMulticastChatParticipantTextMessageReceived(userUsername, inetAddress, port, textMessage);
+			this.secureMulticastChatEventListener.secureMulticastChatParticipantTextMessageReceived(operationMessageCodec, inetAddress, port);
 		}
 		catch (Throwable throwableException) {
     		// Empty catch body
@@ -388,6 +379,9 @@ public class MulticastChat extends Thread {
 		
 		// The Datagram Packet to keep the information of the Operation Message received
 		DatagramPacket datagramPacketReceived = new DatagramPacket(datagramPacketReceivedBuffer, datagramPacketReceivedBuffer.length);
+		
+		// The flyweight of the Codec of the Operation Messages, reused for all the Operation Messages received
+		MulticastChatOperationMessageCodec operationMessageCodec = new MulticastChatOperationMessageCodec();
 
 		// The verification of the Datagram Packet related to the Operation Message received,
 		// it's only made if the boolean value of control to keep information about if
@@ -395,47 +389,48 @@ public class MulticastChat extends Thread {
 		while (this.isSecureMulticastChatActive) {
 			
 			try {
-				// Sets the length of the Datagram Packet to support the reception of the related data,
+				// Resets the offset and the length of the Datagram Packet to support the reception of the related data,
 				// before the effective reception of the Datagram Packet related to the Operation Message received
-				datagramPacketReceived.setData(new byte[CommonUtils.DEFAULT_MESSAGE_DATAGRAM_PACKET_RECEIVED_SIZE]);
+				// (i.e., the same buffer is reused for all the Operation Messages, since the Secure Multicast Socket
+				//  restores the Datagram Packet as a view of the Message, on that same buffer)
+				datagramPacketReceived.setData(datagramPacketReceivedBuffer);
 				
 				// The effective reception of the Datagram Packet related to the Operation Message received
 				this.secureMulticastChatSocket.receive(datagramPacketReceived);
 				
-				// The Data Input Stream to read all the data information contained in the Datagram Packet related to the Operation Message received
-				DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(datagramPacketReceived.getData(), 
-																							   datagramPacketReceived.getOffset(),
-																							   datagramPacketReceived.getLength()));
-				
-				// The (Secure) Multicast Chat Magic Number of the Operation Message received
-				long secureMulticastChatMagicNumber = dataInputStream.readLong();
+				// The Datagram Packets without any Message accepted by the Secure Multicast Socket are empty,
+				// so the bytes not verified are never decoded as an Operation Message
+				if(datagramPacketReceived.getLength() == 0) {
+					continue;
+				}
 				
-				// The verification of the Datagram Packet related to the Operation Message received
-				// only proceeds if the (Secure) Multicast Chat Magic Numbers of respectively both,
-				// the Operation Message and (Secure) Multicast Chat itself are different
-				if(secureMulticastChatMagicNumber != CommonUtils.SECURE_MULTICAST_CHAT_MAGIC_NUMBER) {
+				// The Operation Message received is decoded directly over the Datagram Packet received, by the flyweight of the Codec,
+				// only proceeding if the (Secure) Multicast Chat Magic Numbers of respectively both,
+				// the Operation Message and (Secure) Multicast Chat itself are equal
+				if(!operationMessageCodec.decode(datagramPacketReceived.getData(), datagramPacketReceived.getOffset(),
+												 datagramPacketReceived.getLength())) {
 					continue;
 				} 
 
-				// The code related to the 
-				int operationMessageCode = dataInputStream.readInt();
+				// The code related to the Operation Message received
+				int operationMessageCode = operationMessageCodec.getOperationMessageCode();
         
 				// The effective verification of the Datagram Packet related to the Operation Message received
 				switch (operationMessageCode) {
 				
 					// It's a TEXT Operation Message
 					case CommonUtils.JOIN_MESSAGE:
-						this.receiveAndProcessJoinOperationMessage(dataInputStream, datagramPacketReceived.getAddress(), datagramPacketReceived.getPort());
+						this.receiveAndProcessJoinOperationMessage(operationMessageCodec, datagramPacketReceived.getAddress(), datagramPacketReceived.getPort());
 						break;
 						
 					// It's a TEXT Operation Message
 					case CommonUtils.LEAVE_MESSAGE:
-						this.receiveAndProcessLeaveOperationMessage(dataInputStream, datagramPacketReceived.getAddress(), datagramPacketReceived.getPort());
+						this.receiveAndProcessLeaveOperationMessage(operationMessageCodec, datagramPacketReceived.getAddress(), datagramPacketReceived.getPort());
 						break;
 					
 					// It's a TEXT Operation Message
 					case CommonUtils.TEXT_MESSAGE:
-						this.receiveAndProcessTextOperationMessage(dataInputStream, datagramPacketReceived.getAddress(), datagramPacketReceived.getPort());
+						this.receiveAndProcessTextOperationMessage(operationMessageCodec, datagramPacketReceived.getAddress(), datagramPacketReceived.getPort());
 						break;
 					
 					// The default case (i.e., the Operation Message received it's not recognized by the (Secure) Multicast Chat Protocol)
@@ -0,0 +1,426 @@
+package multicast.chat;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.io.EOFException;
+import java.io.UTFDataFormatException;
+
+import multicast.common.CommonCodecs;
+import multicast.common.CommonUtils;
+
+/**
+ *
+ * Class for the Codec of the Operation Messages of the (Secure) Multicast Chat
+ * (i.e., [ Magic Number || Operation Message's Code || Username || Text Message (only in the TEXT Operation Messages) ]).
+ *
+ * The Operation Messages are encoded directly into a buffer given by the caller and decoded by a flyweight,
+ * directly over the buffer received, without any Data Output/Input Stream, being the Username and the Text Message
+ * only built as Strings when requested (i.e., by the Event Listeners which need them).
+ *
+ * NOTE:
+ * - The format is the same one of the Data Output/Input Streams (i.e., the Magic Number and the Code in Big Endian,
+ *   and the Strings in the modified UTF-8 of writeUTF, prefixed by their size in 2 bytes), so the Operation Messages
+ *   keep being compatible with the ones of the previous versions;
+ * - The flyweight is not thread-safe, being its views only valid until the next decoding, or until the buffer is reused;
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public class MulticastChatOperationMessageCodec {
+
+	// Invariants/Constants:
+	/**
+	 * The size of the Magic Number and of the Operation Message's Code serialized
+	 */
+	private static final int SIZE_OF_OPERATION_MESSAGE_HEADER = CommonUtils.LONG_LENGTH + CommonUtils.INTEGER_IN_BYTES_LENGTH;
+
+	/**
+	 * The maximum size of a String serialized (i.e., the greatest size in 2 bytes, as in writeUTF)
+	 */
+	private static final int MAX_SIZE_OF_STRING_SERIALIZED = 0xFFFF;
+
+	/**
+	 * The char replacing the malformed sequences of the Strings received
+	 */
+	private static final char REPLACEMENT_CHARACTER = '\uFFFD';
+
+
+	// Global Instance Variables:
+	/**
+	 * The buffer of the Operation Message decoded
+	 */
+	private byte[] operationMessageSerialized;
+
+	/**
+	 * The Operation Message's Code of the Operation Message decoded
+	 */
+	private int operationMessageCode;
+
+	/**
+	 * The offset and size of the Username serialized, in the buffer of the Operation Message decoded
+	 */
+	private int usernameOffset;
+	private int sizeOfUsername;
+
+	/**
+	 * The offset and size of the Text Message serialized, in the buffer of the Operation Message decoded
+	 * (-1, if the Operation Message decoded is not a TEXT Operation Message)
+	 */
+	private int textMessageOffset;
+	private int sizeOfTextMessage;
+
+	/**
+	 * The Username and the Text Message of the Operation Message decoded, only built when requested
+	 */
+	private String username;
+	private String textMessage;
+
+
+	// Methods:
+	/**
+	 * Returns the size of an Operation Message serialized, with the given Username and Text Message.
+	 *
+	 * @param username the Username of the User (Client) sending the Operation Message
+	 *
+	 * @param textMessage the Text Message (null, if it's not a TEXT Operation Message)
+	 *
+	 * @return the size of an Operation Message serialized, with the given Username and Text Message
+	 */
+	public static int sizeOfOperationMessage(String username, String textMessage) {
+		int sizeOfOperationMessage = SIZE_OF_OPERATION_MESSAGE_HEADER + CommonUtils.SHORT_LENGTH + sizeOfStringSerialized(username);
+
+		if(textMessage != null) {
+			sizeOfOperationMessage += CommonUtils.SHORT_LENGTH + sizeOfStringSerialized(textMessage);
+		}
+
+		return sizeOfOperationMessage;
+	}
+
+	/**
+	 * Encodes an Operation Message, with the given Code, Username and Text Message, in the given buffer, from the given offset.
+	 *
+	 * The buffer must have, at least, the number of bytes returned by {@link #sizeOfOperationMessage(String, String)},
+	 * from the given offset.
+	 *
+	 * @param buffer the buffer where the Operation Message will be encoded
+	 * @param offset the offset of the Operation Message, in the buffer
+	 *
+	 * @param operationMessageCode the Operation Message's Code
+	 *
+	 * @param username the Username of the User (Client) sending the Operation Message
+	 *
+	 * @param textMessage the Text Message (null, if it's not a TEXT Operation Message)
+	 *
+	 * @return the offset after the Operation Message encoded, in the buffer
+	 *
+	 * @throws UTFDataFormatException if the Username or the Text Message serialized are longer than 65535 bytes
+	 */
+	public static int encode(byte[] buffer, int offset, int operationMessageCode,
+							 String username, String textMessage) throws UTFDataFormatException {
+
+		offset = CommonCodecs.writeLong(buffer, offset, CommonUtils.SECURE_MULTICAST_CHAT_MAGIC_NUMBER);
+		offset = CommonCodecs.writeInt(buffer, offset, operationMessageCode);
+		offset = writeString(buffer, offset, username);
+
+		if(textMessage != null) {
+			offset = writeString(buffer, offset, textMessage);
+		}
+
+		return offset;
+	}
+
+	/**
+	 * Decodes the Operation Message received, in the given range of the given buffer,
+	 * computing the offsets of its Username and Text Message, without copying or building any of them.
+	 *
+	 * @param buffer the buffer of the Operation Message received
+	 * @param offset the offset of the Operation Message, in the buffer
+	 * @param length the size of the Operation Message received
+	 *
+	 * @return true if the Operation Message received has the Magic Number of the (Secure) Multicast Chat and false, otherwise
+	 *
+	 * @throws EOFException if the Operation Message received is shorter than its components
+	 */
+	public boolean decode(byte[] buffer, int offset, int length) throws EOFException {
+		int limit = offset + length;
+
+		this.operationMessageSerialized = buffer;
+		this.username = null;
+		this.textMessage = null;
+		this.textMessageOffset = -1;
+		this.sizeOfTextMessage = 0;
+
+		if(length < CommonUtils.LONG_LENGTH) {
+			throw new EOFException();
+		}
+
+		if(CommonCodecs.readLong(buffer, offset) != CommonUtils.SECURE_MULTICAST_CHAT_MAGIC_NUMBER) {
+			return false;
+		}
+
+		if(length < SIZE_OF_OPERATION_MESSAGE_HEADER) {
+			throw new EOFException();
+		}
+
+		this.operationMessageCode = CommonCodecs.readInt(buffer, offset + CommonUtils.LONG_LENGTH);
+
+		// The Operation Messages not recognized have no Username or Text Message to be read
+		if(this.operationMessageCode != CommonUtils.JOIN_MESSAGE && this.operationMessageCode != CommonUtils.LEAVE_MESSAGE &&
+		   this.operationMessageCode != CommonUtils.TEXT_MESSAGE) {
+
+			return true;
+		}
+
+		this.usernameOffset = readSizeOfString(buffer, offset + SIZE_OF_OPERATION_MESSAGE_HEADER, limit);
+		this.sizeOfUsername = CommonCodecs.readShort(buffer, this.usernameOffset - CommonUtils.SHORT_LENGTH) & 0xFFFF;
+
+		if(this.operationMessageCode == CommonUtils.TEXT_MESSAGE) {
+			this.textMessageOffset = readSizeOfString(buffer, this.usernameOffset + this.sizeOfUsername, limit);
+			this.sizeOfTextMessage = CommonCodecs.readShort(buffer, this.textMessageOffset - CommonUtils.SHORT_LENGTH) & 0xFFFF;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the Operation Message's Code of the Operation Message decoded.
+	 *
+	 * @return the Operation Message's Code of the Operation Message decoded
+	 */
+	public int getOperationMessageCode() {
+		return this.operationMessageCode;
+	}
+
+	/**
+	 * Returns the Username of the Operation Message decoded (i.e., a String is only built, the first time it's requested).
+	 *
+	 * @return the Username of the Operation Message decoded
+	 */
+	public String getUsername() {
+		if(this.username == null) {
+			this.username = readString(this.operationMessageSerialized, this.usernameOffset, this.sizeOfUsername);
+		}
+
+		return this.username;
+	}
+
+	/**
+	 * Returns the Text Message of the Operation Message decoded (i.e., a String is only built, the first time it's requested).
+	 *
+	 * @return the Text Message of the Operation Message decoded (null, if it's not a TEXT Operation Message)
+	 */
+	public String getTextMessage() {
+		if(this.textMessage == null && this.textMessageOffset >= 0) {
+			this.textMessage = readString(this.operationMessageSerialized, this.textMessageOffset, this.sizeOfTextMessage);
+		}
+
+		return this.textMessage;
+	}
+
+	/**
+	 * Returns the buffer of the Operation Message decoded, over which the views of the Username and Text Message are defined.
+	 *
+	 * @return the buffer of the Operation Message decoded
+	 */
+	public byte[] getOperationMessageSerialized() {
+		return this.operationMessageSerialized;
+	}
+
+	/**
+	 * Returns the offset of the Username serialized, in the buffer of the Operation Message decoded.
+	 *
+	 * @return the offset of the Username serialized, in the buffer of the Operation Message decoded
+	 */
+	public int getUsernameOffset() {
+		return this.usernameOffset;
+	}
+
+	/**
+	 * Returns the size of the Username serialized, in the buffer of the Operation Message decoded.
+	 *
+	 * @return the size of the Username serialized, in the buffer of the Operation Message decoded
+	 */
+	public int getSizeOfUsername() {
+		return this.sizeOfUsername;
+	}
+
+	/**
+	 * Returns the offset of the Text Message serialized, in the buffer of the Operation Message decoded.
+	 *
+	 * @return the offset of the Text Message serialized, in the buffer of the Operation Message decoded
+	 *         (-1, if it's not a TEXT Operation Message)
+	 */
+	public int getTextMessageOffset() {
+		return this.textMessageOffset;
+	}
+
+	/**
+	 * Returns the size of the Text Message serialized, in the buffer of the Operation Message decoded.
+	 *
+	 * @return the size of the Text Message serialized, in the buffer of the Operation Message decoded
+	 */
+	public int getSizeOfTextMessage() {
+		return this.sizeOfTextMessage;
+	}
+
+	/**
+	 * Returns the offset of the String serialized, whose size (in 2 bytes) is in the given offset of the given buffer,
+	 * verifying that it fits before the given limit.
+	 *
+	 * @param buffer the buffer where the String serialized is
+	 * @param offset the offset of the size of the String serialized, in the buffer
+	 * @param limit the limit of the Operation Message, in the buffer
+	 *
+	 * @return the offset of the String serialized, in the buffer
+	 *
+	 * @throws EOFException if the String serialized does not fit before the given limit
+	 */
+	private static int readSizeOfString(byte[] buffer, int offset, int limit) throws EOFException {
+		if(( offset + CommonUtils.SHORT_LENGTH ) > limit) {
+			throw new EOFException();
+		}
+
+		int sizeOfString = CommonCodecs.readShort(buffer, offset) & 0xFFFF;
+		int stringOffset = offset + CommonUtils.SHORT_LENGTH;
+
+		if(( stringOffset + sizeOfString ) > limit) {
+			throw new EOFException();
+		}
+
+		return stringOffset;
+	}
+
+	/**
+	 * Returns the size of a given String serialized, in the modified UTF-8 of writeUTF
+	 * (i.e., the char 0 in 2 bytes and each surrogate in 3 bytes), without its size in 2 bytes.
+	 *
+	 * @param string the String to be serialized
+	 *
+	 * @return the size of the given String serialized, in the modified UTF-8 of writeUTF
+	 */
+	private static int sizeOfStringSerialized(String string) {
+		int length = string.length();
+		int sizeOfStringSerialized = length;
+
+		for(int i = 0; i < length; i++) {
+			char character = string.charAt(i);
+
+			if(character >= 0x800) {
+				sizeOfStringSerialized += 2;
+			}
+			else if(character >= 0x80 || character == 0) {
+				sizeOfStringSerialized++;
+			}
+		}
+
+		return sizeOfStringSerialized;
+	}
+
+	/**
+	 * Writes a given String, prefixed by its size in 2 bytes, in the modified UTF-8 of writeUTF, in the given buffer,
+	 * from the given offset.
+	 *
+	 * @param buffer the buffer where the String will be written
+	 * @param offset the offset of the String, in the buffer
+	 * @param string the String to be written
+	 *
+	 * @return the offset after the String written, in the buffer
+	 *
+	 * @throws UTFDataFormatException if the String serialized is longer than 65535 bytes
+	 */
+	private static int writeString(byte[] buffer, int offset, String string) throws UTFDataFormatException {
+		int sizeOfStringSerialized = sizeOfStringSerialized(string);
+
+		if(sizeOfStringSerialized > MAX_SIZE_OF_STRING_SERIALIZED) {
+			throw new UTFDataFormatException("encoded string too long: " + sizeOfStringSerialized + " bytes");
+		}
+
+		offset = CommonCodecs.writeShort(buffer, offset, (short) sizeOfStringSerialized);
+
+		for(int i = 0, length = string.length(); i < length; i++) {
+			char character = string.charAt(i);
+
+			if(character > 0 && character < 0x80) {
+				buffer[offset++] = (byte) character;
+			}
+			else if(character < 0x800) {
+				buffer[offset++] = (byte) ( 0xC0 | ( character >> 6 ) );
+				buffer[offset++] = (byte) ( 0x80 | ( character & 0x3F ) );
+			}
+			else {
+				buffer[offset++] = (byte) ( 0xE0 | ( character >> 12 ) );
+				buffer[offset++] = (byte) ( 0x80 | ( ( character >> 6 ) & 0x3F ) );
+				buffer[offset++] = (byte) ( 0x80 | ( character & 0x3F ) );
+			}
+		}
+
+		return offset;
+	}
+
+	/**
+	 * Returns and reads the String, in the modified UTF-8 of writeUTF, in the given range of the given buffer
+	 * (being the malformed sequences replaced by the replacement char).
+	 *
+	 * @param buffer the buffer where the String will be read
+	 * @param offset the offset of the String, in the buffer
+	 * @param length the number of bytes of the String, in the buffer
+	 *
+	 * @return the String read
+	 */
+	private static String readString(byte[] buffer, int offset, int length) {
+		int limit = offset + length;
+		int i = offset;
+
+		// ASCII fast path (i.e., the most common case of the Usernames), where each byte is directly one char
+		while(i < limit && buffer[i] > 0) {
+			i++;
+		}
+
+		if(i == limit) {
+			return CommonCodecs.readString(buffer, offset, length);
+		}
+
+		char[] characters = new char[length];
+		int numCharacters = 0;
+
+		for(i = offset; i < limit; i++) {
+			int firstByte = buffer[i] & 0xFF;
+
+			if(firstByte < 0x80) {
+				characters[numCharacters++] = (char) firstByte;
+			}
+			else if(( firstByte & 0xE0 ) == 0xC0 && ( i + 1 ) < limit && ( buffer[i + 1] & 0xC0 ) == 0x80) {
+				characters[numCharacters++] = (char) ( ( ( firstByte & 0x1F ) << 6 ) | ( buffer[++i] & 0x3F ) );
+			}
+			else if(( firstByte & 0xF0 ) == 0xE0 && ( i + 2 ) < limit &&
+					( buffer[i + 1] & 0xC0 ) == 0x80 && ( buffer[i + 2] & 0xC0 ) == 0x80) {
+
+				characters[numCharacters++] = (char) ( ( ( firstByte & 0x0F ) << 12 ) | ( ( buffer[++i] & 0x3F ) << 6 ) |
+													   ( buffer[++i] & 0x3F ) );
+			}
+			else {
+				characters[numCharacters++] = REPLACEMENT_CHARACTER;
+			}
+		}
+
+		return new String(characters, 0, numCharacters);
+	}
+
+}
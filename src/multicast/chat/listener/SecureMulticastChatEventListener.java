@@ -19,10 +19,16 @@ package multicast.chat.listener;
 import java.net.InetAddress;
 import java.util.EventListener;
 
+import multicast.chat.MulticastChatOperationMessageCodec;
+
 /**
  * 
  * Interface for the Secure Multicast Chat Event Listener, extending the Event Listener.
  * 
+ * The Operation Messages received are first delivered as the flyweight of the Codec of the Operation Messages,
+ * being the Username and the Text Message only built as Strings by the default methods, which invoke the ones with Strings,
+ * so the Event Listeners which do not need them can override the former ones and never build any String.
+ * 
  * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
  * 
  * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
@@ -77,4 +83,59 @@ public interface SecureMulticastChatEventListener extends EventListener {
 	 void secureMulticastChatParticipantTextMessageReceived(String username, InetAddress hostInetAddress, int port, 
                              							    String textMessage);
 	 
+	/**
+	 * Method invoked when a User (Client) participant has joined, with the flyweight of the JOIN Operation Message received
+	 * (only valid during this invocation), building its Username, by default.
+	 * 
+	 * @param operationMessageCodec the flyweight of the JOIN Operation Message received
+	 * 
+	 * @param hostInetAddress the Host's Inet Address of the User (Client) participant,
+	 * 		  who wants to JOIN to the (Secure) Multicast Chat Socket
+	 * 
+	 * @param port the Port used by the User (Client) participant,
+	 * 		  who wants to JOIN to the (Secure) Multicast Chat Socket
+	 */
+	 default void secureMulticastChatParticipantJoined(MulticastChatOperationMessageCodec operationMessageCodec,
+			 										   InetAddress hostInetAddress, int port) {
+		 
+		 this.secureMulticastChatParticipantJoined(operationMessageCodec.getUsername(), hostInetAddress, port);
+	 }
+	 
+	/**
+	 * Method invoked when a User (Client) participant has left, with the flyweight of the LEAVE Operation Message received
+	 * (only valid during this invocation), building its Username, by default.
+	 * 
+	 * @param operationMessageCodec the flyweight of the LEAVE Operation Message received
+	 * 
+	 * @param hostInetAddress the Host's Inet Address of the User (Client) participant,
+	 * 		  who wants to LEAVE the (Secure) Multicast Chat Socket
+	 * 
+	 * @param port the Port used by the User (Client) participant,
+	 * 		  who wants to LEAVE the (Secure) Multicast Chat Socket
+	 */
+	 default void secureMulticastChatParticipantLeft(MulticastChatOperationMessageCodec operationMessageCodec,
+			 										 InetAddress hostInetAddress, int port) {
+		 
+		 this.secureMulticastChatParticipantLeft(operationMessageCodec.getUsername(), hostInetAddress, port);
+	 }
+	 
+	/**
+	 * Method invoked when a User (Client) participant has sent a normal message, with the flyweight of
+	 * the TEXT Operation Message received (only valid during this invocation), building its Username and Text Message, by default.
+	 * 
+	 * @param operationMessageCodec the flyweight of the TEXT Operation Message received
+	 * 
+	 * @param hostInetAddress the Host's Inet Address of the User (Client) participant,
+	 * 		  who sent a TEXT message to the (Secure) Multicast Chat Socket
+	 * 
+	 * @param port the Port used by the User (Client) participant,
+	 * 		  who sent a TEXT message to the (Secure) Multicast Chat Socket
+	 */
+	 default void secureMulticastChatParticipantTextMessageReceived(MulticastChatOperationMessageCodec operationMessageCodec,
+			 														InetAddress hostInetAddress, int port) {
+		 
+		 this.secureMulticastChatParticipantTextMessageReceived(operationMessageCodec.getUsername(), hostInetAddress, port,
+				 												operationMessageCodec.getTextMessage());
+	 }
+	 
 }
\ No newline at end of file
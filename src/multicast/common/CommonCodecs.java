@@ -0,0 +1,375 @@
+package multicast.common;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ *
+ * Class for the Common Codecs of the Secure Multicast Chat Protocol.
+ *
+ * The Short, Integer and Long Numbers are read and written directly at a given offset of an existing Byte Array,
+ * in a fixed byte order (i.e., the network order, or the native order of the VERSION_01 format),
+ * and the Strings are encoded in UTF-8 (with a fast path for the ASCII characters), so nothing is allocated,
+ * besides the Strings decoded.
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public final class CommonCodecs {
+
+	// Invariants/Constants:
+	/**
+	 * The boolean value to keep the information about if the native order is the network order (i.e., big-endian)
+	 */
+	private static final boolean IS_NATIVE_ORDER_NETWORK_ORDER = ( ByteOrder.nativeOrder() == CommonUtils.NETWORK_BYTE_ORDER );
+
+	/**
+	 * The Character used to replace the unpaired surrogates, when encoded in UTF-8 (as done by the Standard Charsets)
+	 */
+	private static final byte UTF8_REPLACEMENT_BYTE = (byte) '?';
+
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - The Common Codecs are only accessed statically.
+	 */
+	private CommonCodecs() {
+	}
+
+
+
+	// Methods/Functions:
+	/**
+	 * Writes a given Short Number, in the network order, in a given Byte Array, from a given offset.
+	 *
+	 * @param bytes the Byte Array where the Short Number will be written
+	 * @param offset the offset of the Short Number, in the Byte Array
+	 * @param shortNumber the Short Number to be written
+	 *
+	 * @return the offset after the Short Number written, in the Byte Array
+	 */
+	public static int writeShort(byte[] bytes, int offset, short shortNumber) {
+		bytes[offset] = (byte) ( shortNumber >> 8 );
+		bytes[offset + 1] = (byte) shortNumber;
+
+		return offset + CommonUtils.SHORT_LENGTH;
+	}
+
+	/**
+	 * Returns and reads the Short Number, in the network order, in a given Byte Array, from a given offset.
+	 *
+	 * @param bytes the Byte Array where the Short Number will be read
+	 * @param offset the offset of the Short Number, in the Byte Array
+	 *
+	 * @return the Short Number read
+	 */
+	public static short readShort(byte[] bytes, int offset) {
+		return (short) ( ( bytes[offset] << 8 ) | ( bytes[offset + 1] & 0xFF ) );
+	}
+
+	/**
+	 * Writes a given Integer Number, in the network order, in a given Byte Array, from a given offset.
+	 *
+	 * @param bytes the Byte Array where the Integer Number will be written
+	 * @param offset the offset of the Integer Number, in the Byte Array
+	 * @param integerNumber the Integer Number to be written
+	 *
+	 * @return the offset after the Integer Number written, in the Byte Array
+	 */
+	public static int writeInt(byte[] bytes, int offset, int integerNumber) {
+		bytes[offset] = (byte) ( integerNumber >> 24 );
+		bytes[offset + 1] = (byte) ( integerNumber >> 16 );
+		bytes[offset + 2] = (byte) ( integerNumber >> 8 );
+		bytes[offset + 3] = (byte) integerNumber;
+
+		return offset + CommonUtils.INTEGER_IN_BYTES_LENGTH;
+	}
+
+	/**
+	 * Returns and reads the Integer Number, in the network order, in a given Byte Array, from a given offset.
+	 *
+	 * @param bytes the Byte Array where the Integer Number will be read
+	 * @param offset the offset of the Integer Number, in the Byte Array
+	 *
+	 * @return the Integer Number read
+	 */
+	public static int readInt(byte[] bytes, int offset) {
+		return ( bytes[offset] << 24 ) | ( ( bytes[offset + 1] & 0xFF ) << 16 ) |
+			   ( ( bytes[offset + 2] & 0xFF ) << 8 ) | ( bytes[offset + 3] & 0xFF );
+	}
+
+	/**
+	 * Writes a given Long Number, in the network order, in a given Byte Array, from a given offset.
+	 *
+	 * @param bytes the Byte Array where the Long Number will be written
+	 * @param offset the offset of the Long Number, in the Byte Array
+	 * @param longNumber the Long Number to be written
+	 *
+	 * @return the offset after the Long Number written, in the Byte Array
+	 */
+	public static int writeLong(byte[] bytes, int offset, long longNumber) {
+		for(int i = ( CommonUtils.LONG_LENGTH - 1 ); i >= 0; i--) {
+			bytes[offset + i] = (byte) longNumber;
+			longNumber >>= 8;
+		}
+
+		return offset + CommonUtils.LONG_LENGTH;
+	}
+
+	/**
+	 * Returns and reads the Long Number, in the network order, in a given Byte Array, from a given offset.
+	 *
+	 * @param bytes the Byte Array where the Long Number will be read
+	 * @param offset the offset of the Long Number, in the Byte Array
+	 *
+	 * @return the Long Number read
+	 */
+	public static long readLong(byte[] bytes, int offset) {
+		long longNumber = 0;
+
+		for(int i = 0; i < CommonUtils.LONG_LENGTH; i++) {
+			longNumber = ( longNumber << 8 ) | ( bytes[offset + i] & 0xFF );
+		}
+
+		return longNumber;
+	}
+
+	/**
+	 * Writes a given Short Number, in the native order (i.e., the one of the VERSION_01 format),
+	 * in a given Byte Array, from a given offset.
+	 *
+	 * @param bytes the Byte Array where the Short Number will be written
+	 * @param offset the offset of the Short Number, in the Byte Array
+	 * @param shortNumber the Short Number to be written
+	 *
+	 * @return the offset after the Short Number written, in the Byte Array
+	 */
+	public static int writeShortNativeOrder(byte[] bytes, int offset, short shortNumber) {
+		return writeShort(bytes, offset, IS_NATIVE_ORDER_NETWORK_ORDER ? shortNumber : Short.reverseBytes(shortNumber));
+	}
+
+	/**
+	 * Returns and reads the Short Number, in the native order (i.e., the one of the VERSION_01 format),
+	 * in a given Byte Array, from a given offset.
+	 *
+	 * @param bytes the Byte Array where the Short Number will be read
+	 * @param offset the offset of the Short Number, in the Byte Array
+	 *
+	 * @return the Short Number read
+	 */
+	public static short readShortNativeOrder(byte[] bytes, int offset) {
+		short shortNumber = readShort(bytes, offset);
+
+		return IS_NATIVE_ORDER_NETWORK_ORDER ? shortNumber : Short.reverseBytes(shortNumber);
+	}
+
+	/**
+	 * Writes a given Integer Number, in the native order (i.e., the one of the VERSION_01 format),
+	 * in a given Byte Array, from a given offset.
+	 *
+	 * @param bytes the Byte Array where the Integer Number will be written
+	 * @param offset the offset of the Integer Number, in the Byte Array
+	 * @param integerNumber the Integer Number to be written
+	 *
+	 * @return the offset after the Integer Number written, in the Byte Array
+	 */
+	public static int writeIntNativeOrder(byte[] bytes, int offset, int integerNumber) {
+		return writeInt(bytes, offset, IS_NATIVE_ORDER_NETWORK_ORDER ? integerNumber : Integer.reverseBytes(integerNumber));
+	}
+
+	/**
+	 * Returns and reads the Integer Number, in the native order (i.e., the one of the VERSION_01 format),
+	 * in a given Byte Array, from a given offset.
+	 *
+	 * @param bytes the Byte Array where the Integer Number will be read
+	 * @param offset the offset of the Integer Number, in the Byte Array
+	 *
+	 * @return the Integer Number read
+	 */
+	public static int readIntNativeOrder(byte[] bytes, int offset) {
+		int integerNumber = readInt(bytes, offset);
+
+		return IS_NATIVE_ORDER_NETWORK_ORDER ? integerNumber : Integer.reverseBytes(integerNumber);
+	}
+
+	/**
+	 * Writes a given Long Number, in the native order (i.e., the one of the VERSION_01 format),
+	 * in a given Byte Array, from a given offset.
+	 *
+	 * @param bytes the Byte Array where the Long Number will be written
+	 * @param offset the offset of the Long Number, in the Byte Array
+	 * @param longNumber the Long Number to be written
+	 *
+	 * @return the offset after the Long Number written, in the Byte Array
+	 */
+	public static int writeLongNativeOrder(byte[] bytes, int offset, long longNumber) {
+		return writeLong(bytes, offset, IS_NATIVE_ORDER_NETWORK_ORDER ? longNumber : Long.reverseBytes(longNumber));
+	}
+
+	/**
+	 * Returns and reads the Long Number, in the native order (i.e., the one of the VERSION_01 format),
+	 * in a given Byte Array, from a given offset.
+	 *
+	 * @param bytes the Byte Array where the Long Number will be read
+	 * @param offset the offset of the Long Number, in the Byte Array
+	 *
+	 * @return the Long Number read
+	 */
+	public static long readLongNativeOrder(byte[] bytes, int offset) {
+		long longNumber = readLong(bytes, offset);
+
+		return IS_NATIVE_ORDER_NETWORK_ORDER ? longNumber : Long.reverseBytes(longNumber);
+	}
+
+	/**
+	 * Returns the number of bytes of a given String, encoded in UTF-8.
+	 *
+	 * @param string a given String
+	 *
+	 * @return the number of bytes of a given String, encoded in UTF-8
+	 */
+	public static int sizeOfStringSerialized(String string) {
+		int length = string.length();
+		int sizeOfStringSerialized = length;
+
+		for(int i = 0; i < length; i++) {
+			char character = string.charAt(i);
+
+			if(character >= 0x80) {
+				if(character < 0x800) {
+					sizeOfStringSerialized += 1;
+				}
+				else if(Character.isHighSurrogate(character) && ( ( i + 1 ) < length ) &&
+						Character.isLowSurrogate(string.charAt(i + 1))) {
+
+					// A surrogate pair (i.e., 2 chars) takes 4 bytes
+					sizeOfStringSerialized += 2;
+					i++;
+				}
+				else if(!Character.isSurrogate(character)) {
+					sizeOfStringSerialized += 2;
+				}
+			}
+		}
+
+		return sizeOfStringSerialized;
+	}
+
+	/**
+	 * Writes a given String, encoded in UTF-8, in a given Byte Array, from a given offset
+	 * (being the unpaired surrogates replaced by '?', as done by the Standard Charsets).
+	 *
+	 * The Byte Array must have, at least, the number of bytes returned by {@link #sizeOfStringSerialized(String)},
+	 * from the given offset.
+	 *
+	 * @param bytes the Byte Array where the String will be written
+	 * @param offset the offset of the String, in the Byte Array
+	 * @param string the String to be written
+	 *
+	 * @return the offset after the String written, in the Byte Array
+	 */
+	public static int writeString(byte[] bytes, int offset, String string) {
+		int length = string.length();
+		int i = 0;
+
+		// ASCII fast path, until the first non-ASCII character
+		for(char character; ( i < length ) && ( ( character = string.charAt(i) ) < 0x80 ); i++) {
+			bytes[offset++] = (byte) character;
+		}
+
+		for(; i < length; i++) {
+			char character = string.charAt(i);
+
+			if(character < 0x80) {
+				bytes[offset++] = (byte) character;
+			}
+			else if(character < 0x800) {
+				bytes[offset++] = (byte) ( 0xC0 | ( character >> 6 ) );
+				bytes[offset++] = (byte) ( 0x80 | ( character & 0x3F ) );
+			}
+			else if(Character.isSurrogate(character)) {
+				if(Character.isHighSurrogate(character) && ( ( i + 1 ) < length ) &&
+				   Character.isLowSurrogate(string.charAt(i + 1))) {
+
+					int codePoint = Character.toCodePoint(character, string.charAt(++i));
+
+					bytes[offset++] = (byte) ( 0xF0 | ( codePoint >> 18 ) );
+					bytes[offset++] = (byte) ( 0x80 | ( ( codePoint >> 12 ) & 0x3F ) );
+					bytes[offset++] = (byte) ( 0x80 | ( ( codePoint >> 6 ) & 0x3F ) );
+					bytes[offset++] = (byte) ( 0x80 | ( codePoint & 0x3F ) );
+				}
+				else {
+					bytes[offset++] = UTF8_REPLACEMENT_BYTE;
+				}
+			}
+			else {
+				bytes[offset++] = (byte) ( 0xE0 | ( character >> 12 ) );
+				bytes[offset++] = (byte) ( 0x80 | ( ( character >> 6 ) & 0x3F ) );
+				bytes[offset++] = (byte) ( 0x80 | ( character & 0x3F ) );
+			}
+		}
+
+		return offset;
+	}
+
+	/**
+	 * Returns and reads the String, encoded in UTF-8, in the given range of a given Byte Array
+	 * (being the malformed sequences replaced, as done by the Standard Charsets).
+	 *
+	 * @param bytes the Byte Array where the String will be read
+	 * @param offset the offset of the String, in the Byte Array
+	 * @param length the number of bytes of the String, in the Byte Array
+	 *
+	 * @return the String read
+	 */
+	public static String readString(byte[] bytes, int offset, int length) {
+		int limit = offset + length;
+
+		// ASCII fast path (i.e., the most common case of the Usernames and of the Sessions' IDs),
+		// where each byte is directly one char
+		for(int i = offset; i < limit; i++) {
+			if(bytes[i] < 0) {
+				return new String(bytes, offset, length, StandardCharsets.UTF_8);
+			}
+		}
+
+		return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Returns and converts a Byte Array, from a given String, encoded in UTF-8.
+	 *
+	 * @param string a given String to be converted
+	 *
+	 * @return and converts a Byte Array, from a given String, encoded in UTF-8
+	 */
+	public static byte[] fromStringToByteArray(String string) {
+		byte[] stringSerialized = new byte[sizeOfStringSerialized(string)];
+
+		writeString(stringSerialized, 0, string);
+
+		return stringSerialized;
+	}
+
+}
@@ -16,7 +16,6 @@ package multicast.common;
  * 
  */
 
-import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
@@ -52,16 +51,39 @@ public class CommonUtils {
 	public static final int FRAME_WINDOW_SECURE_MULTICAST_CHAT_HEIGHT = 300;
 	
 	/**
-	 * The current version of the Secure Messages' Protocol
+	 * The current version of the Secure Messages' Protocol (i.e., the default one of the Sessions)
 	 */
 	public static final byte CURRENT_VERSION_PROTOCOL = VersionNumber.VERSION_01.getVersionNumber();
 	
+	/**
+	 * The byte order of the integers of the compact Secure Messages' Protocol (i.e., the VERSION_02 format),
+	 * defined by the network (i.e., Big Endian), instead of the native one of each host
+	 */
+	public static final ByteOrder NETWORK_BYTE_ORDER = ByteOrder.BIG_ENDIAN;
+	
+	/**
+	 * The maximum number of bytes of a Variable-Length Integer (i.e., 7 bits per byte, for a non-negative Integer Number)
+	 */
+	public static final int VARIABLE_LENGTH_INTEGER_MAX_LENGTH = 5;
+	
 	/**
 	 * The default length of the buffer to keep the data of the Datagram Packet received,
 	 * related to the Operation Messages 
 	 */
 	public static final int DEFAULT_MESSAGE_DATAGRAM_PACKET_RECEIVED_SIZE = 65508;
 	
+	/**
+	 * The default maximum size of the From Peer's ID serialized, accepted in a Secure Message received
+	 * (i.e., when the MAXPEERID property of SMCP.conf is not defined for the Session)
+	 */
+	public static final int DEFAULT_MAX_SIZE_OF_FROM_PEER_ID_SERIALIZED = 256;
+	
+	/**
+	 * The default maximum size of the Message serialized, accepted in a Secure Message received
+	 * (i.e., when the MAXMESSAGE property of SMCP.conf is not defined for the Session)
+	 */
+	public static final int DEFAULT_MAX_SIZE_OF_MESSAGE_SERIALIZED = DEFAULT_MESSAGE_DATAGRAM_PACKET_RECEIVED_SIZE;
+	
 	/**
 	 * The Number of Components, contained in the Meta Header
 	 */
@@ -110,7 +132,7 @@ public class CommonUtils {
 	/**
 	 * The Total Length of a Long
 	 */
-	public static final int LONG_LENGTH = 6;
+	public static final int LONG_LENGTH = 8;
 	
 	/**
 	 * The ID of the JOIN Operation Message to the (Secure) Multicast Chat
@@ -145,6 +167,17 @@ public class CommonUtils {
 	 */
 	public static final int DEFAULT_SECURE_MULTICAST_SOCKET_TIMEOUT_MILLIS = 5000;
 	
+	/**
+	 * The interval of time (in milliseconds) between two reports of the Secure Messages rejected by the same reason
+	 * (being the ones rejected in the meanwhile only counted)
+	 */
+	public static final long REJECTIONS_REPORT_INTERVAL = 1000;
+	
+	/**
+	 * The duration of each tick of the Timing Wheel shared by all the Secure Multicast Sockets (in milliseconds)
+	 */
+	public static final long TIMING_WHEEL_TICK_DURATION = 100;
+	
 	/**
 	 * The Rate Time for verification of the Cleaning Random Nonces Service
 	 */
@@ -155,6 +188,37 @@ public class CommonUtils {
 	 */
 	public static final long RANDOM_NONCES_CLEANING_TIMEOUT = 600000;
 	
+	/**
+	 * The default hard cap of the memory footprint of the state against replaying of each Secure Multicast Socket
+	 * (i.e., of its tables of the Random Nonces and of the Peers, in bytes),
+	 * when the REPLAYMEMORY property of SMCP.conf is not defined for the Session
+	 * (i.e., enough to keep the Random Nonces of the default rate, during their timeout)
+	 */
+	public static final int DEFAULT_REPLAY_STATE_MAX_MEMORY_FOOTPRINT = 32 << 20;
+	
+	/**
+	 * The maximum percentage of the hard cap of the memory footprint of the state against replaying,
+	 * kept for the table of the Random Nonces (being the remaining for the table of the Peers)
+	 */
+	public static final int RANDOM_NONCES_MAX_MEMORY_FOOTPRINT_PERCENTAGE = 75;
+	
+	/**
+	 * The default rate of the Secure Messages received by each Secure Multicast Socket (i.e., per second),
+	 * for which its table of the Random Nonces is sized, when the NONCERATE property of SMCP.conf is not defined for the Session
+	 */
+	public static final int DEFAULT_RANDOM_NONCES_RATE = 2000;
+	
+	/**
+	 * The minimum hard cap of the memory footprint of the state against replaying of each Secure Multicast Socket
+	 */
+	public static final int MIN_REPLAY_STATE_MAX_MEMORY_FOOTPRINT = 1 << 18;
+	
+	/**
+	 * The interval of time of each generation of the Random Nonces and of the Peers (i.e., of their Sequence Numbers),
+	 * being the whole oldest generation dropped, once their timeout expired
+	 */
+	public static final long REPLAY_STATE_GENERATION_INTERVAL = 60000;
+	
 	/**
 	 * The Rate Time for verification of the Cleaning Sequence Numbers Service
 	 */
@@ -166,10 +230,21 @@ public class CommonUtils {
 	public static final long SEQUENCE_NUMBERS_CLEANING_TIMEOUT = 600000;
 	
 	/**
-	 * Maximum limit of what is acceptable as skipped sequence numbers
-	 * before the socket stops accepting a message
+	 * The default size of the Anti-Replay Window of each Peer (i.e., the number of Sequence Numbers,
+	 * up to the highest one received, which are still accepted out of order), when the REPLAYWINDOW property
+	 * of SMCP.conf is not defined for the Session
 	 */
-	public static final int SEQUENCE_NUMBERS_SKIP_LIMIT = 10;
+	public static final int DEFAULT_ANTI_REPLAY_WINDOW_SIZE = 256;
+	
+	/**
+	 * The minimum size of the Anti-Replay Window of each Peer
+	 */
+	public static final int MIN_ANTI_REPLAY_WINDOW_SIZE = 64;
+	
+	/**
+	 * The maximum size of the Anti-Replay Window of each Peer
+	 */
+	public static final int MAX_ANTI_REPLAY_WINDOW_SIZE = 4096;
 	
 	
 	// Global Instance Variables:
@@ -202,8 +277,7 @@ public class CommonUtils {
 	public static byte[] fromShortToByteArray(short shortNumber) {
 		byte[] shortNumberSerialized = new byte[SHORT_LENGTH];
 		
-		ByteBuffer byteBuffer = ByteBuffer.wrap(shortNumberSerialized);
-		byteBuffer.order(ByteOrder.nativeOrder()).putShort(shortNumber);
+		CommonCodecs.writeShortNativeOrder(shortNumberSerialized, 0, shortNumber);
 		
 		return shortNumberSerialized;
 	}
@@ -218,8 +292,7 @@ public class CommonUtils {
 	public static byte[] fromIntToByteArray(int integerNumber) {
 		byte[] integerNumberSerialized = new byte[INTEGER_IN_BYTES_LENGTH];
 		
-		ByteBuffer byteBuffer = ByteBuffer.wrap(integerNumberSerialized);
-		byteBuffer.order(ByteOrder.nativeOrder()).putInt(integerNumber);
+		CommonCodecs.writeIntNativeOrder(integerNumberSerialized, 0, integerNumber);
 		
 		return integerNumberSerialized;
 	}
@@ -234,28 +307,20 @@ public class CommonUtils {
 	public static byte[] fromLongToByteArray(long longNumber) {
 		byte[] longNumberSerialized = new byte[LONG_LENGTH];
 		
-		ByteBuffer byteBuffer = ByteBuffer.wrap(longNumberSerialized);
-		byteBuffer.order(ByteOrder.nativeOrder()).putLong(longNumber);
+		CommonCodecs.writeLongNativeOrder(longNumberSerialized, 0, longNumber);
 		
 		return longNumberSerialized;
 	}
 	
 	/**
-     * Returns and converts a Byte Array, from a given String.
+     * Returns and converts a Byte Array, from a given String, encoded in UTF-8.
      * 
      * @param string a given String to be converted
      * 
-     * @return and converts a Byte Array, from a given String
+     * @return and converts a Byte Array, from a given String, encoded in UTF-8
      */
     public static byte[] fromStringToByteArray(String string) {
-        byte[] bytes = new byte[string.length()];
-        char[] chars = string.toCharArray();
-        
-        for (int i = 0; i != chars.length; i++) {
-            bytes[i] = (byte) chars[i];
-        }
-        
-        return bytes;
+        return CommonCodecs.fromStringToByteArray(string);
     }
 	
     /**
@@ -277,10 +342,7 @@ public class CommonUtils {
      * @return and converts a Short Number, from a given Byte Array
      */
 	public static short fromByteArrayToShort(byte[] shortNumberByteArray) {
-		ByteBuffer byteBuffer = ByteBuffer.wrap(shortNumberByteArray);
-		short shortNumberDeserialized = byteBuffer.order(ByteOrder.nativeOrder()).getShort();
-		
-		return shortNumberDeserialized;
+		return CommonCodecs.readShortNativeOrder(shortNumberByteArray, 0);
 	}
 	
 	/**
@@ -291,10 +353,7 @@ public class CommonUtils {
      * @return and converts an Integer Number, from a given Byte Array
      */
 	public static int fromByteArrayToInt(byte[] integerNumberByteArray) {
-		ByteBuffer byteBuffer = ByteBuffer.wrap(integerNumberByteArray);
-		int integerNumberDeserialized = byteBuffer.order(ByteOrder.nativeOrder()).getInt();
-		
-		return integerNumberDeserialized;
+		return CommonCodecs.readIntNativeOrder(integerNumberByteArray, 0);
 	}
 	
 	/**
@@ -305,40 +364,102 @@ public class CommonUtils {
      * @return and converts a Long Number, from a given Byte Array
      */
 	public static long fromByteArrayToLong(byte[] longNumberByteArray) {
-		ByteBuffer byteBuffer = ByteBuffer.wrap(longNumberByteArray);
-		long longNumberDeserialized = byteBuffer.order(ByteOrder.nativeOrder()).getLong();
+		return CommonCodecs.readLongNativeOrder(longNumberByteArray, 0);
+	}
+	
+	/**
+     * Returns the number of bytes of the Variable-Length Integer of a given non-negative Integer Number
+     * (i.e., 7 bits per byte, from the least significant ones, being the most significant bit of each byte set,
+     *  if more bytes follow).
+     * 
+     * @param integerNumber a given non-negative Integer Number
+     * 
+     * @return the number of bytes of the Variable-Length Integer of a given non-negative Integer Number
+     */
+	public static int sizeOfVariableLengthInteger(int integerNumber) {
+		int sizeOfVariableLengthInteger = 1;
 		
-		return longNumberDeserialized;
+		while( ( integerNumber >>>= 7 ) != 0 ) {
+			sizeOfVariableLengthInteger++;
+		}
+		
+		return sizeOfVariableLengthInteger;
+	}
+	
+	/**
+     * Writes the Variable-Length Integer of a given non-negative Integer Number, in a given Byte Array,
+     * from a given offset.
+     * 
+     * @param bytes the Byte Array where the Variable-Length Integer will be written
+     * @param offset the offset of the Variable-Length Integer, in the Byte Array
+     * @param integerNumber a given non-negative Integer Number to be written
+     * 
+     * @return the offset after the Variable-Length Integer written, in the Byte Array
+     */
+	public static int writeVariableLengthInteger(byte[] bytes, int offset, int integerNumber) {
+		while( ( integerNumber & ~0x7F ) != 0 ) {
+			bytes[offset++] = (byte) ( ( integerNumber & 0x7F ) | 0x80 );
+			integerNumber >>>= 7;
+		}
+		
+		bytes[offset++] = (byte) integerNumber;
+		
+		return offset;
+	}
+	
+	/**
+     * Returns and reads the non-negative Integer Number of the Variable-Length Integer, in a given Byte Array,
+     * from a given offset, without reading beyond a given limit.
+     * 
+     * Only the shortest encoding of each Integer Number is accepted, so each one has only one representation.
+     * 
+     * @param bytes the Byte Array where the Variable-Length Integer will be read
+     * @param offset the offset of the Variable-Length Integer, in the Byte Array
+     * @param limit the offset (exclusive) beyond which the Byte Array can not be read
+     * 
+     * @return the non-negative Integer Number read (or -1, if the Variable-Length Integer it's not valid)
+     */
+	public static int readVariableLengthInteger(byte[] bytes, int offset, int limit) {
+		int integerNumber = 0;
+		
+		for(int shift = 0; ( shift < ( 7 * VARIABLE_LENGTH_INTEGER_MAX_LENGTH ) ) && ( offset < limit ); shift += 7) {
+			int variableLengthIntegerByte = bytes[offset++];
+			
+			integerNumber |= ( ( variableLengthIntegerByte & 0x7F ) << shift );
+			
+			if( ( variableLengthIntegerByte & 0x80 ) == 0 ) {
+				boolean isShortestEncoding = ( shift == 0 ) || ( variableLengthIntegerByte != 0 );
+				boolean isNonNegativeInteger = ( shift < 28 ) || ( ( variableLengthIntegerByte & 0x78 ) == 0 );
+				
+				return ( isShortestEncoding && isNonNegativeInteger ) ? integerNumber : -1;
+			}
+		}
+		
+		return -1;
 	}
 	
     /**
-     * Returns and converts a String, from a Byte Array of characters,
+     * Returns and converts a String, from a Byte Array of characters, encoded in UTF-8,
      * but given a Number of Bytes to be converted, which can't be
      * the Total Length of the Byte Array.
      * 
      * @param bytes the Byte Array to be converted
      * @param length the total Size/Length or Number of Bytes to be converted
      * 
-     * @return and converts a String, from a Byte Array of characters,
+     * @return and converts a String, from a Byte Array of characters, encoded in UTF-8,
      * 		   but given a Number of Bytes to be converted, which can't be
      *         the Total Length of the Byte Array
      */
     public static String fromByteArrayToString(byte[] bytes, int length) {
-        char[] chars = new char[length];
-        
-        for (int i = 0; i != chars.length; i++) {
-            chars[i] = (char)(bytes[i] & 0xff);
-        }
-        
-        return new String(chars);
+        return CommonCodecs.readString(bytes, 0, length);
     }
     
     /**
-     * Returns and converts a String, from a Byte Array of characters.
+     * Returns and converts a String, from a Byte Array of characters, encoded in UTF-8.
      * 
      * @param bytes the Byte Array to be converted
      * 
-     * @return and converts a String, from a Byte Array of Characters
+     * @return and converts a String, from a Byte Array of Characters, encoded in UTF-8
      */
     public static String fromByteArrayToString(byte[] bytes) {
         return fromByteArrayToString(bytes, bytes.length);
@@ -18,25 +18,27 @@ package multicast.sockets;
 
 import java.net.DatagramPacket;
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.MulticastSocket;
 import java.net.SocketTimeoutException;
-import java.security.SecureRandom;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import multicast.common.CommonUtils;
 import multicast.common.MessageType;
-import multicast.sockets.messages.FinalSecureMessage;
-import multicast.sockets.messages.components.FastSecureMessageCheck;
-import multicast.sockets.messages.components.SecureMessage;
-import multicast.sockets.messages.components.SecureMessageAttributes;
-import multicast.sockets.messages.components.SecureMessageHeader;
-import multicast.sockets.messages.components.SecureMessagePayload;
-import multicast.sockets.messages.utils.SecureMulticastChatSessionParameters;
-import multicast.sockets.messages.utils.SequenceNumberData;
+import multicast.common.VersionNumber;
+import multicast.sockets.messages.FinalSecureMessageDecoder;
+import multicast.sockets.messages.FinalSecureMessageEncoder;
+import multicast.sockets.messages.utils.SecureMulticastChatAntiReplayWindow;
+import multicast.sockets.messages.utils.SecureMulticastChatPeer;
+import multicast.sockets.messages.utils.SecureMulticastChatPeers;
+import multicast.sockets.messages.utils.SecureMulticastChatRandomNonces;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionCipherSuite;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionKeystreamGenerator;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionRejections.Rejection;
 import multicast.sockets.services.SecureMulticastSocketCleaningRandomNoncesService;
 import multicast.sockets.services.SecureMulticastSocketCleaningSequenceNumbersService;
+import multicast.sockets.services.SecureMulticastSocketTimingWheel;
 
 /**
  * 
@@ -62,9 +64,9 @@ public class SecureMulticastSocket extends MulticastSocket {
 	private int sequenceNumber;
 
 	/**
-	 * The Map of Sequence Numbers from the other clients
+	 * The table of the Peers (i.e., the other clients), keeping their Anti-Replay Windows
 	 */
-	private ConcurrentMap<String, SequenceNumberData> sequenceNumberMap;
+	private SecureMulticastChatPeers secureMulticastChatPeers;
 	
 	/**
 	 * The Secure Multicast Socket Cleaning Sequence Numbers Service
@@ -72,24 +74,27 @@ public class SecureMulticastSocket extends MulticastSocket {
 	private SecureMulticastSocketCleaningSequenceNumbersService secureMulticastSocketCleaningSequenceNumbersService;
 	
 	/**
-	 * Variable for accessing the Cleaning Sequence Numbers Service
+	 * The Timing Wheel shared by all the Secure Multicast Sockets, acquired by this one
+	 * (being it released, only once, when this one is closed)
 	 */
-	private Thread sequenceNumberCleaningThread;
+	private AtomicReference<SecureMulticastSocketTimingWheel> timingWheel;
 	
 	/**
-	 * The Secure Random seed, to generate Random Nonces
+	 * The Timer of the Cleaning Sequence Numbers Service, in the Timing Wheel of the Secure Multicast Sockets
 	 */
-	private SecureRandom secureRandom;
-
+	private SecureMulticastSocketTimingWheel.Timer sequenceNumberCleaningTimer;
+	
 	/**
 	 * The current Random Nonce, which will be sent or received
 	 */
 	private int randomNonce;
 
 	/**
-	 * The Map of Random Nonces
+	 * The table of the Random Nonces accepted, where the Random Nonce of each Secure Message accepted (in any format)
+	 * is kept, during the timeout of the Random Nonces, being it only checked for the first Secure Message of each Peer
+	 * (i.e., the Anti-Replay Windows of the Peers are the only gate against replaying, once they vouch for their Peers)
 	 */
-	private ConcurrentMap<Integer, Long> randomNoncesMap;
+	private SecureMulticastChatRandomNonces randomNonces;
 
 	/**
 	 * The Secure Multicast Socket Cleaning Random Nonces Service
@@ -97,15 +102,39 @@ public class SecureMulticastSocket extends MulticastSocket {
 	private SecureMulticastSocketCleaningRandomNoncesService secureMulticastSocketCleaningRandomNoncesService;
 
 	/**
-	 * Variable for accessing the Cleaning Random Nonces Service
+	 * The Timer of the Cleaning Random Nonces Service, in the Timing Wheel of the Secure Multicast Sockets
 	 */
-	private Thread randomNonceCleaningThread;
+	private SecureMulticastSocketTimingWheel.Timer randomNonceCleaningTimer;
 	
 	/**
-	 * The (Secure) Multicast Chat Session's Parameters,
+	 * The compiled Cipher Suite of the (Secure) Multicast Chat Session,
 	 * loaded from the User (Client) using this (Secure) Multicast Socket
 	 */
-	private SecureMulticastChatSessionParameters secureMulticastChatSessionParameters;
+	private SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite;
+
+	/**
+	 * The Keystream Generator of the (Secure) Multicast Chat Session, acquired by this Secure Multicast Socket
+	 * (null, if the Session does not keep a pool of keystreams precomputed)
+	 */
+	private SecureMulticastChatSessionKeystreamGenerator keystreamGenerator;
+
+	/**
+	 * The Final Secure Message's Encoder, writing the Final Secure Messages sent
+	 * in a single pass, into one buffer, reused for all of them
+	 */
+	private FinalSecureMessageEncoder finalSecureMessageEncoder;
+
+	/**
+	 * The Final Secure Message's Decoder, reading the Final Secure Messages received
+	 * directly over the buffer of the Datagram Packet received, without copying them
+	 */
+	private FinalSecureMessageDecoder finalSecureMessageDecoder;
+
+	/**
+	 * The Inet Address from which the Final Secure Message being decoded was received
+	 * (only kept while the Final Secure Message's Decoder is locked by the receiving process)
+	 */
+	private InetAddress inetAddressOfFinalSecureMessageReceived;
 
 	/**
 	 * The boolean value to keep the information about if
@@ -119,36 +148,83 @@ public class SecureMulticastSocket extends MulticastSocket {
 	/**
 	 * Constructor #1:
 	 * The constructor for the Secure Multicast Socket.
-	 * @param secureMulticastChatSessionParameters 
+	 * @param secureMulticastChatSessionCipherSuite the compiled Cipher Suite of the (Secure) Multicast Chat Session
 	 * 
 	 * @throws IOException an Input/Output Exception occurred
 	 */
 	public SecureMulticastSocket(String fromPeerID, int port,
-			SecureMulticastChatSessionParameters secureMulticastChatSessionParameters) throws IOException {
+			SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite) throws IOException {
 
 		super(port);
 
 		this.fromPeerID = fromPeerID;
 
-		this.secureRandom = new SecureRandom();
-		
-		this.sequenceNumberMap = new ConcurrentHashMap<>();
+		// The state against replaying is bounded by a hard cap of memory, being the table of the Random Nonces
+		// (capped, when it's built, but only allocated as the Secure Messages are received) sized for the rate
+		// of the Secure Messages received in the Session, up to 75% of that hard cap, and the remaining for the table of the Peers
+		long replayStateMaxMemoryFootprint = secureMulticastChatSessionCipherSuite.getReplayStateMaxMemoryFootprint();
+
+		int randomNoncesCapacityForRate =
+				SecureMulticastChatRandomNonces.getCapacityForRate(secureMulticastChatSessionCipherSuite.getRandomNoncesRate(),
+																   CommonUtils.RANDOM_NONCES_CLEANING_TIMEOUT,
+																   CommonUtils.REPLAY_STATE_GENERATION_INTERVAL);
+		int randomNoncesMaxCapacity =
+				SecureMulticastChatRandomNonces.getCapacity(( replayStateMaxMemoryFootprint *
+															  CommonUtils.RANDOM_NONCES_MAX_MEMORY_FOOTPRINT_PERCENTAGE ) / 100,
+															CommonUtils.RANDOM_NONCES_CLEANING_TIMEOUT,
+															CommonUtils.REPLAY_STATE_GENERATION_INTERVAL);
+
+		this.randomNonces = new SecureMulticastChatRandomNonces(Math.min(randomNoncesCapacityForRate, randomNoncesMaxCapacity),
+																CommonUtils.RANDOM_NONCES_CLEANING_TIMEOUT,
+																CommonUtils.REPLAY_STATE_GENERATION_INTERVAL);
+
+		if(randomNoncesMaxCapacity < randomNoncesCapacityForRate) {
+			System.err.println("The hard cap of the memory footprint of the state against replaying does not fit the rate of the Session:");
+			System.err.println("- The Random Nonces of the Secure Messages received above " +
+							   ( ( this.randomNonces.getGenerationCapacity() * 1000L ) / CommonUtils.REPLAY_STATE_GENERATION_INTERVAL ) +
+							   " per second will only be checked by the Anti-Replay Windows of their Peers!!!");
+		}
 
-		this.randomNoncesMap = new ConcurrentHashMap<>();
+		this.secureMulticastChatPeers = new SecureMulticastChatPeers(secureMulticastChatSessionCipherSuite.getAntiReplayWindowSize(),
+																	 CommonUtils.SEQUENCE_NUMBERS_CLEANING_TIMEOUT,
+																	 CommonUtils.REPLAY_STATE_GENERATION_INTERVAL,
+																	 replayStateMaxMemoryFootprint - this.randomNonces.getMemoryFootprint());
 
 		this.secureMulticastSocketCleaningSequenceNumbersService =
-				new SecureMulticastSocketCleaningSequenceNumbersService(sequenceNumberMap);
+				new SecureMulticastSocketCleaningSequenceNumbersService(this.secureMulticastChatPeers);
+		
+		// The Keystream Generator is shared by all the Secure Multicast Sockets of the Session (as its Cipher Suite),
+		// being it also released by this Secure Multicast Socket, when it's closed, with the Timing Wheel
+		this.keystreamGenerator = secureMulticastChatSessionCipherSuite.getKeystreamGenerator();
+
+		if(this.keystreamGenerator != null) {
+			this.keystreamGenerator.acquire();
+		}
+
+		// The Services are run by the Timing Wheel shared by all the Secure Multicast Sockets of the process,
+		// instead of sleeping in their own Threads, being it released by this Secure Multicast Socket, when it's closed
+		SecureMulticastSocketTimingWheel timingWheel = SecureMulticastSocketTimingWheel.acquire();
+		
+		this.timingWheel = new AtomicReference<>(timingWheel);
 		
-		sequenceNumberCleaningThread = new Thread(this.secureMulticastSocketCleaningSequenceNumbersService);
-		sequenceNumberCleaningThread.start();
+		this.sequenceNumberCleaningTimer =
+				timingWheel.scheduleAtFixedRate(this.secureMulticastSocketCleaningSequenceNumbersService,
+												CommonUtils.CLEANING_SEQUENCE_NUMBERS_SERVICE_VERIFICATION_RATE_TIME,
+												CommonUtils.CLEANING_SEQUENCE_NUMBERS_SERVICE_VERIFICATION_RATE_TIME);
 		
 		this.secureMulticastSocketCleaningRandomNoncesService = 
-				new SecureMulticastSocketCleaningRandomNoncesService(randomNoncesMap);
+				new SecureMulticastSocketCleaningRandomNoncesService(this.randomNonces);
 
-		randomNonceCleaningThread = new Thread(this.secureMulticastSocketCleaningRandomNoncesService);
-		randomNonceCleaningThread.start();
+		this.randomNonceCleaningTimer =
+				timingWheel.scheduleAtFixedRate(this.secureMulticastSocketCleaningRandomNoncesService,
+												CommonUtils.CLEANING_RANDOM_NONCES_SERVICE_VERIFICATION_RATE_TIME,
+												CommonUtils.CLEANING_RANDOM_NONCES_SERVICE_VERIFICATION_RATE_TIME);
 		
-		this.secureMulticastChatSessionParameters = secureMulticastChatSessionParameters;
+		this.secureMulticastChatSessionCipherSuite = secureMulticastChatSessionCipherSuite;
+		this.finalSecureMessageEncoder = new FinalSecureMessageEncoder(fromPeerID, secureMulticastChatSessionCipherSuite);
+		this.finalSecureMessageDecoder = new FinalSecureMessageDecoder(secureMulticastChatSessionCipherSuite);
+		this.finalSecureMessageDecoder.registerDecodingPath(VersionNumber.VERSION_02, MessageType.MESSAGE_TYPE_1,
+															this::decodeSecureDataMessageWithAntiReplay);
 		this.firstMessage = true;
 	}
 
@@ -163,12 +239,21 @@ public class SecureMulticastSocket extends MulticastSocket {
 	}
 
 	/**
-	 * Returns the Map of Random Nonces.
+	 * Returns the table of the Random Nonces accepted.
 	 * 
-	 * @return the Map of Random Nonces
+	 * @return the table of the Random Nonces accepted
 	 */
-	public Map<Integer, Long> getRandomNoncesMap() {
-		return this.randomNoncesMap;
+	public SecureMulticastChatRandomNonces getRandomNonces() {
+		return this.randomNonces;
+	}
+
+	/**
+	 * Returns the table of the Peers (i.e., the other clients), keeping their Anti-Replay Windows and statistics.
+	 * 
+	 * @return the table of the Peers (i.e., the other clients), keeping their Anti-Replay Windows and statistics
+	 */
+	public SecureMulticastChatPeers getSecureMulticastChatPeers() {
+		return this.secureMulticastChatPeers;
 	}
 
 	/**
@@ -190,6 +275,39 @@ public class SecureMulticastSocket extends MulticastSocket {
 		return this.firstMessage;
 	}	
 
+	/**
+	 * Closes the Secure Multicast Socket, cancelling the Timers of its Services, in the Timing Wheel,
+	 * and releasing the Timing Wheel and the Keystream Generator of the Session
+	 * (being them shut down, if this one was the last Secure Multicast Socket using them).
+	 */
+	@Override
+	public void close() {
+		
+		// The Timing Wheel is not acquired yet, if the Multicast Socket is closed while it's being built,
+		// being it only released once, even if the Secure Multicast Socket is closed more than once
+		SecureMulticastSocketTimingWheel timingWheel = ( this.timingWheel != null ) ? this.timingWheel.getAndSet(null) : null;
+		
+		if(timingWheel != null) {
+			
+			// The Timers are not scheduled yet, if the Secure Multicast Socket is closed while it's being built
+			if(this.sequenceNumberCleaningTimer != null) {
+				this.sequenceNumberCleaningTimer.cancel();
+			}
+			
+			if(this.randomNonceCleaningTimer != null) {
+				this.randomNonceCleaningTimer.cancel();
+			}
+			
+			timingWheel.release();
+
+			if(this.keystreamGenerator != null) {
+				this.keystreamGenerator.release();
+			}
+		}
+		
+		super.close();
+	}
+
 	/**
 	 * Sends a datagram packet after making the packet secure.
 	 * @param secureMessageDatagramPacketToSend the packet to secure and then send
@@ -197,109 +315,306 @@ public class SecureMulticastSocket extends MulticastSocket {
 	@Override
 	public void send(DatagramPacket secureMessageDatagramPacketToSend) {
 
-		this.randomNonce = secureRandom.nextInt();
-
-		sequenceNumber++;
+		// The buffer of the Final Secure Message's Encoder is reused, so only one Secure Message is encoded and sent at a time
+		synchronized(this.finalSecureMessageEncoder) {
+			
+			// The Random Nonce is carved from the buffered random bytes of the Session's Generator,
+			// so no SecureRandom is seeded or contended in the sending path
+			this.randomNonce = this.secureMulticastChatSessionCipherSuite.getIVGenerator().nextRandomNonce();
+
+			sequenceNumber++;
+
+			// The Final Secure Message is encoded in a single pass, directly into the buffer of the Encoder
+			byte[] messageToSend = secureMessageDatagramPacketToSend.getData();
+			int messageToSendOffset = secureMessageDatagramPacketToSend.getOffset();
+			int sizeOfMessageToSend = secureMessageDatagramPacketToSend.getLength();
+
+			int sizeOfFinalSecureMessageToSend = 
+					this.finalSecureMessageEncoder.encode(messageToSend, messageToSendOffset, sizeOfMessageToSend,
+														  this.sequenceNumber, this.randomNonce,
+														  MessageType.MESSAGE_TYPE_1.getMessageType());
+
+			if(sizeOfFinalSecureMessageToSend < 0) {
+				System.err.println("The Final Secure Message was not encoded:");
+				System.err.println("- The Secure Message will not be sent!!!");
+				return;
+			}
 
-		FinalSecureMessage finalSecureMessageToSend = new FinalSecureMessage(secureMessageDatagramPacketToSend,
-				this.fromPeerID, this.secureMulticastChatSessionParameters,
-				this.sequenceNumber, this.randomNonce,
-				MessageType.MESSAGE_TYPE_1.getMessageType());		
-		try {
-			finalSecureMessageToSend.buildFinalSecureMessageSerialized();
+			try {
+				secureMessageDatagramPacketToSend.setData(this.finalSecureMessageEncoder.getFinalSecureMessageSerialized(), 0,
+														  sizeOfFinalSecureMessageToSend);
 
-			byte[] finalSecureMessageToSendSerialized = finalSecureMessageToSend.getFinalSecureMessageSerialized();
-			secureMessageDatagramPacketToSend.setData(finalSecureMessageToSendSerialized);
+				super.send(secureMessageDatagramPacketToSend);
+			}
+			catch (IOException inputOutputException) {
+				System.err.println("Error occurred during the sending process of the Final Secure Message:");
+				System.err.println("- Input/Output error occurred!!!");
+				inputOutputException.printStackTrace();
+			}
+			finally {
+				// The Datagram Packet is restored with the Message, since the buffer of the Encoder is reused
+				secureMessageDatagramPacketToSend.setData(messageToSend, messageToSendOffset, sizeOfMessageToSend);
+			}
+		}
+	}
 
-			super.send(secureMessageDatagramPacketToSend);
+	/**
+	 * Decoding Path of the Secure Data Messages in the VERSION_02 format, where the Sequence Number, the Random Nonce
+	 * and the From Peer's ID are in clear (but authenticated), so the replayed Secure Messages are rejected
+	 * by the Anti-Replay Window of their Peer right after the Fast Secure Message Check,
+	 * before the Decipher of the Secure Message's Payload and the verification of its Integrity Control.
+	 * 
+	 * NOTE:
+	 * - The Anti-Replay Window is only read here, being only updated (and the Random Nonce only kept),
+	 *   by the receiving process, after the Secure Message was fully accepted,
+	 *   so a forged Secure Message can not make a legitimate one be rejected;
+	 * - The new Peers (i.e., not interned yet) are only interned by the receiving process, after the Secure Message
+	 *   was fully accepted, so a forged Secure Message can not add a Peer to the table;
+	 * 
+	 * @param finalSecureMessageDecoder the Final Secure Message's Decoder, positioned over the Final Secure Message received
+	 * 
+	 * @return true if the Final Secure Message received was accepted and false, otherwise
+	 */
+	private boolean decodeSecureDataMessageWithAntiReplay(FinalSecureMessageDecoder finalSecureMessageDecoder) {
+		
+		if(!finalSecureMessageDecoder.isFinalSecureMessageCheckValid()) {
+			return false;
 		}
-		catch (IOException inputOutputException) {
-			System.err.println("Error occurred during the sending process of the Final Secure Message:");
-			System.err.println("- Input/Output error occurred!!!");
-			inputOutputException.printStackTrace();
+		
+		SecureMulticastChatPeer peer =
+				this.secureMulticastChatPeers.find(finalSecureMessageDecoder.getFinalSecureMessageSerialized(),
+												   finalSecureMessageDecoder.getFromPeerIDOffset(),
+												   finalSecureMessageDecoder.getSizeOfFromPeerID());
+		
+		if(peer != null) {
+			SecureMulticastChatAntiReplayWindow antiReplayWindow = peer.getAntiReplayWindow();
+			int sequenceNumber = finalSecureMessageDecoder.getSequenceNumber();
+			
+			boolean isStale = antiReplayWindow.isStale(sequenceNumber);
+			
+			if(isStale || antiReplayWindow.isDuplicate(sequenceNumber)) {
+				
+				// In the Modes of Authenticated Encryption, the Secure Message is not authenticated yet (i.e., before its Decipher),
+				// so it's only counted by the Peer (and checked as a collision), if it was authenticated by the Fast Secure Message Check
+				if(!this.secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption()) {
+					this.rejectByAntiReplayWindow(peer, isStale, this.inetAddressOfFinalSecureMessageReceived);
+				}
+				else {
+					this.secureMulticastChatSessionCipherSuite.getRejections().reject(isStale ? Rejection.STALE_SEQUENCE_NUMBER :
+																									Rejection.DUPLICATE_SEQUENCE_NUMBER);
+				}
+				
+				return false;
+			}
+		}
+		
+		// The Random Nonce is only checked for the first Secure Message of a Peer (i.e., the one no Anti-Replay Window vouches for),
+		// since the Random Nonces of the other Peers would collide with the ones of its Secure Messages
+		if(( peer == null || peer.getNumSecureMessagesAccepted() == 0 ) &&
+		   this.randomNonces.contains(finalSecureMessageDecoder.getRandomNonce(), System.currentTimeMillis())) {
+			
+			this.secureMulticastChatSessionCipherSuite.getRejections().reject(Rejection.DUPLICATE_RANDOM_NONCE);
+			
+			return false;
 		}
+		
+		return finalSecureMessageDecoder.isSecureMessageAttributesValid() &&
+			   finalSecureMessageDecoder.buildSecureMessagePayloadDeciphered() &&
+			   finalSecureMessageDecoder.isSizeOfSecureMessagePayloadValid() &&
+			   finalSecureMessageDecoder.isIntegrityControlValid();
 	}
-
+	
+	/**
+	 * Rejects an authenticated Secure Message by the Anti-Replay Window of its Peer (i.e., stale or duplicated),
+	 * being it reported as a collision of From Peer's IDs, if it was received from another Inet Address than the one of its Peer
+	 * (i.e., since a Secure Message replayed is received from the Inet Address of its Peer, unless it's spoofed,
+	 * while a client with the same From Peer's ID numbers its Secure Messages from its own Sequence Number).
+	 * 
+	 * @param peer the Peer of the Secure Message
+	 * @param isStale true if the Sequence Number of the Secure Message is stale and false, if it's duplicated
+	 * @param inetAddress the Inet Address from which the Secure Message was received
+	 */
+	private void rejectByAntiReplayWindow(SecureMulticastChatPeer peer, boolean isStale, InetAddress inetAddress) {
+		
+		if(inetAddress != null && !inetAddress.equals(peer.getInetAddress())) {
+			this.secureMulticastChatSessionCipherSuite.getRejections().reject(Rejection.FROM_PEER_ID_COLLISION,
+																			  peer.getFromPeerID());
+		}
+		else {
+			this.secureMulticastChatSessionCipherSuite.getRejections().reject(isStale ? Rejection.STALE_SEQUENCE_NUMBER :
+																							Rejection.DUPLICATE_SEQUENCE_NUMBER);
+		}
+		
+		peer.secureMessageRejected();
+	}
+	
 	/**
 	 * Receives a secured datagram packet and tries to restore it to its original status
 	 * should no attempts at tampering hava ocurred.
+	 * 
+	 * The Final Secure Message received is decoded directly over the buffer of the Datagram Packet
+	 * (respecting its offset and length), being its Secure Message's Payload deciphered in place,
+	 * so, if it's accepted, the Datagram Packet is only restored as a view of the Message, on that same buffer.
+	 * 
+	 * NOTE:
+	 * - The Final Secure Messages rejected are never returned to the caller, being the next Datagram Packet received
+	 *   (with the offset and the length given by the caller), until one is accepted, or the timeout of the Socket expires
+	 *   (i.e., the timeout of the Socket is the one of the whole call, and not of each Datagram Packet received);
+	 * - If no Final Secure Message was accepted (i.e., the timeout expired, or an Input/Output error occurred),
+	 *   the length of the Datagram Packet is set to 0, so the bytes not verified are never handed to the caller;
+	 * 
 	 * @param secureMessageDatagramPacketReceived packet received to try to restore
+	 * 
+	 * @throws SocketTimeoutException if the timeout of the Socket expired, before any Final Secure Message was accepted
 	 */
 	@Override
-	public void receive(DatagramPacket secureMessageDatagramPacketReceived) {
-
-		try {
-			super.receive(secureMessageDatagramPacketReceived);
-		}
-		catch(SocketTimeoutException socketTimeoutException) {
-			//We don't need to do anything, it is expected behaviour
-			//so a loopback may be done.
-		}
-		catch (IOException inputOutputException) {
-			System.err.println("Error occurred during the receiving process of the Final Secure Message:");
-			System.err.println("- Input/Output error occurred!!!");
-			inputOutputException.printStackTrace();
-		}
+	public void receive(DatagramPacket secureMessageDatagramPacketReceived) throws IOException {
 		
-		long receiveTimestamp = System.currentTimeMillis();
-
-
-		FinalSecureMessage finalSecureMessage = new FinalSecureMessage(secureMessageDatagramPacketReceived, secureMulticastChatSessionParameters);
-		finalSecureMessage.buildFinalSecureMessageComponents();
+		byte[] buffer = secureMessageDatagramPacketReceived.getData();
+		int offset = secureMessageDatagramPacketReceived.getOffset();
+		int length = secureMessageDatagramPacketReceived.getLength();
 		
-		FastSecureMessageCheck fastSecureMessageCheck = finalSecureMessage.getFastSecureMessageCheck();
+		int timeout = this.getSoTimeout();
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		boolean isTimeoutShortened = false;
 		
-		if(fastSecureMessageCheck.isFastSecureMessageCheckValid()) {
-			SecureMessage secureMessage = finalSecureMessage.getSecureMessage();
-			secureMessage.buildSecureMessageComponents();
-			
-			SecureMessageHeader secureMessageHeader = secureMessage.getSecureMessageHeader();
-			secureMessageHeader.buildSecureMessageHeaderComponents();
-			
-			if(secureMessageHeader.isVersionNumberAndMessageTypeSupported()) {
-				SecureMessageAttributes secureMessageAttributes = secureMessage.getSecureMessageAttributes();
+		try {
+			while(true) {
+				try {
+					super.receive(secureMessageDatagramPacketReceived);
+				}
+				catch(SocketTimeoutException socketTimeoutException) {
+					// It is expected behaviour, so a loopback may be done by the caller,
+					// without decoding the (stale) data of a buffer which may be reused
+					secureMessageDatagramPacketReceived.setData(buffer, offset, 0);
+					
+					throw socketTimeoutException;
+				}
+				catch (IOException inputOutputException) {
+					System.err.println("Error occurred during the receiving process of the Final Secure Message:");
+					System.err.println("- Input/Output error occurred!!!");
+					inputOutputException.printStackTrace();
+					
+					secureMessageDatagramPacketReceived.setData(buffer, offset, 0);
+					
+					return;
+				}
 				
-				if(secureMessageAttributes.checkIfIsSecureMessageAttributesSerializedHashedValid()) {
-					SecureMessagePayload secureMessagePayload = secureMessage.getSecureMessagePayload();
-					secureMessagePayload.setIVBytes(finalSecureMessage.getIVBytes());
-					secureMessagePayload.buildSecureMessagePayloadSerializationSymmetricEncryptionDeciphered();
+				if(this.acceptFinalSecureMessage(secureMessageDatagramPacketReceived, System.currentTimeMillis())) {
+					return;
+				}
+				
+				// The Final Secure Message rejected is discarded, being the Datagram Packet restored,
+				// to receive the next one, only during the remaining time of the timeout of the Socket
+				secureMessageDatagramPacketReceived.setData(buffer, offset, length);
+				
+				if(timeout > 0) {
+					long remainingTimeout = deadline - System.nanoTime();
 					
-					if(secureMessagePayload.checkIfIsSecureMessagePayloadSerializedSizeValid()) {
-						secureMessagePayload.buildSecureMessagePayloadComponents();
+					if(remainingTimeout <= 0) {
+						secureMessageDatagramPacketReceived.setData(buffer, offset, 0);
 						
-						if(secureMessagePayload.checkIfIsIntegrityControlHashedSerializedValid()) {
-							
-							SequenceNumberData data = sequenceNumberMap.get(secureMessagePayload.getFromPeerID() +
-																		    ":" + secureMessageDatagramPacketReceived.getAddress().getHostAddress());
-							if(data == null) {
-								data = new SequenceNumberData(secureMessagePayload.getSequenceNumber(), receiveTimestamp);
-								sequenceNumberMap.put(secureMessagePayload.getFromPeerID() +
-									    			  ":"	+ secureMessageDatagramPacketReceived.getAddress().getHostAddress(),
-									    			  data);
-							}
-
-							if(secureMessagePayload.getSequenceNumber() < data.getSequenceNumber() ||
-							   secureMessagePayload.getSequenceNumber() >= data.getSequenceNumber() + CommonUtils.SEQUENCE_NUMBERS_SKIP_LIMIT) {
-								System.err.println("Not received a Secure Message with the expected Sequence Number:");
-								System.err.println("- The Secure Message will be ignored!!!");
-							}
-							else {
-								data.updateSequenceNumber(data.getSequenceNumber() + 1, receiveTimestamp);
-								int receivedRandomNonce = secureMessagePayload.getRandomNonce();
-
-								if(this.randomNoncesMap.containsKey(receivedRandomNonce)) {
-									System.err.println("Received a Secure Message with a duplicate Random Nonce, in a short period time:");
-									System.err.println("- The Secure Message will be ignored!!!");
-								}
-								else {
-									this.randomNoncesMap.put(receivedRandomNonce, System.currentTimeMillis());
-									secureMessageDatagramPacketReceived.setData(secureMessagePayload.getMessageSerialized());
-								}
-							}
-						}
+						throw new SocketTimeoutException("Receive timed out, without any Final Secure Message accepted");
 					}
+					
+					// The remaining timeout is rounded up, since a timeout of 0 would be an infinite one
+					super.setSoTimeout((int) Math.max(TimeUnit.NANOSECONDS.toMillis(remainingTimeout), 1));
+					isTimeoutShortened = true;
 				}
 			}
 		}
+		finally {
+			if(isTimeoutShortened) {
+				super.setSoTimeout(timeout);
+			}
+		}
 	}
+	
+	/**
+	 * Verifies the Final Secure Message received in the given Datagram Packet, restoring it as a view of the Message,
+	 * if it's accepted (i.e., decoded, verified and not replayed).
+	 * 
+	 * @param secureMessageDatagramPacketReceived the Datagram Packet received
+	 * @param receiveTimestamp the timestamp of the Datagram Packet received
+	 * 
+	 * @return true if the Final Secure Message received was accepted and false, otherwise
+	 */
+	private boolean acceptFinalSecureMessage(DatagramPacket secureMessageDatagramPacketReceived, long receiveTimestamp) {
+
+		synchronized(this.finalSecureMessageDecoder) {
+			
+			FinalSecureMessageDecoder finalSecureMessageDecoder = this.finalSecureMessageDecoder;
+			
+			this.inetAddressOfFinalSecureMessageReceived = secureMessageDatagramPacketReceived.getAddress();
+			
+			// The Decoding Path of the pair of Version Number and Message Type of the Final Secure Message received
+			// verifies it (and deciphers it, in place), before its Sequence Number is verified by the Anti-Replay Window of its Peer
+			if(!finalSecureMessageDecoder.decode(secureMessageDatagramPacketReceived.getData(),
+												 secureMessageDatagramPacketReceived.getOffset(),
+												 secureMessageDatagramPacketReceived.getLength())) {
+				
+				return false;
+			}
+			
+			int sequenceNumber = finalSecureMessageDecoder.getSequenceNumber();
+			
+			// The Peer is found by hashing its From Peer's ID directly over the buffer received,
+			// so no String is built to find its Anti-Replay Window
+			SecureMulticastChatPeer peer =
+					this.secureMulticastChatPeers.intern(finalSecureMessageDecoder.getFinalSecureMessageSerialized(),
+														 finalSecureMessageDecoder.getFromPeerIDOffset(),
+														 finalSecureMessageDecoder.getSizeOfFromPeerID(),
+														 secureMessageDatagramPacketReceived.getAddress(),
+														 sequenceNumber, receiveTimestamp);
+			
+			// The new Peers are rejected, while the table of the Peers is saturated
+			if(peer == null) {
+				this.secureMulticastChatSessionCipherSuite.getRejections().reject(Rejection.PEERS_SATURATED);
+				
+				return false;
+			}
+			
+			SecureMulticastChatAntiReplayWindow antiReplayWindow = peer.getAntiReplayWindow();
+
+			// The Sequence Numbers received out of order are accepted, while they are inside the window,
+			// being only rejected the stale and the duplicated ones
+			boolean isStale = antiReplayWindow.isStale(sequenceNumber);
+			
+			if(isStale || antiReplayWindow.isDuplicate(sequenceNumber)) {
+				this.rejectByAntiReplayWindow(peer, isStale, secureMessageDatagramPacketReceived.getAddress());
+				
+				return false;
+			}
+			
+			// The Random Nonce is checked and kept in one single atomic step, for the Secure Messages in any format,
+			// but it only gates the first Secure Message of a Peer (i.e., the one no Anti-Replay Window vouches for yet,
+			// as when its Peer was forgotten), since the 32 bits Random Nonces of all the Peers of the Session collide
+			// with each other, at a high rate, being the other ones accepted by the Anti-Replay Window of their Peer,
+			// even if their Random Nonces are duplicated or not kept (i.e., while the table of the Random Nonces is saturated)
+			SecureMulticastChatRandomNonces.AdditionResult additionResult =
+					this.randomNonces.add(finalSecureMessageDecoder.getRandomNonce(), receiveTimestamp);
+			
+			if(additionResult == SecureMulticastChatRandomNonces.AdditionResult.DUPLICATE &&
+			   peer.getNumSecureMessagesAccepted() == 0) {
+				
+				this.secureMulticastChatSessionCipherSuite.getRejections().reject(Rejection.DUPLICATE_RANDOM_NONCE);
+				
+				peer.secureMessageRejected();
+				
+				return false;
+			}
+			
+			antiReplayWindow.update(sequenceNumber, receiveTimestamp);
+			this.secureMulticastChatPeers.touch(peer, receiveTimestamp);
+			peer.secureMessageAccepted();
+			
+			// The Message deciphered is exposed as a view on the buffer received, without any copy
+			secureMessageDatagramPacketReceived.setData(finalSecureMessageDecoder.getFinalSecureMessageSerialized(),
+														finalSecureMessageDecoder.getMessageOffset(),
+														finalSecureMessageDecoder.getSizeOfMessage());
+			
+			return true;
+		}
+	}
+
 }
\ No newline at end of file
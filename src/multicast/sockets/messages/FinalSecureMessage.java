@@ -23,12 +23,20 @@ import multicast.sockets.messages.components.FastSecureMessageCheck;
 import multicast.sockets.messages.components.SecureMessage;
 import multicast.sockets.messages.components.SecureMessageMetaHeader;
 import multicast.sockets.messages.components.SecureMessagePayload;
-import multicast.sockets.messages.utils.SecureMulticastChatSessionParameters;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionBoundsValidator;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionBoundsValidator.RejectionReason;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionCipherSuite;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionRejections.Rejection;
 
 /**
  * 
  * Class for the Final Secure Message.
  * 
+ * In the Modes of Authenticated Encryption (i.e., AEAD), the Final Secure Message keeps the same framing,
+ * but the Secure Message's Payload is sealed in one call, authenticating the Secure Message's Meta-Header,
+ * Header, Attributes and size of the Payload as Associated Data, so no Integrity Control and
+ * no Fast Secure Message's Check are sent (i.e., their sizes are sent as 0, in the Secure Message's Meta-Header).
+ * 
  * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
  * 
  * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
@@ -37,6 +45,17 @@ import multicast.sockets.messages.utils.SecureMulticastChatSessionParameters;
  */
 public class FinalSecureMessage {
 	
+	// Invariants/Constants:
+	/**
+	 * The size of the Secure Message's Meta-Header serialized
+	 */
+	private static final int SIZE_OF_SECURE_MESSAGE_META_HEADER_SERIALIZED = 
+			( ( CommonUtils.NUM_COMPONENTS_META_HEADER * CommonUtils.INTEGER_IN_BYTES_LENGTH ) + 
+			  ( CommonUtils.META_HEADER_OUTSIDE_SEPARATORS * CommonUtils.META_HEADER_OUTSIDE_SEPARATORS_LENGTH ) + 
+			  ( CommonUtils.META_HEADER_INSIDE_SEPARATORS * CommonUtils.META_HEADER_INSIDE_SEPARATORS_LENGTH ) );
+	
+	
+	
 	// Global Instance Variables:
 	/**
 	 * The Secure Message's Meta-Header
@@ -57,54 +76,78 @@ public class FinalSecureMessage {
 	
 	/**
 	 * The Final Secure Message serialized
+	 * (i.e., the single buffer, where all the components of the Final Secure Message are written or were received)
 	 */
 	private byte[] finalSecureMessageSerialized;
 	
+	/**
+	 * The size of the Final Secure Message serialized, in its buffer
+	 */
+	private int sizeOfFinalSecureMessageSerialized;
+	
+	/**
+	 * The size of the ID of the User (Client) associated to the Message, serialized
+	 */
+	private int sizeOfFromPeerIDSerialized;
+	
 	/**
 	 * The boolean to keep the value to check if
 	 * the Final Secure Message is serialized
 	 */
 	private boolean isFinalSecureMessageSerialized;
 	
-	private SecureMulticastChatSessionParameters secureMulticastChatSessionParameters;
+	/**
+	 * The compiled Cipher Suite of the (Secure) Multicast Chat Session
+	 */
+	private SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite;
 	
 	private byte[] IVBytes;
 	
+	/**
+	 * The buffer of the Associated Data of the Final Secure Message received, in the Modes of Authenticated Encryption
+	 * (i.e., the Secure Message's Meta-Header, Header, Attributes and size of the Payload)
+	 */
+	private byte[] associatedData;
+	
+	/**
+	 * The size of the Associated Data of the Final Secure Message received, in the Modes of Authenticated Encryption
+	 */
+	private int sizeOfAssociatedData;
+	
+	/**
+	 * The boolean to keep the value to check if the Final Secure Message received
+	 * passed its first check (i.e., the Fast Secure Message's Check or, in the Modes of Authenticated Encryption,
+	 * the Secure Message's Attributes), before any copy of the Secure Message
+	 */
+	private boolean isFinalSecureMessageCheckValid;
+	
 	// Constructors:
 	/**
 	 * TODO
-	 * @param secureMulticastChatSessionParameters 
+	 * @param secureMulticastChatSessionCipherSuite 
 	 * 
 	 * @param datagramPacket
 	 * 
 	 * @param
 	 */
 	public FinalSecureMessage(DatagramPacket datagramPacketToBeSent,
-			                  String fromPeerID, SecureMulticastChatSessionParameters secureMulticastChatSessionParameters,
+			                  String fromPeerID, SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite,
 							  int sequenceNumber, int randomNonce, byte messageType) {
 		
 		// TODO confirmar
 
-		this.secureMulticastChatSessionParameters = secureMulticastChatSessionParameters;
+		this.secureMulticastChatSessionCipherSuite = secureMulticastChatSessionCipherSuite;
 		
 		this.secureMessage = new SecureMessage(datagramPacketToBeSent,
-				                               fromPeerID, this.secureMulticastChatSessionParameters,
+				                               fromPeerID, this.secureMulticastChatSessionCipherSuite,
 				                               sequenceNumber, randomNonce, messageType);
 		
-		this.secureMessage.buildSecureMessageSerialized();
-				
-		this.fastSecureMessageCheck = new FastSecureMessageCheck(this.secureMessage.getSecureMessageSerialized(), secureMulticastChatSessionParameters);
-		this.fastSecureMessageCheck.buildSecureMessageSerializedHashed();
-		SecureMessagePayload secureMessagePayload = this.secureMessage.getSecureMessagePayload();
-		this.IVBytes = secureMessagePayload.getIVBytes();
-		this.secureMessageMetaHeader = new SecureMessageMetaHeader(this.secureMessage.getSecureMessageHeader().getSecureMessageHeaderSerialized().length,
-																   this.secureMessage.getSecureMessageAttributes().getSecureMessageAttributesSerializedHashed().length, 
-																   this.secureMessage.getSecureMessagePayload().getSecureMessagePayloadSerializedCiphered().length,
-																   CommonUtils.fromStringToByteArray(fromPeerID).length,
-																   secureMessagePayload.getMessageSerialized().length,
-																   secureMessagePayload.getIntegrityControlSerialiazedHashed().length,
-																   this.fastSecureMessageCheck.getSecureMessageSerializedHashed().length,
-																   IVBytes.length);
+		// The Secure Message's Payload is only ciphered when the Final Secure Message is serialized,
+		// directly into its final position (in the Modes of Authenticated Encryption, since
+		// the Secure Message's Meta-Header is also part of its Associated Data)
+		this.secureMessage.buildSecureMessageComponentsToCipher();
+		
+		this.sizeOfFromPeerIDSerialized = CommonUtils.fromStringToByteArray(fromPeerID).length;
 		
 		this.isFinalSecureMessageSerialized = false;
 		
@@ -113,94 +156,141 @@ public class FinalSecureMessage {
 	/**
 	 * 
 	 * 
-	 * @param secureMulticastChatSessionParameters
+	 * @param secureMulticastChatSessionCipherSuite
 	 * @param datagramPacketToBeSent
 	 */
-	public FinalSecureMessage(DatagramPacket datagramPacketReceived, SecureMulticastChatSessionParameters secureMulticastChatSessionParameters) {
+	public FinalSecureMessage(DatagramPacket datagramPacketReceived, SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite) {
 		this.finalSecureMessageSerialized = datagramPacketReceived.getData();
-		this.secureMulticastChatSessionParameters = secureMulticastChatSessionParameters;
+		this.sizeOfFinalSecureMessageSerialized = datagramPacketReceived.getLength();
+		this.secureMulticastChatSessionCipherSuite = secureMulticastChatSessionCipherSuite;
 		this.isFinalSecureMessageSerialized = true;
 	}
 	
 	/**
-	 * Builds the several components of the Final Secure Message serialized.
+	 * Builds the several components of the Final Secure Message serialized,
+	 * in a single buffer, where the Secure Message's Payload is ciphered directly into its final position.
+	 * 
+	 * NOTE:
+	 * - In the Modes of Authenticated Encryption, the Secure Message's Meta-Header is filled before
+	 *   the Secure Message's Payload is sealed, since it's also part of its Associated Data;
+	 * - Otherwise, the Secure Message's Meta-Header is only filled after the Secure Message's Payload is ciphered,
+	 *   since the size of the Cipher Text is only known then (i.e., the space of the Secure Message's Meta-Header
+	 *   is reserved at the beginning of the buffer);
 	 */
 	public void buildFinalSecureMessageSerialized() {
 		
 		if(!this.isFinalSecureMessageSerialized) {
-						
-			// META-HEADER
 			
-			this.secureMessageMetaHeader.buildMessageMetaHeaderSerialized();
-			byte[] secureMessageMetaHeaderSerialized = 
-					this.secureMessageMetaHeader.getSecureMessageMetaHeaderSerialized();
-						
-			// SECURE MESSAGE
-			this.secureMessage.buildSecureMessageSerialized();
-			byte[] secureMessageSerialized = 
-					this.secureMessage.getSecureMessageSerialized();
+			SecureMessagePayload secureMessagePayload = this.secureMessage.getSecureMessagePayload();
 			
-			// FAST SECURE MESSAGE CHECK
-			this.fastSecureMessageCheck.buildSecureMessageSerializedHashed();
-			byte[] fastSecureMessageCheckSerializedHashed =
-					this.fastSecureMessageCheck.getSecureMessageSerializedHashed();
-			 
-			this.finalSecureMessageSerialized = new byte[( secureMessageMetaHeaderSerialized.length 
-													     + secureMessageSerialized.length 
-					                                     + fastSecureMessageCheckSerializedHashed.length 
-					                                     + this.IVBytes.length)];			
+			int sizeOfFastSecureMessageCheck = this.secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption() ?
+													0 : this.secureMulticastChatSessionCipherSuite.getMacEngine().getMacLength();
 			
-			// Operations to Fill a Byte Array, with the following parameters:
-			// 1) src - The source of the array to be copied
-			// 2) srcPos - The position from the array to be copied, representing the first element to be copied
-			// 3) dest - The destination of the array to be copied
-			// 4) destPos - The position of the array where will be placed the new copy,
-			//              representing the first element where new data will be placed
-			// 5) length - The length of the data to be copied from the source array to the destination array
+			// The single buffer of the Final Secure Message serialized, with the maximum size of all its components
+			this.finalSecureMessageSerialized = new byte[( SIZE_OF_SECURE_MESSAGE_META_HEADER_SERIALIZED
+														 + this.secureMessage.getMaxSizeOfSecureMessageSerialized()
+														 + sizeOfFastSecureMessageCheck
+														 + this.secureMulticastChatSessionCipherSuite.getIVLength() )];
 			
 			// The offset related to fulfillment of the serialization process
-			int serializationOffset = 0;
+			int serializationOffset = SIZE_OF_SECURE_MESSAGE_META_HEADER_SERIALIZED;
 			
-			// Fills the byte array of the Final Secure Message with the Secure Message's Meta-Header,
-			// From the initial position to the corresponding to the length of Secure Message's Meta-Header
-			System.arraycopy(secureMessageMetaHeaderSerialized, 0,
-							 this.finalSecureMessageSerialized, serializationOffset, secureMessageMetaHeaderSerialized.length);
-			serializationOffset += secureMessageMetaHeaderSerialized.length;
+			if(this.secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption()) {
+				
+				// META-HEADER
+				this.buildSecureMessageMetaHeaderSerialized(secureMessagePayload.getSizeOfSecureMessagePayloadSerializedSealed(), 0, 0);
+				
+				// SECURE MESSAGE (sealed directly after its Associated Data)
+				this.secureMessage.buildSecureMessageSerialized(this.finalSecureMessageSerialized, serializationOffset);
+				serializationOffset += this.secureMessage.getSizeOfSecureMessageSerialized();
+			}
+			else {
+				
+				// SECURE MESSAGE (ciphered directly into its final position)
+				this.secureMessage.buildSecureMessageSerialized(this.finalSecureMessageSerialized, serializationOffset);
+				int sizeOfSecureMessageSerialized = this.secureMessage.getSizeOfSecureMessageSerialized();
+				
+				// FAST SECURE MESSAGE CHECK
+				this.fastSecureMessageCheck = new FastSecureMessageCheck(this.finalSecureMessageSerialized,
+																		 serializationOffset, sizeOfSecureMessageSerialized,
+																		 this.secureMulticastChatSessionCipherSuite);
+				this.fastSecureMessageCheck.buildSecureMessageSerializedHashed();
+				byte[] fastSecureMessageCheckSerializedHashed =
+						this.fastSecureMessageCheck.getSecureMessageSerializedHashed();
+				serializationOffset += sizeOfSecureMessageSerialized;
+				
+				// Fills the byte array of the Final Secure Message with the Fast Secure Message's Check,
+				// From the position corresponding to the length of Secure Message's components to
+				// the corresponding to the length of Fast Secure Message's Check
+				System.arraycopy(fastSecureMessageCheckSerializedHashed, 0,
+								 this.finalSecureMessageSerialized, serializationOffset, fastSecureMessageCheckSerializedHashed.length);
+				serializationOffset += fastSecureMessageCheckSerializedHashed.length;
 				
-			// Fills the byte array of the Final Secure Message with the Secure Message's components,
-			// From the position corresponding to the length of Secure Message's Meta-Header components to
-			// the corresponding to the length of Secure Message's components
-			System.arraycopy(secureMessageSerialized, 0,
-							 this.finalSecureMessageSerialized, serializationOffset, secureMessageSerialized.length);
-			serializationOffset += secureMessageSerialized.length;
+				// META-HEADER (filled in the space reserved, since the size of the Cipher Text is known now)
+				this.buildSecureMessageMetaHeaderSerialized(secureMessagePayload.getSizeOfSecureMessagePayloadSerializedCiphered(),
+															secureMessagePayload.getIntegrityControlSerialiazedHashed().length,
+															fastSecureMessageCheckSerializedHashed.length);
+			}
 			
-			// Fills the byte array of the Final Secure Message with the Fast Secure Message's Check,
-			// From the position corresponding to the length of Secure Message's components to
-			// the corresponding to the length of Fast Secure Message's Check
-			System.arraycopy(fastSecureMessageCheckSerializedHashed, 0,
-							 this.finalSecureMessageSerialized, serializationOffset, fastSecureMessageCheckSerializedHashed.length);
-			serializationOffset += fastSecureMessageCheckSerializedHashed.length;
+			this.IVBytes = secureMessagePayload.getIVBytes();
 			
 			System.arraycopy(this.IVBytes, 0, this.finalSecureMessageSerialized,
 							 serializationOffset, this.IVBytes.length);
 			serializationOffset += this.IVBytes.length;
 			
+			this.sizeOfFinalSecureMessageSerialized = serializationOffset;
+			
 			// The Final Secure Message have already its serialization done
 			this.isFinalSecureMessageSerialized = true;
 		}
 	}
 	
+	/**
+	 * Builds the Secure Message's Meta-Header serialized, filling it at the beginning of
+	 * the Final Secure Message serialized.
+	 * 
+	 * @param sizeOfSecureMessagePayload the size of the Secure Message's Payload, after ciphered
+	 * 
+	 * @param sizeOfIntegrityControl the size of the Integrity Control (0, in the Modes of Authenticated Encryption)
+	 * 
+	 * @param sizeOfFastSecureMessageCheck the size of the Fast Secure Message's Check
+	 *        (0, in the Modes of Authenticated Encryption)
+	 */
+	private void buildSecureMessageMetaHeaderSerialized(int sizeOfSecureMessagePayload, int sizeOfIntegrityControl,
+														int sizeOfFastSecureMessageCheck) {
+		
+		this.secureMessageMetaHeader = new SecureMessageMetaHeader(this.secureMessage.getSecureMessageHeader().getSecureMessageHeaderSerialized().length,
+																   this.secureMessage.getSecureMessageAttributes().getSecureMessageAttributesSerializedHashed().length,
+																   sizeOfSecureMessagePayload, this.sizeOfFromPeerIDSerialized,
+																   this.secureMessage.getSecureMessagePayload().getMessageSerialized().length,
+																   sizeOfIntegrityControl, sizeOfFastSecureMessageCheck,
+																   this.secureMulticastChatSessionCipherSuite.getIVLength());
+		
+		this.secureMessageMetaHeader.buildMessageMetaHeaderSerialized();
+		byte[] secureMessageMetaHeaderSerialized = 
+				this.secureMessageMetaHeader.getSecureMessageMetaHeaderSerialized();
+		
+		// Fills the byte array of the Final Secure Message with the Secure Message's Meta-Header,
+		// From the initial position to the corresponding to the length of Secure Message's Meta-Header
+		System.arraycopy(secureMessageMetaHeaderSerialized, 0,
+						 this.finalSecureMessageSerialized, 0, secureMessageMetaHeaderSerialized.length);
+	}
+	
 	/**
 	 * Builds the several components of the Final Secure Message. TODO IMPORTANTEEEEEEEEEEEEEEEEEEEEEEEEEEEEEEEEEEEEEEEE
 	 */
 	public void buildFinalSecureMessageComponents() {
 		if(this.isFinalSecureMessageSerialized) {
-			// The size of the Secure Message's Meta-Header serialized
-			int sizeOfSecureMessageMetaHeaderSerialized = ( ( CommonUtils.NUM_COMPONENTS_META_HEADER * CommonUtils.INTEGER_IN_BYTES_LENGTH ) + 
-									                        ( CommonUtils.META_HEADER_OUTSIDE_SEPARATORS * CommonUtils.META_HEADER_OUTSIDE_SEPARATORS_LENGTH ) + 
-									                        ( CommonUtils.META_HEADER_INSIDE_SEPARATORS * CommonUtils.META_HEADER_INSIDE_SEPARATORS_LENGTH ) );
+			SecureMulticastChatSessionBoundsValidator boundsValidator = this.secureMulticastChatSessionCipherSuite.getBoundsValidator();
+			
+			// The Final Secure Message received must, at least, fit its Secure Message's Meta-Header
+			if(this.sizeOfFinalSecureMessageSerialized < SIZE_OF_SECURE_MESSAGE_META_HEADER_SERIALIZED) {
+				this.rejectFinalSecureMessage(boundsValidator.reject(RejectionReason.TRUNCATED));
+				
+				return;
+			}
 			
-			byte[] secureMessageMetaHeaderSerialized = new byte[sizeOfSecureMessageMetaHeaderSerialized];
+			byte[] secureMessageMetaHeaderSerialized = new byte[SIZE_OF_SECURE_MESSAGE_META_HEADER_SERIALIZED];
 			
 			// Operations to Fill a Byte Array, with the following parameters:
 			// 1) src - The source of the array to be copied
@@ -225,39 +315,70 @@ public class FinalSecureMessage {
 			this.secureMessageMetaHeader = new SecureMessageMetaHeader(secureMessageMetaHeaderSerialized);
 			this.secureMessageMetaHeader.buildSizesOfSecureMessageComponents();
 			
+			// All the sizes announced by the Secure Message's Meta-Header are validated before any buffer is allocated from them
+			RejectionReason rejectionReason =
+					boundsValidator.validateSecureMessageMetaHeader(this.sizeOfFinalSecureMessageSerialized,
+																	SIZE_OF_SECURE_MESSAGE_META_HEADER_SERIALIZED,
+																	this.secureMessageMetaHeader.getSizeOfSecureMessageHeader(),
+																	this.secureMessageMetaHeader.getSizeOfSecureMessageAttributes(),
+																	this.secureMessageMetaHeader.getSizeOfSecureMessagePayload(),
+																	this.secureMessageMetaHeader.getSizeOfFromPeerID(),
+																	this.secureMessageMetaHeader.getSizeOfMessage(),
+																	this.secureMessageMetaHeader.getSizeOfIntegrityControl(),
+																	this.secureMessageMetaHeader.getSizeOfFastSecureMessageCheck(),
+																	this.secureMessageMetaHeader.getSizeOfIVBytes());
 			
+			if(rejectionReason != null) {
+				this.rejectFinalSecureMessage(rejectionReason);
+				
+				return;
+			}
 			
 			int sizeOfSecureMessage = this.secureMessageMetaHeader.getSizeOfSecureMessage();
-						
-			byte[] secureMessageSerialized = new byte[sizeOfSecureMessage];
-			
-			// Fills the byte array of the Final Secure Message with the Secure Message,
-			// From the initial position to the corresponding to the length of Secure Message
-			System.arraycopy(this.finalSecureMessageSerialized, serializationOffset,
-							 secureMessageSerialized, 0, secureMessageSerialized.length);
-			serializationOffset += secureMessageSerialized.length;
-						
-			
+			int secureMessageOffset = serializationOffset;
+			serializationOffset += sizeOfSecureMessage;
 			
 			int sizeOfFastSecureMessageCheck = this.secureMessageMetaHeader.getSizeOfFastSecureMessageCheck();
+			int fastSecureMessageCheckOffset = serializationOffset;
+			serializationOffset += sizeOfFastSecureMessageCheck;
 			
-			byte[] fastSecureMessageCheck = new byte[sizeOfFastSecureMessageCheck];			
-
-			// Fills the byte array of the Final Secure Message with the Fast Secure Message Check,
-			// From the initial position to the corresponding to the length of Secure Message's Meta-Header
-			System.arraycopy(this.finalSecureMessageSerialized, serializationOffset,
-							 fastSecureMessageCheck, 0, fastSecureMessageCheck.length);
-			serializationOffset += fastSecureMessageCheck.length;
-			
-			int ivSize = secureMessageMetaHeader.getSizeOfIVBytes();
-			this.IVBytes = new byte[ivSize];
-			
-			System.arraycopy(this.finalSecureMessageSerialized, serializationOffset,
-							 this.IVBytes, 0, ivSize);
-			
-			this.fastSecureMessageCheck = new FastSecureMessageCheck(secureMessageSerialized, fastSecureMessageCheck, this.secureMulticastChatSessionParameters);
+			if(this.secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption()) {
+				int secureMessageAttributesOffset = secureMessageOffset + this.secureMessageMetaHeader.getSizeOfSecureMessageHeader();
+				
+				// In the Modes of Authenticated Encryption, there is no Fast Secure Message Check, being the
+				// Secure Message's Attributes verified directly over the Final Secure Message serialized received,
+				// before any copy of the Secure Message, so the Secure Messages of other Sessions are ignored without any copy
+				this.isFinalSecureMessageCheckValid = 
+						this.secureMulticastChatSessionCipherSuite.getSessionAttributes()
+								.isSecureMessageAttributesSerializedHashedValid(this.finalSecureMessageSerialized, secureMessageAttributesOffset,
+																				this.secureMessageMetaHeader.getSizeOfSecureMessageAttributes());
+				
+				if(this.isFinalSecureMessageCheckValid) {
+					// The Associated Data is everything before the Secure Message's Payload sealed,
+					// being authenticated directly over the Final Secure Message serialized received, without any copy
+					this.associatedData = this.finalSecureMessageSerialized;
+					this.sizeOfAssociatedData = secureMessageOffset + sizeOfSecureMessage
+											  - this.secureMessageMetaHeader.getSizeOfSecureMessagePayload();
+				}
+			}
+			else {
+				// The Fast Secure Message Check is verified directly over the Final Secure Message serialized received,
+				// before any copy of the Secure Message, so the Secure Messages not valid are ignored without any copy
+				this.fastSecureMessageCheck = new FastSecureMessageCheck(this.finalSecureMessageSerialized,
+																		 secureMessageOffset, sizeOfSecureMessage,
+																		 fastSecureMessageCheckOffset, sizeOfFastSecureMessageCheck,
+																		 this.secureMulticastChatSessionCipherSuite);
+				
+				this.isFinalSecureMessageCheckValid = this.fastSecureMessageCheck.isFastSecureMessageCheckValid();
+			}
 			
-			if(this.fastSecureMessageCheck.isFastSecureMessageCheckValid()) {
+			if(this.isFinalSecureMessageCheckValid) {
+				
+				int ivSize = secureMessageMetaHeader.getSizeOfIVBytes();
+				this.IVBytes = new byte[ivSize];
+				
+				System.arraycopy(this.finalSecureMessageSerialized, serializationOffset,
+								 this.IVBytes, 0, ivSize);
 				
 				int sizeOfSecureMessageHeader = this.secureMessageMetaHeader.getSizeOfSecureMessageHeader();
 				int sizeOfSecureMessageAttributes = this.secureMessageMetaHeader.getSizeOfSecureMessageAttributes();
@@ -266,16 +387,31 @@ public class FinalSecureMessage {
 				int sizeOfMessage = this.secureMessageMetaHeader.getSizeOfMessage();
 				int sizeOfIntegrityControl = this.secureMessageMetaHeader.getSizeOfIntegrityControl();
 				
-				this.secureMessage = new SecureMessage(secureMessageSerialized, sizeOfSecureMessageHeader,
+				// The Secure Message is not copied, being its components read (and its Secure Message's Payload deciphered, in place)
+				// directly over the Final Secure Message serialized received
+				this.secureMessage = new SecureMessage(this.finalSecureMessageSerialized, secureMessageOffset, sizeOfSecureMessageHeader,
 						                               sizeOfSecureMessageAttributes, sizeOfSecureMessagePayload,
 						                               sizeOfFromPeerID, sizeOfMessage, sizeOfIntegrityControl,
-						                               secureMulticastChatSessionParameters);
+						                               secureMulticastChatSessionCipherSuite);
 				
 				this.isFinalSecureMessageSerialized = false;
 			}
 		}
 	}
 	
+	/**
+	 * Rejects the Final Secure Message received, by the given reason of the Bounds Validator of the Session
+	 * (being it counted by the Rejections of the Session and reported with a rate limit).
+	 * 
+	 * @param rejectionReason the reason of the rejection of the Final Secure Message received
+	 */
+	private void rejectFinalSecureMessage(RejectionReason rejectionReason) {
+		this.secureMulticastChatSessionCipherSuite.getRejections().reject(Rejection.SECURE_MESSAGE_SIZES,
+																		   rejectionReason.getDescription());
+		
+		this.isFinalSecureMessageCheckValid = false;
+	}
+	
 	/**
 	 * Returns the final Secure Message serialized.
 	 * 
@@ -285,6 +421,16 @@ public class FinalSecureMessage {
 		return this.isFinalSecureMessageSerialized ? this.finalSecureMessageSerialized : null;
 	}
 	
+	/**
+	 * Returns the size of the final Secure Message serialized, in its buffer
+	 * (i.e., the buffer may be longer, since its space was reserved before the Symmetric Encryption).
+	 * 
+	 * @return the size of the final Secure Message serialized, in its buffer
+	 */
+	public int getSizeOfFinalSecureMessageSerialized() {
+		return this.isFinalSecureMessageSerialized ? this.sizeOfFinalSecureMessageSerialized : -1;
+	}
+	
 	/**
 	 * TODO
 	 * @return
@@ -309,6 +455,37 @@ public class FinalSecureMessage {
 		return this.fastSecureMessageCheck;
 	}
 	
+	/**
+	 * Returns true if the Final Secure Message received passed its first check
+	 * (i.e., the Fast Secure Message's Check or, in the Modes of Authenticated Encryption,
+	 * the Secure Message's Attributes), and false, otherwise.
+	 * 
+	 * @return true if the Final Secure Message received passed its first check, and false, otherwise
+	 */
+	public boolean isFinalSecureMessageCheckValid() {
+		return this.isFinalSecureMessageCheckValid;
+	}
+	
+	/**
+	 * Returns the Associated Data of the Final Secure Message received, in the Modes of Authenticated Encryption
+	 * (i.e., the Secure Message's Meta-Header, Header, Attributes and size of the Payload).
+	 * 
+	 * @return the buffer of the Associated Data of the Final Secure Message received (null, if it's not used)
+	 */
+	public byte[] getAssociatedData() {
+		return this.associatedData;
+	}
+	
+	/**
+	 * Returns the size of the Associated Data of the Final Secure Message received, in the Modes of Authenticated Encryption
+	 * (i.e., the Associated Data starts at the beginning of its buffer).
+	 * 
+	 * @return the size of the Associated Data of the Final Secure Message received
+	 */
+	public int getSizeOfAssociatedData() {
+		return this.sizeOfAssociatedData;
+	}
+	
 	public void setIVBytes(byte[] IVBytes) {
 		this.IVBytes = IVBytes;
 	}
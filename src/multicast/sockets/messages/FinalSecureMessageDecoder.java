@@ -0,0 +1,1025 @@
+package multicast.sockets.messages;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.security.DigestException;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.ShortBufferException;
+
+import multicast.common.CommonCodecs;
+import multicast.common.CommonUtils;
+import multicast.common.MessageType;
+import multicast.common.VersionNumber;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionBoundsValidator;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionBoundsValidator.RejectionReason;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionCipherSuite;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionRejections;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionRejections.Rejection;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionTags;
+
+/**
+ *
+ * Class for the Final Secure Message's Decoder.
+ *
+ * A flyweight over the buffer of the Datagram Packet received (respecting its offset and length),
+ * which reads the sizes of the Secure Message's Meta-Header and exposes the Secure Message's Header,
+ * Attributes, Payload, Fast Secure Message's Check (or authentication tag) and Initialization Vector
+ * as offset/length views on that same buffer, being the Secure Message's Payload deciphered in place.
+ *
+ * Nothing is allocated by the decoding process, until the Message (or the From Peer's ID)
+ * is explicitly requested as a Byte Array (or as a String).
+ *
+ * The Final Secure Messages decoded are the ones built by the Final Secure Message (i.e., the VERSION_01 format),
+ * which is kept as the reference of that format, or by the Final Secure Message's Encoder, in the VERSION_02 format
+ * (i.e., the compact one, starting by its Version Number, instead of the outside separator of a Secure Message's Meta-Header),
+ * being the Session Tag of the latter resolved through the table of the Session Tags.
+ *
+ * After the layout of the Final Secure Message received is decoded, its verifications (and its Decipher) are run by
+ * the Decoding Path registered for its pair of Version Number and Message Type, resolved through a table indexed
+ * directly by those two bytes, so new formats and Message Types can be introduced, each one with its own Decoding Path,
+ * without passing through the one of the Secure Data Messages.
+ *
+ * All the sizes of the Final Secure Message received (announced by its Secure Message's Meta-Header, or derived from its size)
+ * are validated by the Bounds Validator of the Session, before any of them is used as an offset over the buffer received.
+ *
+ * The Final Secure Messages rejected are counted by the Rejections of the Session, by the reason of their rejection,
+ * being each reason only reported with a rate limit, so a flood of forged Datagram Packets does not flood the standard error.
+ *
+ * NOTE:
+ * - The Decoder is not thread-safe, being used by one Thread at a time, from the receiving of each Secure Multicast Socket;
+ * - The views are only valid until the next decoding, or until the buffer received is reused;
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public class FinalSecureMessageDecoder {
+
+	// Invariants/Constants:
+	/**
+	 * The size of the Secure Message's Meta-Header serialized
+	 */
+	private static final int SIZE_OF_SECURE_MESSAGE_META_HEADER_SERIALIZED =
+			( ( CommonUtils.NUM_COMPONENTS_META_HEADER * CommonUtils.INTEGER_IN_BYTES_LENGTH ) +
+			  ( CommonUtils.META_HEADER_OUTSIDE_SEPARATORS * CommonUtils.META_HEADER_OUTSIDE_SEPARATORS_LENGTH ) +
+			  ( CommonUtils.META_HEADER_INSIDE_SEPARATORS * CommonUtils.META_HEADER_INSIDE_SEPARATORS_LENGTH ) );
+
+	/**
+	 * The number of Version Numbers indexed by the table of the Decoding Paths (i.e., the greatest Version Number, plus one)
+	 */
+	private static final int NUM_VERSION_NUMBERS_INDEXED;
+
+	/**
+	 * The number of Message Types indexed by the table of the Decoding Paths (i.e., the greatest Message Type, plus one)
+	 */
+	private static final int NUM_MESSAGE_TYPES_INDEXED;
+
+	static {
+		int greatestVersionNumber = 0;
+		int greatestMessageType = 0;
+
+		for(VersionNumber versionNumber : VersionNumber.values()) {
+			greatestVersionNumber = Math.max(greatestVersionNumber, Byte.toUnsignedInt(versionNumber.getVersionNumber()));
+		}
+
+		for(MessageType messageType : MessageType.values()) {
+			greatestMessageType = Math.max(greatestMessageType, Byte.toUnsignedInt(messageType.getMessageType()));
+		}
+
+		NUM_VERSION_NUMBERS_INDEXED = greatestVersionNumber + 1;
+		NUM_MESSAGE_TYPES_INDEXED = greatestMessageType + 1;
+	}
+
+	/**
+	 * The Decoding Path of the Secure Data Messages (i.e., the ones carrying the Messages of the Users (Clients)),
+	 * verifying the Fast Secure Message Check and the Secure Message's Attributes, before the Decipher of the Secure Message's Payload,
+	 * and, then, the size of the Secure Message's Payload deciphered and its Integrity Control Hash
+	 */
+	public static final FinalSecureMessageDecodingPath SECURE_DATA_MESSAGE_DECODING_PATH =
+			finalSecureMessageDecoder -> finalSecureMessageDecoder.isFinalSecureMessageCheckValid() &&
+										 finalSecureMessageDecoder.isSecureMessageAttributesValid() &&
+										 finalSecureMessageDecoder.buildSecureMessagePayloadDeciphered() &&
+										 finalSecureMessageDecoder.isSizeOfSecureMessagePayloadValid() &&
+										 finalSecureMessageDecoder.isIntegrityControlValid();
+
+
+
+	// Global Instance Variables:
+	/**
+	 * The compiled Cipher Suite of the (Secure) Multicast Chat Session
+	 */
+	private final SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite;
+
+	/**
+	 * The Integrity Control Hash computed over the Message received (reused for all the Secure Messages)
+	 */
+	private final byte[] integrityControlHashedToCompare;
+
+	/**
+	 * The size of the Secure Message's Attributes of the Session (derived from the Cipher Suite, in the VERSION_02 format)
+	 */
+	private final int sizeOfSecureMessageAttributesOfSession;
+
+	/**
+	 * The size of the Fast Secure Message's Check of the Session (derived from the Cipher Suite, in the VERSION_02 format)
+	 */
+	private final int sizeOfFastSecureMessageCheckOfSession;
+
+	/**
+	 * The Bounds Validator of the Secure Messages received in the Session
+	 */
+	private final SecureMulticastChatSessionBoundsValidator boundsValidator;
+
+	/**
+	 * The Rejections of the Secure Messages received in the Session
+	 */
+	private final SecureMulticastChatSessionRejections rejections;
+
+	/**
+	 * The table of the Decoding Paths, indexed by the Version Number and by the Message Type
+	 * (null, for the pairs of Version Number and Message Type not supported)
+	 */
+	private final FinalSecureMessageDecodingPath[][] decodingPaths;
+
+	/**
+	 * The buffer of the Final Secure Message received (i.e., the one of the Datagram Packet received)
+	 */
+	private byte[] finalSecureMessageSerialized;
+
+	/**
+	 * The boolean value to keep the information about if
+	 * the Final Secure Message decoded is in the VERSION_02 format (i.e., the compact one)
+	 */
+	private boolean isCompactFormat;
+
+	/**
+	 * The offset of the Final Secure Message, in the buffer received
+	 */
+	private int finalSecureMessageOffset;
+
+	/**
+	 * The offset of the Message Type, in the buffer received
+	 */
+	private int messageTypeOffset;
+
+	/**
+	 * The Session Tag of the Final Secure Message received (only in the VERSION_02 format)
+	 */
+	private int sessionTag;
+
+	/**
+	 * The offset of the first byte covered by the Fast Secure Message's Check, in the buffer received
+	 */
+	private int authenticatedOffset;
+
+	/**
+	 * The offset and size of the Secure Message's Header, in the buffer received
+	 */
+	private int secureMessageHeaderOffset;
+	private int sizeOfSecureMessageHeader;
+
+	/**
+	 * The offset and size of the Secure Message's Attributes, in the buffer received
+	 */
+	private int secureMessageAttributesOffset;
+	private int sizeOfSecureMessageAttributes;
+
+	/**
+	 * The offset of the size of the Secure Message's Payload, in the buffer received
+	 */
+	private int sizeOfSecureMessagePayloadOffset;
+
+	/**
+	 * The offset and size of the Secure Message's Payload (ciphered, or deciphered, in place), in the buffer received
+	 */
+	private int secureMessagePayloadOffset;
+	private int sizeOfSecureMessagePayload;
+
+	/**
+	 * The size of the Secure Message's Payload, after deciphered in place
+	 */
+	private int sizeOfSecureMessagePayloadDeciphered;
+
+	/**
+	 * The sizes of the components of the Secure Message's Payload, as announced by the Secure Message's Meta-Header
+	 * (or as read from the Secure Message's Payload deciphered, in the VERSION_02 format)
+	 */
+	private int sizeOfFromPeerID;
+	private int sizeOfMessage;
+	private int sizeOfIntegrityControl;
+
+	/**
+	 * The offsets of the From Peer's ID and of the Message (i.e., the real content of the Message), in the buffer received
+	 */
+	private int fromPeerIDOffset;
+	private int messageOffset;
+
+	/**
+	 * The offset of the Sequence Number (followed by the Random Nonce), in the buffer received
+	 * (in clear, in the Secure Message's Header of the VERSION_02 format, or in the Secure Message's Payload, otherwise)
+	 */
+	private int sequenceNumberOffset;
+
+	/**
+	 * The offset and size of the Fast Secure Message's Check (or of the authentication tag,
+	 * in the Modes of Authenticated Encryption, at the end of the Secure Message's Payload), in the buffer received
+	 */
+	private int tagOffset;
+	private int sizeOfTag;
+
+	/**
+	 * The offset and size of the Initialization Vector, in the buffer received
+	 */
+	private int IVBytesOffset;
+	private int sizeOfIVBytes;
+
+	/**
+	 * The boolean value to keep the information about if
+	 * the Secure Message's Payload was already deciphered, in place
+	 */
+	private boolean isSecureMessagePayloadDeciphered;
+
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - The Constructor of the Final Secure Message's Decoder, for the given Session.
+	 *
+	 * @param secureMulticastChatSessionCipherSuite the compiled Cipher Suite of the Session
+	 */
+	public FinalSecureMessageDecoder(SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite) {
+		this.secureMulticastChatSessionCipherSuite = secureMulticastChatSessionCipherSuite;
+
+		this.integrityControlHashedToCompare = secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption() ?
+				new byte[0] : new byte[secureMulticastChatSessionCipherSuite.getIntegrityControlHashFunction().getDigestLength()];
+
+		this.sizeOfSecureMessageAttributesOfSession =
+				secureMulticastChatSessionCipherSuite.getSessionAttributes().getSecureMessageAttributesSerializedHashed().length;
+		this.sizeOfFastSecureMessageCheckOfSession = secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption() ?
+				0 : secureMulticastChatSessionCipherSuite.getMacEngine().getMacLength();
+
+		this.boundsValidator = secureMulticastChatSessionCipherSuite.getBoundsValidator();
+		this.rejections = secureMulticastChatSessionCipherSuite.getRejections();
+
+		this.decodingPaths = new FinalSecureMessageDecodingPath[NUM_VERSION_NUMBERS_INDEXED][NUM_MESSAGE_TYPES_INDEXED];
+
+		// The Secure Messages in the VERSION_01 format keep being accepted for all the Message Types, as before,
+		// being only the Secure Data Messages (i.e., the MESSAGE_TYPE_1) defined, for now, in the VERSION_02 format
+		for(MessageType messageType : MessageType.values()) {
+			this.registerDecodingPath(VersionNumber.VERSION_01, messageType, SECURE_DATA_MESSAGE_DECODING_PATH);
+		}
+
+		this.registerDecodingPath(VersionNumber.VERSION_02, MessageType.MESSAGE_TYPE_1, SECURE_DATA_MESSAGE_DECODING_PATH);
+	}
+
+
+
+	// Methods:
+	/**
+	 * Registers the given Decoding Path for the given pair of Version Number and Message Type
+	 * (replacing the previous one, if any, or removing it, if the given Decoding Path is null).
+	 *
+	 * @param versionNumber the Version Number of the Secure Messages decoded by the Decoding Path
+	 *
+	 * @param messageType the Message Type of the Secure Messages decoded by the Decoding Path
+	 *
+	 * @param decodingPath the Decoding Path
+	 */
+	public void registerDecodingPath(VersionNumber versionNumber, MessageType messageType,
+									 FinalSecureMessageDecodingPath decodingPath) {
+
+		this.decodingPaths[Byte.toUnsignedInt(versionNumber.getVersionNumber())]
+						  [Byte.toUnsignedInt(messageType.getMessageType())] = decodingPath;
+	}
+
+	/**
+	 * Returns the Decoding Path registered for the given pair of Version Number and Message Type
+	 * (or null, if that pair is not supported).
+	 *
+	 * @param versionNumber the Version Number, as received
+	 *
+	 * @param messageType the Message Type, as received
+	 *
+	 * @return the Decoding Path registered for the given pair of Version Number and Message Type (or null, if that pair is not supported)
+	 */
+	public FinalSecureMessageDecodingPath getDecodingPath(byte versionNumber, byte messageType) {
+		int versionNumberIndex = Byte.toUnsignedInt(versionNumber);
+		int messageTypeIndex = Byte.toUnsignedInt(messageType);
+
+		if(versionNumberIndex >= NUM_VERSION_NUMBERS_INDEXED || messageTypeIndex >= NUM_MESSAGE_TYPES_INDEXED) {
+			return null;
+		}
+
+		return this.decodingPaths[versionNumberIndex][messageTypeIndex];
+	}
+
+	/**
+	 * Decodes the Final Secure Message received, in the given range of the given buffer,
+	 * computing the offsets of all its components, without copying any of them, and, then, runs
+	 * the Decoding Path registered for its pair of Version Number and Message Type, directly over that buffer.
+	 *
+	 * @param finalSecureMessageSerialized the buffer of the Final Secure Message received
+	 *
+	 * @param finalSecureMessageOffset the offset of the Final Secure Message, in the buffer
+	 *
+	 * @param sizeOfFinalSecureMessage the size of the Final Secure Message received
+	 *
+	 * @return true if the Final Secure Message received was accepted by the Decoding Path of
+	 * 		   its pair of Version Number and Message Type and false, otherwise
+	 */
+	public boolean decode(byte[] finalSecureMessageSerialized, int finalSecureMessageOffset, int sizeOfFinalSecureMessage) {
+
+		this.finalSecureMessageSerialized = finalSecureMessageSerialized;
+		this.finalSecureMessageOffset = finalSecureMessageOffset;
+		this.isSecureMessagePayloadDeciphered = false;
+
+		// The Final Secure Messages in the VERSION_01 format start by the outside separator of the Secure Message's Meta-Header
+		// (i.e., a zero), being the ones in the VERSION_02 format recognized by their first byte
+		this.isCompactFormat = ( sizeOfFinalSecureMessage > 0 ) &&
+							   ( finalSecureMessageSerialized[finalSecureMessageOffset] == VersionNumber.VERSION_02.getVersionNumber() );
+
+		boolean isLayoutValid = this.isCompactFormat ?
+								this.decodeVersion02(sizeOfFinalSecureMessage) : this.decodeVersion01(sizeOfFinalSecureMessage);
+
+		if(!isLayoutValid) {
+			return false;
+		}
+
+		FinalSecureMessageDecodingPath decodingPath = this.getDecodingPath(this.getVersionNumber(), this.getMessageType());
+
+		if(decodingPath == null) {
+			if(this.getDecodingPath(this.getVersionNumber(), MessageType.MESSAGE_TYPE_1.getMessageType()) == null) {
+				this.rejections.reject(Rejection.VERSION_NUMBER);
+			}
+			else {
+				this.rejections.reject(Rejection.MESSAGE_TYPE);
+			}
+
+			return false;
+		}
+
+		return decodingPath.decode(this);
+	}
+
+	/**
+	 * Decodes the Secure Message's Meta-Header of the Final Secure Message received, in the VERSION_01 format.
+	 *
+	 * @param sizeOfFinalSecureMessage the size of the Final Secure Message received
+	 *
+	 * @return true if the Secure Message's Meta-Header it's valid and false, otherwise
+	 */
+	private boolean decodeVersion01(int sizeOfFinalSecureMessage) {
+
+		int finalSecureMessageOffset = this.finalSecureMessageOffset;
+
+		if(sizeOfFinalSecureMessage < SIZE_OF_SECURE_MESSAGE_META_HEADER_SERIALIZED) {
+			return this.isSecureMessageSizeValid(this.boundsValidator.reject(RejectionReason.TRUNCATED));
+		}
+
+		// [ outside separator || 8 sizes (each one followed by an inside separator, except the last one) || outside separator ]
+		int deserializationOffset = finalSecureMessageOffset + CommonUtils.META_HEADER_OUTSIDE_SEPARATORS_LENGTH;
+		int sizeOfMetaHeaderSizeSerialized = CommonUtils.INTEGER_IN_BYTES_LENGTH + CommonUtils.META_HEADER_INSIDE_SEPARATORS_LENGTH;
+
+		this.sizeOfSecureMessageHeader = CommonCodecs.readIntNativeOrder(this.finalSecureMessageSerialized, deserializationOffset);
+		deserializationOffset += sizeOfMetaHeaderSizeSerialized;
+
+		this.sizeOfSecureMessageAttributes = CommonCodecs.readIntNativeOrder(this.finalSecureMessageSerialized, deserializationOffset);
+		deserializationOffset += sizeOfMetaHeaderSizeSerialized;
+
+		this.sizeOfSecureMessagePayload = CommonCodecs.readIntNativeOrder(this.finalSecureMessageSerialized, deserializationOffset);
+		deserializationOffset += sizeOfMetaHeaderSizeSerialized;
+
+		this.sizeOfFromPeerID = CommonCodecs.readIntNativeOrder(this.finalSecureMessageSerialized, deserializationOffset);
+		deserializationOffset += sizeOfMetaHeaderSizeSerialized;
+
+		this.sizeOfMessage = CommonCodecs.readIntNativeOrder(this.finalSecureMessageSerialized, deserializationOffset);
+		deserializationOffset += sizeOfMetaHeaderSizeSerialized;
+
+		this.sizeOfIntegrityControl = CommonCodecs.readIntNativeOrder(this.finalSecureMessageSerialized, deserializationOffset);
+		deserializationOffset += sizeOfMetaHeaderSizeSerialized;
+
+		this.sizeOfTag = CommonCodecs.readIntNativeOrder(this.finalSecureMessageSerialized, deserializationOffset);
+		deserializationOffset += sizeOfMetaHeaderSizeSerialized;
+
+		this.sizeOfIVBytes = CommonCodecs.readIntNativeOrder(this.finalSecureMessageSerialized, deserializationOffset);
+
+		// All the sizes announced are validated against the size of the Datagram Packet received and
+		// against the ones of the Cipher Suite of the Session, before any of them is used as an offset
+		RejectionReason rejectionReason =
+				this.boundsValidator.validateSecureMessageMetaHeader(sizeOfFinalSecureMessage, SIZE_OF_SECURE_MESSAGE_META_HEADER_SERIALIZED,
+																	 this.sizeOfSecureMessageHeader, this.sizeOfSecureMessageAttributes,
+																	 this.sizeOfSecureMessagePayload, this.sizeOfFromPeerID,
+																	 this.sizeOfMessage, this.sizeOfIntegrityControl,
+																	 this.sizeOfTag, this.sizeOfIVBytes);
+
+		if(!this.isSecureMessageSizeValid(rejectionReason)) {
+			return false;
+		}
+
+		this.secureMessageHeaderOffset = finalSecureMessageOffset + SIZE_OF_SECURE_MESSAGE_META_HEADER_SERIALIZED;
+		this.secureMessageAttributesOffset = this.secureMessageHeaderOffset + this.sizeOfSecureMessageHeader;
+		this.sizeOfSecureMessagePayloadOffset = this.secureMessageAttributesOffset + this.sizeOfSecureMessageAttributes;
+		this.secureMessagePayloadOffset = this.sizeOfSecureMessagePayloadOffset + CommonUtils.INTEGER_IN_BYTES_LENGTH;
+		this.tagOffset = this.secureMessagePayloadOffset + this.sizeOfSecureMessagePayload;
+		this.IVBytesOffset = this.tagOffset + this.sizeOfTag;
+
+		this.messageTypeOffset = this.sizeOfSecureMessageHeader + this.secureMessageHeaderOffset - CommonUtils.BYTE_LENGTH;
+		this.authenticatedOffset = this.secureMessageHeaderOffset;
+
+		this.fromPeerIDOffset = this.secureMessagePayloadOffset;
+		this.sequenceNumberOffset = this.fromPeerIDOffset + this.sizeOfFromPeerID;
+		this.messageOffset = this.sequenceNumberOffset + ( 2 * CommonUtils.INTEGER_IN_BYTES_LENGTH );
+
+		// The Secure Messages with a Secure Message's Meta-Header are only the ones of the VERSION_01 format,
+		// so they can not be dispatched to the Decoding Paths of the other formats
+		if(this.getVersionNumber() != VersionNumber.VERSION_01.getVersionNumber()) {
+			this.rejections.reject(Rejection.VERSION_NUMBER);
+
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Decodes the Final Secure Message received, in the VERSION_02 format (i.e., the compact one),
+	 * being all the sizes derived from the Cipher Suite of the Session and from the size of the Final Secure Message received.
+	 *
+	 * @param sizeOfFinalSecureMessage the size of the Final Secure Message received
+	 *
+	 * @return true if all the components fit in the Final Secure Message received and false, otherwise
+	 */
+	private boolean decodeVersion02(int sizeOfFinalSecureMessage) {
+
+		int finalSecureMessageOffset = this.finalSecureMessageOffset;
+
+		// [ Version Number || Message Type || Session Tag || Sequence Number || Random Nonce ||
+		//   size of the From Peer's ID (Variable-Length Integer) || From Peer's ID ]
+		int sizeOfSecureMessageHeaderFixed = ( 2 * CommonUtils.BYTE_LENGTH ) + ( 3 * CommonUtils.INTEGER_IN_BYTES_LENGTH );
+
+		if(sizeOfFinalSecureMessage < sizeOfSecureMessageHeaderFixed) {
+			return this.isSecureMessageSizeValid(this.boundsValidator.reject(RejectionReason.TRUNCATED));
+		}
+
+		int fromPeerIDSizeOffset = finalSecureMessageOffset + sizeOfSecureMessageHeaderFixed;
+		int sizeOfFromPeerID = CommonUtils.readVariableLengthInteger(this.finalSecureMessageSerialized, fromPeerIDSizeOffset,
+																	 finalSecureMessageOffset + sizeOfFinalSecureMessage);
+
+		if(!this.isSecureMessageSizeValid(this.boundsValidator.validateCompactSecureMessage(sizeOfFinalSecureMessage,
+																							 sizeOfSecureMessageHeaderFixed,
+																							 sizeOfFromPeerID))) {
+			return false;
+		}
+
+		int sizeOfSecureMessageHeader = sizeOfSecureMessageHeaderFixed + CommonUtils.sizeOfVariableLengthInteger(sizeOfFromPeerID)
+										+ sizeOfFromPeerID;
+
+		int sizeOfSecureMessagePayloadExpected =
+				( sizeOfFinalSecureMessage - sizeOfSecureMessageHeader - this.sizeOfSecureMessageAttributesOfSession
+				  - this.secureMulticastChatSessionCipherSuite.getIVLength() - this.sizeOfFastSecureMessageCheckOfSession );
+
+		// The Session Tag is resolved through the table of the Session Tags, in constant time and without any allocation,
+		// so the Secure Messages of other (or unknown) Sessions are ignored before any other verification
+		this.sessionTag = CommonCodecs.readInt(this.finalSecureMessageSerialized, finalSecureMessageOffset + ( 2 * CommonUtils.BYTE_LENGTH ));
+
+		if(SecureMulticastChatSessionTags.resolve(this.sessionTag) != this.secureMulticastChatSessionCipherSuite) {
+			this.rejections.reject(Rejection.SESSION_TAG);
+
+			return false;
+		}
+
+		this.secureMessageHeaderOffset = finalSecureMessageOffset;
+		this.sizeOfSecureMessageHeader = sizeOfSecureMessageHeader;
+		this.messageTypeOffset = finalSecureMessageOffset + CommonUtils.BYTE_LENGTH;
+
+		// The Sequence Number, the Random Nonce and the From Peer's ID are in clear (but covered by the Fast Secure Message's Check,
+		// or by the Associated Data), so the replayed Secure Messages can be rejected by the Anti-Replay Window of their Peer,
+		// before any Decipher
+		this.sequenceNumberOffset = this.messageTypeOffset + CommonUtils.BYTE_LENGTH + CommonUtils.INTEGER_IN_BYTES_LENGTH;
+
+		this.fromPeerIDOffset = fromPeerIDSizeOffset + CommonUtils.sizeOfVariableLengthInteger(sizeOfFromPeerID);
+		this.sizeOfFromPeerID = sizeOfFromPeerID;
+		this.sizeOfIntegrityControl = this.integrityControlHashedToCompare.length;
+
+		this.secureMessageAttributesOffset = this.secureMessageHeaderOffset + this.sizeOfSecureMessageHeader;
+		this.sizeOfSecureMessageAttributes = this.sizeOfSecureMessageAttributesOfSession;
+
+		this.IVBytesOffset = this.secureMessageAttributesOffset + this.sizeOfSecureMessageAttributes;
+		this.sizeOfIVBytes = this.secureMulticastChatSessionCipherSuite.getIVLength();
+
+		// There is no size of the Secure Message's Payload, being it derived from the size of the Final Secure Message received
+		this.sizeOfSecureMessagePayloadOffset = -1;
+		this.secureMessagePayloadOffset = this.IVBytesOffset + this.sizeOfIVBytes;
+		this.sizeOfSecureMessagePayload = sizeOfSecureMessagePayloadExpected;
+
+		this.tagOffset = this.secureMessagePayloadOffset + this.sizeOfSecureMessagePayload;
+		this.sizeOfTag = this.sizeOfFastSecureMessageCheckOfSession;
+
+		// The Fast Secure Message's Check covers everything before it, from the Version Number
+		this.authenticatedOffset = finalSecureMessageOffset;
+
+		return true;
+	}
+
+	/**
+	 * Returns true if the Secure Message received was not rejected by the Bounds Validator of the Session
+	 * (i.e., the given reason of the rejection is null) and false, otherwise, counting the reason of the rejection
+	 * (being it reported with a rate limit).
+	 *
+	 * @param rejectionReason the reason of the rejection of the Secure Message received (or null, if its sizes are valid)
+	 *
+	 * @return true if the Secure Message received was not rejected by its sizes and false, otherwise
+	 */
+	private boolean isSecureMessageSizeValid(RejectionReason rejectionReason) {
+
+		if(rejectionReason != null) {
+			this.rejections.reject(Rejection.SECURE_MESSAGE_SIZES, rejectionReason.getDescription());
+
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns true if the Final Secure Message's Check it's valid and false, otherwise.
+	 *
+	 * In the Modes of Authenticated Encryption, there is no Fast Secure Message Check, being the
+	 * Secure Message's Attributes verified directly over the buffer received, so the Secure Messages of other Sessions
+	 * are ignored before any Decipher; otherwise, the Fast Secure Message Check is verified directly over the buffer received.
+	 *
+	 * @return true if the Final Secure Message's Check it's valid and false, otherwise
+	 */
+	public boolean isFinalSecureMessageCheckValid() {
+
+		if(this.secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption()) {
+			return this.isSecureMessageAttributesValid();
+		}
+
+		// Starts the MAC Hash process over the Secure Message received (applying the HMAC or CMAC operation),
+		// comparing it, in constant time, with the Fast Secure Message Check received,
+		// using the MAC Engine of the Session, already keyed with the MAC's Secret Key
+		boolean isFastSecureMessageCheckValid =
+				this.secureMulticastChatSessionCipherSuite.getMacEngine()
+														  .verifyMac(this.finalSecureMessageSerialized, this.authenticatedOffset,
+																	 ( this.tagOffset - this.authenticatedOffset ),
+																	 this.finalSecureMessageSerialized, this.tagOffset, this.sizeOfTag);
+
+		if(!isFastSecureMessageCheckValid) {
+			this.rejections.reject(Rejection.FAST_SECURE_MESSAGE_CHECK);
+		}
+
+		return isFastSecureMessageCheckValid;
+	}
+
+	/**
+	 * Returns true if the Secure Message's Attributes received are the ones of the current Session and false, otherwise.
+	 *
+	 * @return true if the Secure Message's Attributes received are the ones of the current Session and false, otherwise
+	 */
+	public boolean isSecureMessageAttributesValid() {
+
+		// Compares, in constant time, the Secure Message's Attributes serialized hashed received with
+		// the ones of the current Session, which were already serialized and hashed, only once
+		boolean isSecureMessageAttributesValid =
+				this.secureMulticastChatSessionCipherSuite.getSessionAttributes()
+														  .isSecureMessageAttributesSerializedHashedValid(this.finalSecureMessageSerialized,
+																  										  this.secureMessageAttributesOffset,
+																  										  this.sizeOfSecureMessageAttributes);
+
+		if(!isSecureMessageAttributesValid) {
+			this.rejections.reject(Rejection.SECURE_MESSAGE_ATTRIBUTES);
+		}
+
+		return isSecureMessageAttributesValid;
+	}
+
+	/**
+	 * Builds the Symmetric Encryption's Decipher on the Secure Message's Payload received,
+	 * in place (i.e., the Plain Text is never longer than the Cipher Text, so it overwrites only the Cipher Text already read).
+	 *
+	 * @return true if the Secure Message's Payload was deciphered (and its authentication tag verified,
+	 * 		   in the Modes of Authenticated Encryption) and false, otherwise
+	 */
+	public boolean buildSecureMessagePayloadDeciphered() {
+
+		try {
+			// The Decipher of the current Thread, for the Session's suite,
+			// only re-initialized with the Initialization Vector, read directly from the buffer received
+			Cipher secureMessagePayloadSerializationSymmetricEncryptionDecipher =
+					this.secureMulticastChatSessionCipherSuite.getCipherContexts()
+															  .getDecryptionCipher(this.finalSecureMessageSerialized,
+																				   this.IVBytesOffset, this.sizeOfIVBytes);
+
+			if(this.secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption()) {
+				// The Associated Data is everything before the Secure Message's Payload sealed,
+				// being authenticated directly over the buffer received, without any copy
+				secureMessagePayloadSerializationSymmetricEncryptionDecipher.updateAAD(this.finalSecureMessageSerialized,
+																					   this.finalSecureMessageOffset,
+																					   ( this.secureMessagePayloadOffset
+																						 - this.finalSecureMessageOffset ));
+			}
+
+			this.sizeOfSecureMessagePayloadDeciphered =
+					secureMessagePayloadSerializationSymmetricEncryptionDecipher.doFinal(this.finalSecureMessageSerialized,
+																						 this.secureMessagePayloadOffset,
+																						 this.sizeOfSecureMessagePayload,
+																						 this.finalSecureMessageSerialized,
+																						 this.secureMessagePayloadOffset);
+
+			this.isSecureMessagePayloadDeciphered = true;
+		}
+		catch (NoSuchAlgorithmException noSuchAlgorithmException) {
+			System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
+			System.err.println("- Cryptographic Algorithm not found!!!");
+			noSuchAlgorithmException.printStackTrace();
+		}
+		catch (InvalidAlgorithmParameterException invalidAlgorithmParameterException) {
+			System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
+			System.err.println("- Invalid Cryptographic Algorithm's Parameters!!!");
+			invalidAlgorithmParameterException.printStackTrace();
+		}
+		catch (NoSuchPaddingException noSuchPaddingException) {
+			System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
+			System.err.println("- Padding Method not found!!!");
+			noSuchPaddingException.printStackTrace();
+		}
+		catch (AEADBadTagException aeadBadTagException) {
+			this.rejections.reject(Rejection.AUTHENTICATION_TAG);
+		}
+		catch (BadPaddingException badPaddingException) {
+			System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
+			System.err.println("- Bad/Wrong Padding Method in use!!!");
+			badPaddingException.printStackTrace();
+		}
+		catch (InvalidKeyException invalidKeyException) {
+			System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
+			System.err.println("- Invalid Cryptographic Algorithm's Secret Key!!!");
+			invalidKeyException.printStackTrace();
+		}
+		catch (IllegalBlockSizeException illegalBlockSizeException) {
+			System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
+			System.err.println("- Illegal Cryptographic Algorithm's Block Size!!!");
+			illegalBlockSizeException.printStackTrace();
+		}
+		catch (ShortBufferException shortBufferException) {
+			System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
+			System.err.println("- The Buffer in use, during the Deciphering process it's not correct!!!");
+			shortBufferException.printStackTrace();
+		}
+
+		return this.isSecureMessagePayloadDeciphered;
+	}
+
+	/**
+	 * Returns true if the size of the Secure Message's Payload it's valid (i.e., the size received is the one ciphered
+	 * and the components announced by the Secure Message's Meta-Header fill exactly the Plain Text deciphered)
+	 * and false, otherwise.
+	 *
+	 * In the VERSION_02 format, the Plain Text deciphered is only the Message, followed by the Integrity Control.
+	 *
+	 * @return true if the size of the Secure Message's Payload it's valid and false, otherwise
+	 */
+	public boolean isSizeOfSecureMessagePayloadValid() {
+
+		if(this.isSecureMessagePayloadDeciphered && this.isCompactFormat) {
+			int sizeOfMessage = this.sizeOfSecureMessagePayloadDeciphered - this.sizeOfIntegrityControl;
+
+			if(sizeOfMessage >= 0) {
+				this.sizeOfMessage = sizeOfMessage;
+				this.messageOffset = this.secureMessagePayloadOffset;
+
+				return this.isSecureMessageSizeValid(this.boundsValidator.validateCompactSecureMessagePayload(this.sizeOfMessage));
+			}
+
+			this.rejections.reject(Rejection.SECURE_MESSAGE_PAYLOAD_SIZE);
+
+			return false;
+		}
+
+		if(this.isSecureMessagePayloadDeciphered) {
+			int sizeOfSecureMessagePayloadReceived =
+					CommonCodecs.readIntNativeOrder(this.finalSecureMessageSerialized, this.sizeOfSecureMessagePayloadOffset);
+
+			// The components of the Secure Message's Payload must fill exactly the Plain Text deciphered
+			// (being the sizes summed as long values, so a forged Secure Message's Meta-Header can not overflow them)
+			long sizeOfSecureMessagePayloadComponents =
+					( (long) this.sizeOfFromPeerID + ( 2 * CommonUtils.INTEGER_IN_BYTES_LENGTH ) +
+					  this.sizeOfMessage + this.sizeOfIntegrityControl );
+
+			boolean isSizeOfSecureMessagePayloadValid =
+					( sizeOfSecureMessagePayloadReceived == this.sizeOfSecureMessagePayload ) &&
+					( this.sizeOfSecureMessagePayloadDeciphered == sizeOfSecureMessagePayloadComponents ) &&
+					( this.sizeOfIntegrityControl == this.integrityControlHashedToCompare.length );
+
+			if(!isSizeOfSecureMessagePayloadValid) {
+				this.rejections.reject(Rejection.SECURE_MESSAGE_PAYLOAD_SIZE);
+			}
+
+			return isSizeOfSecureMessagePayloadValid;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns true if the Integrity Control of the Message received it's valid, comparing it, in constant time,
+	 * with the Integrity Control Hash computed over the Message deciphered and false, otherwise.
+	 *
+	 * @return true if the Integrity Control of the Message received it's valid and false, otherwise
+	 */
+	public boolean isIntegrityControlValid() {
+
+		if(this.isSecureMessagePayloadDeciphered) {
+
+			if(this.secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption()) {
+				// In the Modes of Authenticated Encryption, the authentication tag of the Cipher
+				// was already verified, when the Secure Message's Payload was deciphered
+				return true;
+			}
+
+			boolean isIntegrityControlValid = false;
+
+			try {
+				// Performs the final operation of Integrity Control Hash process over the Message deciphered,
+				// using the Cryptographic Hash Function of the current Thread, already resolved by the Cipher Suite
+				MessageDigest integrityControlHashFunction =
+						this.secureMulticastChatSessionCipherSuite.getIntegrityControlHashFunction();
+
+				integrityControlHashFunction.update(this.finalSecureMessageSerialized, this.messageOffset, this.sizeOfMessage);
+				integrityControlHashFunction.digest(this.integrityControlHashedToCompare, 0, this.integrityControlHashedToCompare.length);
+
+				int integrityControlOffset = this.messageOffset + this.sizeOfMessage;
+				int differences = 0;
+
+				for(int i = 0; i < this.integrityControlHashedToCompare.length; i++) {
+					differences |= ( this.integrityControlHashedToCompare[i] ^ this.finalSecureMessageSerialized[integrityControlOffset + i] );
+				}
+
+				isIntegrityControlValid = ( differences == 0 );
+			}
+			catch (DigestException digestException) {
+				System.err.println("Error occurred during the Integrity Control Hash over the Message:");
+				System.err.println("- " + digestException.getMessage());
+				digestException.printStackTrace();
+			}
+
+			if(!isIntegrityControlValid) {
+				this.rejections.reject(Rejection.INTEGRITY_CONTROL);
+			}
+
+			return isIntegrityControlValid;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the buffer of the Final Secure Message received, over which all the views are defined.
+	 *
+	 * @return the buffer of the Final Secure Message received
+	 */
+	public byte[] getFinalSecureMessageSerialized() {
+		return this.finalSecureMessageSerialized;
+	}
+
+	/**
+	 * Returns the Version Number of the Secure Message's Header.
+	 *
+	 * @return the Version Number of the Secure Message's Header
+	 */
+	public byte getVersionNumber() {
+		return this.finalSecureMessageSerialized[this.secureMessageHeaderOffset];
+	}
+
+	/**
+	 * Returns the Message Type of the Secure Message's Header.
+	 *
+	 * @return the Message Type of the Secure Message's Header
+	 */
+	public byte getMessageType() {
+		return this.finalSecureMessageSerialized[this.messageTypeOffset];
+	}
+
+	/**
+	 * Returns the Session Tag of the Secure Message's Header (only in the VERSION_02 format).
+	 *
+	 * @return the Session Tag of the Secure Message's Header
+	 */
+	public int getSessionTag() {
+		return this.sessionTag;
+	}
+
+	/**
+	 * Returns the offset of the Secure Message's Header, in the buffer received.
+	 *
+	 * @return the offset of the Secure Message's Header, in the buffer received
+	 */
+	public int getSecureMessageHeaderOffset() {
+		return this.secureMessageHeaderOffset;
+	}
+
+	/**
+	 * Returns the size of the Secure Message's Header.
+	 *
+	 * @return the size of the Secure Message's Header
+	 */
+	public int getSizeOfSecureMessageHeader() {
+		return this.sizeOfSecureMessageHeader;
+	}
+
+	/**
+	 * Returns the offset of the Secure Message's Attributes, in the buffer received.
+	 *
+	 * @return the offset of the Secure Message's Attributes, in the buffer received
+	 */
+	public int getSecureMessageAttributesOffset() {
+		return this.secureMessageAttributesOffset;
+	}
+
+	/**
+	 * Returns the size of the Secure Message's Attributes.
+	 *
+	 * @return the size of the Secure Message's Attributes
+	 */
+	public int getSizeOfSecureMessageAttributes() {
+		return this.sizeOfSecureMessageAttributes;
+	}
+
+	/**
+	 * Returns the offset of the Secure Message's Payload (ciphered, or deciphered, in place), in the buffer received.
+	 *
+	 * @return the offset of the Secure Message's Payload, in the buffer received
+	 */
+	public int getSecureMessagePayloadOffset() {
+		return this.secureMessagePayloadOffset;
+	}
+
+	/**
+	 * Returns the size of the Secure Message's Payload (after deciphered, if it was already deciphered, in place).
+	 *
+	 * @return the size of the Secure Message's Payload
+	 */
+	public int getSizeOfSecureMessagePayload() {
+		return this.isSecureMessagePayloadDeciphered ? this.sizeOfSecureMessagePayloadDeciphered : this.sizeOfSecureMessagePayload;
+	}
+
+	/**
+	 * Returns the offset of the Fast Secure Message's Check, in the buffer received
+	 * (or of the authentication tag, in the Modes of Authenticated Encryption, at the end of the Secure Message's Payload).
+	 *
+	 * @return the offset of the Fast Secure Message's Check (or of the authentication tag), in the buffer received
+	 */
+	public int getTagOffset() {
+		return this.secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption() ?
+				( this.tagOffset - this.secureMulticastChatSessionCipherSuite.getTagLength() ) : this.tagOffset;
+	}
+
+	/**
+	 * Returns the size of the Fast Secure Message's Check (or of the authentication tag, in the Modes of Authenticated Encryption).
+	 *
+	 * @return the size of the Fast Secure Message's Check (or of the authentication tag)
+	 */
+	public int getSizeOfTag() {
+		return this.secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption() ?
+				this.secureMulticastChatSessionCipherSuite.getTagLength() : this.sizeOfTag;
+	}
+
+	/**
+	 * Returns the offset of the Initialization Vector, in the buffer received.
+	 *
+	 * @return the offset of the Initialization Vector, in the buffer received
+	 */
+	public int getIVBytesOffset() {
+		return this.IVBytesOffset;
+	}
+
+	/**
+	 * Returns the size of the Initialization Vector.
+	 *
+	 * @return the size of the Initialization Vector
+	 */
+	public int getSizeOfIVBytes() {
+		return this.sizeOfIVBytes;
+	}
+
+	/**
+	 * Returns the ID of the User (Client) who sent the Secure Message, from the Secure Message's Header, in the VERSION_02 format,
+	 * or from the Secure Message's Payload deciphered, otherwise (i.e., a new String is only built, when requested).
+	 *
+	 * @return the ID of the User (Client) who sent the Secure Message
+	 */
+	public String getFromPeerID() {
+		return CommonCodecs.readString(this.finalSecureMessageSerialized, this.fromPeerIDOffset, this.sizeOfFromPeerID);
+	}
+
+	/**
+	 * Returns the offset of the From Peer's ID, in the buffer received (available right after the layout was decoded,
+	 * in the VERSION_02 format, or only after the Secure Message's Payload was deciphered, otherwise).
+	 *
+	 * @return the offset of the From Peer's ID, in the buffer received
+	 */
+	public int getFromPeerIDOffset() {
+		return this.fromPeerIDOffset;
+	}
+
+	/**
+	 * Returns the size of the From Peer's ID, in the buffer received.
+	 *
+	 * @return the size of the From Peer's ID, in the buffer received
+	 */
+	public int getSizeOfFromPeerID() {
+		return this.sizeOfFromPeerID;
+	}
+
+	/**
+	 * Returns the Sequence Number of the Secure Message (available right after the layout was decoded, in the VERSION_02 format,
+	 * or only after the Secure Message's Payload was deciphered, otherwise).
+	 *
+	 * @return the Sequence Number of the Secure Message
+	 */
+	public int getSequenceNumber() {
+		return this.readSecureMessageInt(this.sequenceNumberOffset);
+	}
+
+	/**
+	 * Returns the Random Nonce of the Secure Message (available right after the layout was decoded, in the VERSION_02 format,
+	 * or only after the Secure Message's Payload was deciphered, otherwise).
+	 *
+	 * @return the Random Nonce of the Secure Message
+	 */
+	public int getRandomNonce() {
+		return this.readSecureMessageInt(this.sequenceNumberOffset + CommonUtils.INTEGER_IN_BYTES_LENGTH);
+	}
+
+	/**
+	 * Returns and reads an Integer Number of the Secure Message, at the given offset of the buffer received,
+	 * in the byte order of the format of the Final Secure Message decoded.
+	 *
+	 * @param offset the offset of the Integer Number, in the buffer received
+	 *
+	 * @return the Integer Number read
+	 */
+	private int readSecureMessageInt(int offset) {
+		return this.isCompactFormat ? CommonCodecs.readInt(this.finalSecureMessageSerialized, offset) :
+									  CommonCodecs.readIntNativeOrder(this.finalSecureMessageSerialized, offset);
+	}
+
+	/**
+	 * Returns the offset of the Message (i.e., the real content of the Message) deciphered, in the buffer received.
+	 *
+	 * @return the offset of the Message deciphered, in the buffer received
+	 */
+	public int getMessageOffset() {
+		return this.messageOffset;
+	}
+
+	/**
+	 * Returns the size of the Message (i.e., the real content of the Message).
+	 *
+	 * @return the size of the Message
+	 */
+	public int getSizeOfMessage() {
+		return this.sizeOfMessage;
+	}
+
+	/**
+	 * Returns a copy of the Message (i.e., the real content of the Message) deciphered
+	 * (i.e., the only allocation of the decoding process, made when requested).
+	 *
+	 * @return a copy of the Message deciphered
+	 */
+	public byte[] getMessageSerialized() {
+		int messageOffset = this.getMessageOffset();
+
+		return Arrays.copyOfRange(this.finalSecureMessageSerialized, messageOffset, ( messageOffset + this.sizeOfMessage ));
+	}
+
+}
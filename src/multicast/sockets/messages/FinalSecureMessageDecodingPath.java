@@ -0,0 +1,49 @@
+package multicast.sockets.messages;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+/**
+ *
+ * Interface for a Decoding Path of the Final Secure Message's Decoder.
+ *
+ * A Decoding Path is registered in the Final Secure Message's Decoder for one pair of
+ * Version Number and Message Type, being invoked after the layout of the Final Secure Message received
+ * was decoded, to run the verifications (and the Decipher) specific to that pair, directly over the buffer received.
+ *
+ * NOTE:
+ * - A Decoding Path should not allocate anything, being invoked for every Final Secure Message received;
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+@FunctionalInterface
+public interface FinalSecureMessageDecodingPath {
+
+	// Methods:
+	/**
+	 * Decodes the Final Secure Message received, whose layout was already decoded by the given Final Secure Message's Decoder.
+	 *
+	 * @param finalSecureMessageDecoder the Final Secure Message's Decoder, positioned over the Final Secure Message received
+	 *
+	 * @return true if the Final Secure Message received was accepted and false, otherwise
+	 */
+	boolean decode(FinalSecureMessageDecoder finalSecureMessageDecoder);
+
+}
@@ -0,0 +1,589 @@
+package multicast.sockets.messages;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.security.DigestException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+import javax.crypto.Cipher;
+
+import multicast.common.CommonCodecs;
+import multicast.common.CommonUtils;
+import multicast.common.VersionNumber;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionCipherSuite;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionKeystreamGenerator;
+
+/**
+ *
+ * Class for the Final Secure Message's Encoder.
+ *
+ * Writes the whole Final Secure Message (i.e., the Secure Message's Meta-Header, Header, Attributes,
+ * size of the Payload, Payload ciphered, Fast Secure Message's Check and Initialization Vector)
+ * in a single pass, directly at the final offsets of one buffer, reused for all the Secure Messages sent.
+ *
+ * The Final Secure Message encoded in the VERSION_01 format is byte-for-byte compatible with the one built by
+ * the Final Secure Message, which is kept as the reference of that format,
+ * but without any intermediate Byte Array of each one of its components.
+ *
+ * The Final Secure Message encoded in the VERSION_02 format (i.e., the compact one) has no Secure Message's Meta-Header:
+ * - [ Version Number || Message Type || Session Tag || Sequence Number || Random Nonce ||
+ *     size of the From Peer's ID (varint) || From Peer's ID || Secure Message's Attributes ||
+ *     Initialization Vector || Payload ciphered || Fast Secure Message's Check ];
+ * - The Session Tag (4 bytes) replaces the Session's ID (i.e., SID), being resolved by the receivers
+ *   through the table of the Session Tags;
+ * - The Sequence Number, the Random Nonce and the From Peer's ID are in clear, but authenticated, so the receivers
+ *   can find the Anti-Replay Window of the Peer and reject the replayed Secure Messages right after
+ *   the Fast Secure Message's Check, before any Decipher;
+ * - The Payload, before ciphered, is [ Message || Integrity Control ];
+ * - The sizes of the Secure Message's Attributes, Initialization Vector, Integrity Control and
+ *   Fast Secure Message's Check are derived from the Cipher Suite of the Session, the size of the Payload ciphered
+ *   from the size of the Datagram Packet and the size of the Message from the size of the Payload deciphered;
+ * - The integers are written in the byte order of the network (i.e., Big Endian);
+ * - The Fast Secure Message's Check (or the Associated Data, in the Modes of Authenticated Encryption)
+ *   covers everything before it (or before the Payload);
+ *
+ * NOTE:
+ * - The Encoder is not thread-safe, being used by one Thread at a time, from the sending of each Secure Multicast Socket;
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public class FinalSecureMessageEncoder {
+
+	// Invariants/Constants:
+	/**
+	 * The size of the Secure Message's Meta-Header serialized
+	 */
+	private static final int SIZE_OF_SECURE_MESSAGE_META_HEADER_SERIALIZED =
+			( ( CommonUtils.NUM_COMPONENTS_META_HEADER * CommonUtils.INTEGER_IN_BYTES_LENGTH ) +
+			  ( CommonUtils.META_HEADER_OUTSIDE_SEPARATORS * CommonUtils.META_HEADER_OUTSIDE_SEPARATORS_LENGTH ) +
+			  ( CommonUtils.META_HEADER_INSIDE_SEPARATORS * CommonUtils.META_HEADER_INSIDE_SEPARATORS_LENGTH ) );
+
+
+
+	// Global Instance Variables:
+	/**
+	 * The compiled Cipher Suite of the (Secure) Multicast Chat Session
+	 */
+	private final SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite;
+
+	/**
+	 * The Version Number of the format of the Final Secure Messages encoded
+	 */
+	private final byte versionNumber;
+
+	/**
+	 * The ID of the User (Client) sending the Secure Messages, serialized only once
+	 */
+	private final byte[] fromPeerIDSerialized;
+
+	/**
+	 * The Session's ID of the Secure Message's Header, serialized only once
+	 */
+	private final byte[] sessionIDSerialized;
+
+	/**
+	 * The Secure Message's Attributes serialized and hashed (the same for all the Secure Messages of the Session)
+	 */
+	private final byte[] secureMessageAttributesSerializedHashed;
+
+	/**
+	 * The size of the Integrity Control (0, in the Modes of Authenticated Encryption)
+	 */
+	private final int sizeOfIntegrityControl;
+
+	/**
+	 * The size of the Fast Secure Message's Check (0, in the Modes of Authenticated Encryption)
+	 */
+	private final int sizeOfFastSecureMessageCheck;
+
+	/**
+	 * The Initialization Vector of the Secure Message being encoded (reused for all the Secure Messages)
+	 */
+	private final byte[] IVBytes;
+
+	/**
+	 * The Final Secure Message serialized (i.e., the buffer reused for all the Secure Messages,
+	 * only growing if a Secure Message does not fit on it)
+	 */
+	private byte[] finalSecureMessageSerialized;
+
+	/**
+	 * The Secure Message's Payload serialized, before ciphered (i.e., the buffer reused for all the Secure Messages,
+	 * only growing if a Secure Message's Payload does not fit on it)
+	 */
+	private byte[] secureMessagePayloadSerialized;
+
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - The Constructor of the Final Secure Message's Encoder, for the given User (Client) and Session,
+	 *   encoding the Final Secure Messages in the version of the Secure Messages' Protocol selected for the Session.
+	 *
+	 * @param fromPeerID the ID (i.e., Username or Nickname) of the User (Client) sending the Secure Messages
+	 *
+	 * @param secureMulticastChatSessionCipherSuite the compiled Cipher Suite of the Session
+	 */
+	public FinalSecureMessageEncoder(String fromPeerID, SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite) {
+		this(fromPeerID, secureMulticastChatSessionCipherSuite, secureMulticastChatSessionCipherSuite.getVersionNumber());
+	}
+
+	/**
+	 * Constructor #2:
+	 * - The Constructor of the Final Secure Message's Encoder, for the given User (Client) and Session,
+	 *   encoding the Final Secure Messages in the given version of the Secure Messages' Protocol.
+	 *
+	 * @param fromPeerID the ID (i.e., Username or Nickname) of the User (Client) sending the Secure Messages
+	 *
+	 * @param secureMulticastChatSessionCipherSuite the compiled Cipher Suite of the Session
+	 *
+	 * @param versionNumber the Version Number of the format of the Final Secure Messages encoded
+	 *        (i.e., VERSION_01 or VERSION_02)
+	 */
+	public FinalSecureMessageEncoder(String fromPeerID, SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite,
+									 byte versionNumber) {
+
+		this.secureMulticastChatSessionCipherSuite = secureMulticastChatSessionCipherSuite;
+		this.versionNumber = versionNumber;
+
+		this.fromPeerIDSerialized = CommonCodecs.fromStringToByteArray(fromPeerID);
+		this.sessionIDSerialized = CommonUtils.fromStringToByteArray(secureMulticastChatSessionCipherSuite.getSessionName());
+		this.secureMessageAttributesSerializedHashed =
+				secureMulticastChatSessionCipherSuite.getSessionAttributes().getSecureMessageAttributesSerializedHashed();
+
+		if(secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption()) {
+			this.sizeOfIntegrityControl = 0;
+			this.sizeOfFastSecureMessageCheck = 0;
+		}
+		else {
+			this.sizeOfIntegrityControl = secureMulticastChatSessionCipherSuite.getIntegrityControlHashFunction().getDigestLength();
+			this.sizeOfFastSecureMessageCheck = secureMulticastChatSessionCipherSuite.getMacEngine().getMacLength();
+		}
+
+		this.IVBytes = new byte[secureMulticastChatSessionCipherSuite.getIVLength()];
+
+		this.ensureCapacity(CommonUtils.DEFAULT_MESSAGE_DATAGRAM_PACKET_RECEIVED_SIZE, CommonUtils.DEFAULT_MESSAGE_DATAGRAM_PACKET_RECEIVED_SIZE);
+	}
+
+
+
+	// Methods:
+	/**
+	 * Returns the Final Secure Message serialized, by the last encoding
+	 * (i.e., the buffer reused for all the Secure Messages, being only valid until the next encoding).
+	 *
+	 * @return the Final Secure Message serialized, by the last encoding
+	 */
+	public byte[] getFinalSecureMessageSerialized() {
+		return this.finalSecureMessageSerialized;
+	}
+
+	/**
+	 * Encodes the Final Secure Message of the given Message, in a single pass,
+	 * directly in the buffer of the Final Secure Message serialized, from its beginning.
+	 *
+	 * @param messageSerialized the Byte Array of the Message (i.e., the real content of the Message)
+	 *
+	 * @param messageOffset the offset of the Message, in its Byte Array
+	 *
+	 * @param sizeOfMessage the size of the Message
+	 *
+	 * @param sequenceNumber the Sequence Number of the Secure Message
+	 *
+	 * @param randomNonce the Random Nonce of the Secure Message
+	 *
+	 * @param messageType the Message's Type of the Secure Message
+	 *
+	 * @return the size of the Final Secure Message serialized, in the buffer (or -1, if an error occurred)
+	 */
+	public int encode(byte[] messageSerialized, int messageOffset, int sizeOfMessage,
+					  int sequenceNumber, int randomNonce, byte messageType) {
+
+		if(this.versionNumber == VersionNumber.VERSION_02.getVersionNumber()) {
+			return this.encodeVersion02(messageSerialized, messageOffset, sizeOfMessage, sequenceNumber, randomNonce, messageType);
+		}
+
+		return this.encodeVersion01(messageSerialized, messageOffset, sizeOfMessage, sequenceNumber, randomNonce, messageType);
+	}
+
+	/**
+	 * Encodes the Final Secure Message of the given Message, in the VERSION_01 format
+	 * (i.e., the one of the Final Secure Message).
+	 *
+	 * @param messageSerialized the Byte Array of the Message (i.e., the real content of the Message)
+	 * @param messageOffset the offset of the Message, in its Byte Array
+	 * @param sizeOfMessage the size of the Message
+	 * @param sequenceNumber the Sequence Number of the Secure Message
+	 * @param randomNonce the Random Nonce of the Secure Message
+	 * @param messageType the Message's Type of the Secure Message
+	 *
+	 * @return the size of the Final Secure Message serialized, in the buffer (or -1, if an error occurred)
+	 */
+	private int encodeVersion01(byte[] messageSerialized, int messageOffset, int sizeOfMessage,
+								int sequenceNumber, int randomNonce, byte messageType) {
+
+		boolean isAuthenticatedEncryption = this.secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption();
+
+		// The layout of the Final Secure Message is computed up front, from the sizes already known
+		int sizeOfSecureMessageHeader = ( this.sessionIDSerialized.length + ( 2 * CommonUtils.BYTE_LENGTH ) );
+		int sizeOfSecureMessagePayloadSerialized = ( this.fromPeerIDSerialized.length + ( 2 * CommonUtils.INTEGER_IN_BYTES_LENGTH )
+												   + sizeOfMessage + this.sizeOfIntegrityControl );
+
+		int secureMessageHeaderOffset = SIZE_OF_SECURE_MESSAGE_META_HEADER_SERIALIZED;
+		int secureMessageAttributesOffset = secureMessageHeaderOffset + sizeOfSecureMessageHeader;
+		int sizeOfSecureMessagePayloadOffset = secureMessageAttributesOffset + this.secureMessageAttributesSerializedHashed.length;
+		int secureMessagePayloadOffset = sizeOfSecureMessagePayloadOffset + CommonUtils.INTEGER_IN_BYTES_LENGTH;
+
+		int maxSizeOfSecureMessagePayloadCiphered = isAuthenticatedEncryption ?
+						( sizeOfSecureMessagePayloadSerialized + this.secureMulticastChatSessionCipherSuite.getTagLength() ) :
+						( sizeOfSecureMessagePayloadSerialized + this.secureMulticastChatSessionCipherSuite.getBlockSize() );
+
+		this.ensureCapacity(( secureMessagePayloadOffset + maxSizeOfSecureMessagePayloadCiphered
+							+ this.sizeOfFastSecureMessageCheck + this.IVBytes.length ),
+							sizeOfSecureMessagePayloadSerialized);
+
+		try {
+			// SECURE MESSAGE'S HEADER
+			this.finalSecureMessageSerialized[secureMessageHeaderOffset] = VersionNumber.VERSION_01.getVersionNumber();
+			System.arraycopy(this.sessionIDSerialized, 0, this.finalSecureMessageSerialized,
+							 ( secureMessageHeaderOffset + CommonUtils.BYTE_LENGTH ), this.sessionIDSerialized.length);
+			this.finalSecureMessageSerialized[secureMessageAttributesOffset - CommonUtils.BYTE_LENGTH] = messageType;
+
+			// SECURE MESSAGE'S ATTRIBUTES
+			System.arraycopy(this.secureMessageAttributesSerializedHashed, 0, this.finalSecureMessageSerialized,
+							 secureMessageAttributesOffset, this.secureMessageAttributesSerializedHashed.length);
+
+			// SECURE MESSAGE'S PAYLOAD (before ciphered)
+			int sizeOfSecureMessagePayloadCiphered = this.encodeSecureMessagePayloadSerialized(messageSerialized, messageOffset, sizeOfMessage,
+																							  sequenceNumber, randomNonce, false);
+
+			if(isAuthenticatedEncryption) {
+				sizeOfSecureMessagePayloadCiphered = maxSizeOfSecureMessagePayloadCiphered;
+
+				// In the Modes of Authenticated Encryption, the Secure Message's Meta-Header and the size of the Payload
+				// are written before the Secure Message's Payload is sealed, since they are also part of its Associated Data
+				this.encodeSecureMessageMetaHeaderSerialized(sizeOfSecureMessageHeader, sizeOfSecureMessagePayloadCiphered, sizeOfMessage);
+				CommonCodecs.writeIntNativeOrder(this.finalSecureMessageSerialized, sizeOfSecureMessagePayloadOffset,
+												 sizeOfSecureMessagePayloadCiphered);
+
+				this.secureMulticastChatSessionCipherSuite.getIVGenerator().nextIV(this.IVBytes, 0);
+
+				Cipher secureMessagePayloadSerializationAuthenticatedEncryptionCipher =
+						this.secureMulticastChatSessionCipherSuite.getCipherContexts().getEncryptionCipher(this.IVBytes);
+
+				secureMessagePayloadSerializationAuthenticatedEncryptionCipher
+						.updateAAD(this.finalSecureMessageSerialized, 0, secureMessagePayloadOffset);
+				secureMessagePayloadSerializationAuthenticatedEncryptionCipher
+						.doFinal(this.secureMessagePayloadSerialized, 0, sizeOfSecureMessagePayloadSerialized,
+								 this.finalSecureMessageSerialized, secureMessagePayloadOffset);
+			}
+			else {
+				sizeOfSecureMessagePayloadCiphered = this.cipherSecureMessagePayloadSerialized(sizeOfSecureMessagePayloadSerialized,
+																							   secureMessagePayloadOffset);
+
+				// The size of the Payload is only known after the Symmetric Encryption, being written in its reserved space
+				CommonCodecs.writeIntNativeOrder(this.finalSecureMessageSerialized, sizeOfSecureMessagePayloadOffset,
+												 sizeOfSecureMessagePayloadCiphered);
+
+				// FAST SECURE MESSAGE CHECK (over the Secure Message's Header, Attributes, size of the Payload and Payload ciphered)
+				this.secureMulticastChatSessionCipherSuite.getMacEngine()
+						.computeMac(this.finalSecureMessageSerialized, secureMessageHeaderOffset,
+									( secureMessagePayloadOffset + sizeOfSecureMessagePayloadCiphered - secureMessageHeaderOffset ),
+									this.finalSecureMessageSerialized, ( secureMessagePayloadOffset + sizeOfSecureMessagePayloadCiphered ));
+
+				// SECURE MESSAGE'S META-HEADER (written in its reserved space, since the size of the Cipher Text is known now)
+				this.encodeSecureMessageMetaHeaderSerialized(sizeOfSecureMessageHeader, sizeOfSecureMessagePayloadCiphered, sizeOfMessage);
+			}
+
+			// INITIALIZATION VECTOR
+			int IVBytesOffset = ( secureMessagePayloadOffset + sizeOfSecureMessagePayloadCiphered + this.sizeOfFastSecureMessageCheck );
+			System.arraycopy(this.IVBytes, 0, this.finalSecureMessageSerialized, IVBytesOffset, this.IVBytes.length);
+
+			return ( IVBytesOffset + this.IVBytes.length );
+		}
+		catch (GeneralSecurityException generalSecurityException) {
+			System.err.println("Error occurred during the encoding of the Final Secure Message:");
+			System.err.println("- " + generalSecurityException.getMessage());
+			generalSecurityException.printStackTrace();
+
+			return -1;
+		}
+	}
+
+	/**
+	 * Encodes the Final Secure Message of the given Message, in the VERSION_02 format (i.e., the compact one).
+	 *
+	 * @param messageSerialized the Byte Array of the Message (i.e., the real content of the Message)
+	 * @param messageOffset the offset of the Message, in its Byte Array
+	 * @param sizeOfMessage the size of the Message
+	 * @param sequenceNumber the Sequence Number of the Secure Message
+	 * @param randomNonce the Random Nonce of the Secure Message
+	 * @param messageType the Message's Type of the Secure Message
+	 *
+	 * @return the size of the Final Secure Message serialized, in the buffer (or -1, if an error occurred)
+	 */
+	private int encodeVersion02(byte[] messageSerialized, int messageOffset, int sizeOfMessage,
+								int sequenceNumber, int randomNonce, byte messageType) {
+
+		boolean isAuthenticatedEncryption = this.secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption();
+
+		// The layout of the Final Secure Message is computed up front, from the sizes already known
+		// (being only written the sizes which can not be derived from the Cipher Suite of the Session)
+		int sizeOfSecureMessagePayloadSerialized = ( sizeOfMessage + this.sizeOfIntegrityControl );
+
+		int fromPeerIDSizeOffset = ( ( 2 * CommonUtils.BYTE_LENGTH ) + ( 3 * CommonUtils.INTEGER_IN_BYTES_LENGTH ) );
+		int secureMessageAttributesOffset = ( fromPeerIDSizeOffset + CommonUtils.sizeOfVariableLengthInteger(this.fromPeerIDSerialized.length)
+											  + this.fromPeerIDSerialized.length );
+		int IVBytesOffset = secureMessageAttributesOffset + this.secureMessageAttributesSerializedHashed.length;
+		int secureMessagePayloadOffset = IVBytesOffset + this.IVBytes.length;
+
+		int maxSizeOfSecureMessagePayloadCiphered = isAuthenticatedEncryption ?
+						( sizeOfSecureMessagePayloadSerialized + this.secureMulticastChatSessionCipherSuite.getTagLength() ) :
+						( sizeOfSecureMessagePayloadSerialized + this.secureMulticastChatSessionCipherSuite.getBlockSize() );
+
+		this.ensureCapacity(( secureMessagePayloadOffset + maxSizeOfSecureMessagePayloadCiphered + this.sizeOfFastSecureMessageCheck ),
+							sizeOfSecureMessagePayloadSerialized);
+
+		try {
+			// SECURE MESSAGE'S HEADER (Version Number, Message Type, Session Tag, Sequence Number, Random Nonce and From Peer's ID)
+			this.finalSecureMessageSerialized[0] = VersionNumber.VERSION_02.getVersionNumber();
+			this.finalSecureMessageSerialized[1] = messageType;
+
+			int serializationOffset = CommonCodecs.writeInt(this.finalSecureMessageSerialized, ( 2 * CommonUtils.BYTE_LENGTH ),
+															this.secureMulticastChatSessionCipherSuite.getSessionTag());
+			serializationOffset = CommonCodecs.writeInt(this.finalSecureMessageSerialized, serializationOffset, sequenceNumber);
+			serializationOffset = CommonCodecs.writeInt(this.finalSecureMessageSerialized, serializationOffset, randomNonce);
+			serializationOffset = CommonUtils.writeVariableLengthInteger(this.finalSecureMessageSerialized, serializationOffset,
+																		 this.fromPeerIDSerialized.length);
+
+			System.arraycopy(this.fromPeerIDSerialized, 0, this.finalSecureMessageSerialized,
+							 serializationOffset, this.fromPeerIDSerialized.length);
+
+			// SECURE MESSAGE'S ATTRIBUTES
+			System.arraycopy(this.secureMessageAttributesSerializedHashed, 0, this.finalSecureMessageSerialized,
+							 secureMessageAttributesOffset, this.secureMessageAttributesSerializedHashed.length);
+
+			// SECURE MESSAGE'S PAYLOAD (before ciphered)
+			this.encodeSecureMessagePayloadSerialized(messageSerialized, messageOffset, sizeOfMessage,
+													  sequenceNumber, randomNonce, true);
+
+			int sizeOfSecureMessagePayloadCiphered;
+
+			if(isAuthenticatedEncryption) {
+				// In the Modes of Authenticated Encryption, the Initialization Vector is written
+				// before the Secure Message's Payload is sealed, since it's also part of its Associated Data
+				this.secureMulticastChatSessionCipherSuite.getIVGenerator().nextIV(this.IVBytes, 0);
+				System.arraycopy(this.IVBytes, 0, this.finalSecureMessageSerialized, IVBytesOffset, this.IVBytes.length);
+
+				Cipher secureMessagePayloadSerializationAuthenticatedEncryptionCipher =
+						this.secureMulticastChatSessionCipherSuite.getCipherContexts().getEncryptionCipher(this.IVBytes);
+
+				secureMessagePayloadSerializationAuthenticatedEncryptionCipher
+						.updateAAD(this.finalSecureMessageSerialized, 0, secureMessagePayloadOffset);
+				sizeOfSecureMessagePayloadCiphered =
+						secureMessagePayloadSerializationAuthenticatedEncryptionCipher
+								.doFinal(this.secureMessagePayloadSerialized, 0, sizeOfSecureMessagePayloadSerialized,
+										 this.finalSecureMessageSerialized, secureMessagePayloadOffset);
+			}
+			else {
+				sizeOfSecureMessagePayloadCiphered = this.cipherSecureMessagePayloadSerialized(sizeOfSecureMessagePayloadSerialized,
+																							   secureMessagePayloadOffset);
+
+				// INITIALIZATION VECTOR
+				System.arraycopy(this.IVBytes, 0, this.finalSecureMessageSerialized, IVBytesOffset, this.IVBytes.length);
+
+				// FAST SECURE MESSAGE CHECK (over everything before it, from the Version Number to the Payload ciphered)
+				this.secureMulticastChatSessionCipherSuite.getMacEngine()
+						.computeMac(this.finalSecureMessageSerialized, 0, ( secureMessagePayloadOffset + sizeOfSecureMessagePayloadCiphered ),
+									this.finalSecureMessageSerialized, ( secureMessagePayloadOffset + sizeOfSecureMessagePayloadCiphered ));
+			}
+
+			return ( secureMessagePayloadOffset + sizeOfSecureMessagePayloadCiphered + this.sizeOfFastSecureMessageCheck );
+		}
+		catch (GeneralSecurityException generalSecurityException) {
+			System.err.println("Error occurred during the encoding of the Final Secure Message:");
+			System.err.println("- " + generalSecurityException.getMessage());
+			generalSecurityException.printStackTrace();
+
+			return -1;
+		}
+	}
+
+	/**
+	 * Ciphers the Secure Message's Payload serialized (out of the Modes of Authenticated Encryption),
+	 * directly in the buffer of the Final Secure Message serialized, from the given offset,
+	 * keeping the Initialization Vector used.
+	 *
+	 * @param sizeOfSecureMessagePayloadSerialized the size of the Secure Message's Payload serialized, before ciphered
+	 * @param secureMessagePayloadOffset the offset of the Secure Message's Payload, in the Final Secure Message serialized
+	 *
+	 * @return the size of the Secure Message's Payload, after ciphered
+	 *
+	 * @throws GeneralSecurityException if an error occurred during the Symmetric Encryption
+	 */
+	private int cipherSecureMessagePayloadSerialized(int sizeOfSecureMessagePayloadSerialized, int secureMessagePayloadOffset)
+			throws GeneralSecurityException {
+
+		// In the CTR and OFB Modes, a keystream precomputed in background (if any) reduces the Symmetric Encryption to a XOR
+		SecureMulticastChatSessionKeystreamGenerator keystreamGenerator =
+				this.secureMulticastChatSessionCipherSuite.getKeystreamGenerator();
+
+		SecureMulticastChatSessionKeystreamGenerator.PrecomputedKeystream precomputedKeystream = ( keystreamGenerator != null ) ?
+				keystreamGenerator.takePrecomputedKeystream(sizeOfSecureMessagePayloadSerialized) : null;
+
+		if(precomputedKeystream != null) {
+			System.arraycopy(precomputedKeystream.getIV(), 0, this.IVBytes, 0, this.IVBytes.length);
+
+			return precomputedKeystream.cipher(this.secureMessagePayloadSerialized, 0, sizeOfSecureMessagePayloadSerialized,
+											   this.finalSecureMessageSerialized, secureMessagePayloadOffset);
+		}
+
+		this.secureMulticastChatSessionCipherSuite.getIVGenerator().nextIV(this.IVBytes, 0);
+
+		Cipher secureMessagePayloadSerializationSymmetricEncryptionCipher =
+				this.secureMulticastChatSessionCipherSuite.getCipherContexts().getEncryptionCipher(this.IVBytes);
+
+		return secureMessagePayloadSerializationSymmetricEncryptionCipher
+					.doFinal(this.secureMessagePayloadSerialized, 0, sizeOfSecureMessagePayloadSerialized,
+							 this.finalSecureMessageSerialized, secureMessagePayloadOffset);
+	}
+
+	/**
+	 * Encodes the Secure Message's Payload serialized, before ciphered
+	 * (i.e., the From Peer's ID, Sequence Number, Random Nonce, Message and Integrity Control,
+	 * or only the Message and Integrity Control, in the VERSION_02 format),
+	 * in the buffer of the Secure Message's Payload serialized.
+	 *
+	 * @param messageSerialized the Byte Array of the Message (i.e., the real content of the Message)
+	 * @param messageOffset the offset of the Message, in its Byte Array
+	 * @param sizeOfMessage the size of the Message
+	 * @param sequenceNumber the Sequence Number of the Secure Message
+	 * @param randomNonce the Random Nonce of the Secure Message
+	 * @param isCompactFormat true, if the From Peer's ID, the Sequence Number and the Random Nonce are not part of the Payload,
+	 *        being written in clear, in the Secure Message's Header (i.e., the VERSION_02 format)
+	 *
+	 * @return the size of the Secure Message's Payload serialized, before ciphered
+	 *
+	 * @throws DigestException if an error occurred during the Integrity Control Hash process
+	 */
+	private int encodeSecureMessagePayloadSerialized(byte[] messageSerialized, int messageOffset, int sizeOfMessage,
+													 int sequenceNumber, int randomNonce, boolean isCompactFormat) throws DigestException {
+
+		// The offset related to fulfillment of the serialization process
+		int serializationOffset = 0;
+
+		if(!isCompactFormat) {
+			System.arraycopy(this.fromPeerIDSerialized, 0, this.secureMessagePayloadSerialized,
+							 serializationOffset, this.fromPeerIDSerialized.length);
+			serializationOffset += this.fromPeerIDSerialized.length;
+
+			serializationOffset = CommonCodecs.writeIntNativeOrder(this.secureMessagePayloadSerialized, serializationOffset, sequenceNumber);
+			serializationOffset = CommonCodecs.writeIntNativeOrder(this.secureMessagePayloadSerialized, serializationOffset, randomNonce);
+		}
+
+		System.arraycopy(messageSerialized, messageOffset, this.secureMessagePayloadSerialized,
+						 serializationOffset, sizeOfMessage);
+		serializationOffset += sizeOfMessage;
+
+		if(this.sizeOfIntegrityControl > 0) {
+			// The Integrity Control Hash over the Message is written directly after it,
+			// using the Cryptographic Hash Function of the current Thread, already resolved by the Cipher Suite
+			MessageDigest integrityControlHashFunction =
+					this.secureMulticastChatSessionCipherSuite.getIntegrityControlHashFunction();
+
+			integrityControlHashFunction.update(messageSerialized, messageOffset, sizeOfMessage);
+			integrityControlHashFunction.digest(this.secureMessagePayloadSerialized, serializationOffset, this.sizeOfIntegrityControl);
+			serializationOffset += this.sizeOfIntegrityControl;
+		}
+
+		return serializationOffset;
+	}
+
+	/**
+	 * Encodes the Secure Message's Meta-Header serialized, in its reserved space,
+	 * at the beginning of the buffer of the Final Secure Message serialized.
+	 *
+	 * @param sizeOfSecureMessageHeader the size of the Secure Message's Header
+	 * @param sizeOfSecureMessagePayloadCiphered the size of the Secure Message's Payload, after ciphered
+	 * @param sizeOfMessage the size of the Message
+	 */
+	private void encodeSecureMessageMetaHeaderSerialized(int sizeOfSecureMessageHeader, int sizeOfSecureMessagePayloadCiphered,
+														 int sizeOfMessage) {
+
+		// [ outside separator || 8 sizes (each one followed by an inside separator, except the last one) || outside separator ]
+		int serializationOffset = CommonUtils.META_HEADER_OUTSIDE_SEPARATORS_LENGTH;
+
+		serializationOffset = this.encodeSecureMessageMetaHeaderSize(serializationOffset, sizeOfSecureMessageHeader, true);
+		serializationOffset = this.encodeSecureMessageMetaHeaderSize(serializationOffset, this.secureMessageAttributesSerializedHashed.length, true);
+		serializationOffset = this.encodeSecureMessageMetaHeaderSize(serializationOffset, sizeOfSecureMessagePayloadCiphered, true);
+		serializationOffset = this.encodeSecureMessageMetaHeaderSize(serializationOffset, this.fromPeerIDSerialized.length, true);
+		serializationOffset = this.encodeSecureMessageMetaHeaderSize(serializationOffset, sizeOfMessage, true);
+		serializationOffset = this.encodeSecureMessageMetaHeaderSize(serializationOffset, this.sizeOfIntegrityControl, true);
+		serializationOffset = this.encodeSecureMessageMetaHeaderSize(serializationOffset, this.sizeOfFastSecureMessageCheck, true);
+		serializationOffset = this.encodeSecureMessageMetaHeaderSize(serializationOffset, this.IVBytes.length, false);
+
+		// The separators are all zeros
+		this.finalSecureMessageSerialized[0] = 0x00;
+		this.finalSecureMessageSerialized[1] = 0x00;
+		this.finalSecureMessageSerialized[serializationOffset] = 0x00;
+		this.finalSecureMessageSerialized[serializationOffset + 1] = 0x00;
+	}
+
+	/**
+	 * Encodes one size of the Secure Message's Meta-Header serialized, followed by an inside separator (if any).
+	 *
+	 * @param serializationOffset the offset of the size, in the buffer of the Final Secure Message serialized
+	 * @param size the size
+	 * @param hasInsideSeparator true, if the size is followed by an inside separator
+	 *
+	 * @return the offset after the size and its inside separator (if any)
+	 */
+	private int encodeSecureMessageMetaHeaderSize(int serializationOffset, int size, boolean hasInsideSeparator) {
+		serializationOffset = CommonCodecs.writeIntNativeOrder(this.finalSecureMessageSerialized, serializationOffset, size);
+
+		if(hasInsideSeparator) {
+			this.finalSecureMessageSerialized[serializationOffset] = 0x00;
+			serializationOffset += CommonUtils.META_HEADER_INSIDE_SEPARATORS_LENGTH;
+		}
+
+		return serializationOffset;
+	}
+
+	/**
+	 * Ensures the buffers of the Final Secure Message serialized and of the Secure Message's Payload serialized
+	 * have, at least, the given sizes (i.e., they only grow, so, no allocation is made in steady state).
+	 *
+	 * @param sizeOfFinalSecureMessageSerialized the size required for the Final Secure Message serialized
+	 * @param sizeOfSecureMessagePayloadSerialized the size required for the Secure Message's Payload serialized
+	 */
+	private void ensureCapacity(int sizeOfFinalSecureMessageSerialized, int sizeOfSecureMessagePayloadSerialized) {
+		if(this.finalSecureMessageSerialized == null || this.finalSecureMessageSerialized.length < sizeOfFinalSecureMessageSerialized) {
+			this.finalSecureMessageSerialized = new byte[sizeOfFinalSecureMessageSerialized];
+		}
+
+		if(this.secureMessagePayloadSerialized == null || this.secureMessagePayloadSerialized.length < sizeOfSecureMessagePayloadSerialized) {
+			this.secureMessagePayloadSerialized = new byte[sizeOfSecureMessagePayloadSerialized];
+		}
+	}
+
+}
@@ -16,15 +16,9 @@ package multicast.sockets.messages.components;
  * 
  */
 
-import java.security.InvalidKeyException;
-import java.security.Key;
-import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 
-import javax.crypto.Mac;
-import multicast.common.CommonUtils;
-import multicast.sockets.messages.utils.KeyStoreInterface;
-import multicast.sockets.messages.utils.SecureMulticastChatSessionParameters;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionCipherSuite;
 
 /**
  * 
@@ -41,14 +35,36 @@ public class FastSecureMessageCheck {
 	// Global Instance Variables:
 	/**
 	 * The Secure Message serialized
+	 * (or the buffer, where the Secure Message serialized was received)
 	 */
 	private byte[] secureMessageSerialized;
 	
+	/**
+	 * The offset of the Secure Message serialized, in its buffer
+	 */
+	private int secureMessageSerializedOffset;
+	
+	/**
+	 * The size of the Secure Message serialized
+	 */
+	private int sizeOfSecureMessageSerialized;
+	
 	/**
 	 * The Secure Message serialized hashed
+	 * (or the buffer, where the Secure Message serialized hashed was received)
 	 */
 	private byte[] secureMessageSerializedHashed;
 	
+	/**
+	 * The offset of the Secure Message serialized hashed, in its buffer
+	 */
+	private int secureMessageSerializedHashedOffset;
+	
+	/**
+	 * The size of the Secure Message serialized hashed
+	 */
+	private int sizeOfSecureMessageSerializedHashed;
+	
 	/**
 	 * The boolean to keep the value to check if
 	 * the Secure Message serialized is hashed
@@ -69,19 +85,9 @@ public class FastSecureMessageCheck {
 	private boolean isFastSecureMessageCheckDone;
 	
 	/**
-	 * Properties Reader from file
-	 */
-	private SecureMulticastChatSessionParameters propertiesReader;
-	
-	/**
-	 * Keystore interface
+	 * The compiled Cipher Suite of the (Secure) Multicast Chat Session
 	 */
-	private KeyStoreInterface keystoreInterface;
-	
-	/**
-	 * Filename of Keystore file
-	 */
-	private static final String keystoreFilename = "./res/SMCPKeystore.jecks";
+	private SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite;
 	
 	
 	
@@ -89,45 +95,67 @@ public class FastSecureMessageCheck {
 	/**
 	 * Constructor #1:
 	 * - The Constructor of the Fast Secure Message's Check,
-	 *   performing/computing the hash on the Secure Message serialized.
+	 *   performing/computing the hash on the Secure Message serialized, directly over
+	 *   the buffer where it was serialized (i.e., the Final Secure Message serialized).
+	 * 
+	 * @param secureMessageSerialized the buffer, where the Secure Message was serialized
+	 * 
+	 * @param secureMessageSerializedOffset the offset of the Secure Message serialized, in the buffer
 	 * 
-	 * @param secureMessageSerialized the Secure Message serialized
+	 * @param sizeOfSecureMessageSerialized the size of the Secure Message serialized
 	 */
-	public FastSecureMessageCheck(byte[] secureMessageSerialized, SecureMulticastChatSessionParameters propertiesReader) {
+	public FastSecureMessageCheck(byte[] secureMessageSerialized, int secureMessageSerializedOffset, int sizeOfSecureMessageSerialized,
+								  SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite) {
+		
 		this.secureMessageSerialized = secureMessageSerialized;
+		this.secureMessageSerializedOffset = secureMessageSerializedOffset;
+		this.sizeOfSecureMessageSerialized = sizeOfSecureMessageSerialized;
 		
 		this.isSecureMessageSerializedHashed = false;
 		
 		this.isFastSecureMessageCheckValid = false;
 		this.isFastSecureMessageCheckDone = false;
 		
-		this.propertiesReader = propertiesReader;
-		
-		this.keystoreInterface = new KeyStoreInterface(keystoreFilename, "CSNS1920");
+		this.secureMulticastChatSessionCipherSuite = secureMulticastChatSessionCipherSuite;
 	}
 	
 	/**
 	 * Constructor #2:
 	 * - The Constructor of the Fast Secure Message's Check,
 	 *   comparing the hash of the received Secure Message serialized with
-	 *   the received Secure Message serialized hashed.
+	 *   the received Secure Message serialized hashed, directly over
+	 *   the buffer where both of them were received (i.e., without copying them).
+	 * 
+	 * @param receivedBuffer the buffer, where the Secure Message serialized and
+	 *        the Secure Message serialized hashed were received
 	 * 
-	 * @param secureMessageSerialized the Secure Message serialized
+	 * @param secureMessageSerializedOffset the offset of the Secure Message serialized, in the buffer
 	 * 
-	 * @param secureMessageSerializedHashed the Secure Message serialized hashed
+	 * @param sizeOfSecureMessageSerialized the size of the Secure Message serialized
+	 * 
+	 * @param secureMessageSerializedHashedOffset the offset of the Secure Message serialized hashed, in the buffer
+	 * 
+	 * @param sizeOfSecureMessageSerializedHashed the size of the Secure Message serialized hashed
 	 */
-	public FastSecureMessageCheck(byte[] secureMessageSerialized, byte[] secureMessageSerializedHashed, SecureMulticastChatSessionParameters propertiesReader) {
-		this.secureMessageSerialized = secureMessageSerialized;
-		this.secureMessageSerializedHashed = secureMessageSerializedHashed;
+	public FastSecureMessageCheck(byte[] receivedBuffer,
+								  int secureMessageSerializedOffset, int sizeOfSecureMessageSerialized,
+								  int secureMessageSerializedHashedOffset, int sizeOfSecureMessageSerializedHashed,
+								  SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite) {
+		
+		this.secureMessageSerialized = receivedBuffer;
+		this.secureMessageSerializedOffset = secureMessageSerializedOffset;
+		this.sizeOfSecureMessageSerialized = sizeOfSecureMessageSerialized;
+		
+		this.secureMessageSerializedHashed = receivedBuffer;
+		this.secureMessageSerializedHashedOffset = secureMessageSerializedHashedOffset;
+		this.sizeOfSecureMessageSerializedHashed = sizeOfSecureMessageSerializedHashed;
 		
 		this.isSecureMessageSerializedHashed = true;
 		
 		this.isFastSecureMessageCheckValid = false;
 		this.isFastSecureMessageCheckDone = false;
 		
-		this.propertiesReader = propertiesReader;
-		
-		this.keystoreInterface = new KeyStoreInterface(keystoreFilename, "CSNS1920");
+		this.secureMulticastChatSessionCipherSuite = secureMulticastChatSessionCipherSuite;
 	}
 	
 	
@@ -139,7 +167,19 @@ public class FastSecureMessageCheck {
 	 * @return the Secure Message serialized
 	 */
 	public byte[] getSecureMessageSerialized() {
-		return isSecureMessageSerializedHashed ? this.secureMessageSerialized : null;
+		if(!this.isSecureMessageSerializedHashed) {
+			return null;
+		}
+		
+		// The Secure Message serialized was not received in a shared buffer
+		if(this.secureMessageSerializedOffset == 0 && 
+		   this.sizeOfSecureMessageSerialized == this.secureMessageSerialized.length) {
+			
+			return this.secureMessageSerialized;
+		}
+		
+		return Arrays.copyOfRange(this.secureMessageSerialized, this.secureMessageSerializedOffset,
+								  this.secureMessageSerializedOffset + this.sizeOfSecureMessageSerialized);
 	}
 	
 	/**
@@ -148,7 +188,19 @@ public class FastSecureMessageCheck {
 	 * @return the Secure Message serialized hashed
 	 */
 	public byte[] getSecureMessageSerializedHashed() {
-		return this.isSecureMessageSerializedHashed ? this.secureMessageSerializedHashed : null;
+		if(!this.isSecureMessageSerializedHashed) {
+			return null;
+		}
+		
+		// The Secure Message serialized hashed was computed locally and it's not shared with any buffer
+		if(this.secureMessageSerializedHashedOffset == 0 && 
+		   this.sizeOfSecureMessageSerializedHashed == this.secureMessageSerializedHashed.length) {
+			
+			return this.secureMessageSerializedHashed;
+		}
+		
+		return Arrays.copyOfRange(this.secureMessageSerializedHashed, this.secureMessageSerializedHashedOffset,
+								  this.secureMessageSerializedHashedOffset + this.sizeOfSecureMessageSerializedHashed);
 	}
 	
 	/**
@@ -159,34 +211,15 @@ public class FastSecureMessageCheck {
 		if(!this.isSecureMessageSerializedHashed) {
 			
 			// Starts the MAC Hash process over the Secure Message serialized (applying the HMAC or CMAC operation),
-			// before the sending of the final concatenation of it with Secure Message serialized
-			try {
-				
-				// The Initialization Vector and its Parameter's Specifications
-				Key secureMessageSerializedMACKey = CommonUtils
-						.convertStringToKey(keystoreInterface.load(propertiesReader.getProperty("ip") + ":" + 
-								propertiesReader.getProperty("port") + ":" +
-								"mac"));
-				
-				// The configuration, initialization and update of the MAC Hash process
-				Mac mac = Mac.getInstance(this.propertiesReader.getProperty("mac"));
-				mac.init(secureMessageSerializedMACKey);
-				mac.update(this.secureMessageSerialized);
-				
-				// Performs the final operation of MAC Hash process over the Secure Message serialized
-				// (applying the HMAC or CMAC operation)
-				this.secureMessageSerializedHashed = mac.doFinal();
-			}
-			catch (NoSuchAlgorithmException noSuchAlgorithmException) {
-				System.err.println("Error occurred during the Hashing Function over the Secure Message's Attributes:");
-				System.err.println("- Cryptographic Algorithm not found!!!");
-				noSuchAlgorithmException.printStackTrace();
-			}
-			catch (InvalidKeyException invalidKeyException) {
-				System.err.println("Error occurred during the Hashing Function over the Secure Message's Attributes:");
-				System.err.println("- Invalid Secret Key!!!");
-				invalidKeyException.printStackTrace();
-			}
+			// before the sending of the final concatenation of it with Secure Message serialized,
+			// using the MAC Engine of the Session, already keyed with the MAC's Secret Key
+			this.secureMessageSerializedHashed = 
+					this.secureMulticastChatSessionCipherSuite.getMacEngine()
+															  .computeMac(this.secureMessageSerialized,
+																		  this.secureMessageSerializedOffset,
+																		  this.sizeOfSecureMessageSerialized);
+			this.secureMessageSerializedHashedOffset = 0;
+			this.sizeOfSecureMessageSerializedHashed = this.secureMessageSerializedHashed.length;
 		
 			this.isSecureMessageSerializedHashed = true;
 		}
@@ -202,42 +235,18 @@ public class FastSecureMessageCheck {
 	public boolean isFastSecureMessageCheckValid() {
 		if(!this.isFastSecureMessageCheckDone) {
 			if(this.isSecureMessageSerializedHashed) {			
-				byte[] secureMessageSerializedHashedToCompare = this.secureMessageSerialized;
 				
 				// Starts the MAC Hash process over the Secure Message serialized received (applying the HMAC or CMAC operation),
-				// comparing it with Secure Message serialized hashed received (the MAC Hash process related to the Fast Secure Message Check)
-				try {
-				
-					// The Initialization Vector and its Parameter's Specifications
-					Key secureMessageSerializedMACKey = CommonUtils
-							.convertStringToKey(keystoreInterface.load(propertiesReader.getProperty("ip") + ":" + 
-									propertiesReader.getProperty("port") + ":" +
-									"mac"));
-					
-					// The configuration, initialization and update of the MAC Hash process
-					Mac mac = Mac.getInstance(this.propertiesReader.getProperty("mac"));
-					mac.init(secureMessageSerializedMACKey);
-					mac.update(secureMessageSerializedHashedToCompare);
-					
-					// Performs the final operation of MAC Hash process over the Secure Message serialized
-					// (applying the HMAC or CMAC operation)
-					secureMessageSerializedHashedToCompare = mac.doFinal();
-				}
-				catch (NoSuchAlgorithmException noSuchAlgorithmException) {
-					System.err.println("Error occurred during the Hashing Function over the Secure Message's Attributes:");
-					System.err.println("- Cryptographic Algorithm not found!!!");
-					noSuchAlgorithmException.printStackTrace();
-				}
-				catch (InvalidKeyException invalidKeyException) {
-					System.err.println("Error occurred during the Hashing Function over the Secure Message's Attributes:");
-					System.err.println("- Invalid Secret Key!!!");
-					invalidKeyException.printStackTrace();
-				}
-				
-				this.isFastSecureMessageCheckValid = (this.isSecureMessageSerializedHashed &&
-													  Arrays.equals(secureMessageSerializedHashedToCompare, 
-															  secureMessageSerializedHashed)) ? 
-																   true : false;
+				// comparing it, in constant time, with Secure Message serialized hashed received
+				// (the MAC Hash process related to the Fast Secure Message Check),
+				// using the MAC Engine of the Session, already keyed with the MAC's Secret Key
+				this.isFastSecureMessageCheckValid = 
+						this.secureMulticastChatSessionCipherSuite.getMacEngine()
+																  .verifyMac(this.secureMessageSerialized, this.secureMessageSerializedOffset,
+																			 this.sizeOfSecureMessageSerialized,
+																			 this.secureMessageSerializedHashed,
+																			 this.secureMessageSerializedHashedOffset,
+																			 this.sizeOfSecureMessageSerializedHashed);
 				
 				if(!this.isFastSecureMessageCheckValid) {
 					System.err.println("The Fast Secure Message Check it's not valid:");
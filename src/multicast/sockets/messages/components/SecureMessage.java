@@ -5,7 +5,7 @@ import java.net.DatagramPacket;
 
 import multicast.common.CommonUtils;
 import multicast.common.VersionNumber;
-import multicast.sockets.messages.utils.SecureMulticastChatSessionParameters;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionCipherSuite;
 
 public class SecureMessage {
 	
@@ -22,11 +22,11 @@ public class SecureMessage {
 	private SecureMessageHeader secureMessageHeader;
 	
 	/**
-	 * The (Secure) Multicast Chat Session's Parameters,
+	 * The compiled Cipher Suite of the (Secure) Multicast Chat Session,
 	 * loaded from the User (Client) sending this Secure Message,
 	 * which will be used in the Secure Message's Attributes
 	 */
-	private SecureMulticastChatSessionParameters secureMessageAttributesParameters;
+	private SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite;
 	
 	/**
 	 * The size of the Secure Message's Payload
@@ -58,9 +58,20 @@ public class SecureMessage {
 	
 	/**
 	 * The Secure Message serialized
+	 * (i.e., the buffer of the Final Secure Message serialized, where the Secure Message is written or was received)
 	 */
 	private byte[] secureMessageSerialized;
 	
+	/**
+	 * The offset of the Secure Message serialized, in its buffer
+	 */
+	private int secureMessageSerializedOffset;
+	
+	/**
+	 * The size of the Secure Message serialized
+	 */
+	private int sizeOfSecureMessageSerialized;
+	
 	/**
 	 * The boolean to keep the value to check if
 	 * the Secure Message is serialized
@@ -88,33 +99,43 @@ public class SecureMessage {
 	 * 
 	 * @param randomNonce the Random Nonce of the Secure Message
 	 * 
-	 * @param properties the Properties of the Secure Message's Attributes
+	 * @param secureMulticastChatSessionCipherSuite the compiled Cipher Suite of the Session
 	 * 
 	 * @param messageType the Message's Type of the Secure Message
 	 */
-	public SecureMessage(DatagramPacket datagramPacket, String fromPeerID, SecureMulticastChatSessionParameters secureMessageAttributesParameters, int sequenceNumber, int randomNonce, byte messageType) {
+	public SecureMessage(DatagramPacket datagramPacket, String fromPeerID, SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite, int sequenceNumber, int randomNonce, byte messageType) {
 		
-		this.secureMessageAttributesParameters = secureMessageAttributesParameters;
+		this.secureMulticastChatSessionCipherSuite = secureMulticastChatSessionCipherSuite;
 		
 		this.secureMessageHeader = new SecureMessageHeader(VersionNumber.VERSION_01.getVersionNumber(),
-				   this.secureMessageAttributesParameters.getProperty("sid"),
+				   this.secureMulticastChatSessionCipherSuite.getSessionName(),
 				   messageType);
 
-		this.secureMessageAttributes = new SecureMessageAttributes(secureMessageAttributesParameters);
+		this.secureMessageAttributes = new SecureMessageAttributes(secureMulticastChatSessionCipherSuite);
 		
-		this.secureMessagePayload = new SecureMessagePayload(fromPeerID, sequenceNumber, randomNonce, datagramPacket.getData(), this.secureMessageAttributesParameters);
+		this.secureMessagePayload = new SecureMessagePayload(fromPeerID, sequenceNumber, randomNonce, datagramPacket.getData(), this.secureMulticastChatSessionCipherSuite);
 		
 		
 		this.isSecureMessageSerialized = false;
 	}
 	
-	public SecureMessage(byte[] secureMessageSerialized, int sizeOfSecureMessageHeader,
+	/**
+	 * Constructor #2:
+	 * - The Constructor of the Secure Message received,
+	 *   directly over the buffer where it was received (i.e., without copying it).
+	 * 
+	 * @param receivedBuffer the buffer, where the Secure Message was received
+	 * 
+	 * @param secureMessageSerializedOffset the offset of the Secure Message serialized, in the buffer
+	 */
+	public SecureMessage(byte[] receivedBuffer, int secureMessageSerializedOffset, int sizeOfSecureMessageHeader,
 						 int sizeOfSecureMessageAttributes, int sizeOfSecureMessagePayload,
 						 int sizeOfFromPeerIDSerialized, int sizeOfMessageSerialized,
 						 int sizeOfIntegrityControlHashedSerialized,
-						 SecureMulticastChatSessionParameters secureMessageAttributesParameters) {
+						 SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite) {
 		
-		this.secureMessageSerialized = secureMessageSerialized;
+		this.secureMessageSerialized = receivedBuffer;
+		this.secureMessageSerializedOffset = secureMessageSerializedOffset;
 		
 		this.sizeOfSecureMessageHeader = sizeOfSecureMessageHeader;
 		this.sizeOfSecureMessageAttributes = sizeOfSecureMessageAttributes;
@@ -126,7 +147,7 @@ public class SecureMessage {
 		
 		this.isSecureMessageSerialized = true;
 		
-		this.secureMessageAttributesParameters = secureMessageAttributesParameters;
+		this.secureMulticastChatSessionCipherSuite = secureMulticastChatSessionCipherSuite;
 	}
 	
 	// Methods:
@@ -167,80 +188,117 @@ public class SecureMessage {
 	}
 	
 	/**
-	 * Return the Secure Message serizalized.
+	 * Returns the size of the Secure Message serialized.
 	 * 
-	 * @return the Secure Message serizalized
+	 * @return the size of the Secure Message serialized
 	 */
-	public byte[] getSecureMessageSerialized() {
-		return this.isSecureMessageSerialized ? this.secureMessageSerialized : null;
+	public int getSizeOfSecureMessageSerialized() {
+		return this.isSecureMessageSerialized ? this.sizeOfSecureMessageSerialized : -1;
 	}
 	
 	/**
+	 * Returns the maximum size of the Secure Message serialized
+	 * (i.e., with the maximum size of the Secure Message's Payload, after ciphered),
+	 * to reserve its space in the Final Secure Message serialized.
 	 * 
+	 * @return the maximum size of the Secure Message serialized
+	 */
+	public int getMaxSizeOfSecureMessageSerialized() {
+		return ( this.secureMessageHeader.getSecureMessageHeaderSerialized().length
+			   + this.secureMessageAttributes.getSecureMessageAttributesSerializedHashed().length
+			   + CommonUtils.INTEGER_IN_BYTES_LENGTH
+			   + this.secureMessagePayload.getMaxSizeOfSecureMessagePayloadSerializedCiphered() );
+	}
+	
+	/**
+	 * Builds the components of the Secure Message to be ciphered,
+	 * i.e., the Secure Message's Header and Attributes serialized and the Secure Message's Payload serialized,
+	 * which is not ciphered here, since it's only ciphered directly into its final position,
+	 * in the Final Secure Message serialized (in the Modes of Authenticated Encryption,
+	 * sealed together with the Final Secure Message's Associated Data).
 	 */
-	public void buildSecureMessageSerialized() {
-		if(!this.isSecureMessageSerialized) {			
+	public void buildSecureMessageComponentsToCipher() {
+		if(!this.isSecureMessageSerialized) {
 			
 			this.secureMessageHeader.buildMessageHeaderSerialized();
-			byte[] secureMessageHeaderSerialized = 
-					this.secureMessageHeader.getSecureMessageHeaderSerialized();
 			
 			this.secureMessageAttributes.buildSecureMessageAttributesSerialized();
 			this.secureMessageAttributes.buildFinalSecureMessageAttributesSerializedHashed();
-			byte[] secureMessageAttributesSerializedHashed = 
-					this.secureMessageAttributes.getSecureMessageAttributesSerializedHashed();
 			
 			this.secureMessagePayload.buildIntegrityControlHashedSerialized();
 			this.secureMessagePayload.buildSecureMessagePayloadSerialized();
-			this.secureMessagePayload.buildSecureMessagePayloadSerializedSymmetricEncryptionCiphered();
-			byte[] secureMessagePayloadSerializedCiphered = 
-					this.secureMessagePayload.getSecureMessagePayloadSerializedCiphered();
-						
-			this.sizeOfSecureMessagePayload = this.secureMessagePayload.getSecureMessagePayloadSerializedCiphered().length;
-			byte[] sizeOfSecureMessagePayloadSerialized = 
-					CommonUtils.fromIntToByteArray(this.sizeOfSecureMessagePayload);
 			
-			this.secureMessageSerialized = new byte[( secureMessageHeaderSerialized.length + secureMessageAttributesSerializedHashed.length
-					                                + sizeOfSecureMessagePayloadSerialized.length + secureMessagePayloadSerializedCiphered.length )];
+			if(this.secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption()) {
+				this.sizeOfSecureMessagePayload = this.secureMessagePayload.getSizeOfSecureMessagePayloadSerializedSealed();
+			}
+		}
+	}
+	
+	/**
+	 * Builds the Secure Message serialized, directly into the given Final Secure Message serialized,
+	 * from the given offset, being the Secure Message's Payload ciphered directly into its final position
+	 * (i.e., without any intermediate Secure Message serialized or Cipher Text).
+	 * 
+	 * NOTE:
+	 * - In the Modes of Authenticated Encryption, all the bytes of the Final Secure Message serialized
+	 *   before the Secure Message's Payload are authenticated as Associated Data, so the Secure Message's Meta-Header
+	 *   must be already filled, before the Secure Message is serialized;
+	 * 
+	 * @param finalSecureMessageSerialized the Final Secure Message serialized, with, at least,
+	 *        the maximum size of the Secure Message serialized reserved, from the given offset
+	 * 
+	 * @param secureMessageSerializedOffset the offset of the Secure Message, in the Final Secure Message serialized
+	 */
+	public void buildSecureMessageSerialized(byte[] finalSecureMessageSerialized, int secureMessageSerializedOffset) {
+		if(!this.isSecureMessageSerialized) {
 			
-			// Operations to Fill a Byte Array, with the following parameters:
-			// 1) src - The source of the array to be copied
-			// 2) srcPos - The position from the array to be copied, representing the first element to be copied
-			// 3) dest - The destination of the array to be copied
-			// 4) destPos - The position of the array where will be placed the new copy,
-			//              representing the first element where new data will be placed
-			// 5) length - The length of the data to be copied from the source array to the destination array
+			byte[] secureMessageHeaderSerialized = 
+					this.secureMessageHeader.getSecureMessageHeaderSerialized();
+			byte[] secureMessageAttributesSerializedHashed = 
+					this.secureMessageAttributes.getSecureMessageAttributesSerializedHashed();
 			
 			// The offset related to fulfillment of the serialization process
-			int serializationOffset = 0;
-						
-			// Fills the byte array of the Secure Message with the Secure Message's Header,
-			// From the initial position to the corresponding to the length of Secure Message's Header
+			int serializationOffset = secureMessageSerializedOffset;
+			
+			// Fills the byte array of the Final Secure Message with the Secure Message's Header
 			System.arraycopy(secureMessageHeaderSerialized, 0,
-							 this.secureMessageSerialized, serializationOffset, secureMessageHeaderSerialized.length);
+							 finalSecureMessageSerialized, serializationOffset, secureMessageHeaderSerialized.length);
 			serializationOffset += secureMessageHeaderSerialized.length;
 			
-			// Fills the byte array of the Secure Message with the Secure Message's Attributes,
-			// From the position corresponding to the length of Secure Message's Header to
-			// the corresponding to the length of Secure Message's Attributes
+			// Fills the byte array of the Final Secure Message with the Secure Message's Attributes
 			System.arraycopy(secureMessageAttributesSerializedHashed, 0,
-							 this.secureMessageSerialized, serializationOffset, secureMessageAttributesSerializedHashed.length);
+							 finalSecureMessageSerialized, serializationOffset, secureMessageAttributesSerializedHashed.length);
 			serializationOffset += secureMessageAttributesSerializedHashed.length;
 			
-			// Fills the byte array of the Final Secure Message with the size of Secure Message's Payload,
-			// From the position corresponding to the length of Secure Message's Attributes to
-			// the corresponding to the length of size of Secure Message's Payload
-			System.arraycopy(sizeOfSecureMessagePayloadSerialized, 0,
-							 this.secureMessageSerialized, serializationOffset, sizeOfSecureMessagePayloadSerialized.length);
-			serializationOffset += sizeOfSecureMessagePayloadSerialized.length;
-						
-			// Fills the byte array of the Final Secure Message with the Secure Message's Payload,
-			// From the position corresponding to the length of size of Secure Message's Payload to
-			// the corresponding to the length of Secure Message's Payload
-			System.arraycopy(secureMessagePayloadSerializedCiphered, 0,
-							 this.secureMessageSerialized, serializationOffset, secureMessagePayloadSerializedCiphered.length);
-			serializationOffset += secureMessagePayloadSerializedCiphered.length;
-						
+			// The size of Secure Message's Payload is only known after the Symmetric Encryption
+			// (except in the Modes of Authenticated Encryption), so its space is reserved, to be filled after
+			int sizeOfSecureMessagePayloadOffset = serializationOffset;
+			serializationOffset += CommonUtils.INTEGER_IN_BYTES_LENGTH;
+			
+			if(this.secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption()) {
+				System.arraycopy(CommonUtils.fromIntToByteArray(this.sizeOfSecureMessagePayload), 0,
+								 finalSecureMessageSerialized, sizeOfSecureMessagePayloadOffset, CommonUtils.INTEGER_IN_BYTES_LENGTH);
+				
+				// Seals the Secure Message's Payload, in one call, directly after its Associated Data
+				this.secureMessagePayload.buildSecureMessagePayloadSerializedAuthenticatedEncryptionSealed(finalSecureMessageSerialized,
+																										   serializationOffset);
+			}
+			else {
+				// Ciphers the Secure Message's Payload directly into its final position
+				this.secureMessagePayload.buildSecureMessagePayloadSerializedSymmetricEncryptionCiphered(finalSecureMessageSerialized,
+																										 serializationOffset);
+				
+				this.sizeOfSecureMessagePayload = this.secureMessagePayload.getSizeOfSecureMessagePayloadSerializedCiphered();
+				
+				System.arraycopy(CommonUtils.fromIntToByteArray(this.sizeOfSecureMessagePayload), 0,
+								 finalSecureMessageSerialized, sizeOfSecureMessagePayloadOffset, CommonUtils.INTEGER_IN_BYTES_LENGTH);
+			}
+			serializationOffset += this.sizeOfSecureMessagePayload;
+			
+			this.secureMessageSerialized = finalSecureMessageSerialized;
+			this.secureMessageSerializedOffset = secureMessageSerializedOffset;
+			this.sizeOfSecureMessageSerialized = ( serializationOffset - secureMessageSerializedOffset );
+			
 			// The Secure Message have already its serialization done
 			this.isSecureMessageSerialized = true;
 		}
@@ -252,7 +310,6 @@ public class SecureMessage {
 			byte[] secureMessageHeaderSerialized = new byte[this.sizeOfSecureMessageHeader];
 			this.secureMessageAttributesSerializedHashed = new byte[this.sizeOfSecureMessageAttributes];
 			byte[] sizeOfSecureMessagePayloadSerialized = new byte[CommonUtils.INTEGER_IN_BYTES_LENGTH];
-			byte[] secureMessagePayloadSerialized = new byte[this.sizeOfSecureMessagePayload];
 			
 			
 			// Operations to Fill a Byte Array, with the following parameters:
@@ -264,7 +321,7 @@ public class SecureMessage {
 			// 5) length - The length of the data to be copied from the source array to the destination array
 			
 			// The offset related to fulfillment of the serialization process
-			int serializationOffset = 0;
+			int serializationOffset = this.secureMessageSerializedOffset;
 			
 			// Fills the byte array of the Secure Message with the Secure Message's Header,
 			// From the initial position to the corresponding to the length of Secure Message's Header
@@ -285,15 +342,11 @@ public class SecureMessage {
 			System.arraycopy(this.secureMessageSerialized, serializationOffset,
 							 sizeOfSecureMessagePayloadSerialized, 0, sizeOfSecureMessagePayloadSerialized.length);
 			serializationOffset += sizeOfSecureMessagePayloadSerialized.length;
-						
-			// Fills the byte array of the Final Secure Message with the Secure Message's Payload,
-			// From the position corresponding to the length of size of Secure Message's Payload to
-			// the corresponding to the length of Secure Message's Payload
-			System.arraycopy(this.secureMessageSerialized, serializationOffset,
-							 secureMessagePayloadSerialized, 0, secureMessagePayloadSerialized.length);
-			serializationOffset += secureMessagePayloadSerialized.length;
 			
-			this.secureMessageAttributes = new SecureMessageAttributes(secureMessageAttributesSerializedHashed, secureMessageAttributesParameters);
+			// The Secure Message's Payload is not copied, being deciphered in place, in the buffer where it was received
+			int secureMessagePayloadSerializedOffset = serializationOffset;
+			
+			this.secureMessageAttributes = new SecureMessageAttributes(secureMessageAttributesSerializedHashed, secureMulticastChatSessionCipherSuite);
 						
 			if(this.secureMessageAttributes.checkIfIsSecureMessageAttributesSerializedHashedValid()) {
 				int sizeOfSecureMessagePayloadReceived = CommonUtils.fromByteArrayToInt(sizeOfSecureMessagePayloadSerialized);
@@ -301,10 +354,11 @@ public class SecureMessage {
 				this.secureMessageHeader = new SecureMessageHeader(secureMessageHeaderSerialized);
 				
 				this.secureMessagePayload = 
-							new SecureMessagePayload(secureMessagePayloadSerialized, sizeOfSecureMessagePayloadReceived,
+							new SecureMessagePayload(this.secureMessageSerialized, secureMessagePayloadSerializedOffset,
+													 this.sizeOfSecureMessagePayload, sizeOfSecureMessagePayloadReceived,
 													 this.sizeOfFromPeerIDSerialized, this.sizeOfMessageSerialized,
 													 this.sizeOfIntegrityControlHashedSerialized,
-													 secureMessageAttributesParameters);				
+													 secureMulticastChatSessionCipherSuite);				
 			}
 			
 			this.isSecureMessageSerialized = false;
@@ -1,11 +1,6 @@
 package multicast.sockets.messages.components;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
-
-import multicast.common.CommonUtils;
-import multicast.sockets.messages.utils.SecureMulticastChatSessionParameters;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionCipherSuite;
 
 public class SecureMessageAttributes {
 	private String sessionID;
@@ -23,11 +18,11 @@ public class SecureMessageAttributes {
 	private String fastSecurePayloadCheckMessageAuthenticationCodeConstructionMethod;
 	
 	/**
-	 * The (Secure) Multicast Chat Session's Parameters,
+	 * The compiled Cipher Suite of the (Secure) Multicast Chat Session,
 	 * loaded from the User (Client) sending this Secure Message,
 	 * which will be used in the Secure Message's Attributes
 	 */
-	private SecureMulticastChatSessionParameters secureMessageAttributesParameters;
+	private SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite;
 	
 	private byte[] secureMessageAttributesSerialized;
 	
@@ -42,19 +37,21 @@ public class SecureMessageAttributes {
 	private boolean isSecureMessageAttributesCheckDone;
 	
 	
-	public SecureMessageAttributes(SecureMulticastChatSessionParameters secureMessageAttributesParameters) {
+	public SecureMessageAttributes(SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite) {
 		
-		this.secureMessageAttributesParameters = secureMessageAttributesParameters;
+		this.secureMulticastChatSessionCipherSuite = secureMulticastChatSessionCipherSuite;
 		
-		this.sessionID = this.secureMessageAttributesParameters.getProperty("sid");
-		this.sessionName = this.secureMessageAttributesParameters.getProperty("sid");
+		this.sessionID = this.secureMulticastChatSessionCipherSuite.getSessionName();
+		this.sessionName = this.secureMulticastChatSessionCipherSuite.getSessionName();
 		
-		this.symmetricEncryptionAlgorithm = this.secureMessageAttributesParameters.getProperty("sea");
-		this.symmetricEncryptionMode = this.secureMessageAttributesParameters.getProperty("mode");
-		this.paddingMethod = this.secureMessageAttributesParameters.getProperty("padding");
+		this.symmetricEncryptionAlgorithm = this.secureMulticastChatSessionCipherSuite.getSymmetricEncryptionAlgorithm();
+		this.symmetricEncryptionMode = this.secureMulticastChatSessionCipherSuite.getSymmetricEncryptionMode();
+		this.paddingMethod = this.secureMulticastChatSessionCipherSuite.getPaddingMethod();
 		
-		this.integrityControlCryptographicHashFunctionConstructionMethod = this.secureMessageAttributesParameters.getProperty("inthash");
-		this.fastSecurePayloadCheckMessageAuthenticationCodeConstructionMethod = this.secureMessageAttributesParameters.getProperty("mac");
+		this.integrityControlCryptographicHashFunctionConstructionMethod = 
+				this.secureMulticastChatSessionCipherSuite.getIntegrityControlHashFunctionName();
+		this.fastSecurePayloadCheckMessageAuthenticationCodeConstructionMethod = 
+				this.secureMulticastChatSessionCipherSuite.getMessageAuthenticationCode();
 				
 		this.isSecureMessageAttributesSerialized = false;
 		this.isSecureMessageAttributesSerializedHashed = false;
@@ -65,14 +62,14 @@ public class SecureMessageAttributes {
 	}
 	
 	public SecureMessageAttributes(byte[] secureMessageAttributesSerializedHashed,
-								   SecureMulticastChatSessionParameters secureMessageAttributesParameters) {
+								   SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite) {
 		
 		this.secureMessageAttributesSerializedHashed = secureMessageAttributesSerializedHashed;
 		
 		this.isSecureMessageAttributesSerialized = true;
 		this.isSecureMessageAttributesSerializedHashed = true;
 		
-		this.secureMessageAttributesParameters = secureMessageAttributesParameters;
+		this.secureMulticastChatSessionCipherSuite = secureMulticastChatSessionCipherSuite;
 	}
 	
 	public String getSessionID() {
@@ -106,69 +103,11 @@ public class SecureMessageAttributes {
 	public void buildSecureMessageAttributesSerialized() {
 		if(!this.isSecureMessageAttributesSerialized) {
 			
-			byte[] sessionIDSerialized = CommonUtils.fromStringToByteArray(this.sessionID);
-			
-			byte[] sessionNameSerialized = CommonUtils.fromStringToByteArray(this.sessionName);
-			
-			byte[] symmetricEncryptionAlgorithmSerialized = CommonUtils.fromStringToByteArray(this.symmetricEncryptionAlgorithm);
-			
-			byte[] symmetricEncryptionModeSerialized = CommonUtils.fromStringToByteArray(this.symmetricEncryptionMode);
-			
-			byte[] paddingMethodSerialized = CommonUtils.fromStringToByteArray(this.paddingMethod);
-			
-			byte[] integrityControlCryptographicHashFunctionConstructionMethodSerialized = 
-															CommonUtils.fromStringToByteArray(this.integrityControlCryptographicHashFunctionConstructionMethod);
-			
-			byte[] fastSecurePayloadCheckMessageAuthenticationCodeConstructionMethodSerialized = 
-															CommonUtils.fromStringToByteArray(this.fastSecurePayloadCheckMessageAuthenticationCodeConstructionMethod);
+			// The Secure Message's Attributes are serialized only once per Session
+			this.secureMessageAttributesSerialized = 
+					this.secureMulticastChatSessionCipherSuite.getSessionAttributes()
+															  .getSecureMessageAttributesSerialized();
 			
-			
-			int sizeOfSecureMessageAtrributesSerialized = ( sessionIDSerialized.length + sessionNameSerialized.length + 
-					                                        symmetricEncryptionAlgorithmSerialized.length + symmetricEncryptionModeSerialized.length + paddingMethodSerialized.length + 
-					                                        integrityControlCryptographicHashFunctionConstructionMethodSerialized.length + 
-					                                        fastSecurePayloadCheckMessageAuthenticationCodeConstructionMethodSerialized.length );
-						
-			this.secureMessageAttributesSerialized = new byte[sizeOfSecureMessageAtrributesSerialized];
-			
-			int serializationOffset = 0;
-
-			// Fills the byte array of the Secure Message Attributes with the serialization of the Session's ID,
-			// From the position corresponding to the length of the byte array of the Session's ID			
-			System.arraycopy(sessionIDSerialized, 0, this.secureMessageAttributesSerialized, 0, sessionIDSerialized.length);
-			serializationOffset += sessionIDSerialized.length;
-			
-			// Fills the byte array of the Secure Message Attributes with the serialization of the Session's Name,
-			// From the position corresponding to the length of the byte array of the Session's Name
-			System.arraycopy(sessionNameSerialized, 0, this.secureMessageAttributesSerialized, serializationOffset, sessionNameSerialized.length);
-			serializationOffset += sessionNameSerialized.length;
-			
-			// Fills the byte array of the Secure Message Attributes with the serialization of the name of Symmetric Encryption Algorithm in use,
-			// From the position corresponding to the length of the byte array of the name of Symmetric Encryption Algorithm in use
-			System.arraycopy(symmetricEncryptionAlgorithmSerialized, 0, this.secureMessageAttributesSerialized, serializationOffset, symmetricEncryptionAlgorithmSerialized.length);
-			serializationOffset += symmetricEncryptionAlgorithmSerialized.length;
-						
-			// Fills the byte array of the Secure Message Attributes with the serialization of the name of Symmetric Encryption Mode in use,
-			// From the position corresponding to the length of the byte array of the name of Symmetric Encryption Mode in use
-			System.arraycopy(symmetricEncryptionModeSerialized, 0, this.secureMessageAttributesSerialized, serializationOffset, symmetricEncryptionModeSerialized.length);
-			serializationOffset += symmetricEncryptionModeSerialized.length;
-			
-			// Fills the byte array of the Secure Message Attributes with the serialization of the name of Padding Mode in use,
-			// From the position corresponding to the length of the byte array of the name of Symmetric Padding Mode in use
-			System.arraycopy(paddingMethodSerialized, 0, this.secureMessageAttributesSerialized, serializationOffset, paddingMethodSerialized.length);
-			serializationOffset += paddingMethodSerialized.length;
-			
-			// Fills the byte array of the Secure Message Attributes with the serialization of the name of Integrity Control Construction Mode in use,
-			// From the position corresponding to the length of the byte array of the name of Integrity Control Construction Mode in use		
-			System.arraycopy(integrityControlCryptographicHashFunctionConstructionMethodSerialized, 0, this.secureMessageAttributesSerialized, serializationOffset,
-					         integrityControlCryptographicHashFunctionConstructionMethodSerialized.length);
-			serializationOffset += integrityControlCryptographicHashFunctionConstructionMethodSerialized.length;
-						
-			// Fills the byte array of the Secure Message Attributes with the serialization of the name of Fast Secure Payload Check Construction Mode in use,
-			// From the position corresponding to the length of the byte array of the name of Fast Secure Payload Check Construction Mode in use
-			System.arraycopy(fastSecurePayloadCheckMessageAuthenticationCodeConstructionMethodSerialized, 0, this.secureMessageAttributesSerialized, serializationOffset,
-							 fastSecurePayloadCheckMessageAuthenticationCodeConstructionMethodSerialized.length);
-			serializationOffset += fastSecurePayloadCheckMessageAuthenticationCodeConstructionMethodSerialized.length;
-						
 			this.isSecureMessageAttributesSerialized = true;
 		}	
 	}
@@ -183,20 +122,14 @@ public class SecureMessageAttributes {
 	
 	public void buildFinalSecureMessageAttributesSerializedHashed() {
 		
-		// TODO
 		if(this.isSecureMessageAttributesSerialized && !this.isSecureMessageAttributesSerializedHashed) {
-			this.getSecureMessageAttributesSerialized();
 						
-			// HASHING Process
-			try {
-				
-				MessageDigest hashFunctionAlgorithm = MessageDigest.getInstance(this.secureMessageAttributesParameters.getProperty("inthash"));
-				this.secureMessageAttributesSerializedHashed = hashFunctionAlgorithm.digest(this.secureMessageAttributesSerialized);
-				this.isSecureMessageAttributesSerializedHashed = true;
-
-			} catch (Exception e) {
-				// TODO: handle exception
-			}
+			// HASHING Process (the Secure Message's Attributes are hashed only once per Session)
+			this.secureMessageAttributesSerializedHashed = 
+					this.secureMulticastChatSessionCipherSuite.getSessionAttributes()
+															  .getSecureMessageAttributesSerializedHashed();
+			
+			this.isSecureMessageAttributesSerializedHashed = true;
 		
 		}
 	}
@@ -206,108 +139,13 @@ public class SecureMessageAttributes {
 			
 			if(this.isSecureMessageAttributesSerialized && this.isSecureMessageAttributesSerializedHashed) {
 				
-				//this.sessionID = String.format("%s:%s", this.secureMessageAttributesParameters.getProperty("ip"),
-				//									    this.secureMessageAttributesParameters.getProperty("port"));
-				
-				this.sessionID = this.secureMessageAttributesParameters.getProperty("sid");
-				this.sessionName = this.secureMessageAttributesParameters.getProperty("sid");
-				
-				this.symmetricEncryptionAlgorithm = this.secureMessageAttributesParameters.getProperty("sea");
-				this.symmetricEncryptionMode = this.secureMessageAttributesParameters.getProperty("mode");
-				this.paddingMethod = this.secureMessageAttributesParameters.getProperty("padding");
-				
-				this.integrityControlCryptographicHashFunctionConstructionMethod = this.secureMessageAttributesParameters.getProperty("inthash");
-				this.fastSecurePayloadCheckMessageAuthenticationCodeConstructionMethod = this.secureMessageAttributesParameters.getProperty("mac");
-				
-				
-				
-				
-				byte[] sessionIDSerialized = CommonUtils.fromStringToByteArray(this.sessionID);
-				
-				byte[] sessionNameSerialized = CommonUtils.fromStringToByteArray(this.sessionName);
-				
-				byte[] symmetricEncryptionAlgorithmSerialized = CommonUtils.fromStringToByteArray(this.symmetricEncryptionAlgorithm);
-				
-				byte[] symmetricEncryptionModeSerialized = CommonUtils.fromStringToByteArray(this.symmetricEncryptionMode);
-				
-				byte[] paddingMethodSerialized = CommonUtils.fromStringToByteArray(this.paddingMethod);
-				
-				byte[] integrityControlCryptographicHashFunctionConstructionMethodSerialized = 
-																CommonUtils.fromStringToByteArray(this.integrityControlCryptographicHashFunctionConstructionMethod);
-				
-				byte[] fastSecurePayloadCheckMessageAuthenticationCodeConstructionMethodSerialized = 
-																CommonUtils.fromStringToByteArray(this.fastSecurePayloadCheckMessageAuthenticationCodeConstructionMethod);
-				
-				
-				int sizeOfSecureMessageAtrributesSerialized = ( sessionIDSerialized.length + sessionNameSerialized.length + 
-						                                        symmetricEncryptionAlgorithmSerialized.length + symmetricEncryptionModeSerialized.length + paddingMethodSerialized.length + 
-						                                        integrityControlCryptographicHashFunctionConstructionMethodSerialized.length + 
-						                                        fastSecurePayloadCheckMessageAuthenticationCodeConstructionMethodSerialized.length );
-							
-				this.secureMessageAttributesSerialized = new byte[sizeOfSecureMessageAtrributesSerialized];
-				
-				int serializationOffset = 0;
-
-				// Fills the byte array of the Secure Message Attributes with the serialization of the Session's ID,
-				// From the position corresponding to the length of the byte array of the Session's ID			
-				System.arraycopy(sessionIDSerialized, 0, this.secureMessageAttributesSerialized, 0, sessionIDSerialized.length);
-				serializationOffset += sessionIDSerialized.length;
-				
-				// Fills the byte array of the Secure Message Attributes with the serialization of the Session's Name,
-				// From the position corresponding to the length of the byte array of the Session's Name
-				System.arraycopy(sessionNameSerialized, 0, this.secureMessageAttributesSerialized, serializationOffset, sessionNameSerialized.length);
-				serializationOffset += sessionNameSerialized.length;
-				
-				// Fills the byte array of the Secure Message Attributes with the serialization of the name of Symmetric Encryption Algorithm in use,
-				// From the position corresponding to the length of the byte array of the name of Symmetric Encryption Algorithm in use
-				System.arraycopy(symmetricEncryptionAlgorithmSerialized, 0, this.secureMessageAttributesSerialized, serializationOffset, symmetricEncryptionAlgorithmSerialized.length);
-				serializationOffset += symmetricEncryptionAlgorithmSerialized.length;
-							
-				// Fills the byte array of the Secure Message Attributes with the serialization of the name of Symmetric Encryption Mode in use,
-				// From the position corresponding to the length of the byte array of the name of Symmetric Encryption Mode in use
-				System.arraycopy(symmetricEncryptionModeSerialized, 0, this.secureMessageAttributesSerialized, serializationOffset, symmetricEncryptionModeSerialized.length);
-				serializationOffset += symmetricEncryptionModeSerialized.length;
-				
-				// Fills the byte array of the Secure Message Attributes with the serialization of the name of Padding Mode in use,
-				// From the position corresponding to the length of the byte array of the name of Symmetric Padding Mode in use
-				System.arraycopy(paddingMethodSerialized, 0, this.secureMessageAttributesSerialized, serializationOffset, paddingMethodSerialized.length);
-				serializationOffset += paddingMethodSerialized.length;
-				
-				// Fills the byte array of the Secure Message Attributes with the serialization of the name of Integrity Control Construction Mode in use,
-				// From the position corresponding to the length of the byte array of the name of Integrity Control Construction Mode in use		
-				System.arraycopy(integrityControlCryptographicHashFunctionConstructionMethodSerialized, 0, this.secureMessageAttributesSerialized, serializationOffset,
-						         integrityControlCryptographicHashFunctionConstructionMethodSerialized.length);
-				serializationOffset += integrityControlCryptographicHashFunctionConstructionMethodSerialized.length;
-							
-				// Fills the byte array of the Secure Message Attributes with the serialization of the name of Fast Secure Payload Check Construction Mode in use,
-				// From the position corresponding to the length of the byte array of the name of Fast Secure Payload Check Construction Mode in use
-				System.arraycopy(fastSecurePayloadCheckMessageAuthenticationCodeConstructionMethodSerialized, 0, this.secureMessageAttributesSerialized, serializationOffset,
-								 fastSecurePayloadCheckMessageAuthenticationCodeConstructionMethodSerialized.length);
-				serializationOffset += fastSecurePayloadCheckMessageAuthenticationCodeConstructionMethodSerialized.length;
-				
-				
-				
-				
-				byte[] secureMessageAttributesSerializedHashedToCompare = null;
-				
-
-				// HASHING Process
-
-				// The configuration, initialization and update of the Integrity Control Hash process
-				try {
-					MessageDigest hashFunctionAlgorithmn = MessageDigest.getInstance(this.secureMessageAttributesParameters.getProperty("inthash"));
-					secureMessageAttributesSerializedHashedToCompare = hashFunctionAlgorithmn.digest(this.secureMessageAttributesSerialized);
-				} catch (NoSuchAlgorithmException e) {
-					// TODO Auto-generated catch block
-					e.printStackTrace();
-				}
-
-				// Performs the final operation of Integrity Control Hash process over the Message serialized
-
-
-				this.isSecureMessageAttributesCheckValid = (this.isSecureMessageAttributesSerializedHashed &&
-						Arrays.equals(this.secureMessageAttributesSerializedHashed, secureMessageAttributesSerializedHashedToCompare)) ? 
-								true : false;
+				// Compares, in constant time, the Secure Message's Attributes serialized hashed received with
+				// the ones of the current Session, which were already serialized and hashed, only once
+				this.isSecureMessageAttributesCheckValid = 
+						this.secureMulticastChatSessionCipherSuite.getSessionAttributes()
+																  .isSecureMessageAttributesSerializedHashedValid(
+																		  this.secureMessageAttributesSerializedHashed, 0,
+																		  this.secureMessageAttributesSerializedHashed.length);
 
 				if(!this.isSecureMessageAttributesCheckValid) {
 					System.err.println("The Secure Message's Attributes for the current Session aren't valid:");
@@ -16,27 +16,24 @@ package multicast.sockets.messages.components;
  * 
  */
 
+import java.nio.ByteBuffer;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.security.NoSuchProviderException;
-import java.security.SecureRandom;
 
+import javax.crypto.AEADBadTagException;
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
 import javax.crypto.ShortBufferException;
-import javax.crypto.spec.IvParameterSpec;
-import javax.crypto.spec.SecretKeySpec;
 
 import org.bouncycastle.util.Arrays;
-import org.bouncycastle.util.encoders.Hex;
 
 import multicast.common.CommonUtils;
-import multicast.sockets.messages.utils.KeyStoreInterface;
-import multicast.sockets.messages.utils.SecureMulticastChatSessionParameters;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionCipherContexts;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionCipherSuite;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionKeystreamGenerator;
 
 /**
  * 
@@ -102,9 +99,20 @@ public class SecureMessagePayload {
 	
 	/**
 	 * The Secure Message's Payload serialized
+	 * (or the buffer, where the Secure Message's Payload received was deciphered, in place)
 	 */
 	private byte[] secureMessagePayloadSerialized;
 	
+	/**
+	 * The offset of the Secure Message's Payload serialized, in its buffer
+	 */
+	private int secureMessagePayloadSerializedOffset;
+	
+	/**
+	 * The size of the Secure Message's Payload serialized, after deciphered
+	 */
+	private int sizeOfSecureMessagePayloadSerializedDeciphered;
+	
 	/**
 	 * The size of the Secure Message's Payload serialized
 	 */
@@ -117,10 +125,21 @@ public class SecureMessagePayload {
 	private boolean isSecureMessagePayloadSerialized;
 	
 	/**
-	 * The Secure Message's Payload serialized and Symmetric Encryption Ciphered 
+	 * The buffer, where the Secure Message's Payload serialized and Symmetric Encryption Ciphered
+	 * was written (i.e., the Final Secure Message serialized) or received
 	 */
 	private byte[] secureMessagePayloadSerializedCiphered;
 	
+	/**
+	 * The offset of the Secure Message's Payload serialized and Symmetric Encryption Ciphered, in its buffer
+	 */
+	private int secureMessagePayloadSerializedCipheredOffset;
+	
+	/**
+	 * The size of the Secure Message's Payload serialized and Symmetric Encryption Ciphered
+	 */
+	private int sizeOfSecureMessagePayloadSerializedCiphered;
+	
 	/**
 	 * The boolean to keep the value to check if
 	 * the Secure Message's Payload is serialized and Symmetric Encryption Ciphered
@@ -130,24 +149,30 @@ public class SecureMessagePayload {
 	private byte[] IVBytes;
 	
 	/**
-	 * Encryption provider
+	 * The buffer of the Associated Data authenticated by the Cipher, in the Modes of Authenticated Encryption
+	 * (i.e., the Secure Message's Meta-Header, Header, Attributes and size of the Payload)
 	 */
-	private static final String provider = "BC";
-
+	private byte[] associatedData;
+	
 	/**
-	 * Properties Reader from file
+	 * The offset of the Associated Data, in its buffer
 	 */
-	private SecureMulticastChatSessionParameters secureMessageAttributesParameters;
+	private int associatedDataOffset;
 	
 	/**
-	 * Keystore interface
+	 * The size of the Associated Data
 	 */
-	private KeyStoreInterface keystoreInterface;
-
+	private int sizeOfAssociatedData;
+	
+	/**
+	 * The compiled Cipher Suite of the (Secure) Multicast Chat Session
+	 */
+	private SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite;
+	
 	/**
-	 * Filename of Keystore file
+	 * The Cipher Contexts of the (Secure) Multicast Chat Session, shared by all its Secure Messages
 	 */
-	private static final String keystoreFilename = "./res/SMCPKeystore.jecks";
+	private SecureMulticastChatSessionCipherContexts cipherContexts;
 
 	private boolean isSizeOfSecureMessagePayloadCheckValid;
 	
@@ -175,7 +200,7 @@ public class SecureMessagePayload {
 	 * 		  the Secure Message's Payload
 	 */
 	public SecureMessagePayload(String fromPeerID, int sequenceNumber, int randomNonce,
-								byte[] messageSerialized, SecureMulticastChatSessionParameters secureMessageAttributesParameters) {
+								byte[] messageSerialized, SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite) {
 		
 		this.fromPeerID = fromPeerID;
 		this.sequenceNumber = sequenceNumber;
@@ -194,27 +219,38 @@ public class SecureMessagePayload {
 		this.isIntegrityControlCheckValid = false;
 		this.isIntegrityControlCheckDone = false;
 		
-		this.secureMessageAttributesParameters = secureMessageAttributesParameters;
+		this.secureMulticastChatSessionCipherSuite = secureMulticastChatSessionCipherSuite;
 		
-		this.keystoreInterface = new KeyStoreInterface(keystoreFilename, "CSNS1920");	}
+		this.cipherContexts = secureMulticastChatSessionCipherSuite.getCipherContexts();
+	}
 	
 	/**
 	 * Constructor #2:
 	 * - The Constructor of the Secure Message's Payload,
-	 *   from the Secure Message's Payload serialized and Symmetric Encryption Ciphered.
+	 *   from the Secure Message's Payload serialized and Symmetric Encryption Ciphered,
+	 *   directly over the buffer where it was received (i.e., without copying it).
+	 * 
+	 * @param receivedBuffer the buffer, where the Secure Message's Payload serialized
+	 *        and Symmetric Encryption Ciphered was received
+	 * 
+	 * @param secureMessagePayloadSerializedCipheredOffset the offset of the Secure Message's Payload
+	 *        serialized and Symmetric Encryption Ciphered, in the buffer
 	 * 
-	 * @param secureMessagePayloadSerializedSymmetricEncryptionCiphered the Secure Message's Payload serialized
-	 *        and Symmetric Encryption Ciphered 
+	 * @param sizeOfSecureMessagePayloadSerializedCiphered the size of the Secure Message's Payload
+	 *        serialized and Symmetric Encryption Ciphered, in the buffer
 	 */
-	public SecureMessagePayload(byte[] secureMessagePayloadSerializedSymmetricEncryptionCiphered,
+	public SecureMessagePayload(byte[] receivedBuffer,
+								int secureMessagePayloadSerializedCipheredOffset,
+								int sizeOfSecureMessagePayloadSerializedCiphered,
 								int sizeOfSecureMessagePayloadSerialized,
 								int sizeOfFromPeerIDSerialized,
 								int sizeOfMessageSerialized,
 								int sizeOfIntegrityControlSerialized,
-								SecureMulticastChatSessionParameters secureMessageAttributesParameters) {
+								SecureMulticastChatSessionCipherSuite secureMulticastChatSessionCipherSuite) {
 							
-		this.secureMessagePayloadSerializedCiphered = 
-						secureMessagePayloadSerializedSymmetricEncryptionCiphered;
+		this.secureMessagePayloadSerializedCiphered = receivedBuffer;
+		this.secureMessagePayloadSerializedCipheredOffset = secureMessagePayloadSerializedCipheredOffset;
+		this.sizeOfSecureMessagePayloadSerializedCiphered = sizeOfSecureMessagePayloadSerializedCiphered;
 		
 		this.sizeOfSecureMessagePayloadSerialized = sizeOfSecureMessagePayloadSerialized;
 		
@@ -234,9 +270,9 @@ public class SecureMessagePayload {
 		this.isIntegrityControlCheckValid = false;
 		this.isIntegrityControlCheckDone = false;
 		
-		this.secureMessageAttributesParameters = secureMessageAttributesParameters;
+		this.secureMulticastChatSessionCipherSuite = secureMulticastChatSessionCipherSuite;
 		
-		this.keystoreInterface = new KeyStoreInterface(keystoreFilename, "CSNS1920");
+		this.cipherContexts = secureMulticastChatSessionCipherSuite.getCipherContexts();
 	}
 	
 	
@@ -294,23 +330,22 @@ public class SecureMessagePayload {
 		// This process it's only made if the Integrity Control Hashed serialized of the Message
 		// (i.e., the real content of the Message) of the Secure Message's Payload it's done
 		if(!this.isIntegrityControlHashedSerialized && this.messageSerialized != null) {
-			try {
-				
-				// The configuration, initialization and update of the Integrity Control Hash process
-				MessageDigest hashFunctionAlgorithmn = MessageDigest.getInstance(this.secureMessageAttributesParameters.getProperty("inthash"));
-				
-				// Performs the final operation of Integrity Control Hash process over the Message serialized
-				this.integrityControlHashedSerialized = hashFunctionAlgorithmn.digest(this.messageSerialized);
-				
-				// The Integrity Control Hashed serialized of the Message
-			    // (i.e., the real content of the Message) of the Secure Message's Payload it's already done
-				this.isIntegrityControlHashedSerialized = true;
+			
+			if(this.secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption()) {
+				// In the Modes of Authenticated Encryption, the Message is already covered by
+				// the authentication tag of the Cipher, so no Integrity Control Hash is made
+				this.integrityControlHashedSerialized = new byte[0];
 			}
-			catch (NoSuchAlgorithmException noSuchAlgorithmException) {
-				System.err.println("Error occurred during the Hash Function over the Message:");
-				System.err.println("- Cryptographic Algorithm not found!!!");
-				noSuchAlgorithmException.printStackTrace();
+			else {
+				// Performs the final operation of Integrity Control Hash process over the Message serialized,
+				// using the Cryptographic Hash Function of the current Thread, already resolved by the Cipher Suite
+				this.integrityControlHashedSerialized = 
+						this.secureMulticastChatSessionCipherSuite.getIntegrityControlHashFunction().digest(this.messageSerialized);
 			}
+			
+			// The Integrity Control Hashed serialized of the Message
+		    // (i.e., the real content of the Message) of the Secure Message's Payload it's already done
+			this.isIntegrityControlHashedSerialized = true;
 		}
 	}
 	
@@ -331,26 +366,23 @@ public class SecureMessagePayload {
 			// (i.e., the real content of the Message) of the Secure Message's Payload it's done
 			if(this.isIntegrityControlHashedSerialized && messageSerialized != null) {
 				
-				byte[] messageSerializedHashedToCompare = null;
-				
-				try {
-					
-					// The configuration, initialization and update of the Integrity Control Hash process
-					MessageDigest hashFunctionAlgorithmn = MessageDigest.getInstance(this.secureMessageAttributesParameters.getProperty("inthash"));
-					
-					// Performs the final operation of Integrity Control Hash process over the Message serialized
-					messageSerializedHashedToCompare = hashFunctionAlgorithmn.digest(this.messageSerialized);
+				if(this.secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption()) {
+					// In the Modes of Authenticated Encryption, the authentication tag of the Cipher
+					// was already verified, when the Secure Message's Payload was deciphered
+					this.isIntegrityControlCheckValid = true;
 				}
-				catch (NoSuchAlgorithmException noSuchAlgorithmException) {
-					System.err.println("Error occurred during the Hash Function over the Message:");
-					System.err.println("- Cryptographic Algorithm not found!!!");
-					noSuchAlgorithmException.printStackTrace();
+				else {
+					// Performs the final operation of Integrity Control Hash process over the Message serialized,
+					// using the Cryptographic Hash Function of the current Thread, already resolved by the Cipher Suite
+					byte[] messageSerializedHashedToCompare = 
+							this.secureMulticastChatSessionCipherSuite.getIntegrityControlHashFunction().digest(this.messageSerialized);
+			
+					this.isIntegrityControlCheckValid = (this.isIntegrityControlHashedSerialized &&
+														 Arrays.areEqual(this.integrityControlHashedSerialized, 
+																 messageSerializedHashedToCompare)) ? 
+																 true : false;
 				}
-		
-				this.isIntegrityControlCheckValid = (this.isIntegrityControlHashedSerialized &&
-													 Arrays.areEqual(this.integrityControlHashedSerialized, 
-															 messageSerializedHashedToCompare)) ? 
-															 true : false;
+				
 				if(!this.isIntegrityControlCheckValid) {
 					System.err.println("The Integrity Control it's not valid:");
 					System.err.println("- The Secure Message will be ignored!!!");
@@ -393,7 +425,7 @@ public class SecureMessagePayload {
 				  !this.isSecureMessagePayloadSerializedCiphered) {
 			
 			// The ID of the Sender's Peer, which sent the Secure Message Payload serialized
-			byte[] fromPeerIDSerialized = this.fromPeerID.getBytes();
+			byte[] fromPeerIDSerialized = CommonUtils.fromStringToByteArray(this.fromPeerID);
 			
 			// The Sequence Number of the Secure Message's Payload serialized
 			byte[] sequenceNumberSerialized = CommonUtils.fromIntToByteArray(sequenceNumber);
@@ -485,7 +517,8 @@ public class SecureMessagePayload {
 			// 5) length - The length of the data to be copied from the source array to the destination array
 				
 			// The offset related to fulfillment of the serialization process
-			int serializationOffset = 0;
+			// (i.e., the Secure Message's Payload was deciphered in place, in the buffer where it was received)
+			int serializationOffset = this.secureMessagePayloadSerializedOffset;
 			
 			// Fills the byte array of the Secure Message Payload with the serialization of the From Peer's ID,
 			// From the position corresponding to the length of the byte array of the From Peer's ID			
@@ -535,11 +568,44 @@ public class SecureMessagePayload {
 		return this.isSecureMessagePayloadSerialized ? this.secureMessagePayloadSerialized : null;
 	}
 	
+	/**
+	 * Returns the maximum size of the Secure Message's Payload serialized, after ciphered
+	 * (i.e., with the Padding Method or, in the Modes of Authenticated Encryption, with the authentication tag appended),
+	 * to reserve its space in the Final Secure Message serialized, before the Symmetric Encryption.
+	 * 
+	 * @return the maximum size of the Secure Message's Payload serialized, after ciphered
+	 */
+	public int getMaxSizeOfSecureMessagePayloadSerializedCiphered() {
+		if(!this.isSecureMessagePayloadSerialized) {
+			return -1;
+		}
+		
+		return this.secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption() ?
+					this.getSizeOfSecureMessagePayloadSerializedSealed() :
+					( this.secureMessagePayloadSerialized.length + this.secureMulticastChatSessionCipherSuite.getBlockSize() );
+	}
+	
+	/**
+	 * Returns the size of the Secure Message's Payload serialized and Symmetric Encryption Ciphered.
+	 * 
+	 * @return the size of the Secure Message's Payload serialized and Symmetric Encryption Ciphered
+	 */
+	public int getSizeOfSecureMessagePayloadSerializedCiphered() {
+		return this.isSecureMessagePayloadSerializedCiphered ? this.sizeOfSecureMessagePayloadSerializedCiphered : -1;
+	}
+	
 	/**
 	 * Builds the Symmetric Encryption's Cipher on the Secure Message's Payload serialized,
-	 * resulting to the final Secure Message's Payload component.
+	 * writing the Cipher Text directly into its final position, in the given Final Secure Message serialized
+	 * (i.e., without any intermediate Cipher Text).
+	 * 
+	 * @param finalSecureMessageSerialized the Final Secure Message serialized, where the Secure Message's Payload
+	 *        will be ciphered, with, at least, the maximum size of the Cipher Text reserved
+	 * 
+	 * @param secureMessagePayloadOffset the offset of the Secure Message's Payload in the Final Secure Message serialized
 	 */
-	public void buildSecureMessagePayloadSerializedSymmetricEncryptionCiphered() {
+	public void buildSecureMessagePayloadSerializedSymmetricEncryptionCiphered(byte[] finalSecureMessageSerialized,
+																			   int secureMessagePayloadOffset) {
 		
 		// This process it's only made if the Integrity Control Hashed serialized of the Message
 		// (i.e., the real content of the Message) of the Secure Message's Payload is done,
@@ -549,84 +615,189 @@ public class SecureMessagePayload {
 			
 			byte[] secureMessagePayloadSerialized = this.getSecureMessagePayloadSerialized();
 			
-			try {				
-				byte[] secretKeyBytes = Hex.decodeStrict(keystoreInterface.load(
-						secureMessageAttributesParameters.getProperty("ip") 
-						+ ":" +
-						secureMessageAttributesParameters.getProperty("port")
-						));
-
-				String symmetricEncryptionAlgorithm = this.secureMessageAttributesParameters.getProperty("sea");
-		 	    String symmetricEncryptionMode = this.secureMessageAttributesParameters.getProperty("mode");
-		 	    String symmetricEncryptionPadding = this.secureMessageAttributesParameters.getProperty("padding");
+			// In the CTR and OFB Modes, a keystream precomputed in background (if any) reduces the Symmetric Encryption to a XOR
+			SecureMulticastChatSessionKeystreamGenerator keystreamGenerator =
+						this.secureMulticastChatSessionCipherSuite.getKeystreamGenerator();
+			
+			SecureMulticastChatSessionKeystreamGenerator.PrecomputedKeystream precomputedKeystream = ( keystreamGenerator != null ) ?
+						keystreamGenerator.takePrecomputedKeystream(secureMessagePayloadSerialized.length) : null;
+			
+			if(precomputedKeystream != null) {
+				this.IVBytes = precomputedKeystream.getIV();
+				this.sizeOfSecureMessagePayloadSerializedCiphered = 
+						precomputedKeystream.cipher(secureMessagePayloadSerialized, finalSecureMessageSerialized, secureMessagePayloadOffset);
 				
-		        // Set the Secret Key and its specifications,
-		 		// using the AES (Advanced Encryption Standard - Rijndael) Symmetric Encryption
-		 	    SecretKeySpec secretKeySpecifications = new SecretKeySpec(secretKeyBytes, symmetricEncryptionAlgorithm);
-		 	    
+				this.secureMessagePayloadSerializedCiphered = finalSecureMessageSerialized;
+				this.secureMessagePayloadSerializedCipheredOffset = secureMessagePayloadOffset;
 				
-				Cipher secureMessagePayloadSerializationSymmetricEncryptionCipher = 
-							Cipher.getInstance(String.format("%s/%s/%s",
-											   symmetricEncryptionAlgorithm, symmetricEncryptionMode, symmetricEncryptionPadding), 
-									           provider);
-
-				if(requiresIV(symmetricEncryptionMode)) {
-					// Algorithms that do not need IVs: ECB
-					// The parameter specifications for the Initialization Vector				
-					System.out.println("[SecureMessagePayload.ENCRYPT] Block mode needs IV");
-					this.IVBytes = generateIV(secureMessagePayloadSerializationSymmetricEncryptionCipher);
-					System.out.println("[SecureMessagePayload.ENCRYPT] IV is: " + CommonUtils.fromByteArrayToHexadecimalFormat(this.IVBytes));
-					IvParameterSpec initializationVectorParameterSpecifications = new IvParameterSpec(this.IVBytes);
-					secureMessagePayloadSerializationSymmetricEncryptionCipher
-						.init(Cipher.ENCRYPT_MODE, secretKeySpecifications, initializationVectorParameterSpecifications);
-				} else {
-					System.out.println("[SecureMessagePayload.ENCRYPT] Block mode does not needs IV");
-					secureMessagePayloadSerializationSymmetricEncryptionCipher
-						.init(Cipher.ENCRYPT_MODE, secretKeySpecifications);
+				// The Secure Message's Payload have already its serialization and its Symmetric Encryption Cipher done
+				this.isSecureMessagePayloadSerializedCiphered = true;
+			}
+			else {
+				try {				
+					if(this.cipherContexts.requiresIV()) {
+						// Algorithms that do not need IVs: ECB
+						// The parameter specifications for the Initialization Vector				
+						System.out.println("[SecureMessagePayload.ENCRYPT] Block mode needs IV");
+						this.IVBytes = this.secureMulticastChatSessionCipherSuite.getIVGenerator().nextIV();
+						System.out.println("[SecureMessagePayload.ENCRYPT] IV is: " + CommonUtils.fromByteArrayToHexadecimalFormat(this.IVBytes));
+					} else {
+						System.out.println("[SecureMessagePayload.ENCRYPT] Block mode does not needs IV");
+					}
+				
+					// The Cipher of the current Thread, for the Session's suite,
+					// only re-initialized with the new Initialization Vector
+					Cipher secureMessagePayloadSerializationSymmetricEncryptionCipher = 
+								this.cipherContexts.getEncryptionCipher(this.IVBytes);
+					
+					// The Cipher Text is written directly into the space reserved in the Final Secure Message serialized
+					ByteBuffer secureMessagePayloadSerializedCipheredBuffer = 
+								ByteBuffer.wrap(finalSecureMessageSerialized, secureMessagePayloadOffset,
+												this.getMaxSizeOfSecureMessagePayloadSerializedCiphered());
+					
+					this.sizeOfSecureMessagePayloadSerializedCiphered = 
+								secureMessagePayloadSerializationSymmetricEncryptionCipher.doFinal(ByteBuffer.wrap(secureMessagePayloadSerialized),
+																									secureMessagePayloadSerializedCipheredBuffer);
+					
+					this.secureMessagePayloadSerializedCiphered = finalSecureMessageSerialized;
+					this.secureMessagePayloadSerializedCipheredOffset = secureMessagePayloadOffset;
+					
+					// The Secure Message's Payload have already its serialization and its Symmetric Encryption Cipher done
+					this.isSecureMessagePayloadSerializedCiphered = true;
+				}
+				catch (NoSuchAlgorithmException noSuchAlgorithmException) {
+					System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
+					System.err.println("- Cryptographic Algorithm not found!!!");
+					noSuchAlgorithmException.printStackTrace();
+				}
+				catch (InvalidAlgorithmParameterException invalidAlgorithmParameterException) {
+					System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
+					System.err.println("- Invalid Cryptographic Algorithm's Parameters!!!");
+					invalidAlgorithmParameterException.printStackTrace();
 				}
-								
-				this.secureMessagePayloadSerializedCiphered = 
-									secureMessagePayloadSerializationSymmetricEncryptionCipher.doFinal(secureMessagePayloadSerialized);
+				catch (NoSuchPaddingException noSuchPaddingException) {
+					System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
+					System.err.println("- Padding Method not found!!!");
+					noSuchPaddingException.printStackTrace();
+				}
+				catch (BadPaddingException badPaddingException) {
+					System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
+					System.err.println("- Bad/Wrong Padding Method in use!!!");
+					badPaddingException.printStackTrace();
+				}
+				catch (InvalidKeyException invalidKeyException) {
+					System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
+					System.err.println("- Invalid Cryptographic Algorithm's Secret Key!!!");
+					invalidKeyException.printStackTrace();
+				}
+				catch (IllegalBlockSizeException illegalBlockSizeException) {
+					System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
+					System.err.println("- Illegal Cryptographic Algorithm's Block Size!!!");
+					illegalBlockSizeException.printStackTrace();
+				}
+				catch (ShortBufferException shortBufferException) {
+					System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
+					System.err.println("- The Buffer in use, during the Ciphering process it's not correct!!!");
+					shortBufferException.printStackTrace();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns the size of the Secure Message's Payload serialized, after sealed by
+	 * the Authenticated Encryption's Cipher (i.e., with the authentication tag appended).
+	 * 
+	 * @return the size of the Secure Message's Payload serialized, after sealed by
+	 *         the Authenticated Encryption's Cipher (i.e., with the authentication tag appended)
+	 */
+	public int getSizeOfSecureMessagePayloadSerializedSealed() {
+		return this.isSecureMessagePayloadSerialized ?
+					( this.secureMessagePayloadSerialized.length + this.secureMulticastChatSessionCipherSuite.getTagLength() ) : -1;
+	}
+	
+	/**
+	 * Builds the Authenticated Encryption's Cipher on the Secure Message's Payload serialized,
+	 * sealing it in one call, directly into the given Final Secure Message serialized.
+	 * 
+	 * NOTE:
+	 * - All the bytes of the Final Secure Message serialized before the Secure Message's Payload
+	 *   (i.e., the Secure Message's Meta-Header, Header, Attributes and size of the Payload)
+	 *   are authenticated as Associated Data;
+	 * 
+	 * @param finalSecureMessageSerialized the Final Secure Message serialized, where the Secure Message's Payload
+	 *        will be sealed, with its Associated Data already filled
+	 * 
+	 * @param sizeOfAssociatedData the size of the Associated Data (i.e., the offset of the Secure Message's Payload
+	 *        in the Final Secure Message serialized)
+	 */
+	public void buildSecureMessagePayloadSerializedAuthenticatedEncryptionSealed(byte[] finalSecureMessageSerialized,
+																				 int sizeOfAssociatedData) {
+		
+		// This process it's only made if the Secure Message's Payload is serialized and
+		// its Authenticated Encryption Cipher it's not done
+		if(this.isSecureMessagePayloadSerialized && !this.isSecureMessagePayloadSerializedCiphered) {
 			
+			try {
+				this.IVBytes = this.secureMulticastChatSessionCipherSuite.getIVGenerator().nextIV();
 				
-				// The Secure Message's Payload have already its serialization and its Symmetric Encryption Cipher done
+				// The Cipher of the current Thread, for the Session's suite,
+				// only re-initialized with the new nonce (i.e., Initialization Vector)
+				Cipher secureMessagePayloadSerializationAuthenticatedEncryptionCipher = 
+							this.cipherContexts.getEncryptionCipher(this.IVBytes);
+				
+				secureMessagePayloadSerializationAuthenticatedEncryptionCipher
+							.updateAAD(finalSecureMessageSerialized, 0, sizeOfAssociatedData);
+				
+				// The Cipher Text and its authentication tag are written directly into the space reserved
+				// in the Final Secure Message serialized, after the Associated Data
+				this.sizeOfSecureMessagePayloadSerializedCiphered = 
+						secureMessagePayloadSerializationAuthenticatedEncryptionCipher
+							.doFinal(ByteBuffer.wrap(this.secureMessagePayloadSerialized),
+									 ByteBuffer.wrap(finalSecureMessageSerialized, sizeOfAssociatedData,
+													 this.getSizeOfSecureMessagePayloadSerializedSealed()));
+				
+				this.secureMessagePayloadSerializedCiphered = finalSecureMessageSerialized;
+				this.secureMessagePayloadSerializedCipheredOffset = sizeOfAssociatedData;
+				
+				// The Secure Message's Payload have already its serialization and its Authenticated Encryption Cipher done
 				this.isSecureMessagePayloadSerializedCiphered = true;
 			}
 			catch (NoSuchAlgorithmException noSuchAlgorithmException) {
-				System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
+				System.err.println("Error occurred during the Authenticated Encryption over the Secure Message's Payload:");
 				System.err.println("- Cryptographic Algorithm not found!!!");
 				noSuchAlgorithmException.printStackTrace();
 			}
 			catch (InvalidAlgorithmParameterException invalidAlgorithmParameterException) {
-				System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
+				System.err.println("Error occurred during the Authenticated Encryption over the Secure Message's Payload:");
 				System.err.println("- Invalid Cryptographic Algorithm's Parameters!!!");
 				invalidAlgorithmParameterException.printStackTrace();
 			}
-			catch (NoSuchProviderException noSuchProviderException) {
-				System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
-				System.err.println("- Cryptograhic Provider not found!!!");
-				noSuchProviderException.printStackTrace();
-			}
 			catch (NoSuchPaddingException noSuchPaddingException) {
-				System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
+				System.err.println("Error occurred during the Authenticated Encryption over the Secure Message's Payload:");
 				System.err.println("- Padding Method not found!!!");
 				noSuchPaddingException.printStackTrace();
 			}
 			catch (BadPaddingException badPaddingException) {
-				System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
+				System.err.println("Error occurred during the Authenticated Encryption over the Secure Message's Payload:");
 				System.err.println("- Bad/Wrong Padding Method in use!!!");
 				badPaddingException.printStackTrace();
 			}
 			catch (InvalidKeyException invalidKeyException) {
-				System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
+				System.err.println("Error occurred during the Authenticated Encryption over the Secure Message's Payload:");
 				System.err.println("- Invalid Cryptographic Algorithm's Secret Key!!!");
 				invalidKeyException.printStackTrace();
 			}
 			catch (IllegalBlockSizeException illegalBlockSizeException) {
-				System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
+				System.err.println("Error occurred during the Authenticated Encryption over the Secure Message's Payload:");
 				System.err.println("- Illegal Cryptographic Algorithm's Block Size!!!");
 				illegalBlockSizeException.printStackTrace();
 			}
+			catch (ShortBufferException shortBufferException) {
+				System.err.println("Error occurred during the Authenticated Encryption over the Secure Message's Payload:");
+				System.err.println("- The Buffer in use, during the Sealing process it's not correct!!!");
+				shortBufferException.printStackTrace();
+			}
 		}
 	}
 	
@@ -643,53 +814,39 @@ public class SecureMessagePayload {
 		   this.isSecureMessagePayloadSerializedCiphered) {
 			
 			try {
-				byte[] secretKeyBytes = Hex.decodeStrict(keystoreInterface.load(
-						secureMessageAttributesParameters.getProperty("ip") 
-						+ ":" +
-						secureMessageAttributesParameters.getProperty("port")
-						));
-				
-				String symmetricEncryptionAlgorithm = this.secureMessageAttributesParameters.getProperty("sea");
-		 	    String symmetricEncryptionMode = this.secureMessageAttributesParameters.getProperty("mode");
-		 	    String symmetricEncryptionPadding = this.secureMessageAttributesParameters.getProperty("padding");
-				
-		        // Set the Secret Key and its specifications,
-		 		// using the AES (Advanced Encryption Standard - Rijndael) Symmetric Encryption
-		 	    SecretKeySpec secretKeySpecifications = new SecretKeySpec(secretKeyBytes, symmetricEncryptionAlgorithm);
-
-		 	    Cipher secureMessagePayloadSerializationSymmetricEncryptionDecipher = 
-		 	    			Cipher.getInstance(String.format("%s/%s/%s",
-										   	   symmetricEncryptionAlgorithm, symmetricEncryptionMode, symmetricEncryptionPadding), 
-								               provider);
-				
-				if(requiresIV(symmetricEncryptionMode)) {
+				if(this.cipherContexts.requiresIV()) {
 					// Algorithms that do not need IVs: ECB
 					// The parameter specifications for the Initialization Vector	
 					System.out.println("[SecureMessagePayload.DECRYPT] Block mode needs IV");
 					System.out.println("[SecureMessagePayload.DECRYPT] IV is: " + CommonUtils.fromByteArrayToHexadecimalFormat(this.IVBytes));
-					IvParameterSpec initializationVectorParameterSpecifications = new IvParameterSpec(this.IVBytes);
-					secureMessagePayloadSerializationSymmetricEncryptionDecipher
-						.init(Cipher.DECRYPT_MODE, secretKeySpecifications, initializationVectorParameterSpecifications);
 				} else {
 					System.out.println("[SecureMessagePayload.DECRYPT] Block mode does not needs IV");
-					secureMessagePayloadSerializationSymmetricEncryptionDecipher
-						.init(Cipher.DECRYPT_MODE, secretKeySpecifications);
 				}
 				
-				int sizeOfSecureMessagePayloadSerializedSymmetricEncryptionCiphered = 
-									this.secureMessagePayloadSerializedCiphered.length;
+				// The Decipher of the current Thread, for the Session's suite,
+				// only re-initialized with the received Initialization Vector
+		 	    Cipher secureMessagePayloadSerializationSymmetricEncryptionDecipher = 
+		 	    			this.cipherContexts.getDecryptionCipher(this.IVBytes);
 				
-		      	// The Plain Text of the bytes of the data input received through the communication channel
-		      	this.secureMessagePayloadSerialized = new byte[secureMessagePayloadSerializationSymmetricEncryptionDecipher
-		      	                                   .getOutputSize(sizeOfSecureMessagePayloadSerializedSymmetricEncryptionCiphered)];
-		        
-		      	int sizeOfSecureMessagePayloadSerialized = secureMessagePayloadSerializationSymmetricEncryptionDecipher
-		      									   .update(this.secureMessagePayloadSerializedCiphered, 
-		      											   0, sizeOfSecureMessagePayloadSerializedSymmetricEncryptionCiphered,
-		      											   this.secureMessagePayloadSerialized, 0);
-		      	
-		      	secureMessagePayloadSerializationSymmetricEncryptionDecipher
-		      									   .doFinal(this.secureMessagePayloadSerialized, sizeOfSecureMessagePayloadSerialized);
+				if(this.secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption()) {
+					// The Secure Message's Payload is opened in one call, being the authentication tag
+					// verified over the Associated Data and the Cipher Text, before any Plain Text is returned
+					secureMessagePayloadSerializationSymmetricEncryptionDecipher.updateAAD(this.associatedData, this.associatedDataOffset,
+																						   this.sizeOfAssociatedData);
+				}
+				
+				// The Secure Message's Payload is deciphered in place, over the slice of the buffer where it was received
+				// (i.e., the Plain Text is never longer than the Cipher Text, so it overwrites only the Cipher Text already read)
+				ByteBuffer secureMessagePayloadSerializedCipheredBuffer = 
+						ByteBuffer.wrap(this.secureMessagePayloadSerializedCiphered, this.secureMessagePayloadSerializedCipheredOffset,
+										this.sizeOfSecureMessagePayloadSerializedCiphered);
+				
+				this.sizeOfSecureMessagePayloadSerializedDeciphered = 
+						secureMessagePayloadSerializationSymmetricEncryptionDecipher.doFinal(secureMessagePayloadSerializedCipheredBuffer,
+																							 secureMessagePayloadSerializedCipheredBuffer.duplicate());
+				
+				this.secureMessagePayloadSerialized = this.secureMessagePayloadSerializedCiphered;
+				this.secureMessagePayloadSerializedOffset = this.secureMessagePayloadSerializedCipheredOffset;
 		        
 
 				// The Secure Message's Payload have already its serialization and its Symmetric Encryption Cipher undone
@@ -705,16 +862,15 @@ public class SecureMessagePayload {
 				System.err.println("- Invalid Cryptographic Algorithm's Parameters!!!");
 				invalidAlgorithmParameterException.printStackTrace();
 			}
-			catch (NoSuchProviderException noSuchProviderException) {
-				System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
-				System.err.println("- Cryptograhic Provider not found!!!");
-				noSuchProviderException.printStackTrace();
-			}
 			catch (NoSuchPaddingException noSuchPaddingException) {
 				System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
 				System.err.println("- Padding Method not found!!!");
 				noSuchPaddingException.printStackTrace();
 			}
+			catch (AEADBadTagException aeadBadTagException) {
+				System.err.println("The authentication tag of the Secure Message's Payload it's not valid:");
+				System.err.println("- The Secure Message will be ignored!!!");
+			}
 			catch (BadPaddingException badPaddingException) {
 				System.err.println("Error occurred during the Symmetric Encryption over the Secure Message's Payload:");
 				System.err.println("- Bad/Wrong Padding Method in use!!!");
@@ -738,23 +894,23 @@ public class SecureMessagePayload {
 		}
 	}
 	
-	/**
-	 * Returns the Symmetric Encryption's Cipher on the Secure Message's Payload serialized,
-	 * resulting to the final Secure Message's Payload Ciphered component.
-	 * 
-	 * @return the Symmetric Encryption's Cipher on the Secure Message's Payload serialized,
-	 *         resulting to the final Secure Message's Payload Ciphered component
-	 */
-	public byte[] getSecureMessagePayloadSerializedCiphered() {
-		return this.isSecureMessagePayloadSerializedCiphered ?
-					this.secureMessagePayloadSerializedCiphered : null;
-	}
-	
 	public boolean checkIfIsSecureMessagePayloadSerializedSizeValid() {
 		if(!this.isSizeOfSecureMessagePayloadCheckDone) {
 			if(!this.isSecureMessagePayloadSerializedCiphered && this.isSecureMessagePayloadSerialized) {
+				// In the Modes of Authenticated Encryption, the size received also counts the authentication tag
+				int sizeOfSecureMessagePayloadSerializedExpected = 
+						this.secureMulticastChatSessionCipherSuite.isAuthenticatedEncryption() ?
+								( this.sizeOfSecureMessagePayloadSerializedDeciphered + this.secureMulticastChatSessionCipherSuite.getTagLength() ) :
+								this.sizeOfSecureMessagePayloadSerializedCiphered;
+				
+				// The components of the Secure Message's Payload must fill exactly the Plain Text deciphered
+				int sizeOfSecureMessagePayloadComponents = 
+						( this.sizeOfFromPeerIDSerialized + ( 2 * CommonUtils.INTEGER_IN_BYTES_LENGTH ) +
+						  this.sizeOfMessageSerialized + this.sizeOfIntegrityControlSerialized );
+				
 				this.isSizeOfSecureMessagePayloadCheckValid = 
-						( this.sizeOfSecureMessagePayloadSerialized == this.secureMessagePayloadSerialized.length );
+						( this.sizeOfSecureMessagePayloadSerialized == sizeOfSecureMessagePayloadSerializedExpected ) &&
+						( this.sizeOfSecureMessagePayloadSerializedDeciphered == sizeOfSecureMessagePayloadComponents );
 				
 				if(!this.isSizeOfSecureMessagePayloadCheckValid) {
 					System.err.println("The size of the Secure Message's Payload it's not correct:");
@@ -773,26 +929,6 @@ public class SecureMessagePayload {
 		}
 	}
 	
-	/**
-	 * Used to check if a block mode needs an IV or not.
-	 * The only block mode that does not need an IV is ECB.
-	 * @param mode string of the block to compare to.
-	 * @return true if it needs, false if not (ECB)
-	 */
-	private boolean requiresIV(String mode) {
-		return !mode.equalsIgnoreCase("ECB");
-	}
-	
-	private byte[] generateIV(Cipher cipher) {
-		byte[] result = null;
-		
-		SecureRandom random = new SecureRandom();
-		result = new byte[cipher.getBlockSize()];
-		random.nextBytes(result);
-		
-		return result;
-	}
-	
 	public void setIVBytes(byte[] IVBytes) {
 		this.IVBytes = IVBytes;
 	}
@@ -801,4 +937,20 @@ public class SecureMessagePayload {
 		return IVBytes;
 	}
 	
+	/**
+	 * Sets the Associated Data authenticated by the Cipher, in the Modes of Authenticated Encryption,
+	 * directly over the buffer where it was received (i.e., without copying it).
+	 * 
+	 * @param associatedData the buffer of the Associated Data authenticated by the Cipher
+	 * 
+	 * @param associatedDataOffset the offset of the Associated Data, in the buffer
+	 * 
+	 * @param sizeOfAssociatedData the size of the Associated Data
+	 */
+	public void setAssociatedData(byte[] associatedData, int associatedDataOffset, int sizeOfAssociatedData) {
+		this.associatedData = associatedData;
+		this.associatedDataOffset = associatedDataOffset;
+		this.sizeOfAssociatedData = sizeOfAssociatedData;
+	}
+	
 }
\ No newline at end of file
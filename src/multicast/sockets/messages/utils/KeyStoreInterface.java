@@ -126,10 +126,28 @@ public class KeyStoreInterface {
 			// TODO: handle exception
 			ks = null;
 			System.err.println("Something happened, could not open keystore!");
+		} finally {
+			// The keystore is fully loaded in memory, so the file is not needed anymore
+			if (fis != null) {
+				try {
+					fis.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+				fis = null;
+			}
 		}
 
 	}
 	
+	/**
+	 * Checks if the keystore was opened
+	 * @return true if the keystore was opened, false if not
+	 */
+	public boolean isOpen() {
+		return ks != null;
+	}
+	
 	/**
 	 * Loads a keystore entry
 	 * @param entry name to load
@@ -0,0 +1,237 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.util.Arrays;
+
+import multicast.common.CommonUtils;
+
+/**
+ *
+ * Class for the Anti-Replay Window of a Peer of a (Secure) Multicast Chat Session (i.e., an IPsec-style sliding window),
+ * keeping the highest Sequence Number accepted from the Peer and a bitmap of the Sequence Numbers accepted behind it.
+ *
+ * The Sequence Numbers received out of order are accepted, if they were not seen yet and they are still inside the window,
+ * being only rejected the duplicated ones and the stale ones (i.e., older than the window), in O(1) and without any allocation.
+ *
+ * NOTE:
+ * - The bitmap is circular and it has one more block (of 64 bits) than the window (as in the RFC 6479),
+ *   so the window is slid by clearing whole blocks, without shifting the bitmap;
+ * - The Anti-Replay Window is only updated after the Integrity Control of the Secure Message was verified,
+ *   so a forged Secure Message can not slide the window of a Peer;
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public class SecureMulticastChatAntiReplayWindow {
+
+	// Invariants/Constants:
+	/**
+	 * The number of bits of each block of the bitmap
+	 */
+	private static final int BLOCK_SIZE = Long.SIZE;
+
+
+	// Global Instance Variables:
+	/**
+	 * The size of the window (i.e., the number of Sequence Numbers, up to the highest one, which are still accepted)
+	 */
+	private final int windowSize;
+
+	/**
+	 * The circular bitmap of the Sequence Numbers accepted, in blocks of 64 bits
+	 */
+	private final long[] bitmap;
+
+	/**
+	 * The highest Sequence Number accepted
+	 */
+	private long highestSequenceNumber;
+
+	/**
+	 * The timestamp of the last Sequence Number accepted
+	 */
+	private long timestamp;
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - The Constructor of an empty Anti-Replay Window, right behind the first Sequence Number received from the Peer
+	 *   (i.e., the Sequence Numbers sent before it, but received out of order, are still accepted, inside the window).
+	 *
+	 * @param windowSize the size of the window (rounded up to a multiple of 64, between 64 and 4096)
+	 *
+	 * @param sequenceNumber the first Sequence Number received from the Peer
+	 * @param timestamp the timestamp of the first Sequence Number received from the Peer
+	 */
+	public SecureMulticastChatAntiReplayWindow(int windowSize, int sequenceNumber, long timestamp) {
+		this.windowSize = boundWindowSize(windowSize);
+		this.bitmap = new long[ ( this.windowSize / BLOCK_SIZE ) + 1 ];
+
+		this.highestSequenceNumber = ( (long) sequenceNumber ) - 1;
+		this.timestamp = timestamp;
+	}
+
+
+	// Methods:
+	/**
+	 * Returns the given size of a window, rounded up to a multiple of 64 and bounded between 64 and 4096.
+	 *
+	 * @param windowSize the size of the window requested
+	 *
+	 * @return the size of the window, rounded up to a multiple of 64 and bounded between 64 and 4096
+	 */
+	public static int boundWindowSize(int windowSize) {
+		int windowSizeBounded = Math.max(CommonUtils.MIN_ANTI_REPLAY_WINDOW_SIZE,
+										 Math.min(CommonUtils.MAX_ANTI_REPLAY_WINDOW_SIZE, windowSize));
+
+		return ( ( windowSizeBounded + BLOCK_SIZE - 1 ) / BLOCK_SIZE ) * BLOCK_SIZE;
+	}
+
+	/**
+	 * Returns the memory footprint of the bitmap of a window of the given size (in bytes).
+	 *
+	 * @param windowSize the size of the window requested
+	 *
+	 * @return the memory footprint of the bitmap of a window of the given size (in bytes)
+	 */
+	public static int getMemoryFootprintOf(int windowSize) {
+		return ( ( boundWindowSize(windowSize) / BLOCK_SIZE ) + 1 ) * Long.BYTES;
+	}
+
+	/**
+	 * Returns the index of the block of the bitmap, where is the bit of the given Sequence Number.
+	 *
+	 * @param sequenceNumber the Sequence Number
+	 *
+	 * @return the index of the block of the bitmap, where is the bit of the given Sequence Number
+	 */
+	private int getBlockIndex(long sequenceNumber) {
+		return (int) Math.floorMod(Math.floorDiv(sequenceNumber, BLOCK_SIZE), (long) this.bitmap.length);
+	}
+
+	/**
+	 * Returns true if the given Sequence Number is stale (i.e., older than the window), and false, otherwise.
+	 *
+	 * @param sequenceNumber the Sequence Number received
+	 *
+	 * @return true if the given Sequence Number is stale, and false, otherwise
+	 */
+	public boolean isStale(int sequenceNumber) {
+		return ( this.highestSequenceNumber - sequenceNumber ) >= this.windowSize;
+	}
+
+	/**
+	 * Returns true if the given Sequence Number, inside the window, was already accepted, and false, otherwise.
+	 *
+	 * @param sequenceNumber the Sequence Number received (not stale)
+	 *
+	 * @return true if the given Sequence Number was already accepted, and false, otherwise
+	 */
+	public boolean isDuplicate(int sequenceNumber) {
+		if(sequenceNumber > this.highestSequenceNumber) {
+			return false;
+		}
+
+		return ( this.bitmap[this.getBlockIndex(sequenceNumber)] & ( 1L << ( sequenceNumber & ( BLOCK_SIZE - 1 ) ) ) ) != 0;
+	}
+
+	/**
+	 * Marks the given Sequence Number as accepted, sliding the window, if it's the highest one accepted.
+	 *
+	 * NOTE:
+	 * - It must be only called after the given Sequence Number was verified as not stale and not duplicated;
+	 *
+	 * @param sequenceNumber the Sequence Number accepted
+	 * @param timestamp the timestamp of the Sequence Number accepted
+	 */
+	public void update(int sequenceNumber, long timestamp) {
+		if(sequenceNumber > this.highestSequenceNumber) {
+			long currentBlock = Math.floorDiv(this.highestSequenceNumber, BLOCK_SIZE);
+			long numBlocksToClear = Math.min(Math.floorDiv(sequenceNumber, BLOCK_SIZE) - currentBlock,
+											 (long) this.bitmap.length);
+
+			// The blocks slid into the window are cleared (all of them, at most, if the window was fully slid)
+			for(long block = 1; block <= numBlocksToClear; block++) {
+				this.bitmap[(int) Math.floorMod(currentBlock + block, (long) this.bitmap.length)] = 0L;
+			}
+
+			this.highestSequenceNumber = sequenceNumber;
+		}
+
+		this.bitmap[this.getBlockIndex(sequenceNumber)] |= 1L << ( sequenceNumber & ( BLOCK_SIZE - 1 ) );
+		this.timestamp = timestamp;
+	}
+
+	/**
+	 * Marks all the Sequence Numbers, up to the given one, as already accepted
+	 * (i.e., for a Peer interned again, after being evicted, so its Secure Messages sent before are still rejected).
+	 *
+	 * @param highestSequenceNumber the highest Sequence Number accepted from the Peer, before it was evicted
+	 */
+	void seal(long highestSequenceNumber) {
+		if(highestSequenceNumber > this.highestSequenceNumber) {
+			Arrays.fill(this.bitmap, -1L);
+
+			// The bits after the highest Sequence Number, in its block, must be free, as if they were slid into the window
+			this.bitmap[this.getBlockIndex(highestSequenceNumber)] = -1L >>> ( BLOCK_SIZE - 1 - (int) ( highestSequenceNumber & ( BLOCK_SIZE - 1 ) ) );
+
+			this.highestSequenceNumber = highestSequenceNumber;
+		}
+	}
+
+	/**
+	 * Returns the size of the window.
+	 *
+	 * @return the size of the window
+	 */
+	public int getWindowSize() {
+		return this.windowSize;
+	}
+
+	/**
+	 * Returns the highest Sequence Number accepted.
+	 *
+	 * @return the highest Sequence Number accepted
+	 */
+	public long getHighestSequenceNumber() {
+		return this.highestSequenceNumber;
+	}
+
+	/**
+	 * Returns the memory footprint of the bitmap of the window (in bytes).
+	 *
+	 * @return the memory footprint of the bitmap of the window (in bytes)
+	 */
+	public int getMemoryFootprint() {
+		return getMemoryFootprintOf(this.windowSize);
+	}
+
+	/**
+	 * Returns the timestamp of the last Sequence Number accepted.
+	 *
+	 * @return the timestamp of the last Sequence Number accepted
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+}
@@ -0,0 +1,255 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.net.InetAddress;
+
+import multicast.common.CommonCodecs;
+
+/**
+ *
+ * Class for a Peer of a (Secure) Multicast Chat Session (i.e., a From Peer's ID),
+ * as interned by the table of the Peers of a Secure Multicast Socket.
+ *
+ * The Peer is only identified by its From Peer's ID, which is authenticated (i.e., covered by the Integrity Control,
+ * or by the authentication tag), being the Inet Address from which it sends only informational, since it's not authenticated
+ * (i.e., a replayed Secure Message, sent from a spoofed Inet Address, is still verified by the same Anti-Replay Window).
+ *
+ * The Anti-Replay Window of the Sequence Numbers received from the Peer, and its statistics, are kept by this canonical object,
+ * so the Secure Messages received do not need to build any key (or any String) to find them.
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public class SecureMulticastChatPeer {
+
+	// Global Instance Variables:
+	/**
+	 * The stable ID of the Peer, given by the table of the Peers, when interned
+	 */
+	private final int peerID;
+
+	/**
+	 * The From Peer's ID serialized, as received
+	 */
+	private final byte[] fromPeerIDSerialized;
+
+	/**
+	 * The Inet Address from which the Peer sent its first Secure Message (only informational, since it's not authenticated)
+	 */
+	private final InetAddress inetAddress;
+
+	/**
+	 * The hash of the Peer, computed over its From Peer's ID serialized
+	 */
+	private final int hash;
+
+	/**
+	 * The Anti-Replay Window of the Sequence Numbers received from the Peer
+	 */
+	private final SecureMulticastChatAntiReplayWindow antiReplayWindow;
+
+	/**
+	 * The From Peer's ID, only built when requested
+	 */
+	private String fromPeerID;
+
+	/**
+	 * The number of Secure Messages received from the Peer, accepted and rejected
+	 * (after their Integrity Control was verified)
+	 */
+	private long numSecureMessagesAccepted;
+	private long numSecureMessagesRejected;
+
+	/**
+	 * The number of the generation of the table of the Peers, where the Peer is
+	 * (i.e., of its last Secure Message received, or -1, if it was removed from the table)
+	 */
+	long generation;
+
+	/**
+	 * The previous and the next Peers of the same generation of the table of the Peers
+	 */
+	SecureMulticastChatPeer previousOfGeneration;
+	SecureMulticastChatPeer nextOfGeneration;
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - The Constructor of a Peer, copying its From Peer's ID serialized, from the given range of the given buffer.
+	 *
+	 * @param peerID the stable ID of the Peer
+	 *
+	 * @param buffer the buffer where the From Peer's ID serialized is
+	 * @param fromPeerIDOffset the offset of the From Peer's ID serialized, in the buffer
+	 * @param sizeOfFromPeerID the size of the From Peer's ID serialized
+	 *
+	 * @param inetAddress the Inet Address from which the Peer sent its first Secure Message
+	 *
+	 * @param hash the hash of the Peer
+	 *
+	 * @param antiReplayWindowSize the size of the Anti-Replay Window of the Peer
+	 * @param sequenceNumber the first Sequence Number received from the Peer
+	 * @param timestamp the timestamp of the first Sequence Number received from the Peer
+	 */
+	SecureMulticastChatPeer(int peerID, byte[] buffer, int fromPeerIDOffset, int sizeOfFromPeerID, InetAddress inetAddress,
+							int hash, int antiReplayWindowSize, int sequenceNumber, long timestamp) {
+
+		this.peerID = peerID;
+
+		this.fromPeerIDSerialized = new byte[sizeOfFromPeerID];
+		System.arraycopy(buffer, fromPeerIDOffset, this.fromPeerIDSerialized, 0, sizeOfFromPeerID);
+
+		this.inetAddress = inetAddress;
+		this.hash = hash;
+
+		this.antiReplayWindow = new SecureMulticastChatAntiReplayWindow(antiReplayWindowSize, sequenceNumber, timestamp);
+	}
+
+
+	// Methods:
+	/**
+	 * Returns true if the Peer is the one of the From Peer's ID serialized, in the given range of the given buffer,
+	 * and false, otherwise (comparing the bytes in place).
+	 *
+	 * @param buffer the buffer where the From Peer's ID serialized is
+	 * @param fromPeerIDOffset the offset of the From Peer's ID serialized, in the buffer
+	 * @param sizeOfFromPeerID the size of the From Peer's ID serialized
+	 *
+	 * @return true if the Peer is the one of the given From Peer's ID serialized, and false, otherwise
+	 */
+	boolean matches(byte[] buffer, int fromPeerIDOffset, int sizeOfFromPeerID) {
+		if(this.fromPeerIDSerialized.length != sizeOfFromPeerID) {
+			return false;
+		}
+
+		for(int i = 0; i < sizeOfFromPeerID; i++) {
+			if(this.fromPeerIDSerialized[i] != buffer[fromPeerIDOffset + i]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the stable ID of the Peer.
+	 *
+	 * @return the stable ID of the Peer
+	 */
+	public int getPeerID() {
+		return this.peerID;
+	}
+
+	/**
+	 * Returns the From Peer's ID (i.e., a String is only built, the first time it's requested).
+	 *
+	 * @return the From Peer's ID
+	 */
+	public String getFromPeerID() {
+		if(this.fromPeerID == null) {
+			this.fromPeerID = CommonCodecs.readString(this.fromPeerIDSerialized, 0, this.fromPeerIDSerialized.length);
+		}
+
+		return this.fromPeerID;
+	}
+
+	/**
+	 * Returns the Inet Address from which the Peer sent its first Secure Message (only informational, since it's not authenticated).
+	 *
+	 * @return the Inet Address from which the Peer sent its first Secure Message
+	 */
+	public InetAddress getInetAddress() {
+		return this.inetAddress;
+	}
+
+	/**
+	 * Returns the hash of the Peer.
+	 *
+	 * @return the hash of the Peer
+	 */
+	int getHash() {
+		return this.hash;
+	}
+
+	/**
+	 * Returns the Anti-Replay Window of the Sequence Numbers received from the Peer.
+	 *
+	 * @return the Anti-Replay Window of the Sequence Numbers received from the Peer
+	 */
+	public SecureMulticastChatAntiReplayWindow getAntiReplayWindow() {
+		return this.antiReplayWindow;
+	}
+
+	/**
+	 * Returns the memory footprint of the buffers of the Peer (i.e., its From Peer's ID serialized
+	 * and the bitmap of its Anti-Replay Window, in bytes).
+	 *
+	 * @return the memory footprint of the buffers of the Peer (in bytes)
+	 */
+	public int getMemoryFootprint() {
+		return this.fromPeerIDSerialized.length + this.antiReplayWindow.getMemoryFootprint();
+	}
+
+	/**
+	 * Counts a Secure Message received from the Peer, which was accepted.
+	 */
+	public void secureMessageAccepted() {
+		this.numSecureMessagesAccepted++;
+	}
+
+	/**
+	 * Counts a Secure Message received from the Peer, which was rejected
+	 * (i.e., by its Anti-Replay Window, being its Sequence Number duplicated or stale).
+	 */
+	public void secureMessageRejected() {
+		this.numSecureMessagesRejected++;
+	}
+
+	/**
+	 * Returns the number of Secure Messages received from the Peer, which were accepted.
+	 *
+	 * @return the number of Secure Messages received from the Peer, which were accepted
+	 */
+	public long getNumSecureMessagesAccepted() {
+		return this.numSecureMessagesAccepted;
+	}
+
+	/**
+	 * Returns the number of Secure Messages received from the Peer, which were rejected.
+	 *
+	 * @return the number of Secure Messages received from the Peer, which were rejected
+	 */
+	public long getNumSecureMessagesRejected() {
+		return this.numSecureMessagesRejected;
+	}
+
+	/**
+	 * Returns the description of the Peer (i.e., <From Peer's ID>:<Host's Address>).
+	 *
+	 * @return the description of the Peer
+	 */
+	@Override
+	public String toString() {
+		return this.getFromPeerID() + ":" + this.inetAddress.getHostAddress();
+	}
+
+}
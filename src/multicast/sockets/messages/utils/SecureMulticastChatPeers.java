@@ -0,0 +1,823 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.net.InetAddress;
+
+import multicast.common.CommonUtils;
+
+/**
+ *
+ * Class for the table of the Peers of a Secure Multicast Socket, interning each
+ * From Peer's ID serialized into one canonical Peer, with a stable ID.
+ *
+ * The Peers are only keyed by their From Peer's ID, which is authenticated, and never by the Inet Address
+ * from which they send (i.e., not authenticated), so a replayed Secure Message, sent from a spoofed Inet Address,
+ * is still verified by the Anti-Replay Window of its Peer, instead of by a new (empty) one.
+ *
+ * The Peers are found by hashing the From Peer's ID serialized in place (i.e., directly over the buffer received),
+ * with open addressing and linear probing, so no String (or any other key) is built per Secure Message received.
+ *
+ * The Peers are also kept in a ring of generations (i.e., one list of Peers per interval of time), covering the timeout
+ * of the Peers, being each Peer moved to the current generation when a Secure Message is received from it (at most,
+ * once per generation), so the idle Peers are removed by dropping the oldest generations, without scanning all the Peers.
+ *
+ * The memory footprint of the table is bounded by a hard cap, so a member of the Session spraying Secure Messages
+ * from many From Peer's IDs can not grow it without bound, being the pressure over the table handled by:
+ * - Interning the new Peers with the minimum Anti-Replay Window, once the table is 75% full (i.e., under pressure);
+ * - Evicting the idle Peers of the oldest generations, before their timeout, if a new Peer does not fit in the table,
+ *   being the highest Sequence Number of each Peer evicted kept (in a fixed table of records, until its timeout),
+ *   so, if it's interned again, its Secure Messages sent before the eviction are still rejected;
+ * - Rejecting the new Peers (i.e., their Secure Messages), if only the Peers of the current generation are left
+ *   to be evicted, or there's no room to keep the record of a Peer evicted (i.e., the table is saturated);
+ *
+ * NOTE:
+ * - The Peers are only interned after the Integrity Control of their Secure Messages was verified,
+ *   so only the members of the Session can add Peers to the table;
+ * - The idle Peers are removed by the Cleaning Sequence Numbers Service, being interned again
+ *   (with a new stable ID, and a new Anti-Replay Window) if they send again;
+ * - The idle Peers are kept, at least, during the timeout of the Peers, and, at most, during one more generation,
+ *   unless they are evicted under pressure;
+ * - The memory footprint of the objects of the Peers is estimated (i.e., with compressed references),
+ *   being exact the one of their buffers;
+ * - A From Peer's ID is assumed to be used by only one client (i.e., one Secure Multicast Socket) at a time,
+ *   since each client numbers its Secure Messages from its own Sequence Number, so two clients with the same
+ *   From Peer's ID (on different hosts, or one restarted before its Peer is removed) share one Anti-Replay Window,
+ *   rejecting each other's Secure Messages (being them reported by the Secure Multicast Socket, as collisions,
+ *   if they are received from another Inet Address than the one of the Peer);
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public class SecureMulticastChatPeers {
+
+	/**
+	 *
+	 * Enumeration for the pressure states of the table of the Peers.
+	 *
+	 */
+	public enum PressureState {
+
+		// Enumerations:
+		/**
+		 * The table is less than 75% full
+		 */
+		NORMAL,
+
+		/**
+		 * The table is, at least, 75% full (i.e., the new Peers are interned with the minimum Anti-Replay Window,
+		 * being the idle Peers evicted, before their timeout, if a new Peer does not fit in the table)
+		 */
+		PRESSURE,
+
+		/**
+		 * A new Peer was rejected in the current generation (i.e., the Secure Messages of the new Peers are rejected)
+		 */
+		SATURATED
+
+	}
+
+
+	// Invariants/Constants:
+	/**
+	 * The initial capacity of the table of the Peers (always a power of two)
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * The estimated size of a reference (in bytes)
+	 */
+	private static final int REFERENCE_SIZE = 8;
+
+	/**
+	 * The estimated memory footprint of the objects of each Peer, besides its buffers
+	 * (i.e., the headers and the fields of the Peer, of its Anti-Replay Window and of their arrays, in bytes)
+	 */
+	private static final int PEER_OBJECTS_MEMORY_FOOTPRINT = 144;
+
+	/**
+	 * The memory footprint of each record of a Peer evicted (i.e., its hash, its highest Sequence Number
+	 * and the number of its last generation, in bytes)
+	 */
+	private static final int EVICTED_PEER_RECORD_SIZE = Integer.BYTES + Long.BYTES + Long.BYTES;
+
+	/**
+	 * The number of records of the Peers evicted of each bucket (always a power of two)
+	 */
+	private static final int EVICTED_PEERS_RECORDS_BUCKET_SIZE = 4;
+
+	/**
+	 * The fraction of the hard cap of the memory footprint of the table kept for the records of the Peers evicted
+	 * (i.e., 1/8 of it)
+	 */
+	private static final int EVICTED_PEERS_RECORDS_SHARE = 8;
+
+	/**
+	 * The percentage of the hard cap of the memory footprint of the table from which it's under pressure
+	 */
+	private static final int PRESSURE_THRESHOLD_PERCENTAGE = 75;
+
+
+	// Global Instance Variables:
+	/**
+	 * The Peers of the table (null, in the free positions)
+	 */
+	private SecureMulticastChatPeer[] peers;
+
+	/**
+	 * The number of Peers of the table
+	 */
+	private int size;
+
+	/**
+	 * The stable ID to be given to the next Peer interned
+	 */
+	private int nextPeerID;
+
+	/**
+	 * The size of the Anti-Replay Window of each Peer interned
+	 */
+	private final int antiReplayWindowSize;
+
+	/**
+	 * The interval of time of each generation (in milliseconds)
+	 */
+	private final long generationInterval;
+
+	/**
+	 * The first Peer of each generation of the ring (null, if the generation is empty)
+	 */
+	private final SecureMulticastChatPeer[] generations;
+
+	/**
+	 * The number of Peers of each generation of the ring
+	 */
+	private final int[] generationSizes;
+
+	/**
+	 * The memory footprint of the buffers of the Peers of each generation of the ring (in bytes)
+	 */
+	private final long[] generationMemoryFootprints;
+
+	/**
+	 * The number of the current generation (i.e., the time divided by the interval of time of each generation)
+	 */
+	private long currentGeneration;
+
+	/**
+	 * The hard cap of the memory footprint of the table (in bytes)
+	 */
+	private final long maxMemoryFootprint;
+
+	/**
+	 * The records of the Peers evicted, in buckets indexed by their hash (i.e., their hashes, their highest Sequence Numbers
+	 * and the numbers of their last generations, being a record free once the timeout of its Peer expired)
+	 */
+	private final int[] evictedPeersHashes;
+	private final long[] evictedPeersSequenceNumbers;
+	private final long[] evictedPeersGenerations;
+
+	/**
+	 * The number of Peers evicted and rejected (i.e., not interned, since the table was saturated)
+	 */
+	private long numPeersEvicted;
+	private long numPeersRejected;
+
+	/**
+	 * The number of the last generation when a Peer was rejected
+	 */
+	private long lastRejectionGeneration;
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - The Constructor of an empty table of the Peers.
+	 *
+	 * @param antiReplayWindowSize the size of the Anti-Replay Window of each Peer interned
+	 * @param timeout the timeout of the Peers (in milliseconds)
+	 * @param generationInterval the interval of time of each generation (in milliseconds)
+	 * @param maxMemoryFootprint the hard cap of the memory footprint of the table (in bytes)
+	 */
+	public SecureMulticastChatPeers(int antiReplayWindowSize, long timeout, long generationInterval, long maxMemoryFootprint) {
+		this.peers = new SecureMulticastChatPeer[INITIAL_CAPACITY];
+		this.antiReplayWindowSize = antiReplayWindowSize;
+
+		// The generations cover the timeout of the Peers, plus the current generation
+		int numGenerations = (int) ( ( timeout + generationInterval - 1 ) / generationInterval ) + 1;
+
+		this.generationInterval = generationInterval;
+		this.generations = new SecureMulticastChatPeer[numGenerations];
+		this.generationSizes = new int[numGenerations];
+		this.generationMemoryFootprints = new long[numGenerations];
+
+		this.maxMemoryFootprint = maxMemoryFootprint;
+
+		int numEvictedPeersRecords =
+				(int) Long.highestOneBit(Math.max(maxMemoryFootprint / EVICTED_PEERS_RECORDS_SHARE / EVICTED_PEER_RECORD_SIZE,
+												  EVICTED_PEERS_RECORDS_BUCKET_SIZE));
+
+		this.evictedPeersHashes = new int[numEvictedPeersRecords];
+		this.evictedPeersSequenceNumbers = new long[numEvictedPeersRecords];
+		this.evictedPeersGenerations = new long[numEvictedPeersRecords];
+
+		// The records start expired, so all of them are free
+		for(int record = 0; record < numEvictedPeersRecords; record++) {
+			this.evictedPeersGenerations[record] = Long.MIN_VALUE;
+		}
+
+		this.lastRejectionGeneration = Long.MIN_VALUE;
+	}
+
+
+	// Methods:
+	/**
+	 * Returns the hash of the given From Peer's ID serialized, in the given range of the given buffer (computed in place).
+	 *
+	 * @param buffer the buffer where the From Peer's ID serialized is
+	 * @param fromPeerIDOffset the offset of the From Peer's ID serialized, in the buffer
+	 * @param sizeOfFromPeerID the size of the From Peer's ID serialized
+	 *
+	 * @return the hash of the given From Peer's ID serialized
+	 */
+	private static int hash(byte[] buffer, int fromPeerIDOffset, int sizeOfFromPeerID) {
+		int hash = 1;
+
+		for(int i = 0; i < sizeOfFromPeerID; i++) {
+			hash = ( 31 * hash ) + buffer[fromPeerIDOffset + i];
+		}
+
+		// The bits are mixed, since only the lowest ones are used to index the table
+		hash *= 0x9E3779B9;
+
+		return hash ^ ( hash >>> 16 );
+	}
+
+	/**
+	 * Returns the canonical Peer of the given From Peer's ID serialized, in the given range of the given buffer,
+	 * if it's already interned, without interning a new one (i.e., to verify a Secure Message, before it's accepted).
+	 *
+	 * @param buffer the buffer where the From Peer's ID serialized is
+	 * @param fromPeerIDOffset the offset of the From Peer's ID serialized, in the buffer
+	 * @param sizeOfFromPeerID the size of the From Peer's ID serialized
+	 *
+	 * @return the canonical Peer of the given From Peer's ID serialized, or null, if it's not interned
+	 */
+	public synchronized SecureMulticastChatPeer find(byte[] buffer, int fromPeerIDOffset, int sizeOfFromPeerID) {
+		int hash = hash(buffer, fromPeerIDOffset, sizeOfFromPeerID);
+		int mask = this.peers.length - 1;
+
+		for(int index = hash & mask; this.peers[index] != null; index = ( index + 1 ) & mask) {
+			SecureMulticastChatPeer peer = this.peers[index];
+
+			if(peer.getHash() == hash && peer.matches(buffer, fromPeerIDOffset, sizeOfFromPeerID)) {
+				return peer;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the canonical Peer of the given From Peer's ID serialized, in the given range of the given buffer,
+	 * interning a new one (with an empty Anti-Replay Window, right behind the given Sequence Number),
+	 * if it's the first Secure Message received from it (from any Inet Address).
+	 *
+	 * NOTE:
+	 * - Under pressure, the Peer is interned with the minimum Anti-Replay Window, evicting the idle Peers
+	 *   of the oldest generations, if it does not fit in the table;
+	 * - If the Peer was evicted before, its Anti-Replay Window is sealed up to its highest Sequence Number accepted;
+	 *
+	 * @param buffer the buffer where the From Peer's ID serialized is
+	 * @param fromPeerIDOffset the offset of the From Peer's ID serialized, in the buffer
+	 * @param sizeOfFromPeerID the size of the From Peer's ID serialized
+	 *
+	 * @param inetAddress the Inet Address from which the Secure Message was sent (only kept as informational, by a new Peer)
+	 *
+	 * @param sequenceNumber the Sequence Number of the Secure Message received
+	 * @param timestamp the timestamp of the Secure Message received
+	 *
+	 * @return the canonical Peer of the given From Peer's ID serialized, or null, if it's a new Peer and the table is saturated
+	 */
+	public synchronized SecureMulticastChatPeer intern(byte[] buffer, int fromPeerIDOffset, int sizeOfFromPeerID,
+													   InetAddress inetAddress, int sequenceNumber, long timestamp) {
+
+		this.rotate(timestamp / this.generationInterval);
+
+		int hash = hash(buffer, fromPeerIDOffset, sizeOfFromPeerID);
+		int mask = this.peers.length - 1;
+		int index = hash & mask;
+
+		for(SecureMulticastChatPeer peer = this.peers[index]; peer != null; peer = this.peers[index]) {
+			if(peer.getHash() == hash && peer.matches(buffer, fromPeerIDOffset, sizeOfFromPeerID)) {
+				return peer;
+			}
+
+			index = ( index + 1 ) & mask;
+		}
+
+		// The Anti-Replay Window of the new Peers is tightened, while the table is under pressure
+		int antiReplayWindowSize = ( this.getPressureState() == PressureState.NORMAL ) ?
+										this.antiReplayWindowSize : CommonUtils.MIN_ANTI_REPLAY_WINDOW_SIZE;
+
+		long memoryFootprintNeeded = PEER_OBJECTS_MEMORY_FOOTPRINT + sizeOfFromPeerID +
+									 SecureMulticastChatAntiReplayWindow.getMemoryFootprintOf(antiReplayWindowSize) +
+									 ( ( ( 2 * ( this.size + 1 ) ) > this.peers.length ) ? ( this.peers.length * REFERENCE_SIZE ) : 0 );
+
+		// Once the table is saturated, the Peers to be evicted are only left again in the next generation,
+		// so the new Peers are rejected right away, until then
+		if(( this.getMemoryFootprint() + memoryFootprintNeeded ) > this.maxMemoryFootprint) {
+			if(( this.lastRejectionGeneration == this.currentGeneration ) || !this.evict(memoryFootprintNeeded)) {
+				this.numPeersRejected++;
+				this.lastRejectionGeneration = this.currentGeneration;
+
+				return null;
+			}
+
+			// The Peers evicted were shifted out of the probing sequence, so the free position is found again
+			for(index = hash & mask; this.peers[index] != null; index = ( index + 1 ) & mask);
+		}
+
+		SecureMulticastChatPeer peer = new SecureMulticastChatPeer(this.nextPeerID++, buffer, fromPeerIDOffset, sizeOfFromPeerID,
+																   inetAddress, hash, antiReplayWindowSize,
+																   sequenceNumber, timestamp);
+
+		int evictedPeerRecord = this.findEvictedPeerRecord(hash);
+
+		if(evictedPeerRecord >= 0) {
+			peer.getAntiReplayWindow().seal(this.evictedPeersSequenceNumbers[evictedPeerRecord]);
+			this.evictedPeersGenerations[evictedPeerRecord] = Long.MIN_VALUE;
+		}
+
+		this.peers[index] = peer;
+		this.size++;
+
+		this.link(peer);
+
+		// The table is kept, at most, half full, so the probing sequences remain short
+		if(( 2 * this.size ) > this.peers.length) {
+			this.resize(2 * this.peers.length);
+		}
+
+		return peer;
+	}
+
+	/**
+	 * Moves the given Peer to the current generation, since a Secure Message was received from it, at the given time
+	 * (i.e., only once per generation, being it already there, otherwise).
+	 *
+	 * @param peer the Peer from which a Secure Message was received
+	 *
+	 * @param timestamp the timestamp of the Secure Message received
+	 */
+	public synchronized void touch(SecureMulticastChatPeer peer, long timestamp) {
+		this.rotate(timestamp / this.generationInterval);
+
+		// The Peers already removed from the table (i.e., by a concurrent expiration) are not kept again
+		if(peer.generation >= 0 && peer.generation != this.currentGeneration) {
+			this.unlink(peer);
+			this.link(peer);
+		}
+	}
+
+	/**
+	 * Removes the idle Peers from the table, at the given time, dropping the generations expired.
+	 *
+	 * @param systemTime the current time (in milliseconds)
+	 *
+	 * @return the number of Peers removed
+	 */
+	public synchronized int expire(long systemTime) {
+		return this.rotate(systemTime / this.generationInterval);
+	}
+
+	/**
+	 * Rotates the ring of the generations, until the given generation, removing the Peers of the generations dropped
+	 * (i.e., the work done is only proportional to the number of idle Peers removed).
+	 *
+	 * @param generation the number of the current generation
+	 *
+	 * @return the number of Peers removed
+	 */
+	private int rotate(long generation) {
+		if(generation <= this.currentGeneration) {
+			return 0;
+		}
+
+		int numGenerations = this.generations.length;
+		long numGenerationsToDrop = Math.min(generation - this.currentGeneration, numGenerations);
+		int numPeersRemoved = 0;
+
+		for(long step = numGenerationsToDrop - 1; step >= 0; step--) {
+			int generationIndex = (int) Math.floorMod(generation - step, (long) numGenerations);
+
+			for(SecureMulticastChatPeer peer = this.generations[generationIndex]; peer != null; peer = peer.nextOfGeneration) {
+				this.remove(peer);
+				peer.generation = -1;
+				numPeersRemoved++;
+			}
+
+			this.generations[generationIndex] = null;
+			this.generationSizes[generationIndex] = 0;
+			this.generationMemoryFootprints[generationIndex] = 0;
+		}
+
+		this.currentGeneration = generation;
+
+		return numPeersRemoved;
+	}
+
+	/**
+	 * Evicts the idle Peers of the oldest generations (i.e., before their timeout), until there's room in the table
+	 * for the given memory footprint, keeping the record of each Peer evicted.
+	 *
+	 * @param memoryFootprintNeeded the memory footprint needed (in bytes)
+	 *
+	 * @return true if there's room in the table for the given memory footprint, and false, otherwise
+	 *         (i.e., if only the Peers of the current generation, or the ones without room to keep their records, are left)
+	 */
+	private boolean evict(long memoryFootprintNeeded) {
+		for(int age = this.generations.length - 1; age > 0; age--) {
+			int generationIndex = (int) Math.floorMod(this.currentGeneration - age, (long) this.generations.length);
+			SecureMulticastChatPeer peer = this.generations[generationIndex];
+
+			while(peer != null) {
+				if(( this.getMemoryFootprint() + memoryFootprintNeeded ) <= this.maxMemoryFootprint) {
+					return true;
+				}
+
+				SecureMulticastChatPeer nextPeer = peer.nextOfGeneration;
+
+				// The Peers without room to keep their records (i.e., whose bucket is full) are not evicted
+				if(this.keepEvictedPeerRecord(peer)) {
+					this.unlink(peer);
+					this.remove(peer);
+					peer.generation = -1;
+
+					this.numPeersEvicted++;
+				}
+
+				peer = nextPeer;
+			}
+		}
+
+		return ( this.getMemoryFootprint() + memoryFootprintNeeded ) <= this.maxMemoryFootprint;
+	}
+
+	/**
+	 * Returns true if the given record of a Peer evicted is still live (i.e., the timeout of its Peer did not expire yet),
+	 * and false, otherwise.
+	 *
+	 * @param record the index of the record of a Peer evicted
+	 *
+	 * @return true if the given record of a Peer evicted is still live, and false, otherwise
+	 */
+	private boolean isEvictedPeerRecordLive(int record) {
+		return this.evictedPeersGenerations[record] > ( this.currentGeneration - this.generations.length );
+	}
+
+	/**
+	 * Returns the index of the first record of the bucket of the given hash of a Peer.
+	 *
+	 * @param hash the hash of the Peer
+	 *
+	 * @return the index of the first record of the bucket of the given hash of a Peer
+	 */
+	private int getEvictedPeersRecordsBucket(int hash) {
+		return hash & ( this.evictedPeersHashes.length - 1 ) & -EVICTED_PEERS_RECORDS_BUCKET_SIZE;
+	}
+
+	/**
+	 * Returns the index of the live record of the Peer evicted with the given hash, or -1, if there's none.
+	 *
+	 * @param hash the hash of the Peer
+	 *
+	 * @return the index of the live record of the Peer evicted with the given hash, or -1, if there's none
+	 */
+	private int findEvictedPeerRecord(int hash) {
+		int bucket = this.getEvictedPeersRecordsBucket(hash);
+
+		for(int record = bucket; record < ( bucket + EVICTED_PEERS_RECORDS_BUCKET_SIZE ); record++) {
+			if(this.isEvictedPeerRecordLive(record) && this.evictedPeersHashes[record] == hash) {
+				return record;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Keeps the record of the given Peer, which will be evicted (i.e., its hash, its highest Sequence Number accepted
+	 * and the number of its last generation), merging it with the live record of the same hash, if there's one.
+	 *
+	 * NOTE:
+	 * - The live records are never overwritten, so, if the bucket of the Peer is full, the Peer is not evicted
+	 *   (i.e., an eviction never makes a replayed Secure Message be accepted);
+	 * - Two Peers with the same hash share the same record, which only rejects more Secure Messages (i.e., it's still safe);
+	 *
+	 * @param peer the Peer which will be evicted
+	 *
+	 * @return true if the record of the given Peer was kept, and false, otherwise
+	 */
+	private boolean keepEvictedPeerRecord(SecureMulticastChatPeer peer) {
+		long highestSequenceNumber = peer.getAntiReplayWindow().getHighestSequenceNumber();
+		int record = this.findEvictedPeerRecord(peer.getHash());
+
+		if(record >= 0) {
+			this.evictedPeersSequenceNumbers[record] = Math.max(this.evictedPeersSequenceNumbers[record], highestSequenceNumber);
+			this.evictedPeersGenerations[record] = Math.max(this.evictedPeersGenerations[record], peer.generation);
+
+			return true;
+		}
+
+		int bucket = this.getEvictedPeersRecordsBucket(peer.getHash());
+
+		for(record = bucket; record < ( bucket + EVICTED_PEERS_RECORDS_BUCKET_SIZE ); record++) {
+			if(!this.isEvictedPeerRecordLive(record)) {
+				this.evictedPeersHashes[record] = peer.getHash();
+				this.evictedPeersSequenceNumbers[record] = highestSequenceNumber;
+				this.evictedPeersGenerations[record] = peer.generation;
+
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Links the given Peer to the current generation.
+	 *
+	 * @param peer the Peer
+	 */
+	private void link(SecureMulticastChatPeer peer) {
+		int generationIndex = (int) Math.floorMod(this.currentGeneration, (long) this.generations.length);
+
+		peer.generation = this.currentGeneration;
+		peer.previousOfGeneration = null;
+		peer.nextOfGeneration = this.generations[generationIndex];
+
+		if(peer.nextOfGeneration != null) {
+			peer.nextOfGeneration.previousOfGeneration = peer;
+		}
+
+		this.generations[generationIndex] = peer;
+		this.generationSizes[generationIndex]++;
+		this.generationMemoryFootprints[generationIndex] += peer.getMemoryFootprint();
+	}
+
+	/**
+	 * Unlinks the given Peer from its generation.
+	 *
+	 * @param peer the Peer
+	 */
+	private void unlink(SecureMulticastChatPeer peer) {
+		int generationIndex = (int) Math.floorMod(peer.generation, (long) this.generations.length);
+
+		if(peer.previousOfGeneration != null) {
+			peer.previousOfGeneration.nextOfGeneration = peer.nextOfGeneration;
+		}
+		else {
+			this.generations[generationIndex] = peer.nextOfGeneration;
+		}
+
+		if(peer.nextOfGeneration != null) {
+			peer.nextOfGeneration.previousOfGeneration = peer.previousOfGeneration;
+		}
+
+		this.generationSizes[generationIndex]--;
+		this.generationMemoryFootprints[generationIndex] -= peer.getMemoryFootprint();
+	}
+
+	/**
+	 * Removes the given Peer from the table (but not from its generation).
+	 *
+	 * @param peer the Peer to be removed
+	 */
+	private void remove(SecureMulticastChatPeer peer) {
+		int mask = this.peers.length - 1;
+		int index = peer.getHash() & mask;
+
+		while(this.peers[index] != peer) {
+			if(this.peers[index] == null) {
+				return;
+			}
+
+			index = ( index + 1 ) & mask;
+		}
+
+		this.peers[index] = null;
+		this.size--;
+
+		// The following Peers of the same cluster are shifted back, so no probing sequence is broken
+		for(int next = ( index + 1 ) & mask; this.peers[next] != null; next = ( next + 1 ) & mask) {
+			int home = this.peers[next].getHash() & mask;
+
+			if(( ( next - home ) & mask ) >= ( ( next - index ) & mask )) {
+				this.peers[index] = this.peers[next];
+				this.peers[next] = null;
+				index = next;
+			}
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the Peers of the table.
+	 *
+	 * @return a snapshot of the Peers of the table
+	 */
+	public synchronized SecureMulticastChatPeer[] getPeers() {
+		SecureMulticastChatPeer[] peersSnapshot = new SecureMulticastChatPeer[this.size];
+		int numPeers = 0;
+
+		for(SecureMulticastChatPeer peer : this.peers) {
+			if(peer != null) {
+				peersSnapshot[numPeers++] = peer;
+			}
+		}
+
+		return peersSnapshot;
+	}
+
+	/**
+	 * Returns the number of Peers of the table.
+	 *
+	 * @return the number of Peers of the table
+	 */
+	public synchronized int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the (estimated) memory footprint of the table (i.e., of its Peers, of its arrays
+	 * and of the records of the Peers evicted, in bytes).
+	 *
+	 * @return the (estimated) memory footprint of the table (in bytes)
+	 */
+	public synchronized long getMemoryFootprint() {
+		long memoryFootprint = ( ( (long) this.peers.length ) * REFERENCE_SIZE ) +
+							   ( ( (long) this.size ) * PEER_OBJECTS_MEMORY_FOOTPRINT ) +
+							   ( ( (long) this.generations.length ) * ( REFERENCE_SIZE + Integer.BYTES + Long.BYTES ) ) +
+							   ( ( (long) this.evictedPeersHashes.length ) * EVICTED_PEER_RECORD_SIZE );
+
+		for(long generationMemoryFootprint : this.generationMemoryFootprints) {
+			memoryFootprint += generationMemoryFootprint;
+		}
+
+		return memoryFootprint;
+	}
+
+	/**
+	 * Returns the hard cap of the memory footprint of the table (in bytes).
+	 *
+	 * @return the hard cap of the memory footprint of the table (in bytes)
+	 */
+	public long getMaxMemoryFootprint() {
+		return this.maxMemoryFootprint;
+	}
+
+	/**
+	 * Returns the pressure state of the table (i.e., SATURATED, if a new Peer was rejected in the current generation,
+	 * PRESSURE, if the table is, at least, 75% full, and NORMAL, otherwise).
+	 *
+	 * @return the pressure state of the table
+	 */
+	public synchronized PressureState getPressureState() {
+		if(this.lastRejectionGeneration == this.currentGeneration) {
+			return PressureState.SATURATED;
+		}
+
+		return ( ( this.getMemoryFootprint() * 100 ) >= ( this.maxMemoryFootprint * PRESSURE_THRESHOLD_PERCENTAGE ) ) ?
+					PressureState.PRESSURE : PressureState.NORMAL;
+	}
+
+	/**
+	 * Returns the number of Peers evicted, before their timeout, since the table was under pressure.
+	 *
+	 * @return the number of Peers evicted, before their timeout, since the table was under pressure
+	 */
+	public synchronized long getNumPeersEvicted() {
+		return this.numPeersEvicted;
+	}
+
+	/**
+	 * Returns the number of Peers rejected, since the table was saturated.
+	 *
+	 * @return the number of Peers rejected, since the table was saturated
+	 */
+	public synchronized long getNumPeersRejected() {
+		return this.numPeersRejected;
+	}
+
+	/**
+	 * Returns the number of live records of the Peers evicted.
+	 *
+	 * @return the number of live records of the Peers evicted
+	 */
+	public synchronized int getNumEvictedPeersRecords() {
+		int numEvictedPeersRecords = 0;
+
+		for(int record = 0; record < this.evictedPeersHashes.length; record++) {
+			if(this.isEvictedPeerRecordLive(record)) {
+				numEvictedPeersRecords++;
+			}
+		}
+
+		return numEvictedPeersRecords;
+	}
+
+	/**
+	 * Returns the number of generations of the table.
+	 *
+	 * @return the number of generations of the table
+	 */
+	public int getNumGenerations() {
+		return this.generations.length;
+	}
+
+	/**
+	 * Returns the number of Peers of the generation of the given age (i.e., 0 for the current one).
+	 *
+	 * @param age the age of the generation (i.e., the number of generations after it)
+	 *
+	 * @return the number of Peers of the generation of the given age
+	 */
+	public synchronized int getGenerationSize(int age) {
+		return this.generationSizes[(int) Math.floorMod(this.currentGeneration - age, (long) this.generations.length)];
+	}
+
+	/**
+	 * Returns the memory footprint of the buffers of the Peers of the generation of the given age
+	 * (i.e., 0 for the current one, in bytes).
+	 *
+	 * @param age the age of the generation (i.e., the number of generations after it)
+	 *
+	 * @return the memory footprint of the buffers of the Peers of the generation of the given age (in bytes)
+	 */
+	public synchronized long getGenerationMemoryFootprint(int age) {
+		return this.generationMemoryFootprints[(int) Math.floorMod(this.currentGeneration - age, (long) this.generations.length)];
+	}
+
+	/**
+	 * Returns the description of the table of the Peers (i.e., the number of Peers and the memory footprint of their buffers,
+	 * of each generation, from the current one to the oldest one).
+	 *
+	 * @return the description of the table of the Peers
+	 */
+	@Override
+	public synchronized String toString() {
+		StringBuilder generations = new StringBuilder();
+
+		for(int age = 0; age < this.generations.length; age++) {
+			generations.append(( age == 0 ) ? "" : " ")
+					   .append(this.getGenerationSize(age)).append(":").append(this.getGenerationMemoryFootprint(age)).append("B");
+		}
+
+		return String.format("Peers: %d (%d/%d B, %s) | Evicted: %d (%d/%d records) | Rejected: %d | Generations: [%s] (%d ms)",
+							 this.size, this.getMemoryFootprint(), this.maxMemoryFootprint, this.getPressureState(),
+							 this.numPeersEvicted, this.getNumEvictedPeersRecords(), this.evictedPeersHashes.length,
+							 this.numPeersRejected, generations, this.generationInterval);
+	}
+
+	/**
+	 * Rebuilds the table of the Peers, with the given capacity.
+	 *
+	 * @param capacity the new capacity of the table (a power of two)
+	 */
+	private void resize(int capacity) {
+		SecureMulticastChatPeer[] currentPeers = this.peers;
+		int mask = capacity - 1;
+
+		this.peers = new SecureMulticastChatPeer[capacity];
+
+		for(SecureMulticastChatPeer peer : currentPeers) {
+			if(peer != null) {
+				int index = peer.getHash() & mask;
+
+				while(this.peers[index] != null) {
+					index = ( index + 1 ) & mask;
+				}
+
+				this.peers[index] = peer;
+			}
+		}
+	}
+
+}
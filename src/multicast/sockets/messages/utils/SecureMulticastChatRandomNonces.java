@@ -0,0 +1,698 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ * Class for the table of the Random Nonces accepted by a Secure Multicast Socket, without boxing any of them.
+ *
+ * The table is striped by the bits of the Random Nonces, being each stripe guarded by its own lock,
+ * and each stripe is a ring of generations (i.e., one open addressing table, with linear probing,
+ * per interval of time), covering the timeout of the Random Nonces, so its memory footprint is capped when it's built,
+ * and a Random Nonce is checked and inserted in one single atomic step.
+ *
+ * The positions of each generation are only allocated when its first Random Nonce is inserted, and doubled
+ * (i.e., rehashing its Random Nonces) each time it's half full, up to the cap, so the memory allocated grows
+ * with the rate of the Secure Messages received, instead of being the whole cap, since the table is built.
+ *
+ * The Random Nonces are inserted in the current generation, being the whole oldest generation dropped at once,
+ * in O(1), when the ring is rotated (i.e., by advancing its epoch, so its positions are free again, without clearing them),
+ * instead of scanning all the Random Nonces to find the expired ones.
+ *
+ * NOTE:
+ * - The Random Nonces are kept, at least, during their timeout, and, at most, during one more generation;
+ * - The lookups only check the live generations (i.e., not empty) of the stripe of the Random Nonce;
+ * - The positions allocated for a generation are kept, when it's dropped, being reused by the next ones
+ *   (i.e., the memory allocated follows the peak of the rate, during the timeout of the Random Nonces);
+ * - If the current generation of the stripe of a Random Nonce is full, the Random Nonce is not kept,
+ *   being it reported as NOT_KEPT, and left to the caller (i.e., the Secure Multicast Socket falls back
+ *   to the Anti-Replay Window of the Peer), being the table sized for the rate of the Secure Messages received;
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public class SecureMulticastChatRandomNonces {
+
+	/**
+	 *
+	 * Enumeration for the results of the insertion of a Random Nonce.
+	 *
+	 */
+	public enum AdditionResult {
+
+		// Enumerations:
+		/**
+		 * The Random Nonce was inserted in the current generation of its stripe
+		 */
+		ADDED,
+
+		/**
+		 * The Random Nonce was already in the table (not expired)
+		 */
+		DUPLICATE,
+
+		/**
+		 * The Random Nonce was not kept, since the current generation of its stripe was full
+		 */
+		NOT_KEPT
+
+	}
+
+
+	// Invariants/Constants:
+	/**
+	 * The number of bits of the Random Nonces used to select their stripe
+	 */
+	private static final int NUM_STRIPE_BITS = 4;
+
+	/**
+	 * The number of stripes of the table (always a power of two)
+	 */
+	private static final int NUM_STRIPES = 1 << NUM_STRIPE_BITS;
+
+	/**
+	 * The number of bytes of each position of the generations (i.e., a Random Nonce and the epoch when it was inserted)
+	 */
+	private static final int POSITION_SIZE = Integer.BYTES + Integer.BYTES;
+
+	/**
+	 * The number of positions allocated for a generation of a stripe, when its first Random Nonce is inserted
+	 * (a power of two, being it doubled, each time the generation is half full, up to the cap)
+	 */
+	private static final int INITIAL_GENERATION_LENGTH = 16;
+
+
+	// Global Instance Variables:
+	/**
+	 * The stripes of the table
+	 */
+	private final Stripe[] stripes;
+
+	/**
+	 * The interval of time of each generation (in milliseconds)
+	 */
+	private final long generationInterval;
+
+	/**
+	 * The number of generations of the ring of each stripe
+	 * (i.e., enough to cover the timeout of the Random Nonces, plus the current generation)
+	 */
+	private final int numGenerations;
+
+	/**
+	 * The number of Random Nonces not kept, since the current generation of their stripe was full
+	 */
+	private final AtomicLong numRandomNoncesNotKept;
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - The Constructor of an empty table of the Random Nonces, with a fixed capacity
+	 *   (being no position allocated, until the first Random Nonce of each generation of each stripe is inserted).
+	 *
+	 * @param capacity the maximum number of Random Nonces kept, during their timeout
+	 *        (split by the generations, and rounded up to a power of two, in each stripe)
+	 * @param timeout the timeout of the Random Nonces (in milliseconds)
+	 * @param generationInterval the interval of time of each generation (in milliseconds)
+	 */
+	public SecureMulticastChatRandomNonces(int capacity, long timeout, long generationInterval) {
+
+		this.generationInterval = generationInterval;
+		this.numGenerations = getNumGenerations(timeout, generationInterval);
+
+		// Each generation of each stripe is kept, at most, half full, so the probing sequences remain short
+		int generationCapacity = ( capacity + this.numGenerations - 1 ) / this.numGenerations;
+		int generationLength = Integer.highestOneBit(Math.max(( 2 * generationCapacity - 1 ) / NUM_STRIPES, 1)) * 2;
+
+		this.stripes = new Stripe[NUM_STRIPES];
+
+		for(int stripe = 0; stripe < NUM_STRIPES; stripe++) {
+			this.stripes[stripe] = new Stripe(this.numGenerations, generationLength);
+		}
+
+		this.numRandomNoncesNotKept = new AtomicLong();
+	}
+
+
+	// Methods:
+	/**
+	 * Returns the number of generations of the ring of each stripe, covering the given timeout of the Random Nonces,
+	 * plus the current generation.
+	 *
+	 * @param timeout the timeout of the Random Nonces (in milliseconds)
+	 * @param generationInterval the interval of time of each generation (in milliseconds)
+	 *
+	 * @return the number of generations of the ring of each stripe
+	 */
+	private static int getNumGenerations(long timeout, long generationInterval) {
+		return (int) ( ( timeout + generationInterval - 1 ) / generationInterval ) + 1;
+	}
+
+	/**
+	 * Returns the maximum capacity of a table of the Random Nonces, whose maximum memory footprint
+	 * does not exceed the given one (i.e., to size the table by a hard cap of memory, instead of by its capacity).
+	 *
+	 * @param maxMemoryFootprint the hard cap of the memory footprint of the table (in bytes)
+	 * @param timeout the timeout of the Random Nonces (in milliseconds)
+	 * @param generationInterval the interval of time of each generation (in milliseconds)
+	 *
+	 * @return the maximum capacity of a table of the Random Nonces, whose memory footprint does not exceed the given one
+	 */
+	public static int getCapacity(long maxMemoryFootprint, long timeout, long generationInterval) {
+		int numGenerations = getNumGenerations(timeout, generationInterval);
+
+		// The number of positions of each generation of each stripe is a power of two (with, at least, two positions)
+		long generationLength = Long.highestOneBit(Math.max(maxMemoryFootprint / ( ( (long) numGenerations ) * NUM_STRIPES * POSITION_SIZE ),
+															2));
+
+		return (int) Math.min(( (long) numGenerations ) * NUM_STRIPES * ( generationLength / 2 ), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns the capacity of a table of the Random Nonces, keeping all the Random Nonces received at the given rate
+	 * (i.e., to size the table by the load expected, instead of by its capacity).
+	 *
+	 * @param rate the rate of the Random Nonces received (i.e., the number of Secure Messages received per second)
+	 * @param timeout the timeout of the Random Nonces (in milliseconds)
+	 * @param generationInterval the interval of time of each generation (in milliseconds)
+	 *
+	 * @return the capacity of a table of the Random Nonces, keeping all the Random Nonces received at the given rate
+	 */
+	public static int getCapacityForRate(int rate, long timeout, long generationInterval) {
+		long generationCapacity = ( ( (long) rate ) * generationInterval + 999 ) / 1000;
+
+		return (int) Math.min(getNumGenerations(timeout, generationInterval) * generationCapacity, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns the hash of the given Random Nonce (mixing its bits, since only some of them select the stripe and the position).
+	 *
+	 * @param randomNonce the Random Nonce
+	 *
+	 * @return the hash of the given Random Nonce
+	 */
+	private static int hash(int randomNonce) {
+		int hash = randomNonce * 0x9E3779B9;
+
+		return hash ^ ( hash >>> 16 );
+	}
+
+	/**
+	 * Returns the stripe of the given hash of a Random Nonce.
+	 *
+	 * @param hash the hash of the Random Nonce
+	 *
+	 * @return the stripe of the given hash of a Random Nonce
+	 */
+	private Stripe getStripe(int hash) {
+		return this.stripes[hash >>> ( Integer.SIZE - NUM_STRIPE_BITS )];
+	}
+
+	/**
+	 * Returns true if the given Random Nonce was accepted, and it's not expired, at the given time, and false, otherwise.
+	 *
+	 * @param randomNonce the Random Nonce
+	 * @param systemTime the current time (in milliseconds)
+	 *
+	 * @return true if the given Random Nonce was accepted, and it's not expired, and false, otherwise
+	 */
+	public boolean contains(int randomNonce, long systemTime) {
+		int hash = hash(randomNonce);
+
+		return this.getStripe(hash).contains(randomNonce, hash, systemTime / this.generationInterval);
+	}
+
+	/**
+	 * Checks and inserts the given Random Nonce, in one single atomic step, accepted at the given time.
+	 *
+	 * @param randomNonce the Random Nonce
+	 * @param timestamp the timestamp when the Random Nonce was accepted (in milliseconds)
+	 *
+	 * @return ADDED if the given Random Nonce was inserted, DUPLICATE if it was already in the table (not expired),
+	 *         and NOT_KEPT if the current generation of its stripe was full
+	 */
+	public AdditionResult add(int randomNonce, long timestamp) {
+		int hash = hash(randomNonce);
+
+		AdditionResult additionResult = this.getStripe(hash).add(randomNonce, hash, timestamp / this.generationInterval);
+
+		if(additionResult == AdditionResult.NOT_KEPT) {
+			this.numRandomNoncesNotKept.incrementAndGet();
+		}
+
+		return additionResult;
+	}
+
+	/**
+	 * Rotates the rings of the generations of all the stripes, until the given time,
+	 * dropping the generations expired (each one, in O(1)).
+	 *
+	 * @param systemTime the current time (in milliseconds)
+	 *
+	 * @return the number of Random Nonces dropped
+	 */
+	public int expire(long systemTime) {
+		int numRandomNoncesDropped = 0;
+
+		for(Stripe stripe : this.stripes) {
+			numRandomNoncesDropped += stripe.expire(systemTime / this.generationInterval);
+		}
+
+		return numRandomNoncesDropped;
+	}
+
+	/**
+	 * Returns the number of Random Nonces kept.
+	 *
+	 * @return the number of Random Nonces kept
+	 */
+	public int size() {
+		int size = 0;
+
+		for(int age = 0; age < this.numGenerations; age++) {
+			size += this.getGenerationSize(age);
+		}
+
+		return size;
+	}
+
+	/**
+	 * Returns the number of generations of the table.
+	 *
+	 * @return the number of generations of the table
+	 */
+	public int getNumGenerations() {
+		return this.numGenerations;
+	}
+
+	/**
+	 * Returns the interval of time of each generation (in milliseconds).
+	 *
+	 * @return the interval of time of each generation (in milliseconds)
+	 */
+	public long getGenerationInterval() {
+		return this.generationInterval;
+	}
+
+	/**
+	 * Returns the number of Random Nonces kept in the generation of the given age (i.e., 0 for the current one),
+	 * since the last rotation of the rings.
+	 *
+	 * @param age the age of the generation (i.e., the number of generations after it)
+	 *
+	 * @return the number of Random Nonces kept in the generation of the given age
+	 */
+	public int getGenerationSize(int age) {
+		int generationSize = 0;
+
+		for(Stripe stripe : this.stripes) {
+			generationSize += stripe.getGenerationSize(age);
+		}
+
+		return generationSize;
+	}
+
+	/**
+	 * Returns the maximum number of Random Nonces kept in each generation.
+	 *
+	 * @return the maximum number of Random Nonces kept in each generation
+	 */
+	public int getGenerationCapacity() {
+		return NUM_STRIPES * this.stripes[0].getGenerationMaxSize();
+	}
+
+	/**
+	 * Returns the maximum memory footprint of the positions of each generation (in bytes).
+	 *
+	 * @return the maximum memory footprint of the positions of each generation (in bytes)
+	 */
+	public long getGenerationMemoryFootprint() {
+		return ( (long) NUM_STRIPES ) * this.stripes[0].getGenerationLength() * POSITION_SIZE;
+	}
+
+	/**
+	 * Returns the maximum number of Random Nonces kept.
+	 *
+	 * @return the maximum number of Random Nonces kept
+	 */
+	public int getCapacity() {
+		return this.numGenerations * this.getGenerationCapacity();
+	}
+
+	/**
+	 * Returns the maximum memory footprint of the positions of the table (in bytes),
+	 * being it the cap of the memory allocated for them.
+	 *
+	 * @return the maximum memory footprint of the positions of the table (in bytes)
+	 */
+	public long getMemoryFootprint() {
+		return this.numGenerations * this.getGenerationMemoryFootprint();
+	}
+
+	/**
+	 * Returns the memory footprint of the positions allocated for the table, so far (in bytes).
+	 *
+	 * @return the memory footprint of the positions allocated for the table, so far (in bytes)
+	 */
+	public long getAllocatedMemoryFootprint() {
+		long allocatedMemoryFootprint = 0;
+
+		for(Stripe stripe : this.stripes) {
+			allocatedMemoryFootprint += stripe.getAllocatedLength() * ( (long) POSITION_SIZE );
+		}
+
+		return allocatedMemoryFootprint;
+	}
+
+	/**
+	 * Returns the number of Random Nonces not kept, since the current generation of their stripe was full.
+	 *
+	 * @return the number of Random Nonces not kept, since the current generation of their stripe was full
+	 */
+	public long getNumRandomNoncesNotKept() {
+		return this.numRandomNoncesNotKept.get();
+	}
+
+	/**
+	 * Returns the description of the table of the Random Nonces (i.e., its occupancy and memory footprint,
+	 * and the occupancy of each generation, from the current one to the oldest one).
+	 *
+	 * @return the description of the table of the Random Nonces
+	 */
+	@Override
+	public String toString() {
+		StringBuilder generations = new StringBuilder();
+
+		for(int age = 0; age < this.numGenerations; age++) {
+			generations.append(( age == 0 ) ? "" : " ").append(this.getGenerationSize(age));
+		}
+
+		return String.format("Random Nonces: %d/%d (%d/%d B) | Generations: [%s]/%d (%d B each, %d ms) | Not Kept: %d",
+							 this.size(), this.getCapacity(), this.getAllocatedMemoryFootprint(), this.getMemoryFootprint(),
+							 generations, this.getGenerationCapacity(), this.getGenerationMemoryFootprint(),
+							 this.generationInterval, this.getNumRandomNoncesNotKept());
+	}
+
+
+	/**
+	 *
+	 * Class for a stripe of the table of the Random Nonces, with a ring of generations, being each one
+	 * an open addressing table, with linear probing, where a position is free if its epoch is not the one
+	 * of its generation (since the Random Nonces can have any value), allocated and grown on demand.
+	 *
+	 */
+	private static final class Stripe {
+
+		// Global Instance Variables:
+		/**
+		 * The Random Nonces of each generation (null, until its first Random Nonce is inserted)
+		 */
+		private final int[][] randomNonces;
+
+		/**
+		 * The epochs when the Random Nonces of each generation were inserted (null, until its first Random Nonce is inserted)
+		 */
+		private final int[][] randomNoncesEpochs;
+
+		/**
+		 * The current epoch of each generation (i.e., advanced each time the generation is dropped)
+		 */
+		private final int[] generationEpochs;
+
+		/**
+		 * The number of Random Nonces of each generation
+		 */
+		private final int[] generationSizes;
+
+		/**
+		 * The maximum number of positions of each generation (a power of two)
+		 */
+		private final int generationLength;
+
+		/**
+		 * The number of the current generation (i.e., the time divided by the interval of time of each generation)
+		 */
+		private long currentGeneration;
+
+
+		// Constructors:
+		/**
+		 * Constructor #1:
+		 * - The Constructor of an empty stripe, with the given number of generations, each one with the given maximum length
+		 *   (being no position allocated yet).
+		 *
+		 * @param numGenerations the number of generations of the ring
+		 * @param generationLength the maximum number of positions of each generation (a power of two)
+		 */
+		Stripe(int numGenerations, int generationLength) {
+			this.randomNonces = new int[numGenerations][];
+			this.randomNoncesEpochs = new int[numGenerations][];
+
+			this.generationEpochs = new int[numGenerations];
+			this.generationSizes = new int[numGenerations];
+			this.generationLength = generationLength;
+
+			// The epochs of the positions start at 0, so all of them are free
+			for(int generation = 0; generation < numGenerations; generation++) {
+				this.generationEpochs[generation] = 1;
+			}
+		}
+
+
+		// Methods:
+		/**
+		 * Rotates the ring of the generations, until the given generation, dropping the generations expired,
+		 * being each one dropped in O(1), by advancing its epoch.
+		 *
+		 * @param generation the number of the current generation
+		 *
+		 * @return the number of Random Nonces dropped
+		 */
+		synchronized int expire(long generation) {
+			if(generation <= this.currentGeneration) {
+				return 0;
+			}
+
+			int numGenerations = this.generationSizes.length;
+			long numGenerationsToDrop = Math.min(generation - this.currentGeneration, numGenerations);
+			int numRandomNoncesDropped = 0;
+
+			for(long step = numGenerationsToDrop - 1; step >= 0; step--) {
+				int generationIndex = (int) Math.floorMod(generation - step, (long) numGenerations);
+
+				numRandomNoncesDropped += this.generationSizes[generationIndex];
+
+				this.generationEpochs[generationIndex]++;
+				this.generationSizes[generationIndex] = 0;
+			}
+
+			this.currentGeneration = generation;
+
+			return numRandomNoncesDropped;
+		}
+
+		/**
+		 * Returns the position of the given Random Nonce in the given generation, if it's there,
+		 * or the free position where it would be inserted, otherwise (encoded as -(position + 1)).
+		 *
+		 * NOTE:
+		 * - The positions of the given generation must be allocated;
+		 *
+		 * @param randomNonce the Random Nonce
+		 * @param hash the hash of the Random Nonce
+		 * @param generationIndex the index of the generation in the ring
+		 *
+		 * @return the position of the given Random Nonce in the given generation, or -(free position + 1)
+		 */
+		private int find(int randomNonce, int hash, int generationIndex) {
+			int[] randomNonces = this.randomNonces[generationIndex];
+			int[] randomNoncesEpochs = this.randomNoncesEpochs[generationIndex];
+
+			int mask = randomNonces.length - 1;
+			int epoch = this.generationEpochs[generationIndex];
+
+			for(int index = hash & mask; ; index = ( index + 1 ) & mask) {
+				if(randomNoncesEpochs[index] != epoch) {
+					return -( index + 1 );
+				}
+
+				if(randomNonces[index] == randomNonce) {
+					return index;
+				}
+			}
+		}
+
+		/**
+		 * Allocates the positions of the given generation, or doubles them (rehashing its Random Nonces),
+		 * if one more Random Nonce would leave it more than half full.
+		 *
+		 * @param generationIndex the index of the generation in the ring
+		 */
+		private void ensureCapacity(int generationIndex) {
+			int[] randomNonces = this.randomNonces[generationIndex];
+			int[] randomNoncesEpochs = this.randomNoncesEpochs[generationIndex];
+
+			if(randomNonces == null) {
+
+				// The epochs of the new positions are 0, so all of them are free
+				this.randomNonces[generationIndex] = new int[Math.min(INITIAL_GENERATION_LENGTH, this.generationLength)];
+				this.randomNoncesEpochs[generationIndex] = new int[this.randomNonces[generationIndex].length];
+
+				return;
+			}
+
+			if(( 2 * ( this.generationSizes[generationIndex] + 1 ) ) <= randomNonces.length ||
+			   randomNonces.length >= this.generationLength) {
+
+				return;
+			}
+
+			int epoch = this.generationEpochs[generationIndex];
+
+			this.randomNonces[generationIndex] = new int[2 * randomNonces.length];
+			this.randomNoncesEpochs[generationIndex] = new int[2 * randomNonces.length];
+
+			for(int index = 0; index < randomNonces.length; index++) {
+				if(randomNoncesEpochs[index] == epoch) {
+					int position = -( this.find(randomNonces[index], hash(randomNonces[index]), generationIndex) + 1 );
+
+					this.randomNonces[generationIndex][position] = randomNonces[index];
+					this.randomNoncesEpochs[generationIndex][position] = epoch;
+				}
+			}
+		}
+
+		/**
+		 * Returns true if the given Random Nonce is in any live generation of the stripe, and false, otherwise.
+		 *
+		 * @param randomNonce the Random Nonce
+		 * @param hash the hash of the Random Nonce
+		 *
+		 * @return true if the given Random Nonce is in any live generation of the stripe, and false, otherwise
+		 */
+		private boolean containsInLiveGenerations(int randomNonce, int hash) {
+			for(int generationIndex = 0; generationIndex < this.generationSizes.length; generationIndex++) {
+				if(this.generationSizes[generationIndex] > 0 && this.find(randomNonce, hash, generationIndex) >= 0) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		/**
+		 * Returns true if the given Random Nonce is in the stripe, not expired, at the given generation, and false, otherwise.
+		 *
+		 * @param randomNonce the Random Nonce
+		 * @param hash the hash of the Random Nonce
+		 * @param generation the number of the current generation
+		 *
+		 * @return true if the given Random Nonce is in the stripe, not expired, and false, otherwise
+		 */
+		synchronized boolean contains(int randomNonce, int hash, long generation) {
+			this.expire(generation);
+
+			return this.containsInLiveGenerations(randomNonce, hash);
+		}
+
+		/**
+		 * Checks and inserts the given Random Nonce in the current generation of the stripe.
+		 *
+		 * @param randomNonce the Random Nonce
+		 * @param hash the hash of the Random Nonce
+		 * @param generation the number of the generation when the Random Nonce was accepted
+		 *
+		 * @return ADDED if the Random Nonce was inserted, DUPLICATE if it was already in the stripe (not expired),
+		 *         and NOT_KEPT if the current generation of the stripe was full
+		 */
+		synchronized AdditionResult add(int randomNonce, int hash, long generation) {
+			this.expire(generation);
+
+			if(this.containsInLiveGenerations(randomNonce, hash)) {
+				return AdditionResult.DUPLICATE;
+			}
+
+			int currentGenerationIndex = (int) Math.floorMod(this.currentGeneration, (long) this.generationSizes.length);
+
+			if(this.generationSizes[currentGenerationIndex] >= this.getGenerationMaxSize()) {
+				return AdditionResult.NOT_KEPT;
+			}
+
+			this.ensureCapacity(currentGenerationIndex);
+
+			int position = -( this.find(randomNonce, hash, currentGenerationIndex) + 1 );
+
+			this.randomNonces[currentGenerationIndex][position] = randomNonce;
+			this.randomNoncesEpochs[currentGenerationIndex][position] = this.generationEpochs[currentGenerationIndex];
+			this.generationSizes[currentGenerationIndex]++;
+
+			return AdditionResult.ADDED;
+		}
+
+		/**
+		 * Returns the number of Random Nonces of the generation of the given age (i.e., 0 for the current one).
+		 *
+		 * @param age the age of the generation
+		 *
+		 * @return the number of Random Nonces of the generation of the given age
+		 */
+		synchronized int getGenerationSize(int age) {
+			return this.generationSizes[(int) Math.floorMod(this.currentGeneration - age, (long) this.generationSizes.length)];
+		}
+
+		/**
+		 * Returns the maximum number of Random Nonces of each generation.
+		 *
+		 * @return the maximum number of Random Nonces of each generation
+		 */
+		int getGenerationMaxSize() {
+			return this.generationLength / 2;
+		}
+
+		/**
+		 * Returns the maximum number of positions of each generation.
+		 *
+		 * @return the maximum number of positions of each generation
+		 */
+		int getGenerationLength() {
+			return this.generationLength;
+		}
+
+		/**
+		 * Returns the number of positions allocated for all the generations, so far.
+		 *
+		 * @return the number of positions allocated for all the generations, so far
+		 */
+		synchronized long getAllocatedLength() {
+			long allocatedLength = 0;
+
+			for(int[] randomNonces : this.randomNonces) {
+				allocatedLength += ( randomNonces != null ) ? randomNonces.length : 0;
+			}
+
+			return allocatedLength;
+		}
+
+	}
+
+}
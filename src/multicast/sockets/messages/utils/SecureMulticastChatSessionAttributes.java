@@ -0,0 +1,162 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import multicast.common.CommonUtils;
+
+/**
+ *
+ * Class for the Secure Message's Attributes of a (Secure) Multicast Chat Session.
+ *
+ * The Secure Message's Attributes only depend on the Session's Parameters (i.e., the entry of SMCP.conf),
+ * so they are serialized and hashed only once per Session, being kept as an immutable prefix,
+ * which is written in every Secure Message sent and compared against every Secure Message received.
+ * The Secure Message's Attributes of a Session are kept by its compiled Cipher Suite.
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public final class SecureMulticastChatSessionAttributes {
+
+	// Global Instance Variables:
+	/**
+	 * The Secure Message's Attributes serialized
+	 */
+	private final byte[] secureMessageAttributesSerialized;
+
+	/**
+	 * The Secure Message's Attributes serialized hashed
+	 */
+	private final byte[] secureMessageAttributesSerializedHashed;
+
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - The Constructor of the Secure Message's Attributes of a Session,
+	 *   serializing and hashing them, i.e.:
+	 *   - SID || SID || SEA || MODE || PADDING || INTHASH || MAC
+	 *
+	 * @param sessionName the Name of the Session (i.e., SID)
+	 * @param symmetricEncryptionAlgorithm the Symmetric Encryption Algorithm (i.e., SEA)
+	 * @param symmetricEncryptionMode the Symmetric Encryption's Mode (i.e., MODE)
+	 * @param paddingMethod the Padding Method (i.e., PADDING)
+	 * @param integrityControlHashFunction the Cryptographic Hash Function of the Integrity Control (i.e., INTHASH)
+	 * @param messageAuthenticationCode the MAC's Algorithm of the Fast Secure Message's Check (i.e., MAC)
+	 *
+	 * @throws NoSuchAlgorithmException if the Cryptographic Hash Function is not found
+	 */
+	SecureMulticastChatSessionAttributes(String sessionName, String symmetricEncryptionAlgorithm,
+										 String symmetricEncryptionMode, String paddingMethod,
+										 String integrityControlHashFunction, String messageAuthenticationCode)
+												 throws NoSuchAlgorithmException {
+
+		// The Session's ID is used twice, since it's also used as the Session's Name
+		String[] secureMessageAttributes = {
+				sessionName, sessionName,
+				symmetricEncryptionAlgorithm, symmetricEncryptionMode, paddingMethod,
+				integrityControlHashFunction, messageAuthenticationCode
+		};
+
+		int sizeOfSecureMessageAttributesSerialized = 0;
+
+		for(String secureMessageAttribute : secureMessageAttributes) {
+			sizeOfSecureMessageAttributesSerialized += secureMessageAttribute.length();
+		}
+
+		this.secureMessageAttributesSerialized = new byte[sizeOfSecureMessageAttributesSerialized];
+
+		int serializationOffset = 0;
+
+		for(String secureMessageAttribute : secureMessageAttributes) {
+			byte[] secureMessageAttributeSerialized = CommonUtils.fromStringToByteArray(secureMessageAttribute);
+
+			System.arraycopy(secureMessageAttributeSerialized, 0, this.secureMessageAttributesSerialized,
+							 serializationOffset, secureMessageAttributeSerialized.length);
+			serializationOffset += secureMessageAttributeSerialized.length;
+		}
+
+		MessageDigest hashFunctionAlgorithm = MessageDigest.getInstance(integrityControlHashFunction);
+
+		this.secureMessageAttributesSerializedHashed = hashFunctionAlgorithm.digest(this.secureMessageAttributesSerialized);
+	}
+
+
+
+	// Methods:
+	/**
+	 * Returns the Secure Message's Attributes serialized.
+	 *
+	 * NOTE:
+	 * - The Byte Array returned is shared by all the Secure Messages of the Session,
+	 *   so it must not be modified;
+	 *
+	 * @return the Secure Message's Attributes serialized
+	 */
+	public byte[] getSecureMessageAttributesSerialized() {
+		return this.secureMessageAttributesSerialized;
+	}
+
+	/**
+	 * Returns the Secure Message's Attributes serialized hashed.
+	 *
+	 * NOTE:
+	 * - The Byte Array returned is shared by all the Secure Messages of the Session,
+	 *   so it must not be modified;
+	 *
+	 * @return the Secure Message's Attributes serialized hashed
+	 */
+	public byte[] getSecureMessageAttributesSerializedHashed() {
+		return this.secureMessageAttributesSerializedHashed;
+	}
+
+	/**
+	 * Returns true if the Secure Message's Attributes serialized hashed received, in the given range of bytes,
+	 * are equal to the ones of the Session, and false, otherwise.
+	 *
+	 * NOTE:
+	 * - The comparison is made in constant time, to not leak how many bytes are correct;
+	 *
+	 * @param received the Byte Array, where the Secure Message's Attributes serialized hashed were received
+	 * @param offset the offset of the Secure Message's Attributes serialized hashed, in the Byte Array
+	 * @param length the length of the Secure Message's Attributes serialized hashed received
+	 *
+	 * @return true if the Secure Message's Attributes serialized hashed received, in the given range of bytes,
+	 *         are equal to the ones of the Session, and false, otherwise
+	 */
+	public boolean isSecureMessageAttributesSerializedHashedValid(byte[] received, int offset, int length) {
+		if(received == null || length != this.secureMessageAttributesSerializedHashed.length) {
+			return false;
+		}
+
+		int difference = 0;
+
+		for(int i = 0; i < length; i++) {
+			difference |= ( this.secureMessageAttributesSerializedHashed[i] ^ received[offset + i] );
+		}
+
+		return difference == 0;
+	}
+
+}
@@ -0,0 +1,430 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import multicast.common.CommonUtils;
+
+/**
+ *
+ * Class for the Bounds Validator of the Secure Messages received in a (Secure) Multicast Chat Session.
+ *
+ * The sizes announced by a Secure Message received (i.e., by its Secure Message's Meta-Header, in the VERSION_01 format,
+ * or derived from the size of the Datagram Packet received, in the VERSION_02 format) are validated against
+ * the size of the Datagram Packet received, against the sizes fixed by the Cipher Suite of the Session
+ * (i.e., of the Secure Message's Header and Attributes, of the Fast Secure Message's Check or authentication tag,
+ * of the Initialization Vector, of the Integrity Control and of the block) and against the maximum sizes configured
+ * for the Session, before any buffer is allocated from them and before any MAC is computed over them.
+ *
+ * Each Secure Message rejected is counted by the reason of its rejection.
+ *
+ * NOTE:
+ * - The counters are shared by all the Secure Multicast Sockets of the Session, being safe to be read from any Thread;
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public class SecureMulticastChatSessionBoundsValidator {
+
+	/**
+	 *
+	 * Enumeration for the reasons of the rejection of a Secure Message, by its sizes.
+	 *
+	 */
+	public enum RejectionReason {
+
+		// Enumerations:
+		/**
+		 * The several Enumerations for the reasons of the rejection of a Secure Message, by its sizes
+		 */
+		TRUNCATED("the Secure Message is shorter than its components of fixed size"),
+		NEGATIVE_SIZE("a size announced is negative"),
+		MALFORMED_SIZE("a size announced is not a valid Variable-Length Integer"),
+		SECURE_MESSAGE_HEADER_SIZE("the size of the Secure Message's Header is not the one of the Session"),
+		SECURE_MESSAGE_ATTRIBUTES_SIZE("the size of the Secure Message's Attributes is not the one of the Session"),
+		FAST_SECURE_MESSAGE_CHECK_SIZE("the size of the Fast Secure Message's Check is not the one of the Session"),
+		IV_SIZE("the size of the Initialization Vector is not the one of the Session"),
+		INTEGRITY_CONTROL_SIZE("the size of the Integrity Control is not the one of the Session"),
+		FROM_PEER_ID_SIZE("the size of the From Peer's ID exceeds the maximum of the Session"),
+		MESSAGE_SIZE("the size of the Message exceeds the maximum of the Session"),
+		SECURE_MESSAGE_PAYLOAD_SIZE("the size of the Secure Message's Payload does not match its components and the Cipher Suite"),
+		DATAGRAM_PACKET_SIZE("the sizes announced do not match the size of the Datagram Packet received");
+
+
+		// Global Instance Variables:
+		/**
+		 * The description of the reason of the rejection
+		 */
+		private final String description;
+
+
+		// Constructors:
+		/**
+		 * Constructor #1:
+		 * - The Constructor of the reason of the rejection.
+		 *
+		 * @param description the description of the reason of the rejection
+		 */
+		private RejectionReason(String description) {
+			this.description = description;
+		}
+
+
+		// Methods:
+		/**
+		 * Returns the description of the reason of the rejection.
+		 *
+		 * @return the description of the reason of the rejection
+		 */
+		public String getDescription() {
+			return this.description;
+		}
+
+	}
+
+
+	// Global Instance Variables:
+	/**
+	 * The size of the Secure Message's Header of the Session, in the VERSION_01 format
+	 * (i.e., the Version Number, the SID serialized and the Message Type)
+	 */
+	private final int sizeOfSecureMessageHeader;
+
+	/**
+	 * The size of the Secure Message's Attributes of the Session
+	 */
+	private final int sizeOfSecureMessageAttributes;
+
+	/**
+	 * The size of the Fast Secure Message's Check of the Session (0, in the Modes of Authenticated Encryption)
+	 */
+	private final int sizeOfFastSecureMessageCheck;
+
+	/**
+	 * The size of the Initialization Vector of the Session
+	 */
+	private final int sizeOfIVBytes;
+
+	/**
+	 * The size of the Integrity Control of the Session (0, in the Modes of Authenticated Encryption)
+	 */
+	private final int sizeOfIntegrityControl;
+
+	/**
+	 * The minimum and maximum expansions of the Cipher Text over the Plain Text of the Secure Message's Payload
+	 * (i.e., the authentication tag, in the Modes of Authenticated Encryption, or the padding, in the block ones)
+	 */
+	private final int minCipherTextExpansion;
+	private final int maxCipherTextExpansion;
+
+	/**
+	 * The alignment of the Cipher Text of the Secure Message's Payload (i.e., the size of the block,
+	 * in the Modes which pad the Plain Text, or 1, otherwise)
+	 */
+	private final int cipherTextAlignment;
+
+	/**
+	 * The maximum sizes of the From Peer's ID serialized and of the Message serialized, configured for the Session
+	 */
+	private final int maxSizeOfFromPeerID;
+	private final int maxSizeOfMessage;
+
+	/**
+	 * The counters of the Secure Messages rejected, indexed by the reason of their rejection
+	 */
+	private final AtomicLongArray numSecureMessagesRejected;
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - The Constructor of the Bounds Validator of a Session, from the sizes fixed by its Cipher Suite.
+	 *
+	 * @param sizeOfSessionNameSerialized the size of the Name of the Session (i.e., SID) serialized
+	 * @param sizeOfSecureMessageAttributes the size of the Secure Message's Attributes of the Session
+	 *
+	 * @param authenticatedEncryption true if the Symmetric Encryption's Mode is a Mode of Authenticated Encryption
+	 * @param tagLength the length of the MAC, or of the authentication tag, in the Modes of Authenticated Encryption
+	 * @param ivLength the length of the Initialization Vector
+	 * @param integrityControlLength the length of the Integrity Control
+	 *
+	 * @param blockSize the size of the block of the Symmetric Encryption Algorithm
+	 * @param cipherTextBlockAligned true if the Cipher Text is padded to the size of the block
+	 *
+	 * @param maxSizeOfFromPeerID the maximum size of the From Peer's ID serialized
+	 * @param maxSizeOfMessage the maximum size of the Message serialized
+	 */
+	SecureMulticastChatSessionBoundsValidator(int sizeOfSessionNameSerialized, int sizeOfSecureMessageAttributes,
+											  boolean authenticatedEncryption, int tagLength, int ivLength, int integrityControlLength,
+											  int blockSize, boolean cipherTextBlockAligned, int maxSizeOfFromPeerID, int maxSizeOfMessage) {
+
+		this.sizeOfSecureMessageHeader = sizeOfSessionNameSerialized + ( 2 * CommonUtils.BYTE_LENGTH );
+		this.sizeOfSecureMessageAttributes = sizeOfSecureMessageAttributes;
+		this.sizeOfFastSecureMessageCheck = authenticatedEncryption ? 0 : tagLength;
+		this.sizeOfIVBytes = ivLength;
+		this.sizeOfIntegrityControl = authenticatedEncryption ? 0 : integrityControlLength;
+
+		if(authenticatedEncryption) {
+			this.minCipherTextExpansion = tagLength;
+			this.maxCipherTextExpansion = tagLength;
+			this.cipherTextAlignment = 1;
+		}
+		else if(cipherTextBlockAligned) {
+			// The padding adds, at least, one byte and, at most, a full block
+			this.minCipherTextExpansion = 1;
+			this.maxCipherTextExpansion = blockSize;
+			this.cipherTextAlignment = blockSize;
+		}
+		else {
+			this.minCipherTextExpansion = 0;
+			this.maxCipherTextExpansion = 0;
+			this.cipherTextAlignment = 1;
+		}
+
+		this.maxSizeOfFromPeerID = maxSizeOfFromPeerID;
+		this.maxSizeOfMessage = maxSizeOfMessage;
+
+		this.numSecureMessagesRejected = new AtomicLongArray(RejectionReason.values().length);
+	}
+
+
+	// Methods:
+	/**
+	 * Validates the sizes announced by the Secure Message's Meta-Header of a Secure Message received, in the VERSION_01 format,
+	 * counting its rejection, if any.
+	 *
+	 * @param sizeOfFinalSecureMessage the size of the Final Secure Message received (i.e., of the Datagram Packet received)
+	 * @param sizeOfSecureMessageMetaHeader the size of the Secure Message's Meta-Header
+	 *
+	 * @param sizeOfSecureMessageHeader the size of the Secure Message's Header announced
+	 * @param sizeOfSecureMessageAttributes the size of the Secure Message's Attributes announced
+	 * @param sizeOfSecureMessagePayload the size of the Secure Message's Payload (ciphered) announced
+	 * @param sizeOfFromPeerID the size of the From Peer's ID serialized announced
+	 * @param sizeOfMessage the size of the Message serialized announced
+	 * @param sizeOfIntegrityControl the size of the Integrity Control announced
+	 * @param sizeOfFastSecureMessageCheck the size of the Fast Secure Message's Check announced
+	 * @param sizeOfIVBytes the size of the Initialization Vector announced
+	 *
+	 * @return the reason of the rejection of the Secure Message received (or null, if all its sizes are valid)
+	 */
+	public RejectionReason validateSecureMessageMetaHeader(int sizeOfFinalSecureMessage, int sizeOfSecureMessageMetaHeader,
+														   int sizeOfSecureMessageHeader, int sizeOfSecureMessageAttributes,
+														   int sizeOfSecureMessagePayload, int sizeOfFromPeerID, int sizeOfMessage,
+														   int sizeOfIntegrityControl, int sizeOfFastSecureMessageCheck, int sizeOfIVBytes) {
+
+		if(sizeOfFinalSecureMessage < sizeOfSecureMessageMetaHeader) {
+			return this.reject(RejectionReason.TRUNCATED);
+		}
+
+		if(( sizeOfSecureMessageHeader | sizeOfSecureMessageAttributes | sizeOfSecureMessagePayload | sizeOfFromPeerID |
+			 sizeOfMessage | sizeOfIntegrityControl | sizeOfFastSecureMessageCheck | sizeOfIVBytes ) < 0) {
+
+			return this.reject(RejectionReason.NEGATIVE_SIZE);
+		}
+
+		if(sizeOfSecureMessageHeader != this.sizeOfSecureMessageHeader) {
+			return this.reject(RejectionReason.SECURE_MESSAGE_HEADER_SIZE);
+		}
+
+		if(sizeOfSecureMessageAttributes != this.sizeOfSecureMessageAttributes) {
+			return this.reject(RejectionReason.SECURE_MESSAGE_ATTRIBUTES_SIZE);
+		}
+
+		if(sizeOfFastSecureMessageCheck != this.sizeOfFastSecureMessageCheck) {
+			return this.reject(RejectionReason.FAST_SECURE_MESSAGE_CHECK_SIZE);
+		}
+
+		if(sizeOfIVBytes != this.sizeOfIVBytes) {
+			return this.reject(RejectionReason.IV_SIZE);
+		}
+
+		if(sizeOfIntegrityControl != this.sizeOfIntegrityControl) {
+			return this.reject(RejectionReason.INTEGRITY_CONTROL_SIZE);
+		}
+
+		if(sizeOfFromPeerID > this.maxSizeOfFromPeerID) {
+			return this.reject(RejectionReason.FROM_PEER_ID_SIZE);
+		}
+
+		if(sizeOfMessage > this.maxSizeOfMessage) {
+			return this.reject(RejectionReason.MESSAGE_SIZE);
+		}
+
+		// [ From Peer's ID || Sequence Number || Random Nonce || Message || Integrity Control ]
+		long sizeOfSecureMessagePayloadPlainText = ( (long) sizeOfFromPeerID + ( 2 * CommonUtils.INTEGER_IN_BYTES_LENGTH )
+													 + sizeOfMessage + sizeOfIntegrityControl );
+
+		if(!this.isSizeOfCipherTextValid(sizeOfSecureMessagePayloadPlainText, sizeOfSecureMessagePayload)) {
+			return this.reject(RejectionReason.SECURE_MESSAGE_PAYLOAD_SIZE);
+		}
+
+		// All the sizes are summed as long values, so a forged Secure Message's Meta-Header can not overflow them
+		long sizeOfFinalSecureMessageExpected = ( (long) sizeOfSecureMessageMetaHeader + sizeOfSecureMessageHeader
+												  + sizeOfSecureMessageAttributes + CommonUtils.INTEGER_IN_BYTES_LENGTH
+												  + sizeOfSecureMessagePayload + sizeOfFastSecureMessageCheck + sizeOfIVBytes );
+
+		if(sizeOfFinalSecureMessageExpected != sizeOfFinalSecureMessage) {
+			return this.reject(RejectionReason.DATAGRAM_PACKET_SIZE);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Validates the size of a Secure Message received, in the VERSION_02 format (i.e., the compact one),
+	 * where the size of its Secure Message's Payload is derived from the size of the Datagram Packet received
+	 * and from the size of the From Peer's ID, read from its Secure Message's Header, counting its rejection, if any.
+	 *
+	 * @param sizeOfFinalSecureMessage the size of the Final Secure Message received (i.e., of the Datagram Packet received)
+	 * @param sizeOfSecureMessageHeader the size of the fixed part of the Secure Message's Header, in the VERSION_02 format
+	 *        (i.e., before the size of the From Peer's ID)
+	 * @param sizeOfFromPeerID the size of the From Peer's ID serialized, as read from the Secure Message's Header
+	 *        (or -1, if it's not a valid Variable-Length Integer)
+	 *
+	 * @return the reason of the rejection of the Secure Message received (or null, if its size is valid)
+	 */
+	public RejectionReason validateCompactSecureMessage(int sizeOfFinalSecureMessage, int sizeOfSecureMessageHeader, int sizeOfFromPeerID) {
+
+		if(sizeOfFromPeerID < 0) {
+			return this.reject(RejectionReason.MALFORMED_SIZE);
+		}
+
+		if(sizeOfFromPeerID > this.maxSizeOfFromPeerID) {
+			return this.reject(RejectionReason.FROM_PEER_ID_SIZE);
+		}
+
+		// The sizes are subtracted as long values, so a forged size of the From Peer's ID can not overflow them
+		long sizeOfSecureMessagePayload = ( (long) sizeOfFinalSecureMessage - sizeOfSecureMessageHeader
+											- CommonUtils.sizeOfVariableLengthInteger(sizeOfFromPeerID) - sizeOfFromPeerID
+											- this.sizeOfSecureMessageAttributes - this.sizeOfIVBytes - this.sizeOfFastSecureMessageCheck );
+
+		if(sizeOfSecureMessagePayload < 0) {
+			return this.reject(RejectionReason.TRUNCATED);
+		}
+
+		// [ Message || Integrity Control ]
+		long minSizeOfSecureMessagePayloadPlainText = this.sizeOfIntegrityControl;
+		long maxSizeOfSecureMessagePayloadPlainText = ( (long) this.maxSizeOfMessage + this.sizeOfIntegrityControl );
+
+		boolean isSizeOfSecureMessagePayloadValid =
+				( ( sizeOfSecureMessagePayload - this.minCipherTextExpansion ) >= minSizeOfSecureMessagePayloadPlainText ) &&
+				( ( sizeOfSecureMessagePayload - this.maxCipherTextExpansion ) <= maxSizeOfSecureMessagePayloadPlainText ) &&
+				( ( sizeOfSecureMessagePayload % this.cipherTextAlignment ) == 0 );
+
+		if(!isSizeOfSecureMessagePayloadValid) {
+			return this.reject(RejectionReason.SECURE_MESSAGE_PAYLOAD_SIZE);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Validates the size of the Message, derived from the Secure Message's Payload deciphered,
+	 * of a Secure Message received, in the VERSION_02 format (i.e., the compact one), counting its rejection, if any.
+	 *
+	 * @param sizeOfMessage the size of the Message serialized
+	 *
+	 * @return the reason of the rejection of the Secure Message received (or null, if its size is valid)
+	 */
+	public RejectionReason validateCompactSecureMessagePayload(int sizeOfMessage) {
+
+		if(sizeOfMessage > this.maxSizeOfMessage) {
+			return this.reject(RejectionReason.MESSAGE_SIZE);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Counts a Secure Message rejected by the given reason.
+	 *
+	 * @param rejectionReason the reason of the rejection
+	 *
+	 * @return the reason of the rejection
+	 */
+	public RejectionReason reject(RejectionReason rejectionReason) {
+		this.numSecureMessagesRejected.incrementAndGet(rejectionReason.ordinal());
+
+		return rejectionReason;
+	}
+
+	/**
+	 * Returns the number of Secure Messages rejected by the given reason.
+	 *
+	 * @param rejectionReason the reason of the rejection
+	 *
+	 * @return the number of Secure Messages rejected by the given reason
+	 */
+	public long getNumSecureMessagesRejected(RejectionReason rejectionReason) {
+		return this.numSecureMessagesRejected.get(rejectionReason.ordinal());
+	}
+
+	/**
+	 * Returns the maximum size of the From Peer's ID serialized, configured for the Session.
+	 *
+	 * @return the maximum size of the From Peer's ID serialized, configured for the Session
+	 */
+	public int getMaxSizeOfFromPeerID() {
+		return this.maxSizeOfFromPeerID;
+	}
+
+	/**
+	 * Returns the maximum size of the Message serialized, configured for the Session.
+	 *
+	 * @return the maximum size of the Message serialized, configured for the Session
+	 */
+	public int getMaxSizeOfMessage() {
+		return this.maxSizeOfMessage;
+	}
+
+	/**
+	 * Returns true if the given size of the Cipher Text can result from the given size of the Plain Text,
+	 * with the Symmetric Encryption's suite of the Session, and false, otherwise.
+	 *
+	 * @param sizeOfPlainText the size of the Plain Text
+	 * @param sizeOfCipherText the size of the Cipher Text
+	 *
+	 * @return true if the given size of the Cipher Text can result from the given size of the Plain Text and false, otherwise
+	 */
+	private boolean isSizeOfCipherTextValid(long sizeOfPlainText, long sizeOfCipherText) {
+		long cipherTextExpansion = sizeOfCipherText - sizeOfPlainText;
+
+		return ( cipherTextExpansion >= this.minCipherTextExpansion ) && ( cipherTextExpansion <= this.maxCipherTextExpansion ) &&
+			   ( ( sizeOfCipherText % this.cipherTextAlignment ) == 0 );
+	}
+
+	/**
+	 * Returns the description of the counters of the Secure Messages rejected, by reason (for diagnostics).
+	 *
+	 * @return the description of the counters of the Secure Messages rejected, by reason
+	 */
+	@Override
+	public String toString() {
+		StringBuilder description = new StringBuilder("Secure Messages rejected by their sizes:");
+
+		for(RejectionReason rejectionReason : RejectionReason.values()) {
+			description.append(String.format("%n- %s: %d", rejectionReason, this.getNumSecureMessagesRejected(rejectionReason)));
+		}
+
+		return description.toString();
+	}
+
+}
@@ -0,0 +1,317 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.security.spec.AlgorithmParameterSpec;
+
+import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+
+/**
+ *
+ * Class for the Cipher Contexts of a (Secure) Multicast Chat Session.
+ *
+ * The Cipher objects are created (i.e., the Cryptographic Provider lookup is made) only once
+ * for each Thread and for each Session's suite (i.e., SEA/MODE/PADDING and Secret Key),
+ * being only re-initialized with a new Initialization Vector, for each Secure Message.
+ * The Cipher Contexts of a Session are kept by its compiled Cipher Suite.
+ *
+ * NOTE:
+ * - The Cipher objects are not thread-safe, so each Thread keeps its own Cipher objects;
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public final class SecureMulticastChatSessionCipherContexts {
+
+	// Invariants/Constants:
+	/**
+	 * The length of the authentication tag of the GCM Mode, in bits
+	 */
+	private static final int GCM_TAG_LENGTH_IN_BITS = 128;
+
+
+	// Global Instance Variables:
+	/**
+	 * The transformation of the Cipher (i.e., SEA/MODE/PADDING), as named by its Cryptographic Provider
+	 */
+	private final String transformation;
+
+	/**
+	 * The Cryptographic Provider of the Cipher
+	 */
+	private final Provider provider;
+
+	/**
+	 * The boolean value to keep the information about if
+	 * the Symmetric Encryption's Mode is GCM, which only accepts its own parameter specifications
+	 */
+	private final boolean gcmMode;
+
+	/**
+	 * The Secret Key used in the Symmetric Encryption
+	 */
+	private final SecretKey secretKey;
+
+	/**
+	 * The boolean value to keep the information about if
+	 * the Symmetric Encryption's Mode requires an Initialization Vector
+	 */
+	private final boolean requiresIV;
+
+	/**
+	 * The Symmetric Encryption's Cipher of each Thread
+	 */
+	private final ThreadLocal<Cipher> encryptionCipher;
+
+	/**
+	 * The Symmetric Encryption's Decipher of each Thread
+	 */
+	private final ThreadLocal<Cipher> decryptionCipher;
+
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - The Constructor of the Cipher Contexts of a Session's suite.
+	 *
+	 * @param transformation the transformation of the Cipher (i.e., SEA/MODE/PADDING), as named by its Cryptographic Provider
+	 * @param provider the Cryptographic Provider of the Cipher
+	 * @param secretKey the Secret Key used in the Symmetric Encryption
+	 * @param requiresIV true if the Symmetric Encryption's Mode requires an Initialization Vector
+	 */
+	SecureMulticastChatSessionCipherContexts(String transformation, Provider provider,
+											 SecretKey secretKey, boolean requiresIV) {
+		this.transformation = transformation;
+		this.provider = provider;
+		this.gcmMode = transformation.toUpperCase().contains("/GCM/");
+		this.secretKey = secretKey;
+		this.requiresIV = requiresIV;
+
+		this.encryptionCipher = new ThreadLocal<>();
+		this.decryptionCipher = new ThreadLocal<>();
+	}
+
+
+
+	// Methods:
+	/**
+	 * Returns true if the Symmetric Encryption's Mode requires an Initialization Vector.
+	 *
+	 * @return true if the Symmetric Encryption's Mode requires an Initialization Vector
+	 */
+	public boolean requiresIV() {
+		return this.requiresIV;
+	}
+
+	/**
+	 * Returns the transformation of the Cipher (i.e., SEA/MODE/PADDING), as named by its Cryptographic Provider.
+	 *
+	 * @return the transformation of the Cipher (i.e., SEA/MODE/PADDING), as named by its Cryptographic Provider
+	 */
+	public String getTransformation() {
+		return this.transformation;
+	}
+
+	/**
+	 * Returns the Cryptographic Provider of the Cipher.
+	 *
+	 * @return the Cryptographic Provider of the Cipher
+	 */
+	public Provider getProvider() {
+		return this.provider;
+	}
+
+	/**
+	 * Returns the Secret Key used in the Symmetric Encryption.
+	 *
+	 * @return the Secret Key used in the Symmetric Encryption
+	 */
+	SecretKey getSecretKey() {
+		return this.secretKey;
+	}
+
+	/**
+	 * Returns the size of the block of the Symmetric Encryption's Cipher.
+	 *
+	 * NOTE:
+	 * - A new Cipher is used, so the (not initialized) Cipher is not kept as the Cipher of the current Thread;
+	 *
+	 * @return the size of the block of the Symmetric Encryption's Cipher
+	 *
+	 * @throws NoSuchAlgorithmException if the Cryptographic Algorithm is not found
+	 * @throws NoSuchPaddingException if the Padding Method is not found
+	 */
+	public int getBlockSize() throws NoSuchAlgorithmException, NoSuchPaddingException {
+		return Cipher.getInstance(this.transformation, this.provider).getBlockSize();
+	}
+
+	/**
+	 * Returns the Symmetric Encryption's Cipher of the current Thread, ready to encrypt,
+	 * initialized with the given Initialization Vector (ignored, if the Mode does not require it).
+	 *
+	 * @param IVBytes the Initialization Vector
+	 *
+	 * @return the Symmetric Encryption's Cipher of the current Thread, ready to encrypt
+	 *
+	 * @throws NoSuchAlgorithmException if the Cryptographic Algorithm is not found
+	 * @throws NoSuchPaddingException if the Padding Method is not found
+	 * @throws InvalidKeyException if the Secret Key is not valid
+	 * @throws InvalidAlgorithmParameterException if the Initialization Vector is not valid
+	 */
+	public Cipher getEncryptionCipher(byte[] IVBytes)
+			throws NoSuchAlgorithmException, NoSuchPaddingException,
+				   InvalidKeyException, InvalidAlgorithmParameterException {
+
+		return initCipher(this.encryptionCipher, Cipher.ENCRYPT_MODE, IVBytes, 0, IVBytes.length);
+	}
+
+	/**
+	 * Returns the Symmetric Encryption's Decipher of the current Thread, ready to decrypt,
+	 * initialized with the given Initialization Vector (ignored, if the Mode does not require it).
+	 *
+	 * @param IVBytes the Initialization Vector
+	 *
+	 * @return the Symmetric Encryption's Decipher of the current Thread, ready to decrypt
+	 *
+	 * @throws NoSuchAlgorithmException if the Cryptographic Algorithm is not found
+	 * @throws NoSuchPaddingException if the Padding Method is not found
+	 * @throws InvalidKeyException if the Secret Key is not valid
+	 * @throws InvalidAlgorithmParameterException if the Initialization Vector is not valid
+	 */
+	public Cipher getDecryptionCipher(byte[] IVBytes)
+			throws NoSuchAlgorithmException, NoSuchPaddingException,
+				   InvalidKeyException, InvalidAlgorithmParameterException {
+
+		return initCipher(this.decryptionCipher, Cipher.DECRYPT_MODE, IVBytes, 0, IVBytes.length);
+	}
+
+	/**
+	 * Returns the Symmetric Encryption's Decipher of the current Thread, ready to decrypt,
+	 * initialized with the Initialization Vector in the given range of bytes (ignored, if the Mode does not require it),
+	 * (i.e., directly over the buffer where the Initialization Vector was received, without copying it).
+	 *
+	 * @param IVBytes the Byte Array of the Initialization Vector
+	 * @param IVBytesOffset the offset of the Initialization Vector, in its Byte Array
+	 * @param sizeOfIVBytes the size of the Initialization Vector
+	 *
+	 * @return the Symmetric Encryption's Decipher of the current Thread, ready to decrypt
+	 *
+	 * @throws NoSuchAlgorithmException if the Cryptographic Algorithm is not found
+	 * @throws NoSuchPaddingException if the Padding Method is not found
+	 * @throws InvalidKeyException if the Secret Key is not valid
+	 * @throws InvalidAlgorithmParameterException if the Initialization Vector is not valid
+	 */
+	public Cipher getDecryptionCipher(byte[] IVBytes, int IVBytesOffset, int sizeOfIVBytes)
+			throws NoSuchAlgorithmException, NoSuchPaddingException,
+				   InvalidKeyException, InvalidAlgorithmParameterException {
+
+		return initCipher(this.decryptionCipher, Cipher.DECRYPT_MODE, IVBytes, IVBytesOffset, sizeOfIVBytes);
+	}
+
+	/**
+	 * Returns the Cipher of the current Thread, creating it, only in the first time.
+	 *
+	 * @param threadCipher the Cipher of each Thread
+	 *
+	 * @return the Cipher of the current Thread
+	 *
+	 * @throws NoSuchAlgorithmException if the Cryptographic Algorithm is not found
+	 * @throws NoSuchPaddingException if the Padding Method is not found
+	 */
+	private Cipher getCipher(ThreadLocal<Cipher> threadCipher)
+			throws NoSuchAlgorithmException, NoSuchPaddingException {
+
+		Cipher cipher = threadCipher.get();
+
+		if(cipher == null) {
+			cipher = Cipher.getInstance(this.transformation, this.provider);
+			threadCipher.set(cipher);
+		}
+
+		return cipher;
+	}
+
+	/**
+	 * Initializes the Cipher of the current Thread, for the given operation mode.
+	 *
+	 * NOTE:
+	 * - If the Mode does not require an Initialization Vector (i.e., ECB), the Cipher is
+	 *   only initialized once, since it's reset to its initial state after each doFinal;
+	 *
+	 * @param threadCipher the Cipher of each Thread
+	 * @param operationMode the operation mode (i.e., Cipher.ENCRYPT_MODE or Cipher.DECRYPT_MODE)
+	 * @param IVBytes the Byte Array of the Initialization Vector
+	 * @param IVBytesOffset the offset of the Initialization Vector, in its Byte Array
+	 * @param sizeOfIVBytes the size of the Initialization Vector
+	 *
+	 * @return the Cipher of the current Thread, initialized for the given operation mode
+	 *
+	 * @throws NoSuchAlgorithmException if the Cryptographic Algorithm is not found
+	 * @throws NoSuchPaddingException if the Padding Method is not found
+	 * @throws InvalidKeyException if the Secret Key is not valid
+	 * @throws InvalidAlgorithmParameterException if the Initialization Vector is not valid
+	 */
+	private Cipher initCipher(ThreadLocal<Cipher> threadCipher, int operationMode,
+							  byte[] IVBytes, int IVBytesOffset, int sizeOfIVBytes)
+			throws NoSuchAlgorithmException, NoSuchPaddingException,
+				   InvalidKeyException, InvalidAlgorithmParameterException {
+
+		Cipher cipher = threadCipher.get();
+
+		if(this.requiresIV) {
+			cipher = getCipher(threadCipher);
+			cipher.init(operationMode, this.secretKey, newParameterSpec(IVBytes, IVBytesOffset, sizeOfIVBytes));
+		}
+		else if(cipher == null) {
+			cipher = getCipher(threadCipher);
+			cipher.init(operationMode, this.secretKey);
+		}
+
+		return cipher;
+	}
+
+	/**
+	 * Returns the parameter specifications of the Cipher, for the given Initialization Vector.
+	 *
+	 * NOTE:
+	 * - Some Cryptographic Providers (i.e., SunJCE) only accept the GCM's own parameter specifications
+	 *   for the GCM Mode, so they are used for all the Cryptographic Providers, with the same (default) tag length;
+	 *
+	 * @param IVBytes the Byte Array of the Initialization Vector
+	 * @param IVBytesOffset the offset of the Initialization Vector, in its Byte Array
+	 * @param sizeOfIVBytes the size of the Initialization Vector
+	 *
+	 * @return the parameter specifications of the Cipher, for the given Initialization Vector
+	 */
+	private AlgorithmParameterSpec newParameterSpec(byte[] IVBytes, int IVBytesOffset, int sizeOfIVBytes) {
+		return this.gcmMode ? new GCMParameterSpec(GCM_TAG_LENGTH_IN_BITS, IVBytes, IVBytesOffset, sizeOfIVBytes) :
+							  new IvParameterSpec(IVBytes, IVBytesOffset, sizeOfIVBytes);
+	}
+
+}
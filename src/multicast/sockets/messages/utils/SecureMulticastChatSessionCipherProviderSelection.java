@@ -0,0 +1,163 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.security.Provider;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ *
+ * Class for the Cryptographic Provider selected for a Symmetric Encryption's suite
+ * (i.e., SEA/MODE/PADDING) of a (Secure) Multicast Chat Session.
+ *
+ * Keeps the Cryptographic Provider pinned for the Session, the transformation as named by it,
+ * and the throughput measured for each Cryptographic Provider, for diagnostics.
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public final class SecureMulticastChatSessionCipherProviderSelection {
+
+	// Global Instance Variables:
+	/**
+	 * The transformation of the Cipher (i.e., SEA/MODE/PADDING), as configured for the Session
+	 */
+	private final String transformation;
+
+	/**
+	 * The Cryptographic Provider selected
+	 */
+	private final Provider provider;
+
+	/**
+	 * The transformation of the Cipher, as named by the Cryptographic Provider selected
+	 * (i.e., PKCS5Padding, instead of PKCS7Padding, for the SunJCE Cryptographic Provider)
+	 */
+	private final String providerTransformation;
+
+	/**
+	 * The throughput measured for each Cryptographic Provider able to cipher the transformation, in MB/s
+	 */
+	private final Map<String, Double> throughputs;
+
+	/**
+	 * The boolean value to keep the information about if
+	 * the selection was loaded from the cache, instead of being benchmarked
+	 */
+	private final boolean loadedFromCache;
+
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - The Constructor of the Cryptographic Provider selected for a Symmetric Encryption's suite.
+	 *
+	 * @param transformation the transformation of the Cipher, as configured for the Session
+	 * @param provider the Cryptographic Provider selected
+	 * @param providerTransformation the transformation of the Cipher, as named by the Cryptographic Provider selected
+	 * @param throughputs the throughput measured for each Cryptographic Provider, in MB/s
+	 * @param loadedFromCache true if the selection was loaded from the cache, instead of being benchmarked
+	 */
+	SecureMulticastChatSessionCipherProviderSelection(String transformation, Provider provider, String providerTransformation,
+													  Map<String, Double> throughputs, boolean loadedFromCache) {
+
+		this.transformation = transformation;
+		this.provider = provider;
+		this.providerTransformation = providerTransformation;
+		this.throughputs = Collections.unmodifiableMap(new LinkedHashMap<>(throughputs));
+		this.loadedFromCache = loadedFromCache;
+	}
+
+
+
+	// Methods:
+	/**
+	 * Returns the transformation of the Cipher (i.e., SEA/MODE/PADDING), as configured for the Session.
+	 *
+	 * @return the transformation of the Cipher (i.e., SEA/MODE/PADDING), as configured for the Session
+	 */
+	public String getTransformation() {
+		return this.transformation;
+	}
+
+	/**
+	 * Returns the Cryptographic Provider selected.
+	 *
+	 * @return the Cryptographic Provider selected
+	 */
+	public Provider getProvider() {
+		return this.provider;
+	}
+
+	/**
+	 * Returns the transformation of the Cipher, as named by the Cryptographic Provider selected.
+	 *
+	 * @return the transformation of the Cipher, as named by the Cryptographic Provider selected
+	 */
+	public String getProviderTransformation() {
+		return this.providerTransformation;
+	}
+
+	/**
+	 * Returns the throughput measured for each Cryptographic Provider able to cipher the transformation, in MB/s.
+	 *
+	 * @return the throughput measured for each Cryptographic Provider able to cipher the transformation, in MB/s
+	 */
+	public Map<String, Double> getThroughputs() {
+		return this.throughputs;
+	}
+
+	/**
+	 * Returns true if the selection was loaded from the cache, instead of being benchmarked, and false, otherwise.
+	 *
+	 * @return true if the selection was loaded from the cache, instead of being benchmarked, and false, otherwise
+	 */
+	public boolean isLoadedFromCache() {
+		return this.loadedFromCache;
+	}
+
+	/**
+	 * Returns the description of the selection, for diagnostics.
+	 *
+	 * @return the description of the selection, for diagnostics
+	 */
+	@Override
+	public String toString() {
+		StringBuilder description = new StringBuilder();
+
+		description.append(String.format("%s -> %s (%s) [", this.transformation,
+										 this.provider.getName(), this.providerTransformation));
+
+		String separator = "";
+
+		for(Map.Entry<String, Double> throughput : this.throughputs.entrySet()) {
+			description.append(String.format("%s%s: %.1f MB/s", separator, throughput.getKey(), throughput.getValue()));
+			separator = ", ";
+		}
+
+		description.append(this.loadedFromCache ? "] (cached)" : "] (benchmarked)");
+
+		return description.toString();
+	}
+
+}
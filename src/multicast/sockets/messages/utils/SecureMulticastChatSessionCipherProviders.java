@@ -0,0 +1,622 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.security.SecureRandom;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+
+/**
+ *
+ * Class for the selection of the Cryptographic Provider of the Symmetric Encryption's suites
+ * (i.e., SEA/MODE/PADDING) of the (Secure) Multicast Chat Sessions.
+ *
+ * Each transformation configured in SMCP.conf is benchmarked, during the startup, across all
+ * the Cryptographic Providers installed which are able to cipher it, being pinned the fastest one
+ * (i.e., SunJCE, for AES, which uses the AES-NI/CLMUL intrinsics of the JVM, and BouncyCastle only for
+ * the algorithms not available in the JDK, like Serpent or Twofish).
+ *
+ * A Cryptographic Provider is only a candidate if its Cipher Text is equal, byte by byte, to the one of
+ * the reference Cryptographic Provider (i.e., BouncyCastle), so all the Peers of a Session remain compatible,
+ * whatever the Cryptographic Provider selected by each one.
+ *
+ * The selections are kept in memory, for the whole process, and in a cache file, which is only
+ * valid for the same JVM and the same versions of the Cryptographic Providers installed.
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public final class SecureMulticastChatSessionCipherProviders {
+
+	// Invariants/Constants:
+	/**
+	 * The name of the reference Cryptographic Provider
+	 */
+	private static final String REFERENCE_PROVIDER_NAME = "BC";
+
+	/**
+	 * Filename of the cache file of the Cryptographic Providers selected
+	 */
+	public static final String CACHE_FILENAME = "./res/SMCPCipherProviders.cache";
+
+	/**
+	 * The key of the fingerprint of the JVM and of the Cryptographic Providers installed, in the cache file
+	 */
+	private static final String CACHE_FINGERPRINT_KEY = "fingerprint";
+
+	/**
+	 * The size of the payload ciphered in the benchmark, in bytes (i.e., the size of a typical Secure Message's Payload)
+	 */
+	private static final int BENCHMARK_PAYLOAD_SIZE = 256;
+
+	/**
+	 * The size of the Associated Data authenticated in the benchmark, in bytes (only for the Modes of Authenticated Encryption)
+	 */
+	private static final int BENCHMARK_ASSOCIATED_DATA_SIZE = 64;
+
+	/**
+	 * The time of the warm-up of each Cryptographic Provider, in the benchmark, in nanoseconds
+	 */
+	private static final long BENCHMARK_WARM_UP_TIME_IN_NANOS = 100000000L;
+
+	/**
+	 * The time of the measurement of each Cryptographic Provider, in the benchmark, in nanoseconds
+	 */
+	private static final long BENCHMARK_MEASUREMENT_TIME_IN_NANOS = 100000000L;
+
+	/**
+	 * The number of round trips (i.e., cipher and decipher) made between each check of the time, in the benchmark
+	 */
+	private static final int BENCHMARK_ROUND_TRIPS_BATCH = 32;
+
+
+	// Global Instance Variables:
+	/**
+	 * The Map of the Cryptographic Providers already selected, for each transformation and size of the Secret Key
+	 */
+	private static final ConcurrentMap<String, SecureMulticastChatSessionCipherProviderSelection> selectionsMap =
+																			new ConcurrentHashMap<>();
+
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - Not instantiable, since the selections are shared by the whole process.
+	 */
+	private SecureMulticastChatSessionCipherProviders() {
+		// Empty constructor body
+	}
+
+
+
+	// Methods:
+	/**
+	 * Returns the Cryptographic Provider selected for the given transformation,
+	 * loading it from the cache or benchmarking it, only in the first time.
+	 *
+	 * @param transformation the transformation of the Cipher (i.e., SEA/MODE/PADDING), as configured for the Session
+	 * @param secretKey the Secret Key used in the Symmetric Encryption
+	 * @param requiresIV true if the Symmetric Encryption's Mode requires an Initialization Vector
+	 * @param authenticatedEncryption true if the Symmetric Encryption's Mode is a Mode of Authenticated Encryption
+	 *
+	 * @return the Cryptographic Provider selected for the given transformation
+	 *
+	 * @throws GeneralSecurityException if no Cryptographic Provider is able to cipher the transformation
+	 */
+	public static SecureMulticastChatSessionCipherProviderSelection selectCipherProvider(String transformation, SecretKey secretKey,
+																						 boolean requiresIV,
+																						 boolean authenticatedEncryption)
+																								 throws GeneralSecurityException {
+
+		String selectionKey = transformation + ":" + ( secretKey.getEncoded().length * 8 );
+
+		SecureMulticastChatSessionCipherProviderSelection selection = selectionsMap.get(selectionKey);
+
+		if(selection == null) {
+			SecureMulticastChatSessionCipherContexts referenceCipherContexts =
+					newReferenceCipherContexts(transformation, secretKey, requiresIV);
+
+			selection = loadCachedSelection(selectionKey, transformation, secretKey, requiresIV,
+											authenticatedEncryption, referenceCipherContexts);
+
+			if(selection == null) {
+				selection = benchmarkCipherProviders(transformation, secretKey, requiresIV,
+													 authenticatedEncryption, referenceCipherContexts);
+				saveCachedSelection(selectionKey, selection);
+			}
+
+			SecureMulticastChatSessionCipherProviderSelection previousSelection = selectionsMap.putIfAbsent(selectionKey, selection);
+
+			if(previousSelection != null) {
+				selection = previousSelection;
+			}
+		}
+
+		return selection;
+	}
+
+	/**
+	 * Benchmarks the given transformation across all the Cryptographic Providers installed which are able to
+	 * cipher it (with a Cipher Text equal to the one of the reference Cryptographic Provider), selecting the fastest one.
+	 *
+	 * @param transformation the transformation of the Cipher, as configured for the Session
+	 * @param secretKey the Secret Key used in the Symmetric Encryption
+	 * @param requiresIV true if the Symmetric Encryption's Mode requires an Initialization Vector
+	 * @param authenticatedEncryption true if the Symmetric Encryption's Mode is a Mode of Authenticated Encryption
+	 * @param referenceCipherContexts the Cipher Contexts of the reference Cryptographic Provider (null, if it's not installed)
+	 *
+	 * @return the Cryptographic Provider selected for the given transformation
+	 *
+	 * @throws GeneralSecurityException if no Cryptographic Provider is able to cipher the transformation
+	 */
+	private static SecureMulticastChatSessionCipherProviderSelection benchmarkCipherProviders(String transformation, SecretKey secretKey,
+																							  boolean requiresIV,
+																							  boolean authenticatedEncryption,
+																							  SecureMulticastChatSessionCipherContexts referenceCipherContexts)
+																									  throws GeneralSecurityException {
+
+		Map<String, Double> throughputs = new LinkedHashMap<>();
+
+		SecureMulticastChatSessionCipherContexts fastestCipherContexts = null;
+		double fastestThroughput = -1;
+
+		for(Provider provider : Security.getProviders()) {
+			SecureMulticastChatSessionCipherContexts candidateCipherContexts =
+					newCandidateCipherContexts(transformation, provider, secretKey, requiresIV);
+
+			if(candidateCipherContexts != null &&
+			   isEquivalentToReference(candidateCipherContexts, referenceCipherContexts, requiresIV, authenticatedEncryption)) {
+
+				try {
+					double throughput = measureThroughput(candidateCipherContexts, requiresIV, authenticatedEncryption);
+					throughputs.put(provider.getName(), throughput);
+
+					if(throughput > fastestThroughput) {
+						fastestCipherContexts = candidateCipherContexts;
+						fastestThroughput = throughput;
+					}
+				}
+				catch (GeneralSecurityException generalSecurityException) {
+					// The Cryptographic Provider is not a candidate, since it failed during the benchmark
+				}
+			}
+		}
+
+		if(fastestCipherContexts == null) {
+			throw new NoSuchAlgorithmException(String.format("No Cryptographic Provider is able to cipher %s!!!", transformation));
+		}
+
+		return new SecureMulticastChatSessionCipherProviderSelection(transformation, fastestCipherContexts.getProvider(),
+																	 fastestCipherContexts.getTransformation(),
+																	 throughputs, false);
+	}
+
+	/**
+	 * Returns the Cipher Contexts of the reference Cryptographic Provider, for the given transformation.
+	 *
+	 * @param transformation the transformation of the Cipher, as configured for the Session
+	 * @param secretKey the Secret Key used in the Symmetric Encryption
+	 * @param requiresIV true if the Symmetric Encryption's Mode requires an Initialization Vector
+	 *
+	 * @return the Cipher Contexts of the reference Cryptographic Provider (null, if it's not installed)
+	 */
+	private static SecureMulticastChatSessionCipherContexts newReferenceCipherContexts(String transformation,
+																					   SecretKey secretKey,
+																					   boolean requiresIV) {
+
+		Provider referenceProvider = Security.getProvider(REFERENCE_PROVIDER_NAME);
+
+		return referenceProvider == null ? null : newCandidateCipherContexts(transformation, referenceProvider,
+																			 secretKey, requiresIV);
+	}
+
+	/**
+	 * Returns the Cipher Contexts of the given Cryptographic Provider, for the given transformation,
+	 * trying also the equivalent names of the transformation (i.e., PKCS5Padding, instead of PKCS7Padding,
+	 * since both are the same Padding Method, but SunJCE only knows the PKCS5Padding name).
+	 *
+	 * @param transformation the transformation of the Cipher, as configured for the Session
+	 * @param provider the Cryptographic Provider
+	 * @param secretKey the Secret Key used in the Symmetric Encryption
+	 * @param requiresIV true if the Symmetric Encryption's Mode requires an Initialization Vector
+	 *
+	 * @return the Cipher Contexts of the given Cryptographic Provider (null, if it's not able to cipher the transformation)
+	 */
+	private static SecureMulticastChatSessionCipherContexts newCandidateCipherContexts(String transformation, Provider provider,
+																					   SecretKey secretKey, boolean requiresIV) {
+
+		List<String> providerTransformations = new ArrayList<>();
+		providerTransformations.add(transformation);
+
+		if(transformation.toUpperCase().endsWith("/PKCS7PADDING")) {
+			providerTransformations.add(transformation.substring(0, transformation.lastIndexOf('/')) + "/PKCS5Padding");
+		}
+
+		for(String providerTransformation : providerTransformations) {
+			try {
+				Cipher.getInstance(providerTransformation, provider);
+
+				return new SecureMulticastChatSessionCipherContexts(providerTransformation, provider, secretKey, requiresIV);
+			}
+			catch (GeneralSecurityException generalSecurityException) {
+				// The Cryptographic Provider does not know this name of the transformation
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns true if the Cipher Text of the candidate Cryptographic Provider is equal, byte by byte,
+	 * to the one of the reference Cryptographic Provider, and both decipher the Cipher Text of the other,
+	 * and false, otherwise.
+	 *
+	 * @param candidateCipherContexts the Cipher Contexts of the candidate Cryptographic Provider
+	 * @param referenceCipherContexts the Cipher Contexts of the reference Cryptographic Provider
+	 *        (null, if it's not installed, being only checked the round trip of the candidate)
+	 * @param requiresIV true if the Symmetric Encryption's Mode requires an Initialization Vector
+	 * @param authenticatedEncryption true if the Symmetric Encryption's Mode is a Mode of Authenticated Encryption
+	 *
+	 * @return true if the candidate Cryptographic Provider is equivalent to the reference one, and false, otherwise
+	 */
+	private static boolean isEquivalentToReference(SecureMulticastChatSessionCipherContexts candidateCipherContexts,
+												   SecureMulticastChatSessionCipherContexts referenceCipherContexts,
+												   boolean requiresIV, boolean authenticatedEncryption) {
+
+		SecureRandom secureRandom = new SecureRandom();
+
+		try {
+			// The probe is not aligned with the size of the block, to also compare the Padding Methods
+			byte[] probe = new byte[BENCHMARK_PAYLOAD_SIZE + 3];
+			byte[] associatedData = new byte[authenticatedEncryption ? BENCHMARK_ASSOCIATED_DATA_SIZE : 0];
+			byte[] IVBytes = new byte[getIVLength(candidateCipherContexts, requiresIV, authenticatedEncryption)];
+
+			secureRandom.nextBytes(probe);
+			secureRandom.nextBytes(associatedData);
+			secureRandom.nextBytes(IVBytes);
+
+			byte[] candidateProbeCiphered = cipher(candidateCipherContexts, probe, associatedData, IVBytes);
+
+			if(referenceCipherContexts == null) {
+				return Arrays.equals(probe, decipher(candidateCipherContexts, candidateProbeCiphered, associatedData, IVBytes));
+			}
+
+			byte[] referenceProbeCiphered = cipher(referenceCipherContexts, probe, associatedData, IVBytes);
+
+			return Arrays.equals(candidateProbeCiphered, referenceProbeCiphered) &&
+				   Arrays.equals(probe, decipher(candidateCipherContexts, referenceProbeCiphered, associatedData, IVBytes)) &&
+				   Arrays.equals(probe, decipher(referenceCipherContexts, candidateProbeCiphered, associatedData, IVBytes));
+		}
+		catch (GeneralSecurityException | RuntimeException exception) {
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the throughput of the given Cipher Contexts, in MB/s, ciphering and deciphering
+	 * a typical Secure Message's Payload, after a warm-up of the JIT compiler.
+	 *
+	 * @param cipherContexts the Cipher Contexts to be benchmarked
+	 * @param requiresIV true if the Symmetric Encryption's Mode requires an Initialization Vector
+	 * @param authenticatedEncryption true if the Symmetric Encryption's Mode is a Mode of Authenticated Encryption
+	 *
+	 * @return the throughput of the given Cipher Contexts, in MB/s
+	 *
+	 * @throws GeneralSecurityException if an error occurred during the benchmark
+	 */
+	private static double measureThroughput(SecureMulticastChatSessionCipherContexts cipherContexts,
+											boolean requiresIV, boolean authenticatedEncryption) throws GeneralSecurityException {
+
+		byte[] payload = new byte[BENCHMARK_PAYLOAD_SIZE];
+		byte[] associatedData = new byte[authenticatedEncryption ? BENCHMARK_ASSOCIATED_DATA_SIZE : 0];
+		byte[] IVBytes = new byte[getIVLength(cipherContexts, requiresIV, authenticatedEncryption)];
+
+		new SecureRandom().nextBytes(IVBytes);
+
+		runRoundTrips(cipherContexts, payload, associatedData, IVBytes, BENCHMARK_WARM_UP_TIME_IN_NANOS);
+
+		long startTime = System.nanoTime();
+		long numRoundTrips = runRoundTrips(cipherContexts, payload, associatedData, IVBytes, BENCHMARK_MEASUREMENT_TIME_IN_NANOS);
+		long elapsedTime = System.nanoTime() - startTime;
+
+		// Each round trip ciphers and deciphers the payload
+		double numMegaBytes = ( numRoundTrips * 2.0 * BENCHMARK_PAYLOAD_SIZE ) / ( 1024.0 * 1024.0 );
+
+		return numMegaBytes / ( elapsedTime / 1e9 );
+	}
+
+	/**
+	 * Runs round trips (i.e., cipher and decipher) of the payload, during the given time,
+	 * using a new Initialization Vector in each round trip (i.e., as required by the GCM Mode).
+	 *
+	 * @param cipherContexts the Cipher Contexts to be benchmarked
+	 * @param payload the payload
+	 * @param associatedData the Associated Data (empty, if it's not a Mode of Authenticated Encryption)
+	 * @param IVBytes the Initialization Vector, incremented in each round trip
+	 * @param timeInNanos the time of the round trips, in nanoseconds
+	 *
+	 * @return the number of round trips made
+	 *
+	 * @throws GeneralSecurityException if an error occurred during the round trips
+	 */
+	private static long runRoundTrips(SecureMulticastChatSessionCipherContexts cipherContexts, byte[] payload,
+									  byte[] associatedData, byte[] IVBytes, long timeInNanos) throws GeneralSecurityException {
+
+		long deadline = System.nanoTime() + timeInNanos;
+		long numRoundTrips = 0;
+
+		do {
+			for(int i = 0; i < BENCHMARK_ROUND_TRIPS_BATCH; i++) {
+				incrementIV(IVBytes);
+				decipher(cipherContexts, cipher(cipherContexts, payload, associatedData, IVBytes), associatedData, IVBytes);
+			}
+
+			numRoundTrips += BENCHMARK_ROUND_TRIPS_BATCH;
+		}
+		while(System.nanoTime() < deadline);
+
+		return numRoundTrips;
+	}
+
+	/**
+	 * Returns the given Plain Text ciphered with the given Cipher Contexts.
+	 *
+	 * @param cipherContexts the Cipher Contexts
+	 * @param plainText the Plain Text
+	 * @param associatedData the Associated Data (empty, if it's not a Mode of Authenticated Encryption)
+	 * @param IVBytes the Initialization Vector
+	 *
+	 * @return the given Plain Text ciphered
+	 *
+	 * @throws GeneralSecurityException if an error occurred during the Symmetric Encryption
+	 */
+	private static byte[] cipher(SecureMulticastChatSessionCipherContexts cipherContexts, byte[] plainText,
+								 byte[] associatedData, byte[] IVBytes) throws GeneralSecurityException {
+
+		Cipher cipher = cipherContexts.getEncryptionCipher(IVBytes);
+
+		if(associatedData.length > 0) {
+			cipher.updateAAD(associatedData);
+		}
+
+		return cipher.doFinal(plainText);
+	}
+
+	/**
+	 * Returns the given Cipher Text deciphered with the given Cipher Contexts.
+	 *
+	 * @param cipherContexts the Cipher Contexts
+	 * @param cipherText the Cipher Text
+	 * @param associatedData the Associated Data (empty, if it's not a Mode of Authenticated Encryption)
+	 * @param IVBytes the Initialization Vector
+	 *
+	 * @return the given Cipher Text deciphered
+	 *
+	 * @throws GeneralSecurityException if an error occurred during the Symmetric Encryption
+	 */
+	private static byte[] decipher(SecureMulticastChatSessionCipherContexts cipherContexts, byte[] cipherText,
+								   byte[] associatedData, byte[] IVBytes) throws GeneralSecurityException {
+
+		Cipher decipher = cipherContexts.getDecryptionCipher(IVBytes);
+
+		if(associatedData.length > 0) {
+			decipher.updateAAD(associatedData);
+		}
+
+		return decipher.doFinal(cipherText);
+	}
+
+	/**
+	 * Returns the length of the Initialization Vector of the given Cipher Contexts, in bytes,
+	 * sized as in the compiled Cipher Suites of the Sessions.
+	 *
+	 * @param cipherContexts the Cipher Contexts
+	 * @param requiresIV true if the Symmetric Encryption's Mode requires an Initialization Vector
+	 * @param authenticatedEncryption true if the Symmetric Encryption's Mode is a Mode of Authenticated Encryption
+	 *
+	 * @return the length of the Initialization Vector, in bytes (0, if it's not required)
+	 *
+	 * @throws GeneralSecurityException if the transformation is not found
+	 */
+	private static int getIVLength(SecureMulticastChatSessionCipherContexts cipherContexts, boolean requiresIV,
+								   boolean authenticatedEncryption) throws GeneralSecurityException {
+
+		if(authenticatedEncryption) {
+			return SecureMulticastChatSessionCipherSuite.AUTHENTICATED_ENCRYPTION_NONCE_LENGTH;
+		}
+
+		return requiresIV ? cipherContexts.getBlockSize() : 0;
+	}
+
+	/**
+	 * Increments the given Initialization Vector, as a big-endian counter.
+	 *
+	 * @param IVBytes the Initialization Vector
+	 */
+	private static void incrementIV(byte[] IVBytes) {
+		for(int i = IVBytes.length - 1; i >= 0; i--) {
+			if(++IVBytes[i] != 0) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Returns the fingerprint of the JVM and of the Cryptographic Providers installed,
+	 * which invalidates the cache file, when one of them changes.
+	 *
+	 * @return the fingerprint of the JVM and of the Cryptographic Providers installed
+	 */
+	private static String getFingerprint() {
+		StringBuilder fingerprint = new StringBuilder();
+
+		fingerprint.append(System.getProperty("java.vm.name")).append(' ')
+				   .append(System.getProperty("java.vm.version")).append(' ')
+				   .append(System.getProperty("os.arch"));
+
+		for(Provider provider : Security.getProviders()) {
+			fingerprint.append(';').append(provider.getName()).append(' ')
+					   .append(provider.getProperty("Provider.id version"));
+		}
+
+		return fingerprint.toString();
+	}
+
+	/**
+	 * Returns the Cryptographic Provider selected for the given transformation, loaded from the cache file,
+	 * if it's still valid (i.e., same fingerprint, Cryptographic Provider installed and equivalent to the reference one).
+	 *
+	 * @param selectionKey the key of the selection (i.e., the transformation and the size of the Secret Key)
+	 * @param transformation the transformation of the Cipher, as configured for the Session
+	 * @param secretKey the Secret Key used in the Symmetric Encryption
+	 * @param requiresIV true if the Symmetric Encryption's Mode requires an Initialization Vector
+	 * @param authenticatedEncryption true if the Symmetric Encryption's Mode is a Mode of Authenticated Encryption
+	 * @param referenceCipherContexts the Cipher Contexts of the reference Cryptographic Provider (null, if it's not installed)
+	 *
+	 * @return the Cryptographic Provider selected for the given transformation (null, if it's not cached or not valid)
+	 */
+	private static SecureMulticastChatSessionCipherProviderSelection loadCachedSelection(String selectionKey, String transformation,
+																						 SecretKey secretKey, boolean requiresIV,
+																						 boolean authenticatedEncryption,
+																						 SecureMulticastChatSessionCipherContexts referenceCipherContexts) {
+
+		Properties cache = loadCache();
+
+		String cachedSelection = cache.getProperty(selectionKey);
+
+		if(cachedSelection == null || !getFingerprint().equals(cache.getProperty(CACHE_FINGERPRINT_KEY))) {
+			return null;
+		}
+
+		// The format of the selection cached is: <provider>|<provider's transformation>|<provider>=<MB/s>,...
+		String[] cachedSelectionParts = cachedSelection.split("\\|", 3);
+
+		Provider provider = ( cachedSelectionParts.length == 3 ) ? Security.getProvider(cachedSelectionParts[0]) : null;
+
+		if(provider == null) {
+			return null;
+		}
+
+		SecureMulticastChatSessionCipherContexts cipherContexts = newCandidateCipherContexts(cachedSelectionParts[1], provider,
+																							 secretKey, requiresIV);
+
+		if(cipherContexts == null ||
+		   !isEquivalentToReference(cipherContexts, referenceCipherContexts, requiresIV, authenticatedEncryption)) {
+			return null;
+		}
+
+		Map<String, Double> throughputs = new LinkedHashMap<>();
+
+		for(String cachedThroughput : cachedSelectionParts[2].split(",")) {
+			String[] cachedThroughputParts = cachedThroughput.split("=", 2);
+
+			try {
+				throughputs.put(cachedThroughputParts[0], Double.parseDouble(cachedThroughputParts[1]));
+			}
+			catch (NumberFormatException | ArrayIndexOutOfBoundsException exception) {
+				return null;
+			}
+		}
+
+		return new SecureMulticastChatSessionCipherProviderSelection(transformation, provider, cipherContexts.getTransformation(),
+																	 throughputs, true);
+	}
+
+	/**
+	 * Saves the Cryptographic Provider selected for a transformation, in the cache file.
+	 *
+	 * NOTE:
+	 * - The cache file is only an optimization of the startup, so any error is reported, but not propagated;
+	 *
+	 * @param selectionKey the key of the selection (i.e., the transformation and the size of the Secret Key)
+	 * @param selection the Cryptographic Provider selected
+	 */
+	private static synchronized void saveCachedSelection(String selectionKey,
+														 SecureMulticastChatSessionCipherProviderSelection selection) {
+
+		Properties cache = loadCache();
+		String fingerprint = getFingerprint();
+
+		if(!fingerprint.equals(cache.getProperty(CACHE_FINGERPRINT_KEY))) {
+			cache.clear();
+			cache.setProperty(CACHE_FINGERPRINT_KEY, fingerprint);
+		}
+
+		StringBuilder cachedSelection = new StringBuilder();
+		cachedSelection.append(selection.getProvider().getName()).append('|')
+					   .append(selection.getProviderTransformation()).append('|');
+
+		String separator = "";
+
+		for(Map.Entry<String, Double> throughput : selection.getThroughputs().entrySet()) {
+			cachedSelection.append(separator).append(throughput.getKey()).append('=').append(throughput.getValue());
+			separator = ",";
+		}
+
+		cache.setProperty(selectionKey, cachedSelection.toString());
+
+		try (OutputStream cacheOutputStream = new FileOutputStream(CACHE_FILENAME)) {
+			cache.store(cacheOutputStream, "SMCP - Cryptographic Providers selected by the startup benchmark");
+		}
+		catch (IOException inputOutputException) {
+			System.err.println("Error occurred during the saving of the Cryptographic Providers selected:");
+			System.err.println("- The selection will be benchmarked again, in the next startup!!!");
+		}
+	}
+
+	/**
+	 * Returns the content of the cache file (empty, if it does not exist or it's not readable).
+	 *
+	 * @return the content of the cache file
+	 */
+	private static Properties loadCache() {
+		Properties cache = new Properties();
+
+		try (InputStream cacheInputStream = new FileInputStream(CACHE_FILENAME)) {
+			cache.load(cacheInputStream);
+		}
+		catch (IOException | IllegalArgumentException exception) {
+			// The cache file does not exist yet or it's not valid, so all the selections are benchmarked
+			cache.clear();
+		}
+
+		return cache;
+	}
+
+}
@@ -0,0 +1,883 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.crypto.Cipher;
+
+import multicast.common.CommonUtils;
+import multicast.common.VersionNumber;
+
+/**
+ *
+ * Class for the compiled Cipher Suite of a (Secure) Multicast Chat Session.
+ *
+ * The entry of SMCP.conf of a Session is compiled only once, when the Session is created,
+ * into this immutable and typed Cipher Suite, which keeps all the parameters already parsed and
+ * all the cryptographic objects already resolved (i.e., Secret Keys, Cipher Contexts, MAC Engine and
+ * Secure Message's Attributes), so the Secure Messages never look up the Session's Parameters again.
+ *
+ * The combinations of algorithms not supported by the Secure Message's format are
+ * rejected during the compilation (i.e., at the startup) and not on the first Secure Message.
+ *
+ * The Sessions using a Mode of Authenticated Encryption (i.e., AEAD, like AES/GCM or ChaCha20/Poly1305)
+ * are compiled to the authenticated wire mode, where the Secure Message's Payload is sealed in one call,
+ * being the Integrity Control (i.e., INTHASH) and the Fast Secure Message's Check (i.e., MAC) replaced by
+ * the authentication tag of the Cipher.
+ *
+ * The Cryptographic Provider of the Symmetric Encryption's suite is selected by a startup benchmark
+ * (or loaded from its cache), among the ones whose Cipher Text is equal to the one of BouncyCastle.
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public final class SecureMulticastChatSessionCipherSuite {
+
+	// Invariants/Constants:
+	/**
+	 * The Symmetric Encryption's Modes of Authenticated Encryption,
+	 * which append an authentication tag to the Cipher Text
+	 * (i.e., Poly1305 is the Mode of the ChaCha20 Symmetric Encryption Algorithm, as in ChaCha20-Poly1305)
+	 */
+	private static final String[] AUTHENTICATED_ENCRYPTION_MODES = { "GCM", "CCM", "EAX", "OCB", "Poly1305" };
+
+	/**
+	 * The length of the nonce (i.e., Initialization Vector) of the Modes of Authenticated Encryption, in bytes
+	 */
+	static final int AUTHENTICATED_ENCRYPTION_NONCE_LENGTH = 12;
+
+
+	// Global Instance Variables:
+	/**
+	 * The Map of the Cipher Suites already compiled, for each Session (i.e., <ip>:<port>)
+	 */
+	private static final ConcurrentMap<String, SecureMulticastChatSessionCipherSuite> cipherSuitesMap =
+																		new ConcurrentHashMap<>();
+
+	/**
+	 * The ID of the Session (i.e., <ip>:<port>)
+	 */
+	private final String sessionID;
+
+	/**
+	 * The IP Address of the (Secure) Multicast Group of the Session
+	 */
+	private final String ipAddress;
+
+	/**
+	 * The Port of the Session
+	 */
+	private final int port;
+
+	/**
+	 * The Name of the Session (i.e., SID)
+	 */
+	private final String sessionName;
+
+	/**
+	 * The Session Tag of the Session (i.e., the compact numeric tag carried by the Secure Messages, instead of the SID)
+	 */
+	private final int sessionTag;
+
+	/**
+	 * The Symmetric Encryption Algorithm (i.e., SEA)
+	 */
+	private final String symmetricEncryptionAlgorithm;
+
+	/**
+	 * The size of the Symmetric Encryption's Secret Key, in bits (i.e., SEAKS)
+	 */
+	private final int symmetricEncryptionKeySize;
+
+	/**
+	 * The Symmetric Encryption's Mode (i.e., MODE)
+	 */
+	private final String symmetricEncryptionMode;
+
+	/**
+	 * The Padding Method (i.e., PADDING)
+	 */
+	private final String paddingMethod;
+
+	/**
+	 * The Cryptographic Hash Function of the Integrity Control (i.e., INTHASH)
+	 */
+	private final String integrityControlHashFunction;
+
+	/**
+	 * The length of the Integrity Control, in bytes
+	 */
+	private final int integrityControlLength;
+
+	/**
+	 * The MAC's Algorithm of the Fast Secure Message's Check (i.e., MAC)
+	 */
+	private final String messageAuthenticationCode;
+
+	/**
+	 * The size of the MAC's Secret Key, in bits (i.e., MACKS)
+	 */
+	private final int messageAuthenticationCodeKeySize;
+
+	/**
+	 * The boolean value to keep the information about if
+	 * the Symmetric Encryption's Mode is a Mode of Authenticated Encryption (i.e., AEAD)
+	 */
+	private final boolean authenticatedEncryption;
+
+	/**
+	 * The length of the tag of the Fast Secure Message's Check (i.e., the length of the MAC), in bytes,
+	 * or the length of the authentication tag of the Cipher, in the Modes of Authenticated Encryption
+	 */
+	private final int tagLength;
+
+	/**
+	 * The size of the block of the Symmetric Encryption Algorithm, in bytes
+	 */
+	private final int blockSize;
+
+	/**
+	 * The boolean value to keep the information about if
+	 * the Symmetric Encryption's Mode requires an Initialization Vector
+	 */
+	private final boolean requiresIV;
+
+	/**
+	 * The length of the Initialization Vector, in bytes (0, if it's not required)
+	 */
+	private final int ivLength;
+
+	/**
+	 * The Initialization Vectors' and Random Nonces' Generator of the Session
+	 */
+	private final SecureMulticastChatSessionIVGenerator ivGenerator;
+
+	/**
+	 * The background Keystream Generator of the Session
+	 * (null, if it's not enabled in SMCP.conf or the Symmetric Encryption's Mode is not CTR or OFB)
+	 */
+	private final SecureMulticastChatSessionKeystreamGenerator keystreamGenerator;
+
+	/**
+	 * The Secret Keys of the Session
+	 */
+	private final SecureMulticastChatSessionKeys sessionKeys;
+
+	/**
+	 * The Cipher Contexts of the Session
+	 */
+	private final SecureMulticastChatSessionCipherContexts cipherContexts;
+
+	/**
+	 * The Cryptographic Provider selected for the Symmetric Encryption's suite of the Session
+	 */
+	private final SecureMulticastChatSessionCipherProviderSelection cipherProviderSelection;
+
+	/**
+	 * The MAC Engine of the Session (null, in the Modes of Authenticated Encryption)
+	 */
+	private final SecureMulticastChatSessionMacEngine macEngine;
+
+	/**
+	 * The Secure Message's Attributes of the Session
+	 */
+	private final SecureMulticastChatSessionAttributes sessionAttributes;
+
+	/**
+	 * The Cryptographic Hash Function of the Integrity Control, of each Thread
+	 */
+	private final ThreadLocal<MessageDigest> threadIntegrityControlHashFunction;
+
+	/**
+	 * The Bounds Validator of the Secure Messages received in the Session
+	 */
+	private final SecureMulticastChatSessionBoundsValidator boundsValidator;
+
+	/**
+	 * The Rejections of the Secure Messages received in the Session (i.e., their counters, reported with a rate limit)
+	 */
+	private final SecureMulticastChatSessionRejections rejections;
+
+	/**
+	 * The size of the Anti-Replay Window of each Peer of the Session
+	 */
+	private final int antiReplayWindowSize;
+
+	/**
+	 * The hard cap of the memory footprint of the state against replaying of each Secure Multicast Socket of the Session
+	 */
+	private final int replayStateMaxMemoryFootprint;
+
+	/**
+	 * The rate of the Secure Messages received in the Session (i.e., per second), for which the table of the Random Nonces
+	 * of each Secure Multicast Socket of the Session is sized
+	 */
+	private final int randomNoncesRate;
+
+	/**
+	 * The Version Number of the format of the Final Secure Messages sent in the Session (i.e., VERSION_01 or VERSION_02)
+	 */
+	private final byte versionNumber;
+
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - The Constructor of the compiled Cipher Suite of a Session,
+	 *   compiling the given Session's Parameters.
+	 *
+	 * @param secureMulticastChatSessionParameters the (Secure) Multicast Chat Session's Parameters
+	 *
+	 * @throws GeneralSecurityException if the combination of algorithms of the Session is not supported
+	 */
+	private SecureMulticastChatSessionCipherSuite(SecureMulticastChatSessionParameters secureMulticastChatSessionParameters)
+			throws GeneralSecurityException {
+
+		this.ipAddress = getRequiredProperty(secureMulticastChatSessionParameters, "ip");
+		this.port = getRequiredIntegerProperty(secureMulticastChatSessionParameters, "port");
+		this.sessionID = this.ipAddress + ":" + this.port;
+		this.sessionName = getRequiredProperty(secureMulticastChatSessionParameters, "sid");
+		this.sessionTag = getOptionalIntegerProperty(secureMulticastChatSessionParameters, "tag",
+													 SecureMulticastChatSessionTags.deriveSessionTag(this.sessionID, this.sessionName));
+
+		this.symmetricEncryptionAlgorithm = getRequiredProperty(secureMulticastChatSessionParameters, "sea");
+		this.symmetricEncryptionKeySize = getRequiredIntegerProperty(secureMulticastChatSessionParameters, "seaks");
+		this.symmetricEncryptionMode = getRequiredProperty(secureMulticastChatSessionParameters, "mode");
+		this.paddingMethod = getRequiredProperty(secureMulticastChatSessionParameters, "padding");
+
+		this.integrityControlHashFunction = getRequiredProperty(secureMulticastChatSessionParameters, "inthash");
+
+		this.messageAuthenticationCode = getRequiredProperty(secureMulticastChatSessionParameters, "mac");
+		this.messageAuthenticationCodeKeySize = getRequiredIntegerProperty(secureMulticastChatSessionParameters, "macks");
+
+		this.authenticatedEncryption = isAuthenticatedEncryptionMode(this.symmetricEncryptionMode);
+
+		try {
+			this.sessionKeys = SecureMulticastChatSessionKeyring.getSessionKeys(secureMulticastChatSessionParameters);
+		}
+		catch (IllegalArgumentException illegalArgumentException) {
+			throw new InvalidKeyException(String.format("The Secret Keys of the Session %s are not available in the Keystore: %s",
+														this.sessionID, illegalArgumentException.getMessage()),
+										  illegalArgumentException);
+		}
+
+		this.requiresIV = !this.symmetricEncryptionMode.equalsIgnoreCase("ECB");
+
+		// The ChaCha20 Stream Cipher has no Mode or Padding Method, being the Poly1305 Mode
+		// resolved to the ChaCha20-Poly1305 construction of the Cryptographic Provider
+		String transformation = this.symmetricEncryptionMode.equalsIgnoreCase("Poly1305") ?
+									String.format("%s-%s", this.symmetricEncryptionAlgorithm, this.symmetricEncryptionMode) :
+									String.format("%s/%s/%s", this.symmetricEncryptionAlgorithm,
+												  this.symmetricEncryptionMode, this.paddingMethod);
+
+		// The fastest Cryptographic Provider able to cipher the transformation is pinned for the Session
+		this.cipherProviderSelection = SecureMulticastChatSessionCipherProviders.selectCipherProvider(transformation,
+											this.sessionKeys.getSymmetricEncryptionKey(), this.requiresIV,
+											this.authenticatedEncryption);
+
+		this.cipherContexts = new SecureMulticastChatSessionCipherContexts(this.cipherProviderSelection.getProviderTransformation(),
+									this.cipherProviderSelection.getProvider(), this.sessionKeys.getSymmetricEncryptionKey(),
+									this.requiresIV);
+
+		this.blockSize = this.cipherContexts.getBlockSize();
+		this.ivLength = this.authenticatedEncryption ? AUTHENTICATED_ENCRYPTION_NONCE_LENGTH :
+													   ( this.requiresIV ? this.blockSize : 0 );
+
+		if(this.requiresIV && this.ivLength == 0) {
+			throw new GeneralSecurityException(String.format("The Symmetric Encryption Algorithm %s of the Session %s " +
+															 "has no block to size the Initialization Vector!!!",
+															 this.symmetricEncryptionAlgorithm, this.sessionID));
+		}
+
+		this.ivGenerator = new SecureMulticastChatSessionIVGenerator(this.symmetricEncryptionMode, this.ivLength);
+
+		int cipherTextExpansion = checkSymmetricEncryption();
+
+		// The optional KEYSTREAMPOOL property of SMCP.conf is the number of keystreams precomputed (0, if it's disabled)
+		this.keystreamGenerator = SecureMulticastChatSessionKeystreamGenerator.newKeystreamGenerator(this.sessionID,
+										this.symmetricEncryptionMode, this.paddingMethod, this.cipherContexts, this.ivGenerator,
+										this.blockSize, getOptionalIntegerProperty(secureMulticastChatSessionParameters,
+																				   "keystreampool", 0));
+
+		this.integrityControlLength = MessageDigest.getInstance(this.integrityControlHashFunction).getDigestLength();
+		this.threadIntegrityControlHashFunction = ThreadLocal.withInitial(this::newIntegrityControlHashFunction);
+
+		// In the Modes of Authenticated Encryption, the authentication tag appended by the Cipher
+		// replaces the MAC of the Fast Secure Message's Check
+		if(this.authenticatedEncryption) {
+			this.macEngine = null;
+			this.tagLength = cipherTextExpansion;
+		}
+		else {
+			this.macEngine = new SecureMulticastChatSessionMacEngine(this.messageAuthenticationCode,
+																	 this.sessionKeys.getMessageAuthenticationCodeKey());
+			this.tagLength = this.macEngine.getMacLength();
+		}
+
+		this.sessionAttributes = new SecureMulticastChatSessionAttributes(this.sessionName, this.symmetricEncryptionAlgorithm,
+																		   this.symmetricEncryptionMode, this.paddingMethod,
+																		   this.integrityControlHashFunction,
+																		   this.messageAuthenticationCode);
+
+		// The optional MAXPEERID and MAXMESSAGE properties of SMCP.conf bound the sizes accepted in the Secure Messages received,
+		// being the Cipher Text padded to the size of the block, if the probe of the Symmetric Encryption was expanded by it
+		this.boundsValidator = new SecureMulticastChatSessionBoundsValidator(
+										CommonUtils.fromStringToByteArray(this.sessionName).length,
+										this.sessionAttributes.getSecureMessageAttributesSerializedHashed().length,
+										this.authenticatedEncryption, this.tagLength, this.ivLength, this.integrityControlLength,
+										this.blockSize, ( !this.authenticatedEncryption && ( cipherTextExpansion > 0 ) ),
+										getOptionalIntegerProperty(secureMulticastChatSessionParameters, "maxpeerid",
+																   CommonUtils.DEFAULT_MAX_SIZE_OF_FROM_PEER_ID_SERIALIZED),
+										getOptionalIntegerProperty(secureMulticastChatSessionParameters, "maxmessage",
+																   CommonUtils.DEFAULT_MAX_SIZE_OF_MESSAGE_SERIALIZED));
+
+		this.rejections = new SecureMulticastChatSessionRejections();
+
+		// The optional REPLAYWINDOW property of SMCP.conf sizes the Anti-Replay Window of each Peer,
+		// being rounded up to a multiple of 64 and bounded between 64 and 4096
+		this.antiReplayWindowSize = SecureMulticastChatAntiReplayWindow.boundWindowSize(
+										getOptionalIntegerProperty(secureMulticastChatSessionParameters, "replaywindow",
+																   CommonUtils.DEFAULT_ANTI_REPLAY_WINDOW_SIZE));
+
+		// The optional REPLAYMEMORY property of SMCP.conf caps the memory footprint of the state against replaying
+		// (in bytes), being bounded by the minimum needed to keep some Peers and Random Nonces
+		this.replayStateMaxMemoryFootprint = Math.max(CommonUtils.MIN_REPLAY_STATE_MAX_MEMORY_FOOTPRINT,
+													  getOptionalIntegerProperty(secureMulticastChatSessionParameters, "replaymemory",
+																				 CommonUtils.DEFAULT_REPLAY_STATE_MAX_MEMORY_FOOTPRINT));
+
+		// The optional NONCERATE property of SMCP.conf sizes the table of the Random Nonces for the rate of the Secure Messages
+		// received (i.e., per second), being the Secure Messages above it rejected, if their Random Nonces can not be kept
+		this.randomNoncesRate = Math.max(1, getOptionalIntegerProperty(secureMulticastChatSessionParameters, "noncerate",
+																	   CommonUtils.DEFAULT_RANDOM_NONCES_RATE));
+
+		// The optional VERSION property of SMCP.conf selects the format of the Final Secure Messages sent in the Session,
+		// being the VERSION_01 one kept by default, so the Peers only supporting it can still join the Session
+		int versionNumber = getOptionalIntegerProperty(secureMulticastChatSessionParameters, "version",
+													   CommonUtils.CURRENT_VERSION_PROTOCOL);
+
+		if(versionNumber != VersionNumber.VERSION_01.getVersionNumber() && versionNumber != VersionNumber.VERSION_02.getVersionNumber()) {
+			throw new GeneralSecurityException(String.format("The Version Number %d of the Session %s is not supported!!!",
+															 versionNumber, this.sessionID));
+		}
+
+		this.versionNumber = (byte) versionNumber;
+	}
+
+
+
+	// Methods:
+	/**
+	 * Returns the compiled Cipher Suite of the current (Secure) Multicast Chat Session of
+	 * the given Session's Parameters, compiling it, only in the first time.
+	 *
+	 * @param secureMulticastChatSessionParameters the (Secure) Multicast Chat Session's Parameters
+	 *
+	 * @return the compiled Cipher Suite of the current (Secure) Multicast Chat Session
+	 *
+	 * @throws GeneralSecurityException if the combination of algorithms of the Session is not supported
+	 */
+	public static SecureMulticastChatSessionCipherSuite compileCipherSuite(
+								SecureMulticastChatSessionParameters secureMulticastChatSessionParameters)
+										throws GeneralSecurityException {
+
+		if(!secureMulticastChatSessionParameters.hasSessionID()) {
+			throw new GeneralSecurityException("The Session is not configured in the Properties' File!!!");
+		}
+
+		String sessionID = secureMulticastChatSessionParameters.getProperty("ip") + ":" +
+						   secureMulticastChatSessionParameters.getProperty("port");
+
+		SecureMulticastChatSessionCipherSuite cipherSuite = cipherSuitesMap.get(sessionID);
+
+		if(cipherSuite == null) {
+			cipherSuite = new SecureMulticastChatSessionCipherSuite(secureMulticastChatSessionParameters);
+
+			SecureMulticastChatSessionCipherSuite previousCipherSuite = cipherSuitesMap.putIfAbsent(sessionID, cipherSuite);
+
+			if(previousCipherSuite != null) {
+				cipherSuite = previousCipherSuite;
+			}
+			else {
+				// The Session Tag is only registered by the Cipher Suite which was effectively kept for the Session
+				try {
+					SecureMulticastChatSessionTags.register(cipherSuite);
+				}
+				catch (GeneralSecurityException generalSecurityException) {
+					cipherSuitesMap.remove(sessionID, cipherSuite);
+
+					throw generalSecurityException;
+				}
+			}
+		}
+
+		return cipherSuite;
+	}
+
+	/**
+	 * Returns the ID of the Session (i.e., <ip>:<port>).
+	 *
+	 * @return the ID of the Session (i.e., <ip>:<port>)
+	 */
+	public String getSessionID() {
+		return this.sessionID;
+	}
+
+	/**
+	 * Returns the Session Tag of the Session (i.e., the compact numeric tag carried by the Secure Messages, instead of the SID).
+	 *
+	 * @return the Session Tag of the Session
+	 */
+	public int getSessionTag() {
+		return this.sessionTag;
+	}
+
+	/**
+	 * Returns the IP Address of the (Secure) Multicast Group of the Session.
+	 *
+	 * @return the IP Address of the (Secure) Multicast Group of the Session
+	 */
+	public String getIPAddress() {
+		return this.ipAddress;
+	}
+
+	/**
+	 * Returns the Port of the Session.
+	 *
+	 * @return the Port of the Session
+	 */
+	public int getPort() {
+		return this.port;
+	}
+
+	/**
+	 * Returns the Name of the Session (i.e., SID).
+	 *
+	 * @return the Name of the Session (i.e., SID)
+	 */
+	public String getSessionName() {
+		return this.sessionName;
+	}
+
+	/**
+	 * Returns the Symmetric Encryption Algorithm (i.e., SEA).
+	 *
+	 * @return the Symmetric Encryption Algorithm (i.e., SEA)
+	 */
+	public String getSymmetricEncryptionAlgorithm() {
+		return this.symmetricEncryptionAlgorithm;
+	}
+
+	/**
+	 * Returns the size of the Symmetric Encryption's Secret Key, in bits (i.e., SEAKS).
+	 *
+	 * @return the size of the Symmetric Encryption's Secret Key, in bits (i.e., SEAKS)
+	 */
+	public int getSymmetricEncryptionKeySize() {
+		return this.symmetricEncryptionKeySize;
+	}
+
+	/**
+	 * Returns the Symmetric Encryption's Mode (i.e., MODE).
+	 *
+	 * @return the Symmetric Encryption's Mode (i.e., MODE)
+	 */
+	public String getSymmetricEncryptionMode() {
+		return this.symmetricEncryptionMode;
+	}
+
+	/**
+	 * Returns the Padding Method (i.e., PADDING).
+	 *
+	 * @return the Padding Method (i.e., PADDING)
+	 */
+	public String getPaddingMethod() {
+		return this.paddingMethod;
+	}
+
+	/**
+	 * Returns the Cryptographic Hash Function of the Integrity Control (i.e., INTHASH).
+	 *
+	 * @return the Cryptographic Hash Function of the Integrity Control (i.e., INTHASH)
+	 */
+	public String getIntegrityControlHashFunctionName() {
+		return this.integrityControlHashFunction;
+	}
+
+	/**
+	 * Returns the length of the Integrity Control, in bytes.
+	 *
+	 * @return the length of the Integrity Control, in bytes
+	 */
+	public int getIntegrityControlLength() {
+		return this.integrityControlLength;
+	}
+
+	/**
+	 * Returns the MAC's Algorithm of the Fast Secure Message's Check (i.e., MAC).
+	 *
+	 * @return the MAC's Algorithm of the Fast Secure Message's Check (i.e., MAC)
+	 */
+	public String getMessageAuthenticationCode() {
+		return this.messageAuthenticationCode;
+	}
+
+	/**
+	 * Returns the size of the MAC's Secret Key, in bits (i.e., MACKS).
+	 *
+	 * @return the size of the MAC's Secret Key, in bits (i.e., MACKS)
+	 */
+	public int getMessageAuthenticationCodeKeySize() {
+		return this.messageAuthenticationCodeKeySize;
+	}
+
+	/**
+	 * Returns true if the Symmetric Encryption's Mode is a Mode of Authenticated Encryption (i.e., AEAD),
+	 * and false, otherwise.
+	 *
+	 * @return true if the Symmetric Encryption's Mode is a Mode of Authenticated Encryption (i.e., AEAD),
+	 *         and false, otherwise
+	 */
+	public boolean isAuthenticatedEncryption() {
+		return this.authenticatedEncryption;
+	}
+
+	/**
+	 * Returns the length of the tag of the Fast Secure Message's Check (i.e., the length of the MAC), in bytes,
+	 * or the length of the authentication tag of the Cipher, in the Modes of Authenticated Encryption.
+	 *
+	 * @return the length of the tag of the Fast Secure Message's Check (i.e., the length of the MAC), in bytes,
+	 *         or the length of the authentication tag of the Cipher, in the Modes of Authenticated Encryption
+	 */
+	public int getTagLength() {
+		return this.tagLength;
+	}
+
+	/**
+	 * Returns the size of the block of the Symmetric Encryption Algorithm, in bytes.
+	 *
+	 * @return the size of the block of the Symmetric Encryption Algorithm, in bytes
+	 */
+	public int getBlockSize() {
+		return this.blockSize;
+	}
+
+	/**
+	 * Returns true if the Symmetric Encryption's Mode requires an Initialization Vector.
+	 *
+	 * @return true if the Symmetric Encryption's Mode requires an Initialization Vector
+	 */
+	public boolean requiresIV() {
+		return this.requiresIV;
+	}
+
+	/**
+	 * Returns the length of the Initialization Vector, in bytes (0, if it's not required).
+	 *
+	 * @return the length of the Initialization Vector, in bytes (0, if it's not required)
+	 */
+	public int getIVLength() {
+		return this.ivLength;
+	}
+
+	/**
+	 * Returns the Initialization Vectors' and Random Nonces' Generator of the Session.
+	 *
+	 * @return the Initialization Vectors' and Random Nonces' Generator of the Session
+	 */
+	public SecureMulticastChatSessionIVGenerator getIVGenerator() {
+		return this.ivGenerator;
+	}
+
+	/**
+	 * Returns the background Keystream Generator of the Session
+	 * (null, if it's not enabled in SMCP.conf or the Symmetric Encryption's Mode is not CTR or OFB).
+	 *
+	 * @return the background Keystream Generator of the Session
+	 *         (null, if it's not enabled in SMCP.conf or the Symmetric Encryption's Mode is not CTR or OFB)
+	 */
+	public SecureMulticastChatSessionKeystreamGenerator getKeystreamGenerator() {
+		return this.keystreamGenerator;
+	}
+
+	/**
+	 * Returns the Secret Keys of the Session.
+	 *
+	 * @return the Secret Keys of the Session
+	 */
+	public SecureMulticastChatSessionKeys getSessionKeys() {
+		return this.sessionKeys;
+	}
+
+	/**
+	 * Returns the Cipher Contexts of the Session.
+	 *
+	 * @return the Cipher Contexts of the Session
+	 */
+	public SecureMulticastChatSessionCipherContexts getCipherContexts() {
+		return this.cipherContexts;
+	}
+
+	/**
+	 * Returns the Cryptographic Provider selected for the Symmetric Encryption's suite of the Session,
+	 * with the throughput measured for each Cryptographic Provider, for diagnostics.
+	 *
+	 * @return the Cryptographic Provider selected for the Symmetric Encryption's suite of the Session
+	 */
+	public SecureMulticastChatSessionCipherProviderSelection getCipherProviderSelection() {
+		return this.cipherProviderSelection;
+	}
+
+	/**
+	 * Returns the MAC Engine of the Session (null, in the Modes of Authenticated Encryption).
+	 *
+	 * @return the MAC Engine of the Session (null, in the Modes of Authenticated Encryption)
+	 */
+	public SecureMulticastChatSessionMacEngine getMacEngine() {
+		return this.macEngine;
+	}
+
+	/**
+	 * Returns the Secure Message's Attributes of the Session.
+	 *
+	 * @return the Secure Message's Attributes of the Session
+	 */
+	public SecureMulticastChatSessionAttributes getSessionAttributes() {
+		return this.sessionAttributes;
+	}
+
+	/**
+	 * Returns the Cryptographic Hash Function of the Integrity Control, of the current Thread.
+	 *
+	 * NOTE:
+	 * - The Cryptographic Hash Function is reset to its initial state after each digest;
+	 *
+	 * @return the Cryptographic Hash Function of the Integrity Control, of the current Thread
+	 */
+	public MessageDigest getIntegrityControlHashFunction() {
+		return this.threadIntegrityControlHashFunction.get();
+	}
+
+	/**
+	 * Returns the Bounds Validator of the Secure Messages received in the Session,
+	 * with the counters of the Secure Messages rejected by their sizes.
+	 *
+	 * @return the Bounds Validator of the Secure Messages received in the Session
+	 */
+	public SecureMulticastChatSessionBoundsValidator getBoundsValidator() {
+		return this.boundsValidator;
+	}
+
+	/**
+	 * Returns the Rejections of the Secure Messages received in the Session,
+	 * with the counters of the Secure Messages rejected by each reason.
+	 *
+	 * @return the Rejections of the Secure Messages received in the Session
+	 */
+	public SecureMulticastChatSessionRejections getRejections() {
+		return this.rejections;
+	}
+
+	/**
+	 * Returns the size of the Anti-Replay Window of each Peer of the Session.
+	 *
+	 * @return the size of the Anti-Replay Window of each Peer of the Session
+	 */
+	public int getAntiReplayWindowSize() {
+		return this.antiReplayWindowSize;
+	}
+
+	/**
+	 * Returns the hard cap of the memory footprint of the state against replaying of each Secure Multicast Socket
+	 * of the Session (in bytes).
+	 *
+	 * @return the hard cap of the memory footprint of the state against replaying of each Secure Multicast Socket (in bytes)
+	 */
+	public int getReplayStateMaxMemoryFootprint() {
+		return this.replayStateMaxMemoryFootprint;
+	}
+
+	/**
+	 * Returns the rate of the Secure Messages received in the Session (i.e., per second), for which the table of
+	 * the Random Nonces of each Secure Multicast Socket of the Session is sized.
+	 *
+	 * @return the rate of the Secure Messages received in the Session (i.e., per second)
+	 */
+	public int getRandomNoncesRate() {
+		return this.randomNoncesRate;
+	}
+
+	/**
+	 * Returns the Version Number of the format of the Final Secure Messages sent in the Session.
+	 *
+	 * @return the Version Number of the format of the Final Secure Messages sent in the Session
+	 */
+	public byte getVersionNumber() {
+		return this.versionNumber;
+	}
+
+	/**
+	 * Returns true if the given Symmetric Encryption's Mode is a Mode of Authenticated Encryption (i.e., AEAD),
+	 * and false, otherwise.
+	 *
+	 * @param symmetricEncryptionMode the Symmetric Encryption's Mode (i.e., MODE)
+	 *
+	 * @return true if the given Symmetric Encryption's Mode is a Mode of Authenticated Encryption (i.e., AEAD),
+	 *         and false, otherwise
+	 */
+	static boolean isAuthenticatedEncryptionMode(String symmetricEncryptionMode) {
+		for(String authenticatedEncryptionMode : AUTHENTICATED_ENCRYPTION_MODES) {
+			if(authenticatedEncryptionMode.equalsIgnoreCase(symmetricEncryptionMode)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Checks if the Symmetric Encryption's suite (i.e., SEA/MODE/PADDING and Secret Key) of the Session
+	 * can cipher and decipher Secure Message's Payloads of any size, ciphering and deciphering
+	 * a probe which is not aligned with the size of the block.
+	 *
+	 * NOTE:
+	 * - The probe is ciphered with a fresh Initialization Vector of the Session's Generator, since
+	 *   some Modes of Authenticated Encryption (i.e., GCM) refuse to reuse a nonce with the same Secret Key;
+	 *
+	 * @return the expansion of the Cipher Text over the probe, in bytes
+	 *         (i.e., the length of the authentication tag, in the Modes of Authenticated Encryption)
+	 *
+	 * @throws GeneralSecurityException if the Symmetric Encryption's suite of the Session is not supported
+	 */
+	private int checkSymmetricEncryption() throws GeneralSecurityException {
+		byte[] probe = new byte[this.blockSize + 1];
+		byte[] IVBytes = this.ivGenerator.nextIV();
+
+		try {
+			Cipher cipher = this.cipherContexts.getEncryptionCipher(IVBytes);
+			byte[] probeCiphered = cipher.doFinal(probe);
+
+			Cipher decipher = this.cipherContexts.getDecryptionCipher(IVBytes);
+
+			if(!Arrays.equals(probe, decipher.doFinal(probeCiphered))) {
+				throw new GeneralSecurityException("The probe deciphered is not equal to the original one!!!");
+			}
+
+			return probeCiphered.length - probe.length;
+		}
+		catch (GeneralSecurityException generalSecurityException) {
+			throw new GeneralSecurityException(String.format("The Symmetric Encryption's suite %s/%s/%s of the Session %s " +
+															 "is not supported: %s", this.symmetricEncryptionAlgorithm,
+															 this.symmetricEncryptionMode, this.paddingMethod,
+															 this.sessionID, generalSecurityException.getMessage()),
+											   generalSecurityException);
+		}
+	}
+
+	/**
+	 * Returns a new Cryptographic Hash Function of the Integrity Control.
+	 *
+	 * @return a new Cryptographic Hash Function of the Integrity Control
+	 */
+	private MessageDigest newIntegrityControlHashFunction() {
+		try {
+			return MessageDigest.getInstance(this.integrityControlHashFunction);
+		}
+		catch (NoSuchAlgorithmException noSuchAlgorithmException) {
+			// Not possible, since the Cryptographic Hash Function was already resolved during the compilation
+			throw new IllegalStateException(noSuchAlgorithmException);
+		}
+	}
+
+	/**
+	 * Returns the value of a required property of the Session's Parameters.
+	 *
+	 * @param secureMulticastChatSessionParameters the (Secure) Multicast Chat Session's Parameters
+	 * @param key the key of the property
+	 *
+	 * @return the value of the property
+	 *
+	 * @throws GeneralSecurityException if the property is not defined
+	 */
+	private static String getRequiredProperty(SecureMulticastChatSessionParameters secureMulticastChatSessionParameters,
+											  String key) throws GeneralSecurityException {
+
+		String value = secureMulticastChatSessionParameters.getProperty(key);
+
+		if(value == null || value.isEmpty()) {
+			throw new GeneralSecurityException(String.format("The property %s of the Session is not defined!!!",
+															 key.toUpperCase()));
+		}
+
+		return value;
+	}
+
+	/**
+	 * Returns the value of a required integer property of the Session's Parameters.
+	 *
+	 * @param secureMulticastChatSessionParameters the (Secure) Multicast Chat Session's Parameters
+	 * @param key the key of the property
+	 *
+	 * @return the value of the property
+	 *
+	 * @throws GeneralSecurityException if the property is not defined or it's not an integer
+	 */
+	private static int getRequiredIntegerProperty(SecureMulticastChatSessionParameters secureMulticastChatSessionParameters,
+												  String key) throws GeneralSecurityException {
+
+		String value = getRequiredProperty(secureMulticastChatSessionParameters, key);
+
+		try {
+			return Integer.parseInt(value.trim());
+		}
+		catch (NumberFormatException numberFormatException) {
+			throw new GeneralSecurityException(String.format("The property %s of the Session is not an integer: %s",
+															 key.toUpperCase(), value), numberFormatException);
+		}
+	}
+
+	/**
+	 * Returns the value of an optional integer property of the Session's Parameters.
+	 *
+	 * @param secureMulticastChatSessionParameters the (Secure) Multicast Chat Session's Parameters
+	 * @param key the key of the property
+	 * @param defaultValue the value of the property, if it's not defined
+	 *
+	 * @return the value of the property (or the default value, if it's not defined)
+	 *
+	 * @throws GeneralSecurityException if the property is not an integer
+	 */
+	private static int getOptionalIntegerProperty(SecureMulticastChatSessionParameters secureMulticastChatSessionParameters,
+												  String key, int defaultValue) throws GeneralSecurityException {
+
+		String value = secureMulticastChatSessionParameters.getProperty(key);
+
+		return ( value == null || value.isEmpty() ) ? defaultValue :
+					getRequiredIntegerProperty(secureMulticastChatSessionParameters, key);
+	}
+
+}
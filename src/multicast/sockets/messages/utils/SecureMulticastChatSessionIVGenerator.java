@@ -0,0 +1,416 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ *
+ * Class for the Initialization Vectors' and Random Nonces' Generator of
+ * a (Secure) Multicast Chat Session (i.e., of the sender of the Secure Messages).
+ *
+ * The Generator has two modes:
+ * - COUNTER: for the Symmetric Encryption's Modes which only require unique Initialization Vectors
+ *            (i.e., CTR, with blocks of 128 bits, and the Modes of Authenticated Encryption, like GCM),
+ *            the Initialization Vector is built as [ fixed field || invocation counter || block counter ],
+ *            where the fixed field is random, drawn only once per sender (and drawn again, if the
+ *            invocation counter wraps), and the invocation counter is incremented for each Secure Message
+ *            (i.e., for the 96 bits nonces of the Modes of Authenticated Encryption, a fixed field of 64 bits
+ *            and an invocation counter of 32 bits);
+ * - BUFFERED_DRBG: for the Symmetric Encryption's Modes which require unpredictable Initialization Vectors
+ *                  (e.g., CBC, CFB and OFB), the Initialization Vectors are carved from a buffer of random bytes
+ *                  of each Thread, which is refilled by a Deterministic Random Bit Generator, seeded only once;
+ *
+ * The Random Nonces are always random (carved from the same buffers), since they are used
+ * to detect replays among all the senders of the Session and counters of several senders would collide.
+ *
+ * NOTE:
+ * - No SecureRandom is created (i.e., seeded) per Secure Message and no global lock is used;
+ * - All the senders (and all their restarts) share the Secret Key of the Session, being only separated
+ *   by their random fixed fields, so the fixed field has, at least, 64 bits (i.e., a collision between two senders,
+ *   reusing a pair of Secret Key and nonce, only becomes likely after 2^32 fixed fields drawn), being the
+ *   BUFFERED_DRBG Mode used, otherwise;
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public final class SecureMulticastChatSessionIVGenerator {
+
+	// Invariants/Constants:
+	/**
+	 * The Modes of the Generator
+	 */
+	public enum Mode {
+		COUNTER, BUFFERED_DRBG
+	}
+
+	/**
+	 * The size of the buffer of random bytes of each Thread, in bytes
+	 */
+	private static final int RANDOM_BYTES_BUFFER_SIZE = 4096;
+
+	/**
+	 * The maximum length of the invocation counter, in bytes
+	 */
+	private static final int INVOCATION_COUNTER_LENGTH = 8;
+
+	/**
+	 * The minimum length of the invocation counter, in bytes, for the COUNTER Mode
+	 */
+	private static final int MIN_INVOCATION_COUNTER_LENGTH = 4;
+
+	/**
+	 * The length of the block counter (i.e., the bytes incremented by the CTR Mode, for each block), in bytes
+	 */
+	private static final int CTR_BLOCK_COUNTER_LENGTH = 4;
+
+	/**
+	 * The minimum length of the random fixed field, in bytes, for the COUNTER Mode
+	 * (i.e., 64 bits, to separate all the senders sharing the Secret Key of the Session)
+	 */
+	private static final int MIN_FIXED_FIELD_LENGTH = 8;
+
+
+	// Global Instance Variables:
+	/**
+	 * The Mode of the Generator
+	 */
+	private final Mode mode;
+
+	/**
+	 * The length of the Initialization Vectors, in bytes
+	 */
+	private final int ivLength;
+
+	/**
+	 * The length of the random fixed field of the Initialization Vectors, in bytes (only for the COUNTER Mode)
+	 */
+	private final int fixedFieldLength;
+
+	/**
+	 * The length of the invocation counter of the Initialization Vectors, in bytes (only for the COUNTER Mode)
+	 */
+	private final int invocationCounterLength;
+
+	/**
+	 * The maximum value of the invocation counter, before the fixed field is drawn again (only for the COUNTER Mode)
+	 */
+	private final long maxInvocationCounter;
+
+	/**
+	 * The current epoch of the COUNTER Mode (i.e., the current fixed field and its invocation counter)
+	 */
+	private final AtomicReference<CounterEpoch> counterEpoch;
+
+	/**
+	 * The buffer of random bytes of each Thread
+	 */
+	private final ThreadLocal<RandomBytesBuffer> threadRandomBytesBuffer;
+
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - The Constructor of the Generator, for the given Symmetric Encryption's Mode and
+	 *   length of the Initialization Vectors.
+	 *
+	 * @param symmetricEncryptionMode the Symmetric Encryption's Mode (i.e., MODE)
+	 * @param ivLength the length of the Initialization Vectors, in bytes (0, if they are not required)
+	 */
+	SecureMulticastChatSessionIVGenerator(String symmetricEncryptionMode, int ivLength) {
+		this.ivLength = ivLength;
+		this.threadRandomBytesBuffer = ThreadLocal.withInitial(RandomBytesBuffer::new);
+
+		int blockCounterLength = -1;
+
+		if(symmetricEncryptionMode.equalsIgnoreCase("CTR")) {
+			blockCounterLength = CTR_BLOCK_COUNTER_LENGTH;
+		}
+
+		// The Modes of Authenticated Encryption only require unique nonces
+		if(SecureMulticastChatSessionCipherSuite.isAuthenticatedEncryptionMode(symmetricEncryptionMode)) {
+			blockCounterLength = 0;
+		}
+
+		// The invocation counter of the CTR Mode only uses the bytes not reserved for the block counter,
+		// and it never takes the bytes of the minimum random fixed field
+		int invocationCounterLength = Math.min(( blockCounterLength == CTR_BLOCK_COUNTER_LENGTH ) ?
+												   ( INVOCATION_COUNTER_LENGTH - CTR_BLOCK_COUNTER_LENGTH ) :
+												   INVOCATION_COUNTER_LENGTH,
+											   ivLength - Math.max(blockCounterLength, 0) - MIN_FIXED_FIELD_LENGTH);
+
+		int fixedFieldLength = ivLength - invocationCounterLength - Math.max(blockCounterLength, 0);
+
+		// The COUNTER Mode is only used if the fixed field is large enough to separate the several senders,
+		// and the invocation counter does not wrap too often
+		if(blockCounterLength >= 0 && invocationCounterLength >= MIN_INVOCATION_COUNTER_LENGTH &&
+		   fixedFieldLength >= MIN_FIXED_FIELD_LENGTH) {
+			this.mode = Mode.COUNTER;
+			this.fixedFieldLength = fixedFieldLength;
+			this.invocationCounterLength = invocationCounterLength;
+			this.maxInvocationCounter = ( invocationCounterLength >= 8 ) ? Long.MAX_VALUE :
+											( ( 1L << ( invocationCounterLength * 8 ) ) - 1 );
+			this.counterEpoch = new AtomicReference<>(new CounterEpoch(nextRandomFixedField()));
+		}
+		else {
+			this.mode = Mode.BUFFERED_DRBG;
+			this.fixedFieldLength = 0;
+			this.invocationCounterLength = 0;
+			this.maxInvocationCounter = 0;
+			this.counterEpoch = null;
+		}
+	}
+
+
+
+	// Methods:
+	/**
+	 * Returns the Mode of the Generator.
+	 *
+	 * @return the Mode of the Generator
+	 */
+	public Mode getMode() {
+		return this.mode;
+	}
+
+	/**
+	 * Returns the length of the Initialization Vectors, in bytes.
+	 *
+	 * @return the length of the Initialization Vectors, in bytes
+	 */
+	public int getIVLength() {
+		return this.ivLength;
+	}
+
+	/**
+	 * Returns a new Initialization Vector.
+	 *
+	 * @return a new Initialization Vector
+	 */
+	public byte[] nextIV() {
+		byte[] IVBytes = new byte[this.ivLength];
+
+		nextIV(IVBytes, 0);
+
+		return IVBytes;
+	}
+
+	/**
+	 * Writes a new Initialization Vector in the given Byte Array, from the given offset.
+	 *
+	 * @param destination the Byte Array, where the Initialization Vector will be written
+	 * @param offset the offset of the Initialization Vector, in the Byte Array
+	 */
+	public void nextIV(byte[] destination, int offset) {
+		if(this.ivLength == 0) {
+			return;
+		}
+
+		if(this.mode == Mode.BUFFERED_DRBG) {
+			this.threadRandomBytesBuffer.get().nextBytes(destination, offset, this.ivLength);
+			return;
+		}
+
+		for(;;) {
+			CounterEpoch currentCounterEpoch = this.counterEpoch.get();
+			long invocationCounter = currentCounterEpoch.invocationCounter.getAndIncrement();
+
+			if(invocationCounter >= 0 && invocationCounter <= this.maxInvocationCounter) {
+
+				// [ fixed field || invocation counter (big-endian) || block counter (zeros) ]
+				System.arraycopy(currentCounterEpoch.fixedField, 0, destination, offset, this.fixedFieldLength);
+
+				int invocationCounterOffset = offset + this.fixedFieldLength;
+
+				for(int i = this.invocationCounterLength - 1; i >= 0; i--) {
+					destination[invocationCounterOffset + i] = (byte) invocationCounter;
+					invocationCounter >>>= 8;
+				}
+
+				Arrays.fill(destination, invocationCounterOffset + this.invocationCounterLength,
+							offset + this.ivLength, (byte) 0);
+
+				return;
+			}
+
+			// The invocation counter wrapped, so a new fixed field is drawn (only one Thread replaces the epoch)
+			this.counterEpoch.compareAndSet(currentCounterEpoch, new CounterEpoch(nextRandomFixedField()));
+		}
+	}
+
+	/**
+	 * Returns a new Random Nonce.
+	 *
+	 * @return a new Random Nonce
+	 */
+	public int nextRandomNonce() {
+		return this.threadRandomBytesBuffer.get().nextInt();
+	}
+
+	/**
+	 * Returns a new random fixed field, for the COUNTER Mode.
+	 *
+	 * @return a new random fixed field, for the COUNTER Mode
+	 */
+	private byte[] nextRandomFixedField() {
+		byte[] fixedField = new byte[this.fixedFieldLength];
+
+		this.threadRandomBytesBuffer.get().nextBytes(fixedField, 0, fixedField.length);
+
+		return fixedField;
+	}
+
+	/**
+	 * Returns a new Deterministic Random Bit Generator, seeded only once.
+	 *
+	 * @return a new Deterministic Random Bit Generator
+	 */
+	private static SecureRandom newDeterministicRandomBitGenerator() {
+		try {
+			return SecureRandom.getInstance("DRBG");
+		}
+		catch (NoSuchAlgorithmException noSuchAlgorithmException) {
+			// The DRBG is only available since Java 9
+			return new SecureRandom();
+		}
+	}
+
+
+
+	/**
+	 * Class for an epoch of the COUNTER Mode (i.e., a fixed field and its invocation counter).
+	 */
+	private static final class CounterEpoch {
+
+		/**
+		 * The random fixed field of the epoch
+		 */
+		private final byte[] fixedField;
+
+		/**
+		 * The invocation counter of the epoch
+		 */
+		private final AtomicLong invocationCounter;
+
+		/**
+		 * Constructor #1:
+		 * - The Constructor of an epoch of the COUNTER Mode.
+		 *
+		 * @param fixedField the random fixed field of the epoch
+		 */
+		private CounterEpoch(byte[] fixedField) {
+			this.fixedField = fixedField;
+			this.invocationCounter = new AtomicLong();
+		}
+	}
+
+	/**
+	 * Class for the buffer of random bytes of a Thread, refilled by a Deterministic Random Bit Generator.
+	 */
+	private static final class RandomBytesBuffer {
+
+		/**
+		 * The Deterministic Random Bit Generator of the Thread, seeded only once
+		 */
+		private final SecureRandom deterministicRandomBitGenerator;
+
+		/**
+		 * The buffer of random bytes
+		 */
+		private final byte[] randomBytes;
+
+		/**
+		 * The position of the next random byte not used, in the buffer
+		 */
+		private int position;
+
+		/**
+		 * Constructor #1:
+		 * - The Constructor of the buffer of random bytes of a Thread.
+		 */
+		private RandomBytesBuffer() {
+			this.deterministicRandomBitGenerator = newDeterministicRandomBitGenerator();
+			this.randomBytes = new byte[RANDOM_BYTES_BUFFER_SIZE];
+			this.position = RANDOM_BYTES_BUFFER_SIZE;
+		}
+
+		/**
+		 * Writes the given number of random bytes in the given Byte Array, from the given offset.
+		 *
+		 * @param destination the Byte Array, where the random bytes will be written
+		 * @param offset the offset of the random bytes, in the Byte Array
+		 * @param length the number of random bytes
+		 */
+		private void nextBytes(byte[] destination, int offset, int length) {
+			while(length > 0) {
+				if(this.position == this.randomBytes.length) {
+					refill();
+				}
+
+				int numBytes = Math.min(length, this.randomBytes.length - this.position);
+
+				System.arraycopy(this.randomBytes, this.position, destination, offset, numBytes);
+
+				// The random bytes are never used twice
+				Arrays.fill(this.randomBytes, this.position, this.position + numBytes, (byte) 0);
+
+				this.position += numBytes;
+				offset += numBytes;
+				length -= numBytes;
+			}
+		}
+
+		/**
+		 * Returns a random integer.
+		 *
+		 * @return a random integer
+		 */
+		private int nextInt() {
+			if(this.randomBytes.length - this.position < 4) {
+				refill();
+			}
+
+			int randomInteger = ( ( this.randomBytes[this.position] & 0xFF ) << 24 ) |
+								( ( this.randomBytes[this.position + 1] & 0xFF ) << 16 ) |
+								( ( this.randomBytes[this.position + 2] & 0xFF ) << 8 ) |
+								( this.randomBytes[this.position + 3] & 0xFF );
+
+			// The random bytes are never used twice
+			Arrays.fill(this.randomBytes, this.position, this.position + 4, (byte) 0);
+			this.position += 4;
+
+			return randomInteger;
+		}
+
+		/**
+		 * Refills the buffer of random bytes, with the Deterministic Random Bit Generator of the Thread.
+		 */
+		private void refill() {
+			this.deterministicRandomBitGenerator.nextBytes(this.randomBytes);
+			this.position = 0;
+		}
+	}
+
+}
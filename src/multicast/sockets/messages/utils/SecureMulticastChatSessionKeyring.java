@@ -0,0 +1,165 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.security.Key;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.bouncycastle.util.encoders.Hex;
+
+import multicast.common.CommonUtils;
+
+/**
+ *
+ * Class for the Keyring of the (Secure) Multicast Chat Sessions.
+ *
+ * The JCEKS Keystore is opened only once per process and the Secret Keys of
+ * each (Secure) Multicast Chat Session (i.e., <ip>:<port>) are unwrapped only once,
+ * being kept as immutable handles, which are shared by all the Secure Messages
+ * sent or received in that Session.
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public final class SecureMulticastChatSessionKeyring {
+
+	// Invariants/Constants:
+	/**
+	 * Filename of Keystore file
+	 */
+	public static final String KEYSTORE_FILENAME = "./res/SMCPKeystore.jecks";
+
+	/**
+	 * Password of Keystore file
+	 */
+	private static final String KEYSTORE_PASSWORD = "CSNS1920";
+
+	/**
+	 * The suffix of the alias of the MAC's Secret Key of a Session, in the Keystore
+	 */
+	private static final String MAC_KEY_ALIAS_SUFFIX = ":mac";
+
+
+	// Global Instance Variables:
+	/**
+	 * The Keystore interface, opened only once (lazily) for all the Sessions
+	 */
+	private static KeyStoreInterface keystoreInterface;
+
+	/**
+	 * The Map of the Secret Keys already loaded, for each Session (i.e., <ip>:<port>)
+	 */
+	private static final ConcurrentMap<String, SecureMulticastChatSessionKeys> sessionKeysMap =
+																	new ConcurrentHashMap<>();
+
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - Not instantiable, since this Keyring is shared by the whole process.
+	 */
+	private SecureMulticastChatSessionKeyring() {
+		// Empty constructor body
+	}
+
+
+
+	// Methods:
+	/**
+	 * Returns the Secret Keys of the current (Secure) Multicast Chat Session of
+	 * the given Session's Parameters, loading them from the Keystore, only in the first time.
+	 *
+	 * @param secureMulticastChatSessionParameters the (Secure) Multicast Chat Session's Parameters
+	 *
+	 * @return the Secret Keys of the current (Secure) Multicast Chat Session
+	 *
+	 * @throws IllegalArgumentException if the Keystore could not be opened or the Secret Keys are not valid
+	 */
+	public static SecureMulticastChatSessionKeys getSessionKeys(
+								SecureMulticastChatSessionParameters secureMulticastChatSessionParameters) {
+
+		String sessionID = secureMulticastChatSessionParameters.getProperty("ip") + ":" +
+						   secureMulticastChatSessionParameters.getProperty("port");
+
+		SecureMulticastChatSessionKeys sessionKeys = sessionKeysMap.get(sessionID);
+
+		if(sessionKeys == null) {
+			sessionKeys = sessionKeysMap.computeIfAbsent(sessionID, id ->
+							loadSessionKeys(id, secureMulticastChatSessionParameters.getProperty("sea")));
+		}
+
+		return sessionKeys;
+	}
+
+	/**
+	 * Loads the Secret Keys of a (Secure) Multicast Chat Session, from the Keystore.
+	 *
+	 * NOTE:
+	 * - The Symmetric Encryption's Secret Key is kept in the Keystore as an hexadecimal String,
+	 *   and the MAC's Secret Key is kept as raw bytes, both of them, encoded in Base64;
+	 *
+	 * @param sessionID the ID of the (Secure) Multicast Chat Session (i.e., <ip>:<port>)
+	 * @param symmetricEncryptionAlgorithm the Symmetric Encryption Algorithm of the Session
+	 *
+	 * @return the Secret Keys of the (Secure) Multicast Chat Session
+	 */
+	private static SecureMulticastChatSessionKeys loadSessionKeys(String sessionID, String symmetricEncryptionAlgorithm) {
+		KeyStoreInterface keystoreInterface = getKeystoreInterface();
+
+		SecretKey symmetricEncryptionKey =
+				new SecretKeySpec(Hex.decodeStrict(keystoreInterface.load(sessionID)), symmetricEncryptionAlgorithm);
+
+		Key messageAuthenticationCodeKey =
+				CommonUtils.convertStringToKey(keystoreInterface.load(sessionID + MAC_KEY_ALIAS_SUFFIX));
+
+		return new SecureMulticastChatSessionKeys(sessionID, symmetricEncryptionKey, messageAuthenticationCodeKey);
+	}
+
+	/**
+	 * Returns the Keystore interface, opening the Keystore, only in the first time it's opened successfully.
+	 *
+	 * NOTE:
+	 * - A Keystore interface which could not open the Keystore is never kept,
+	 *   so the Keystore is opened again by the next Session compiled;
+	 *
+	 * @return the Keystore interface
+	 *
+	 * @throws IllegalArgumentException if the Keystore could not be opened
+	 */
+	private static synchronized KeyStoreInterface getKeystoreInterface() {
+		if(keystoreInterface == null) {
+			KeyStoreInterface newKeystoreInterface = new KeyStoreInterface(KEYSTORE_FILENAME, KEYSTORE_PASSWORD);
+
+			if(!newKeystoreInterface.isOpen()) {
+				throw new IllegalArgumentException(String.format("The Keystore %s could not be opened!!!", KEYSTORE_FILENAME));
+			}
+
+			keystoreInterface = newKeystoreInterface;
+		}
+
+		return keystoreInterface;
+	}
+
+}
@@ -0,0 +1,105 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.security.Key;
+
+import javax.crypto.SecretKey;
+
+/**
+ *
+ * Class for the immutable handle of the Secret Keys of a (Secure) Multicast Chat Session,
+ * i.e., the Symmetric Encryption's Secret Key and the MAC's Secret Key.
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public final class SecureMulticastChatSessionKeys {
+
+	// Global Instance Variables:
+	/**
+	 * The ID of the (Secure) Multicast Chat Session (i.e., <ip>:<port>)
+	 */
+	private final String sessionID;
+
+	/**
+	 * The Secret Key used in the Symmetric Encryption of the Secure Message's Payload
+	 */
+	private final SecretKey symmetricEncryptionKey;
+
+	/**
+	 * The Secret Key used in the MAC of the Fast Secure Message's Check
+	 */
+	private final Key messageAuthenticationCodeKey;
+
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - The Constructor of the Secret Keys of a (Secure) Multicast Chat Session.
+	 *
+	 * @param sessionID the ID of the (Secure) Multicast Chat Session (i.e., <ip>:<port>)
+	 *
+	 * @param symmetricEncryptionKey the Secret Key used in the Symmetric Encryption
+	 *        of the Secure Message's Payload
+	 *
+	 * @param messageAuthenticationCodeKey the Secret Key used in the MAC
+	 *        of the Fast Secure Message's Check
+	 */
+	SecureMulticastChatSessionKeys(String sessionID, SecretKey symmetricEncryptionKey,
+								   Key messageAuthenticationCodeKey) {
+
+		this.sessionID = sessionID;
+		this.symmetricEncryptionKey = symmetricEncryptionKey;
+		this.messageAuthenticationCodeKey = messageAuthenticationCodeKey;
+	}
+
+
+
+	// Methods:
+	/**
+	 * Returns the ID of the (Secure) Multicast Chat Session (i.e., <ip>:<port>).
+	 *
+	 * @return the ID of the (Secure) Multicast Chat Session (i.e., <ip>:<port>)
+	 */
+	public String getSessionID() {
+		return this.sessionID;
+	}
+
+	/**
+	 * Returns the Secret Key used in the Symmetric Encryption of the Secure Message's Payload.
+	 *
+	 * @return the Secret Key used in the Symmetric Encryption of the Secure Message's Payload
+	 */
+	public SecretKey getSymmetricEncryptionKey() {
+		return this.symmetricEncryptionKey;
+	}
+
+	/**
+	 * Returns the Secret Key used in the MAC of the Fast Secure Message's Check.
+	 *
+	 * @return the Secret Key used in the MAC of the Fast Secure Message's Check
+	 */
+	public Key getMessageAuthenticationCodeKey() {
+		return this.messageAuthenticationCodeKey;
+	}
+
+}
@@ -0,0 +1,471 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import javax.crypto.Cipher;
+
+/**
+ *
+ * Class for the (optional) background Keystream Generator of
+ * a (Secure) Multicast Chat Session (i.e., of the sender of the Secure Messages).
+ *
+ * In the CTR and OFB Modes, the keystream only depends on the Secret Key and on the Initialization Vector,
+ * so it can be produced before the Plain Text is known, being the Symmetric Encryption only a XOR.
+ * A background Thread, with the minimum priority (i.e., using the idle gaps of the CPU), keeps a bounded
+ * pool of keystreams already precomputed, each one tied to its own Initialization Vector, drawn from
+ * the Session's Generator and used only once.
+ *
+ * The pool is refilled on demand: while it's full, the background Thread is blocked on it (i.e., it's never woken up),
+ * being only woken up when a keystream is taken, so an idle Session costs no CPU at all.
+ *
+ * The Cipher Text is equal, byte by byte, to the one of the Session's Cipher, since the Padding Method
+ * (i.e., PKCS5Padding or PKCS7Padding, if any) is applied before the XOR, and this equivalence is
+ * checked when the Generator is created.
+ *
+ * NOTE:
+ * - The CFB Mode is not supported, since its keystream depends on the previous blocks of Cipher Text;
+ * - If the pool is empty or the Plain Text is longer than the keystreams, the Session's Cipher is used;
+ * - The Generator is reference counted by the Secure Multicast Sockets of the Session (since the Cipher Suite is shared
+ *   by all of them), being the background Thread only started while it's acquired, and stopped (and the pool emptied),
+ *   when it's released by the last one;
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public final class SecureMulticastChatSessionKeystreamGenerator implements Runnable {
+
+	// Invariants/Constants:
+	/**
+	 * The Symmetric Encryption's Modes whose keystream can be precomputed
+	 */
+	private static final String[] KEYSTREAM_MODES = { "CTR", "OFB" };
+
+	/**
+	 * The length of each keystream precomputed, in bytes (i.e., enough for a typical Secure Message's Payload)
+	 */
+	private static final int KEYSTREAM_LENGTH = 1024;
+
+
+	// Global Instance Variables:
+	/**
+	 * The ID of the Session (i.e., <ip>:<port>)
+	 */
+	private final String sessionID;
+
+	/**
+	 * The Initialization Vectors' Generator of the Session
+	 */
+	private final SecureMulticastChatSessionIVGenerator ivGenerator;
+
+	/**
+	 * The Cipher Contexts of the keystream (i.e., the Session's transformation, without Padding Method)
+	 */
+	private final SecureMulticastChatSessionCipherContexts keystreamCipherContexts;
+
+	/**
+	 * The size of the block of the Padding Method, in bytes (0, if there is no Padding Method)
+	 */
+	private final int paddingBlockSize;
+
+	/**
+	 * The length of each keystream precomputed, in bytes (i.e., a multiple of the size of the block)
+	 */
+	private final int keystreamLength;
+
+	/**
+	 * The bounded pool of the keystreams precomputed
+	 */
+	private final BlockingQueue<PrecomputedKeystream> precomputedKeystreams;
+
+	/**
+	 * The number of the Secure Multicast Sockets which acquired the Generator, and did not release it yet
+	 */
+	private int numReferences;
+
+	/**
+	 * The background Thread (null, while it's not started, or after the Generator was released by the last Socket)
+	 */
+	private volatile Thread keystreamGeneratorThread;
+
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - The Constructor of the Keystream Generator of a Session.
+	 *
+	 * @param sessionID the ID of the Session (i.e., <ip>:<port>)
+	 * @param keystreamCipherContexts the Cipher Contexts of the keystream (i.e., the Session's transformation, without Padding Method)
+	 * @param ivGenerator the Initialization Vectors' Generator of the Session
+	 * @param paddingBlockSize the size of the block of the Padding Method, in bytes (0, if there is no Padding Method)
+	 * @param blockSize the size of the block of the Symmetric Encryption Algorithm, in bytes
+	 * @param capacity the maximum number of keystreams precomputed
+	 */
+	private SecureMulticastChatSessionKeystreamGenerator(String sessionID,
+														 SecureMulticastChatSessionCipherContexts keystreamCipherContexts,
+														 SecureMulticastChatSessionIVGenerator ivGenerator,
+														 int paddingBlockSize, int blockSize, int capacity) {
+		this.sessionID = sessionID;
+		this.keystreamCipherContexts = keystreamCipherContexts;
+		this.ivGenerator = ivGenerator;
+		this.paddingBlockSize = paddingBlockSize;
+		this.keystreamLength = ( KEYSTREAM_LENGTH / blockSize ) * blockSize;
+		this.precomputedKeystreams = new ArrayBlockingQueue<>(capacity);
+	}
+
+
+
+	// Methods:
+	/**
+	 * Returns a new Keystream Generator for the given Session's suite, if its Mode is supported
+	 * and the Cipher Text of the keystream is equal to the one of the Session's Cipher.
+	 *
+	 * @param sessionID the ID of the Session (i.e., <ip>:<port>)
+	 * @param symmetricEncryptionMode the Symmetric Encryption's Mode (i.e., MODE)
+	 * @param paddingMethod the Padding Method (i.e., PADDING)
+	 * @param cipherContexts the Cipher Contexts of the Session
+	 * @param ivGenerator the Initialization Vectors' Generator of the Session
+	 * @param blockSize the size of the block of the Symmetric Encryption Algorithm, in bytes
+	 * @param capacity the maximum number of keystreams precomputed
+	 *
+	 * @return a new Keystream Generator for the given Session's suite
+	 *         (null, if the keystream of the Session's suite can not be precomputed)
+	 */
+	static SecureMulticastChatSessionKeystreamGenerator newKeystreamGenerator(String sessionID, String symmetricEncryptionMode,
+																			  String paddingMethod,
+																			  SecureMulticastChatSessionCipherContexts cipherContexts,
+																			  SecureMulticastChatSessionIVGenerator ivGenerator,
+																			  int blockSize, int capacity) {
+
+		if(capacity <= 0 || blockSize <= 0 || !isKeystreamMode(symmetricEncryptionMode)) {
+			return null;
+		}
+
+		int paddingBlockSize;
+
+		if(paddingMethod.equalsIgnoreCase("NoPadding")) {
+			paddingBlockSize = 0;
+		}
+		else if(paddingMethod.equalsIgnoreCase("PKCS5Padding") || paddingMethod.equalsIgnoreCase("PKCS7Padding")) {
+			paddingBlockSize = blockSize;
+		}
+		else {
+			return null;
+		}
+
+		String transformation = cipherContexts.getTransformation();
+		String keystreamTransformation = transformation.substring(0, transformation.lastIndexOf('/')) + "/NoPadding";
+
+		SecureMulticastChatSessionCipherContexts keystreamCipherContexts =
+				new SecureMulticastChatSessionCipherContexts(keystreamTransformation, cipherContexts.getProvider(),
+															 cipherContexts.getSecretKey(), true);
+
+		SecureMulticastChatSessionKeystreamGenerator keystreamGenerator =
+				new SecureMulticastChatSessionKeystreamGenerator(sessionID, keystreamCipherContexts, ivGenerator,
+																 paddingBlockSize, blockSize, capacity);
+
+		return keystreamGenerator.isEquivalentToCipher(cipherContexts) ? keystreamGenerator : null;
+	}
+
+	/**
+	 * Returns true if the keystream of the given Symmetric Encryption's Mode can be precomputed, and false, otherwise.
+	 *
+	 * @param symmetricEncryptionMode the Symmetric Encryption's Mode (i.e., MODE)
+	 *
+	 * @return true if the keystream of the given Symmetric Encryption's Mode can be precomputed, and false, otherwise
+	 */
+	static boolean isKeystreamMode(String symmetricEncryptionMode) {
+		for(String keystreamMode : KEYSTREAM_MODES) {
+			if(keystreamMode.equalsIgnoreCase(symmetricEncryptionMode)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the number of keystreams precomputed, currently available in the pool.
+	 *
+	 * @return the number of keystreams precomputed, currently available in the pool
+	 */
+	public int getNumPrecomputedKeystreams() {
+		return this.precomputedKeystreams.size();
+	}
+
+	/**
+	 * Acquires the Generator, by a Secure Multicast Socket of the Session
+	 * (being the background Thread only started when the first Secure Message is sent).
+	 */
+	public synchronized void acquire() {
+		this.numReferences++;
+	}
+
+	/**
+	 * Releases the Generator, acquired before by a Secure Multicast Socket of the Session, stopping the background Thread
+	 * and emptying the pool, if it was released by the last one (being it started again, if it's acquired again, afterwards).
+	 *
+	 * NOTE:
+	 * - It must be called only once, for each time the Generator was acquired;
+	 */
+	public void release() {
+		Thread keystreamGeneratorThread;
+
+		synchronized(this) {
+			if(this.numReferences == 0) {
+				throw new IllegalStateException("The Keystream Generator was not acquired!!!");
+			}
+
+			if(--this.numReferences > 0) {
+				return;
+			}
+
+			keystreamGeneratorThread = this.keystreamGeneratorThread;
+			this.keystreamGeneratorThread = null;
+		}
+
+		if(keystreamGeneratorThread != null) {
+			keystreamGeneratorThread.interrupt();
+		}
+
+		this.precomputedKeystreams.clear();
+	}
+
+	/**
+	 * Starts the background Thread, if the Generator is acquired and the background Thread is not started yet.
+	 */
+	private synchronized void start() {
+		if(this.numReferences > 0 && this.keystreamGeneratorThread == null) {
+			Thread keystreamGeneratorThread = new Thread(this, "SMCP-Keystream-" + this.sessionID);
+
+			keystreamGeneratorThread.setDaemon(true);
+			keystreamGeneratorThread.setPriority(Thread.MIN_PRIORITY);
+
+			this.keystreamGeneratorThread = keystreamGeneratorThread;
+			keystreamGeneratorThread.start();
+		}
+	}
+
+	/**
+	 * Returns a keystream precomputed, long enough to cipher a Plain Text of the given size,
+	 * starting the background Thread, only in the first time (i.e., when the Peer sends its first Secure Message),
+	 * while the Generator is acquired.
+	 *
+	 * @param sizeOfPlainText the size of the Plain Text, in bytes
+	 *
+	 * @return a keystream precomputed (null, if the pool is empty or the keystreams are too short,
+	 *         being the Session's Cipher used, instead)
+	 */
+	public PrecomputedKeystream takePrecomputedKeystream(int sizeOfPlainText) {
+		if(this.keystreamGeneratorThread == null) {
+			this.start();
+		}
+
+		if(getSizeOfCipherText(sizeOfPlainText) > this.keystreamLength) {
+			return null;
+		}
+
+		return this.precomputedKeystreams.poll();
+	}
+
+	/**
+	 * Runnable Thread Process of the Keystream Generator,
+	 * which keeps the pool of the keystreams precomputed full, being blocked while it's full
+	 * (i.e., it's only woken up when a keystream is taken), until the Generator is released by the last Socket.
+	 */
+	@Override
+	public void run() {
+		try {
+			while(!Thread.currentThread().isInterrupted()) {
+				this.precomputedKeystreams.put(precomputeKeystream(this.ivGenerator.nextIV()));
+			}
+		}
+		catch (InterruptedException interruptedException) {
+			// It is expected behaviour, when the Generator is released by the last Secure Multicast Socket of the Session
+		}
+		catch (GeneralSecurityException generalSecurityException) {
+			System.err.println("Error occurred during the precomputation of the keystreams:");
+			System.err.println("- The Session's Cipher will be used for all the next Secure Messages!!!");
+			generalSecurityException.printStackTrace();
+		}
+	}
+
+	/**
+	 * Returns the keystream for the given Initialization Vector
+	 * (i.e., a block of zeros ciphered with the transformation without Padding Method).
+	 *
+	 * @param IVBytes the Initialization Vector
+	 *
+	 * @return the keystream for the given Initialization Vector
+	 *
+	 * @throws GeneralSecurityException if an error occurred during the Symmetric Encryption
+	 */
+	private PrecomputedKeystream precomputeKeystream(byte[] IVBytes) throws GeneralSecurityException {
+		Cipher keystreamCipher = this.keystreamCipherContexts.getEncryptionCipher(IVBytes);
+
+		return new PrecomputedKeystream(IVBytes, keystreamCipher.doFinal(new byte[this.keystreamLength]));
+	}
+
+	/**
+	 * Returns the size of the Cipher Text of a Plain Text of the given size, in bytes (i.e., with the Padding Method).
+	 *
+	 * @param sizeOfPlainText the size of the Plain Text, in bytes
+	 *
+	 * @return the size of the Cipher Text of a Plain Text of the given size, in bytes
+	 */
+	private int getSizeOfCipherText(int sizeOfPlainText) {
+		return ( this.paddingBlockSize == 0 ) ? sizeOfPlainText :
+					( ( sizeOfPlainText / this.paddingBlockSize ) + 1 ) * this.paddingBlockSize;
+	}
+
+	/**
+	 * Returns true if the Cipher Text of a probe ciphered with a keystream is equal, byte by byte,
+	 * to the one of the Session's Cipher, and false, otherwise.
+	 *
+	 * @param cipherContexts the Cipher Contexts of the Session
+	 *
+	 * @return true if the Cipher Text of a probe ciphered with a keystream is equal to the one of the Session's Cipher,
+	 *         and false, otherwise
+	 */
+	private boolean isEquivalentToCipher(SecureMulticastChatSessionCipherContexts cipherContexts) {
+		// The probe is not aligned with the size of the block, to also compare the Padding Methods
+		byte[] probe = new byte[( this.keystreamLength / 2 ) + 1];
+		Arrays.fill(probe, (byte) 0x5A);
+
+		byte[] IVBytes = this.ivGenerator.nextIV();
+
+		try {
+			byte[] probeCiphered = cipherContexts.getEncryptionCipher(IVBytes).doFinal(probe);
+
+			return Arrays.equals(probeCiphered, precomputeKeystream(IVBytes).cipher(probe));
+		}
+		catch (GeneralSecurityException | RuntimeException exception) {
+			return false;
+		}
+	}
+
+
+
+	/**
+	 * Class for a keystream precomputed, tied to its own Initialization Vector and used only once.
+	 */
+	public final class PrecomputedKeystream {
+
+		/**
+		 * The Initialization Vector of the keystream
+		 */
+		private final byte[] IVBytes;
+
+		/**
+		 * The keystream
+		 */
+		private final byte[] keystream;
+
+		/**
+		 * Constructor #1:
+		 * - The Constructor of a keystream precomputed.
+		 *
+		 * @param IVBytes the Initialization Vector of the keystream
+		 * @param keystream the keystream
+		 */
+		private PrecomputedKeystream(byte[] IVBytes, byte[] keystream) {
+			this.IVBytes = IVBytes;
+			this.keystream = keystream;
+		}
+
+		/**
+		 * Returns the Initialization Vector of the keystream.
+		 *
+		 * @return the Initialization Vector of the keystream
+		 */
+		public byte[] getIV() {
+			return this.IVBytes;
+		}
+
+		/**
+		 * Returns the given Plain Text ciphered with the keystream (i.e., padded and XORed),
+		 * erasing the keystream, since it must not be used again.
+		 *
+		 * @param plainText the Plain Text
+		 *
+		 * @return the given Plain Text ciphered with the keystream
+		 */
+		public byte[] cipher(byte[] plainText) {
+			byte[] cipherText = new byte[getSizeOfCipherText(plainText.length)];
+
+			this.cipher(plainText, cipherText, 0);
+
+			return cipherText;
+		}
+
+		/**
+		 * Ciphers the given Plain Text with the keystream (i.e., padded and XORed),
+		 * writing the Cipher Text directly in the given output, from the given offset,
+		 * erasing the keystream, since it must not be used again.
+		 *
+		 * @param plainText the Plain Text
+		 * @param output the output, where the Cipher Text will be written
+		 * @param outputOffset the offset of the Cipher Text, in the output
+		 *
+		 * @return the size of the Cipher Text written
+		 */
+		public int cipher(byte[] plainText, byte[] output, int outputOffset) {
+			return this.cipher(plainText, 0, plainText.length, output, outputOffset);
+		}
+
+		/**
+		 * Ciphers the given range of the Plain Text with the keystream (i.e., padded and XORed),
+		 * writing the Cipher Text directly in the given output, from the given offset,
+		 * erasing the keystream, since it must not be used again.
+		 *
+		 * @param plainText the Byte Array of the Plain Text
+		 * @param plainTextOffset the offset of the Plain Text, in its Byte Array
+		 * @param sizeOfPlainText the size of the Plain Text
+		 * @param output the output, where the Cipher Text will be written
+		 * @param outputOffset the offset of the Cipher Text, in the output
+		 *
+		 * @return the size of the Cipher Text written
+		 */
+		public int cipher(byte[] plainText, int plainTextOffset, int sizeOfPlainText, byte[] output, int outputOffset) {
+			int sizeOfCipherText = getSizeOfCipherText(sizeOfPlainText);
+
+			for(int i = 0; i < sizeOfPlainText; i++) {
+				output[outputOffset + i] = (byte) ( plainText[plainTextOffset + i] ^ this.keystream[i] );
+			}
+
+			// PKCS #5/#7 Padding: each byte of the Padding is the size of the Padding
+			byte paddingValue = (byte) ( sizeOfCipherText - sizeOfPlainText );
+
+			for(int i = sizeOfPlainText; i < sizeOfCipherText; i++) {
+				output[outputOffset + i] = (byte) ( paddingValue ^ this.keystream[i] );
+			}
+
+			Arrays.fill(this.keystream, (byte) 0);
+
+			return sizeOfCipherText;
+		}
+	}
+
+}
@@ -0,0 +1,228 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+
+/**
+ *
+ * Class for the MAC Engine of a (Secure) Multicast Chat Session,
+ * used in the Fast Secure Message's Check.
+ *
+ * The MAC is keyed only once per Session (i.e., the inner and outer pad blocks of the HMAC
+ * are computed only once), being kept as a keyed prototype, which is cloned for each Thread.
+ * After each doFinal, the MAC of each Thread is reset to its keyed state, so no
+ * initialization or allocation is made per Secure Message.
+ * The MAC Engine of a Session is kept by its compiled Cipher Suite.
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public final class SecureMulticastChatSessionMacEngine {
+
+	// Global Instance Variables:
+	/**
+	 * The MAC's Algorithm of the Session
+	 */
+	private final String macAlgorithm;
+
+	/**
+	 * The MAC's Secret Key of the Session
+	 */
+	private final Key macKey;
+
+	/**
+	 * The keyed prototype of the MAC, cloned for each Thread
+	 */
+	private final Mac macPrototype;
+
+	/**
+	 * The length of the MAC (in bytes)
+	 */
+	private final int macLength;
+
+	/**
+	 * The keyed MAC of each Thread
+	 */
+	private final ThreadLocal<Mac> threadMac;
+
+	/**
+	 * The buffer of each Thread, where the MAC computed to be compared is kept
+	 */
+	private final ThreadLocal<byte[]> threadMacToCompare;
+
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - The Constructor of the MAC Engine of a Session.
+	 *
+	 * @param macAlgorithm the MAC's Algorithm of the Session
+	 * @param macKey the MAC's Secret Key of the Session
+	 *
+	 * @throws NoSuchAlgorithmException if the Cryptographic Algorithm is not found
+	 * @throws InvalidKeyException if the MAC's Secret Key is not valid
+	 */
+	SecureMulticastChatSessionMacEngine(String macAlgorithm, Key macKey)
+			throws NoSuchAlgorithmException, InvalidKeyException {
+
+		this.macAlgorithm = macAlgorithm;
+		this.macKey = macKey;
+
+		this.macPrototype = Mac.getInstance(macAlgorithm);
+		this.macPrototype.init(macKey);
+
+		this.macLength = this.macPrototype.getMacLength();
+
+		this.threadMac = ThreadLocal.withInitial(this::newKeyedMac);
+		this.threadMacToCompare = ThreadLocal.withInitial(() -> new byte[this.macLength]);
+	}
+
+
+
+	// Methods:
+	/**
+	 * Returns the length of the MAC (in bytes).
+	 *
+	 * @return the length of the MAC (in bytes)
+	 */
+	public int getMacLength() {
+		return this.macLength;
+	}
+
+	/**
+	 * Returns the MAC computed over the given range of bytes.
+	 *
+	 * @param data the Byte Array of data
+	 * @param offset the offset of the first byte, in the Byte Array of data
+	 * @param length the number of bytes
+	 *
+	 * @return the MAC computed over the given range of bytes
+	 */
+	public byte[] computeMac(byte[] data, int offset, int length) {
+		Mac mac = this.threadMac.get();
+		mac.update(data, offset, length);
+
+		return mac.doFinal();
+	}
+
+	/**
+	 * Computes the MAC over the given range of bytes, writing it directly in the given output,
+	 * from the given offset (i.e., without allocating the MAC).
+	 *
+	 * @param data the Byte Array of data
+	 * @param offset the offset of the first byte, in the Byte Array of data
+	 * @param length the number of bytes
+	 * @param output the output, where the MAC will be written
+	 * @param outputOffset the offset of the MAC, in the output
+	 *
+	 * @return the length of the MAC written
+	 *
+	 * @throws ShortBufferException if the output has no space for the MAC, from the given offset
+	 */
+	public int computeMac(byte[] data, int offset, int length, byte[] output, int outputOffset)
+			throws ShortBufferException {
+
+		Mac mac = this.threadMac.get();
+		mac.update(data, offset, length);
+		mac.doFinal(output, outputOffset);
+
+		return this.macLength;
+	}
+
+	/**
+	 * Returns true if the MAC computed over the given range of bytes is equal to
+	 * the MAC received, in the given range of bytes, and false, otherwise.
+	 *
+	 * NOTE:
+	 * - The comparison is made in constant time, to not leak how many bytes of the MAC are correct;
+	 *
+	 * @param data the Byte Array of data
+	 * @param offset the offset of the first byte, in the Byte Array of data
+	 * @param length the number of bytes
+	 * @param receivedMac the Byte Array of the MAC received
+	 * @param receivedMacOffset the offset of the MAC received, in its Byte Array
+	 * @param receivedMacLength the length of the MAC received
+	 *
+	 * @return true if the MAC computed over the given range of bytes is equal to
+	 *         the MAC received, in the given range of bytes, and false, otherwise
+	 */
+	public boolean verifyMac(byte[] data, int offset, int length,
+							 byte[] receivedMac, int receivedMacOffset, int receivedMacLength) {
+
+		if(receivedMacLength != this.macLength) {
+			return false;
+		}
+
+		Mac mac = this.threadMac.get();
+		byte[] macToCompare = this.threadMacToCompare.get();
+
+		mac.update(data, offset, length);
+
+		try {
+			mac.doFinal(macToCompare, 0);
+		}
+		catch (ShortBufferException shortBufferException) {
+			// Not possible, since the buffer has exactly the length of the MAC
+			return false;
+		}
+
+		int difference = 0;
+
+		for(int i = 0; i < this.macLength; i++) {
+			difference |= ( macToCompare[i] ^ receivedMac[receivedMacOffset + i] );
+		}
+
+		return difference == 0;
+	}
+
+	/**
+	 * Returns a new keyed MAC, cloned from the keyed prototype,
+	 * or keyed again, if the Cryptographic Provider does not support cloning.
+	 *
+	 * @return a new keyed MAC
+	 */
+	private Mac newKeyedMac() {
+		try {
+			synchronized(this.macPrototype) {
+				return (Mac) this.macPrototype.clone();
+			}
+		}
+		catch (CloneNotSupportedException cloneNotSupportedException) {
+			try {
+				Mac mac = Mac.getInstance(this.macAlgorithm);
+				mac.init(this.macKey);
+
+				return mac;
+			}
+			catch (NoSuchAlgorithmException | InvalidKeyException exception) {
+				// Not possible, since the keyed prototype was already created with the same parameters
+				throw new IllegalStateException(exception);
+			}
+		}
+	}
+
+}
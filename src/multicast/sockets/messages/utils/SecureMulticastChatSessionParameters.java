@@ -90,6 +90,14 @@ public class SecureMulticastChatSessionParameters {
 		return propertiesMap.get(currentSessionID).get(key);
 	}
 
+	/**
+	 * Checks if the current session name exists in the properties file.
+	 * @return true if the current session name exists, false if not.
+	 */
+	public boolean hasSessionID() {
+		return propertiesMap.containsKey(currentSessionID);
+	}
+
 	/**
 	 * Sets a new session name to be used when getting properties.
 	 * @param sessionID session name to be used when getting properties.
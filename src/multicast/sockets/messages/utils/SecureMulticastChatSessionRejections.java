@@ -0,0 +1,234 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import multicast.common.CommonUtils;
+
+/**
+ *
+ * Class for the Rejections of the Secure Messages received in a (Secure) Multicast Chat Session.
+ *
+ * Each Secure Message rejected, by the decoding or by the receiving process, is counted by the reason of its rejection,
+ * being each reason reported, at most, once per interval of time, with the number of the Secure Messages
+ * rejected by it since its last report, so a flood of forged (or replayed) Datagram Packets
+ * can not turn the receiving process into a bottleneck of writes on the standard error.
+ *
+ * NOTE:
+ * - The counters are shared by all the Secure Multicast Sockets of the Session, being safe to be updated from any Thread;
+ * - A report is written by the one Thread which wins the race for the interval of time, without any lock;
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public class SecureMulticastChatSessionRejections {
+
+	/**
+	 *
+	 * Enumeration for the reasons of the rejection of a Secure Message received.
+	 *
+	 */
+	public enum Rejection {
+
+		// Enumerations:
+		/**
+		 * The several Enumerations for the reasons of the rejection of a Secure Message received
+		 */
+		VERSION_NUMBER("The Version Number of the Secure Message Protocol it's not supported"),
+		MESSAGE_TYPE("The Message Type of the Secure Message Protocol it's not supported"),
+		SESSION_TAG("The Session Tag of the Secure Message it's not the one of the current Session"),
+		SECURE_MESSAGE_SIZES("The sizes of the Secure Message are not valid"),
+		FAST_SECURE_MESSAGE_CHECK("The Fast Secure Message Check it's not valid"),
+		SECURE_MESSAGE_ATTRIBUTES("The Secure Message's Attributes for the current Session aren't valid"),
+		AUTHENTICATION_TAG("The authentication tag of the Secure Message's Payload it's not valid"),
+		SECURE_MESSAGE_PAYLOAD_SIZE("The size of the Secure Message's Payload it's not correct"),
+		INTEGRITY_CONTROL("The Integrity Control it's not valid"),
+		STALE_SEQUENCE_NUMBER("Received a Secure Message with a Sequence Number older than the Anti-Replay Window"),
+		DUPLICATE_SEQUENCE_NUMBER("Received a Secure Message with a duplicate Sequence Number"),
+		FROM_PEER_ID_COLLISION("Received a Secure Message rejected by the Anti-Replay Window of its Peer, from another Inet Address " +
+							   "(i.e., its From Peer's ID may be shared by several clients, or it was replayed from a spoofed one)"),
+		DUPLICATE_RANDOM_NONCE("Received the first Secure Message of a Peer with a duplicate Random Nonce, in a short period time"),
+		PEERS_SATURATED("Received a Secure Message from a new Peer, while the table of the Peers is saturated");
+
+
+		// Global Instance Variables:
+		/**
+		 * The description of the reason of the rejection
+		 */
+		private final String description;
+
+
+		// Constructors:
+		/**
+		 * Constructor #1:
+		 * - The Constructor of the reason of the rejection.
+		 *
+		 * @param description the description of the reason of the rejection
+		 */
+		private Rejection(String description) {
+			this.description = description;
+		}
+
+
+		// Methods:
+		/**
+		 * Returns the description of the reason of the rejection.
+		 *
+		 * @return the description of the reason of the rejection
+		 */
+		public String getDescription() {
+			return this.description;
+		}
+
+	}
+
+
+	// Global Instance Variables:
+	/**
+	 * The interval of time between two reports of the same reason of the rejection (in nanoseconds)
+	 */
+	private final long reportIntervalNanos;
+
+	/**
+	 * The counters of the Secure Messages rejected, indexed by the reason of their rejection
+	 */
+	private final AtomicLongArray numSecureMessagesRejected;
+
+	/**
+	 * The counters of the Secure Messages rejected, at the last report, indexed by the reason of their rejection
+	 */
+	private final AtomicLongArray numSecureMessagesRejectedReported;
+
+	/**
+	 * The timestamps of the last reports (from the System.nanoTime()), indexed by the reason of the rejection
+	 */
+	private final AtomicLongArray lastReportTimestamps;
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - The Constructor of the Rejections of a Session, reported, at most, once per
+	 *   the default interval of time, for each reason of the rejection.
+	 */
+	SecureMulticastChatSessionRejections() {
+		this(CommonUtils.REJECTIONS_REPORT_INTERVAL);
+	}
+
+	/**
+	 * Constructor #2:
+	 * - The Constructor of the Rejections of a Session, reported, at most, once per
+	 *   the given interval of time, for each reason of the rejection.
+	 *
+	 * @param reportInterval the interval of time between two reports of the same reason of the rejection (in milliseconds)
+	 */
+	SecureMulticastChatSessionRejections(long reportInterval) {
+		int numRejections = Rejection.values().length;
+
+		this.reportIntervalNanos = TimeUnit.MILLISECONDS.toNanos(reportInterval);
+		this.numSecureMessagesRejected = new AtomicLongArray(numRejections);
+		this.numSecureMessagesRejectedReported = new AtomicLongArray(numRejections);
+		this.lastReportTimestamps = new AtomicLongArray(numRejections);
+
+		// The first rejection of each reason is reported right away
+		long firstReportTimestamp = System.nanoTime() - this.reportIntervalNanos;
+
+		for(int i = 0; i < numRejections; i++) {
+			this.lastReportTimestamps.set(i, firstReportTimestamp);
+		}
+	}
+
+
+	// Methods:
+	/**
+	 * Counts a Secure Message rejected by the given reason, reporting it, if the interval of time
+	 * since the last report of that reason has elapsed.
+	 *
+	 * @param rejection the reason of the rejection
+	 *
+	 * @return true if the rejection was reported and false, otherwise
+	 */
+	public boolean reject(Rejection rejection) {
+		return this.reject(rejection, null);
+	}
+
+	/**
+	 * Counts a Secure Message rejected by the given reason, reporting it, with the given detail,
+	 * if the interval of time since the last report of that reason has elapsed.
+	 *
+	 * @param rejection the reason of the rejection
+	 * @param detail the detail of the reason of the rejection (or null, if there is none)
+	 *
+	 * @return true if the rejection was reported and false, otherwise
+	 */
+	public boolean reject(Rejection rejection, String detail) {
+		int index = rejection.ordinal();
+		long numSecureMessagesRejected = this.numSecureMessagesRejected.incrementAndGet(index);
+
+		long currentTimestamp = System.nanoTime();
+		long lastReportTimestamp = this.lastReportTimestamps.get(index);
+
+		// Only the Thread which wins the race for the interval of time reports the rejections counted since the last report
+		if(( ( currentTimestamp - lastReportTimestamp ) < this.reportIntervalNanos ) ||
+		   !this.lastReportTimestamps.compareAndSet(index, lastReportTimestamp, currentTimestamp)) {
+
+			return false;
+		}
+
+		long numSecureMessagesRejectedSinceLastReport =
+				numSecureMessagesRejected - this.numSecureMessagesRejectedReported.getAndSet(index, numSecureMessagesRejected);
+
+		System.err.println(rejection.getDescription() + ( detail != null ? ( " (" + detail + "):" ) : ":" ));
+		System.err.println("- " + numSecureMessagesRejectedSinceLastReport +
+						   " Secure Message(s) ignored, since the last report!!!");
+
+		return true;
+	}
+
+	/**
+	 * Returns the number of Secure Messages rejected by the given reason.
+	 *
+	 * @param rejection the reason of the rejection
+	 *
+	 * @return the number of Secure Messages rejected by the given reason
+	 */
+	public long getNumSecureMessagesRejected(Rejection rejection) {
+		return this.numSecureMessagesRejected.get(rejection.ordinal());
+	}
+
+	/**
+	 * Returns the description of the counters of the Secure Messages rejected, by reason (for diagnostics).
+	 *
+	 * @return the description of the counters of the Secure Messages rejected, by reason
+	 */
+	@Override
+	public String toString() {
+		StringBuilder description = new StringBuilder("Secure Messages rejected:");
+
+		for(Rejection rejection : Rejection.values()) {
+			description.append(String.format("%n- %s: %d", rejection, this.getNumSecureMessagesRejected(rejection)));
+		}
+
+		return description.toString();
+	}
+
+}
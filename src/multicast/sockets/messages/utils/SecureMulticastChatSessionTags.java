@@ -0,0 +1,246 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import multicast.common.CommonUtils;
+
+/**
+ *
+ * Class for the Session Tags of the (Secure) Multicast Chat Sessions.
+ *
+ * Each Session gets a compact numeric Session Tag (4 bytes), when its entry of SMCP.conf is compiled,
+ * being carried by the Secure Messages, instead of the Session's ID (i.e., SID),
+ * and resolved by the receivers through an int-keyed table, in constant time and without any allocation.
+ *
+ * The Session Tag is derived from the ID and the Name of the Session (i.e., <ip>:<port> and SID),
+ * so all the Users (Clients) of a Session agree on it, without exchanging it.
+ *
+ * NOTE:
+ * - The table is replaced (i.e., copied on write) when a Session is registered, which only happens once per Session,
+ *   so it's read without any lock, by all the receiving processes;
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public final class SecureMulticastChatSessionTags {
+
+	// Invariants/Constants:
+	/**
+	 * The Cryptographic Hash Function used to derive the Session Tags
+	 */
+	private static final String SESSION_TAG_HASH_FUNCTION = "SHA-256";
+
+	/**
+	 * The initial capacity of the table of the Session Tags (always a power of two)
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+
+	// Global Instance Variables:
+	/**
+	 * The current table of the Session Tags (i.e., immutable, being replaced when a Session is registered)
+	 */
+	private static volatile SessionTagsTable sessionTagsTable = new SessionTagsTable(INITIAL_CAPACITY);
+
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - The Session Tags are only accessed statically.
+	 */
+	private SecureMulticastChatSessionTags() {
+	}
+
+
+
+	// Methods:
+	/**
+	 * Returns the Session Tag derived from the ID and the Name of the Session
+	 * (i.e., the first 4 bytes of the hash of <ip>:<port>/<SID>, in the network order).
+	 *
+	 * @param sessionID the ID of the Session (i.e., <ip>:<port>)
+	 * @param sessionName the Name of the Session (i.e., SID)
+	 *
+	 * @return the Session Tag derived from the ID and the Name of the Session
+	 *
+	 * @throws NoSuchAlgorithmException if the Cryptographic Hash Function is not found
+	 */
+	static int deriveSessionTag(String sessionID, String sessionName) throws NoSuchAlgorithmException {
+		byte[] sessionTagHashed = MessageDigest.getInstance(SESSION_TAG_HASH_FUNCTION)
+											   .digest((sessionID + "/" + sessionName).getBytes(StandardCharsets.UTF_8));
+
+		return ByteBuffer.wrap(sessionTagHashed).order(CommonUtils.NETWORK_BYTE_ORDER).getInt();
+	}
+
+	/**
+	 * Registers the compiled Cipher Suite of a Session, under its Session Tag.
+	 *
+	 * @param cipherSuite the compiled Cipher Suite of the Session
+	 *
+	 * @throws GeneralSecurityException if the Session Tag is already registered for another Session
+	 */
+	static synchronized void register(SecureMulticastChatSessionCipherSuite cipherSuite) throws GeneralSecurityException {
+		SessionTagsTable currentSessionTagsTable = sessionTagsTable;
+		SecureMulticastChatSessionCipherSuite registeredCipherSuite = currentSessionTagsTable.get(cipherSuite.getSessionTag());
+
+		if(registeredCipherSuite != null && !registeredCipherSuite.getSessionID().equals(cipherSuite.getSessionID())) {
+			throw new GeneralSecurityException(String.format("The Session Tag %08x of the Session %s is already used by the Session %s " +
+															 "(it can be set by the property TAG of the Session)!!!",
+															 cipherSuite.getSessionTag(), cipherSuite.getSessionID(),
+															 registeredCipherSuite.getSessionID()));
+		}
+
+		// The table is kept, at most, half full, so the probing sequences remain short
+		int capacity = currentSessionTagsTable.values.length;
+
+		if(( 2 * ( currentSessionTagsTable.size + 1 ) ) > capacity) {
+			capacity *= 2;
+		}
+
+		SessionTagsTable newSessionTagsTable = new SessionTagsTable(capacity);
+
+		for(int i = 0; i < currentSessionTagsTable.values.length; i++) {
+			if(currentSessionTagsTable.values[i] != null) {
+				newSessionTagsTable.put(currentSessionTagsTable.keys[i], currentSessionTagsTable.values[i]);
+			}
+		}
+
+		newSessionTagsTable.put(cipherSuite.getSessionTag(), cipherSuite);
+
+		sessionTagsTable = newSessionTagsTable;
+	}
+
+	/**
+	 * Returns the compiled Cipher Suite of the Session of the given Session Tag
+	 * (or null, if no Session was registered under it).
+	 *
+	 * @param sessionTag the Session Tag
+	 *
+	 * @return the compiled Cipher Suite of the Session of the given Session Tag (or null, if no Session was registered under it)
+	 */
+	public static SecureMulticastChatSessionCipherSuite resolve(int sessionTag) {
+		return sessionTagsTable.get(sessionTag);
+	}
+
+
+	/**
+	 *
+	 * Class for the (immutable, once published) table of the Session Tags,
+	 * with open addressing and linear probing over primitive keys.
+	 *
+	 */
+	private static final class SessionTagsTable {
+
+		// Global Instance Variables:
+		/**
+		 * The Session Tags of the table
+		 */
+		private final int[] keys;
+
+		/**
+		 * The compiled Cipher Suites of the table (null, in the free positions)
+		 */
+		private final SecureMulticastChatSessionCipherSuite[] values;
+
+		/**
+		 * The number of Sessions of the table
+		 */
+		private int size;
+
+
+		// Constructors:
+		/**
+		 * Constructor #1:
+		 * - The Constructor of an empty table of the Session Tags, with the given capacity.
+		 *
+		 * @param capacity the capacity of the table (a power of two)
+		 */
+		private SessionTagsTable(int capacity) {
+			this.keys = new int[capacity];
+			this.values = new SecureMulticastChatSessionCipherSuite[capacity];
+		}
+
+
+		// Methods:
+		/**
+		 * Returns the first position of the probing sequence of the given Session Tag.
+		 *
+		 * @param sessionTag the Session Tag
+		 *
+		 * @return the first position of the probing sequence of the given Session Tag
+		 */
+		private int indexOf(int sessionTag) {
+			// The Session Tags are already uniformly distributed, but the bits are still mixed,
+			// since a Session Tag can also be set by the property TAG of the Session
+			int hash = sessionTag * 0x9E3779B9;
+
+			return ( hash ^ ( hash >>> 16 ) ) & ( this.values.length - 1 );
+		}
+
+		/**
+		 * Returns the compiled Cipher Suite registered under the given Session Tag (or null, if there is none).
+		 *
+		 * @param sessionTag the Session Tag
+		 *
+		 * @return the compiled Cipher Suite registered under the given Session Tag (or null, if there is none)
+		 */
+		private SecureMulticastChatSessionCipherSuite get(int sessionTag) {
+			int mask = this.values.length - 1;
+
+			for(int index = this.indexOf(sessionTag); this.values[index] != null; index = ( index + 1 ) & mask) {
+				if(this.keys[index] == sessionTag) {
+					return this.values[index];
+				}
+			}
+
+			return null;
+		}
+
+		/**
+		 * Puts the given compiled Cipher Suite under the given Session Tag (replacing the previous one, if any).
+		 *
+		 * @param sessionTag the Session Tag
+		 * @param cipherSuite the compiled Cipher Suite
+		 */
+		private void put(int sessionTag, SecureMulticastChatSessionCipherSuite cipherSuite) {
+			int mask = this.values.length - 1;
+			int index = this.indexOf(sessionTag);
+
+			while(this.values[index] != null && this.keys[index] != sessionTag) {
+				index = ( index + 1 ) & mask;
+			}
+
+			if(this.values[index] == null) {
+				this.size++;
+			}
+
+			this.keys[index] = sessionTag;
+			this.values[index] = cipherSuite;
+		}
+	}
+
+}
@@ -16,10 +16,7 @@ package multicast.sockets.services;
  * 
  */
 
-import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentMap;
-
-import multicast.common.CommonUtils;
+import multicast.sockets.messages.utils.SecureMulticastChatRandomNonces;
 
 /**
  * 
@@ -35,9 +32,9 @@ public class SecureMulticastSocketCleaningRandomNoncesService implements Runnabl
 	
 	// Global Instance Variables:
 	/**
-	 * The Random Nonces' Map, where will be kept the current valid Nonces of the Secure Multicast Socket
+	 * The table of the Random Nonces, where will be kept the current valid Nonces of the Secure Multicast Socket
 	 */
-	private ConcurrentMap<Integer, Long> randomNoncesMap;
+	private SecureMulticastChatRandomNonces randomNonces;
 	
 	
 	
@@ -46,51 +43,31 @@ public class SecureMulticastSocketCleaningRandomNoncesService implements Runnabl
 	 * Constructor #1:
 	 * - Constructor of the Cleaning/Removing Random Nonces Service,
 	 *   responsible for cleaning/removing old previous invalid Random Nonces,
-	 *   after 10 seconds (10000 milliseconds) of being added to the Random Nonces' Map for the first time
+	 *   after 10 seconds (10000 milliseconds) of being added to the table of the Random Nonces for the first time
 	 * 
-	 * @param randomNoncesMap the Random Nonces' Map,
+	 * @param randomNonces the table of the Random Nonces,
 	 *        where will be kept the current valid Random Nonces of the Secure Multicast Socket
 	 */
-	public SecureMulticastSocketCleaningRandomNoncesService(ConcurrentMap<Integer, Long> randomNoncesMap) {
-		this.randomNoncesMap = randomNoncesMap;
+	public SecureMulticastSocketCleaningRandomNoncesService(SecureMulticastChatRandomNonces randomNonces) {
+		this.randomNonces = randomNonces;
 	}
 	
 	
 	
 	// Methods:
 	/**
-	 * Runnable Thread Process of the Cleaning/Removing Random Nonces Service,
-	 * responsible for cleaning/removing old previous invalid Random Nonces,
-	 * after 10 seconds (10000 milliseconds) of being added to the Random Nonces' Map for the first time
+	 * Runnable Task of the Cleaning/Removing Random Nonces Service, run by the Timing Wheel of the Secure Multicast Sockets,
+	 * for each 10 seconds (10000 milliseconds), responsible for cleaning/removing old previous invalid Random Nonces
 	 */
 	@Override
 	public void run() {
-		for(;;) {
-			try {
-				// Sleeping for each 10 seconds (10000 milliseconds)
-				Thread.sleep(CommonUtils.CLEANING_RANDOM_NONCES_SERVICE_VERIFICATION_RATE_TIME);
-			}
-			catch (InterruptedException interruptedException) {
-				System.err.println("Error occurred during the Service of Cleaning Nonces on the Secure Multicast Socket:");
-				System.err.println("- Runnable Thread process interrupted!!!");
-				interruptedException.printStackTrace();
-			}
+		// The previous Random Nonces are valid for the last 10 minutes (600000 milliseconds),
+		// after that, their whole generation will be dropped from the table of the Random Nonces
+		// Otherwise, they will be kept on the table of the Random Nonces for the remaining time,
+		// until be reached the time equal or greater than 10 minutes (600000 milliseconds)
+		int numRandomNoncesDropped = this.randomNonces.expire(System.currentTimeMillis());
 		
-			// Verification made for every Random Nonces currently in Random Nonces' Map
-			for(Entry<Integer, Long> noncesTimestamps : this.randomNoncesMap.entrySet()) {
-				long lastNonceReceivedTimestamp = noncesTimestamps.getValue();
-				
-				// The previous Random Nonces are valid for the last 10 minutes (600000 milliseconds),
-				// after that, they will be removed from the Random Nonces' Map
-				// Otherwise, they will be kept on the Random Nonces' Map for the remaining time,
-				// until be reached the time equal or greater than 10 minutes (600000 milliseconds)
-				System.out.println("[" + this.getClass().getCanonicalName() + "]:" +
-									" Key: " + noncesTimestamps.getKey() +
-									" Value: " + noncesTimestamps.getValue());
-				if( (lastNonceReceivedTimestamp + CommonUtils.RANDOM_NONCES_CLEANING_TIMEOUT) < System.currentTimeMillis() ) {
-					this.randomNoncesMap.remove(noncesTimestamps.getKey());
-				}
-			}
-		}
+		System.out.println("[" + this.getClass().getCanonicalName() + "]: " +
+							"Dropped: " + numRandomNoncesDropped + " | " + this.randomNonces);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,561 @@
+package multicast.sockets.services;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import multicast.common.CommonUtils;
+
+/**
+ *
+ * Class for the Timing Wheel shared by all the Secure Multicast Sockets of the process (i.e., a hierarchical timing wheel),
+ * running all their housekeeping Services (e.g., the Cleaning Random Nonces and Sequence Numbers Services, or any other
+ * timeout, heartbeat or retransmission timer), in one single daemon Thread, instead of one sleeping Thread per Service.
+ *
+ * The Timers are kept in 4 levels of 64 slots, being each slot a doubly linked list of Timers,
+ * so a Timer is registered and cancelled in O(1), and, in each tick, only the Timers of the current slot are run,
+ * being the Timers of the higher levels cascaded to the lower ones, when the lower levels complete a turn.
+ *
+ * NOTE:
+ * - The Timers are run in the Thread of the Timing Wheel, so they must be short (and not block);
+ * - The Timing Wheel is reference counted, being started when it's acquired by the first Secure Multicast Socket
+ *   and shut down when it's released by the last one (i.e., when the last one is closed);
+ * - The ticks and the deadlines are measured by the monotonic clock (i.e., System.nanoTime()),
+ *   so the Timers are not run early, or late, when the wall clock of the system is adjusted;
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public final class SecureMulticastSocketTimingWheel implements Runnable {
+
+	// Invariants/Constants:
+	/**
+	 * The number of bits of the index of the slots of each level
+	 */
+	private static final int NUM_SLOT_BITS = 6;
+
+	/**
+	 * The number of slots of each level
+	 */
+	private static final int NUM_SLOTS = 1 << NUM_SLOT_BITS;
+
+	/**
+	 * The number of levels of the Timing Wheel
+	 */
+	private static final int NUM_LEVELS = 4;
+
+	/**
+	 * The maximum number of ticks of a delay, which can be kept in the levels
+	 * (i.e., the longer delays are kept in the highest level and cascaded again, until they expire)
+	 */
+	private static final long MAX_DELAY_TICKS = ( 1L << ( NUM_SLOT_BITS * NUM_LEVELS ) ) - 1;
+
+	/**
+	 * The Timing Wheel shared by all the Secure Multicast Sockets of the process
+	 * (null, while it's not acquired by any Secure Multicast Socket)
+	 */
+	private static SecureMulticastSocketTimingWheel instance;
+
+	/**
+	 * The number of the Secure Multicast Sockets which acquired the Timing Wheel shared, and did not release it yet
+	 */
+	private static int numReferences;
+
+
+
+	// Global Instance Variables:
+	/**
+	 * The duration of each tick (in milliseconds)
+	 */
+	private final long tickDuration;
+
+	/**
+	 * The duration of each tick (in nanoseconds)
+	 */
+	private final long tickDurationNanos;
+
+	/**
+	 * The slots of all the levels (i.e., the sentinel of the doubly linked list of Timers of each slot)
+	 */
+	private final Timer[][] slots;
+
+	/**
+	 * The time when the Timing Wheel was started (in nanoseconds, from the System.nanoTime())
+	 */
+	private final long startTime;
+
+	/**
+	 * The current tick of the Timing Wheel (i.e., all the Timers of the previous ticks were already run)
+	 */
+	private long currentTick;
+
+	/**
+	 * The number of Timers scheduled
+	 */
+	private int numTimers;
+
+	/**
+	 * The Thread of the Timing Wheel
+	 */
+	private final Thread thread;
+
+	/**
+	 * The boolean value to keep the information about if the Timing Wheel was shut down
+	 */
+	private volatile boolean shutdown;
+
+
+
+	// Constructors:
+	/**
+	 * Constructor #1:
+	 * - Constructor of the Timing Wheel, with the given duration of each tick, starting its Thread.
+	 *
+	 * @param tickDuration the duration of each tick (in milliseconds)
+	 */
+	private SecureMulticastSocketTimingWheel(long tickDuration) {
+		this.tickDuration = tickDuration;
+		this.tickDurationNanos = TimeUnit.MILLISECONDS.toNanos(tickDuration);
+		this.slots = new Timer[NUM_LEVELS][NUM_SLOTS];
+
+		for(int level = 0; level < NUM_LEVELS; level++) {
+			for(int slot = 0; slot < NUM_SLOTS; slot++) {
+				Timer sentinel = new Timer(this, null, 0);
+
+				sentinel.previous = sentinel;
+				sentinel.next = sentinel;
+
+				this.slots[level][slot] = sentinel;
+			}
+		}
+
+		this.startTime = System.nanoTime();
+
+		this.thread = new Thread(this, "SecureMulticastSocketTimingWheel");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+
+
+	// Methods:
+	/**
+	 * Acquires the Timing Wheel shared by all the Secure Multicast Sockets of the process, starting it, if needed,
+	 * being it kept running until it's released by all the Secure Multicast Sockets which acquired it.
+	 *
+	 * @return the Timing Wheel shared by all the Secure Multicast Sockets of the process
+	 */
+	public static synchronized SecureMulticastSocketTimingWheel acquire() {
+		if(instance == null) {
+			instance = new SecureMulticastSocketTimingWheel(CommonUtils.TIMING_WHEEL_TICK_DURATION);
+		}
+
+		numReferences++;
+
+		return instance;
+	}
+
+	/**
+	 * Releases the Timing Wheel shared by all the Secure Multicast Sockets of the process, acquired before,
+	 * shutting it down, if it was released by the last Secure Multicast Socket which acquired it
+	 * (being a new one started, if it's acquired again, afterwards).
+	 *
+	 * NOTE:
+	 * - It must be called only once, for each time the Timing Wheel was acquired;
+	 */
+	public void release() {
+		synchronized(SecureMulticastSocketTimingWheel.class) {
+			if(instance != this || numReferences == 0) {
+				throw new IllegalStateException("The Timing Wheel was not acquired!!!");
+			}
+
+			if(--numReferences > 0) {
+				return;
+			}
+
+			instance = null;
+		}
+
+		// The Timing Wheel is shut down outside of the lock of the shared one,
+		// so its Timers being run can still acquire (or release) the shared one
+		try {
+			this.shutdown();
+		}
+		catch (InterruptedException interruptedException) {
+			// The Timing Wheel was already shut down, only its Thread was not joined
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Schedules the given task, to be run once, after the given delay.
+	 *
+	 * @param task the task to be run
+	 * @param delay the delay (in milliseconds)
+	 *
+	 * @return the Timer of the task, which can be cancelled
+	 */
+	public Timer schedule(Runnable task, long delay) {
+		return this.scheduleAtFixedRate(task, delay, 0);
+	}
+
+	/**
+	 * Schedules the given task, to be run periodically, after the given delay, with the given period.
+	 *
+	 * @param task the task to be run
+	 * @param delay the delay (in milliseconds)
+	 * @param period the period (in milliseconds, or 0, to be run only once)
+	 *
+	 * @return the Timer of the task, which can be cancelled
+	 */
+	public synchronized Timer scheduleAtFixedRate(Runnable task, long delay, long period) {
+		if(this.shutdown) {
+			throw new IllegalStateException("The Timing Wheel was shut down!!!");
+		}
+
+		Timer timer = new Timer(this, task, this.toTicks(TimeUnit.MILLISECONDS.toNanos(period)));
+
+		// The deadline is given by the current time (since the current tick may be late, until the next one),
+		// being the Timers run, at least, in the next tick
+		timer.deadline = Math.max(this.toTicks(( System.nanoTime() - this.startTime ) +
+											   TimeUnit.MILLISECONDS.toNanos(Math.max(delay, 0))),
+								  this.currentTick + 1);
+
+		this.add(timer);
+		this.numTimers++;
+
+		return timer;
+	}
+
+	/**
+	 * Returns the given delay in ticks (i.e., rounded up).
+	 *
+	 * @param delayNanos the delay (in nanoseconds)
+	 *
+	 * @return the given delay in ticks
+	 */
+	private long toTicks(long delayNanos) {
+		return ( delayNanos <= 0 ) ? 0 : ( ( delayNanos + this.tickDurationNanos - 1 ) / this.tickDurationNanos );
+	}
+
+	/**
+	 * Adds the given Timer to the slot of its deadline (i.e., in the level of the remaining ticks until its deadline).
+	 *
+	 * @param timer the Timer
+	 */
+	private void add(Timer timer) {
+		long remainingTicks = Math.min(Math.max(timer.deadline - this.currentTick, 0), MAX_DELAY_TICKS);
+		long slotTick = this.currentTick + remainingTicks;
+
+		int level = 0;
+
+		while(level < ( NUM_LEVELS - 1 ) && remainingTicks >= ( 1L << ( NUM_SLOT_BITS * ( level + 1 ) ) )) {
+			level++;
+		}
+
+		Timer sentinel = this.slots[level][(int) ( ( slotTick >>> ( NUM_SLOT_BITS * level ) ) & ( NUM_SLOTS - 1 ) )];
+
+		timer.previous = sentinel.previous;
+		timer.next = sentinel;
+		sentinel.previous.next = timer;
+		sentinel.previous = timer;
+	}
+
+	/**
+	 * Removes the given Timer from its slot.
+	 *
+	 * @param timer the Timer
+	 */
+	private static void remove(Timer timer) {
+		timer.previous.next = timer.next;
+		timer.next.previous = timer.previous;
+
+		timer.previous = null;
+		timer.next = null;
+	}
+
+	/**
+	 * Cancels the given Timer, in O(1).
+	 *
+	 * @param timer the Timer
+	 *
+	 * @return true if the Timer was cancelled and false, otherwise (i.e., it was already cancelled or run)
+	 */
+	synchronized boolean cancel(Timer timer) {
+		if(timer.next == null) {
+			return false;
+		}
+
+		remove(timer);
+		this.numTimers--;
+
+		return true;
+	}
+
+	/**
+	 * Advances the Timing Wheel by one tick, cascading the Timers of the higher levels, if the lower levels completed a turn,
+	 * and removing the Timers of the slot of the new current tick.
+	 *
+	 * @return the first Timer of the list of the Timers expired, in the new current tick (linked by their next Timer)
+	 */
+	private synchronized Timer tick() {
+		this.currentTick++;
+
+		// The Timers of the slot of each higher level are cascaded, when all the lower levels complete a turn
+		for(int level = 1; level < NUM_LEVELS; level++) {
+			if(( this.currentTick & ( ( 1L << ( NUM_SLOT_BITS * level ) ) - 1 ) ) != 0) {
+				break;
+			}
+
+			Timer sentinel = this.slots[level][(int) ( ( this.currentTick >>> ( NUM_SLOT_BITS * level ) ) & ( NUM_SLOTS - 1 ) )];
+
+			while(sentinel.next != sentinel) {
+				Timer timer = sentinel.next;
+
+				remove(timer);
+				this.add(timer);
+			}
+		}
+
+		Timer sentinel = this.slots[0][(int) ( this.currentTick & ( NUM_SLOTS - 1 ) )];
+		Timer expiredTimers = null;
+
+		while(sentinel.next != sentinel) {
+			Timer timer = sentinel.next;
+
+			remove(timer);
+
+			// The Timers of the longest delays are kept again, until they expire
+			if(timer.deadline > this.currentTick) {
+				this.add(timer);
+				continue;
+			}
+
+			this.numTimers--;
+
+			timer.nextExpired = expiredTimers;
+			expiredTimers = timer;
+		}
+
+		return expiredTimers;
+	}
+
+	/**
+	 * Schedules again the given periodic Timer, after it was run (if it was not cancelled, meanwhile).
+	 *
+	 * @param timer the periodic Timer
+	 */
+	private synchronized void reschedule(Timer timer) {
+		if(this.shutdown || timer.cancelled) {
+			return;
+		}
+
+		timer.deadline = Math.max(timer.deadline + timer.periodTicks, this.currentTick + 1);
+
+		this.add(timer);
+		this.numTimers++;
+	}
+
+	/**
+	 * Runnable Thread Process of the Timing Wheel, advancing it, tick by tick, until it's shut down,
+	 * and running the Timers expired, outside of its lock (so the Timers can schedule or cancel other Timers).
+	 */
+	@Override
+	public void run() {
+		while(!this.shutdown) {
+			// The times are compared by their difference, since the System.nanoTime() may overflow
+			long nextTickTime = this.startTime + ( ( this.currentTick + 1 ) * this.tickDurationNanos );
+			long sleepTime = nextTickTime - System.nanoTime();
+
+			if(sleepTime > 0) {
+				try {
+					TimeUnit.NANOSECONDS.sleep(sleepTime);
+				}
+				catch (InterruptedException interruptedException) {
+					// It is expected behaviour, when the Timing Wheel is shut down
+					continue;
+				}
+			}
+
+			for(Timer timer = this.tick(); timer != null; timer = timer.nextExpired) {
+				try {
+					timer.task.run();
+				}
+				catch (RuntimeException runtimeException) {
+					System.err.println("Error occurred during a Timer of the Timing Wheel of the Secure Multicast Sockets:");
+					System.err.println("- The Timer will be kept, if it's periodic!!!");
+					runtimeException.printStackTrace();
+				}
+
+				if(timer.periodTicks > 0) {
+					this.reschedule(timer);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Shuts down the Timing Wheel, cancelling all its Timers and stopping its Thread
+	 * (waiting for the Timers being run, unless it's called by one of them), once it was released by the last
+	 * Secure Multicast Socket which acquired it.
+	 *
+	 * @throws InterruptedException if the current Thread was interrupted, while waiting for the Thread of the Timing Wheel
+	 */
+	private void shutdown() throws InterruptedException {
+		synchronized(this) {
+			this.shutdown = true;
+
+			for(Timer[] level : this.slots) {
+				for(Timer sentinel : level) {
+					while(sentinel.next != sentinel) {
+						Timer timer = sentinel.next;
+
+						remove(timer);
+						timer.cancelled = true;
+					}
+				}
+			}
+
+			this.numTimers = 0;
+		}
+
+		this.thread.interrupt();
+
+		if(Thread.currentThread() != this.thread) {
+			this.thread.join();
+		}
+	}
+
+	/**
+	 * Returns the number of Timers scheduled.
+	 *
+	 * @return the number of Timers scheduled
+	 */
+	public synchronized int getNumTimers() {
+		return this.numTimers;
+	}
+
+	/**
+	 * Returns true if the Timing Wheel was shut down, and false, otherwise.
+	 *
+	 * @return true if the Timing Wheel was shut down, and false, otherwise
+	 */
+	public boolean isShutdown() {
+		return this.shutdown;
+	}
+
+	/**
+	 * Returns the duration of each tick (in milliseconds).
+	 *
+	 * @return the duration of each tick (in milliseconds)
+	 */
+	public long getTickDuration() {
+		return this.tickDuration;
+	}
+
+
+
+	/**
+	 *
+	 * Class for a Timer of the Timing Wheel (i.e., a task, run once or periodically), kept in a slot of the Timing Wheel.
+	 *
+	 */
+	public static final class Timer {
+
+		// Global Instance Variables:
+		/**
+		 * The Timing Wheel of the Timer
+		 */
+		private final SecureMulticastSocketTimingWheel timingWheel;
+
+		/**
+		 * The task of the Timer
+		 */
+		private final Runnable task;
+
+		/**
+		 * The period of the Timer (in ticks, or 0, if it's run only once)
+		 */
+		private final long periodTicks;
+
+		/**
+		 * The tick when the Timer expires
+		 */
+		private long deadline;
+
+		/**
+		 * The previous and the next Timers of the slot of the Timer (null, if it's not in any slot)
+		 */
+		private Timer previous;
+		private Timer next;
+
+		/**
+		 * The next Timer expired, in the same tick
+		 */
+		private Timer nextExpired;
+
+		/**
+		 * The boolean value to keep the information about if the Timer was cancelled
+		 */
+		private volatile boolean cancelled;
+
+
+
+		// Constructors:
+		/**
+		 * Constructor #1:
+		 * - Constructor of a Timer of the given Timing Wheel.
+		 *
+		 * @param timingWheel the Timing Wheel of the Timer
+		 * @param task the task of the Timer
+		 * @param periodTicks the period of the Timer (in ticks, or 0, if it's run only once)
+		 */
+		private Timer(SecureMulticastSocketTimingWheel timingWheel, Runnable task, long periodTicks) {
+			this.timingWheel = timingWheel;
+			this.task = task;
+			this.periodTicks = periodTicks;
+		}
+
+
+
+		// Methods:
+		/**
+		 * Cancels the Timer, in O(1) (i.e., it will not be run again).
+		 *
+		 * @return true if the Timer was scheduled and false, otherwise
+		 */
+		public boolean cancel() {
+			this.cancelled = true;
+
+			return this.timingWheel.cancel(this);
+		}
+
+		/**
+		 * Returns true if the Timer was cancelled, and false, otherwise.
+		 *
+		 * @return true if the Timer was cancelled, and false, otherwise
+		 */
+		public boolean isCancelled() {
+			return this.cancelled;
+		}
+
+	}
+
+}
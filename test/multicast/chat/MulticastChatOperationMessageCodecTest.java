@@ -0,0 +1,239 @@
+package multicast.chat;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import multicast.common.CommonUtils;
+
+/**
+ *
+ * Tests of the Codec of the Operation Messages, against the Data Output/Input Streams
+ * (i.e., the writeUTF and readUTF of the previous versions).
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public class MulticastChatOperationMessageCodecTest {
+
+	// Invariants/Constants:
+	/**
+	 * The Strings of the Operation Messages (i.e., ASCII, 2 bytes, 3 bytes, surrogate pairs, unpaired surrogates and NUL chars)
+	 */
+	private static final String[] STRINGS = { "", "peer1", "R\u00faben Andr\u00e9", "\u30e6\u30fc\u30b6\u30fc",
+											  "lock \ud83d\udd12 \ud83d\ude00", "\ud83d", "a\ude00b", "\u0000", "NUL \u0000 in the middle\u0000",
+											  "\u007f\u0080\u07ff\u0800\uffff" };
+
+
+	// Methods:
+	/**
+	 * Tests the TEXT Operation Messages encoded, against the ones written by the Data Output Streams.
+	 *
+	 * @throws IOException if an Operation Message is not encoded
+	 */
+	@Test
+	public void testEncodeCompatibleWithWriteUTF() throws IOException {
+		for(String username : STRINGS) {
+			for(String textMessage : STRINGS) {
+				byte[] operationMessageSerialized = writeOperationMessage(CommonUtils.TEXT_MESSAGE, username, textMessage);
+				byte[] buffer = new byte[operationMessageSerialized.length + 3];
+
+				assertEquals(operationMessageSerialized.length,
+							 MulticastChatOperationMessageCodec.sizeOfOperationMessage(username, textMessage));
+				assertEquals(buffer.length, MulticastChatOperationMessageCodec.encode(buffer, 3, CommonUtils.TEXT_MESSAGE,
+																					  username, textMessage));
+				assertArrayEquals(operationMessageSerialized, Arrays.copyOfRange(buffer, 3, buffer.length));
+			}
+		}
+	}
+
+	/**
+	 * Tests the TEXT Operation Messages written by the Data Output Streams, decoded by the Codec and read by the Data Input Streams.
+	 *
+	 * @throws IOException if an Operation Message is not written or read
+	 */
+	@Test
+	public void testDecodeCompatibleWithReadUTF() throws IOException {
+		MulticastChatOperationMessageCodec operationMessageCodec = new MulticastChatOperationMessageCodec();
+
+		for(String username : STRINGS) {
+			for(String textMessage : STRINGS) {
+				byte[] operationMessageSerialized = writeOperationMessage(CommonUtils.TEXT_MESSAGE, username, textMessage);
+
+				DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(operationMessageSerialized));
+				dataInputStream.readLong();
+				dataInputStream.readInt();
+
+				String usernameRead = dataInputStream.readUTF();
+				String textMessageRead = dataInputStream.readUTF();
+
+				assertTrue(operationMessageCodec.decode(operationMessageSerialized, 0, operationMessageSerialized.length));
+				assertEquals(CommonUtils.TEXT_MESSAGE, operationMessageCodec.getOperationMessageCode());
+				assertEquals(usernameRead, operationMessageCodec.getUsername());
+				assertEquals(textMessageRead, operationMessageCodec.getTextMessage());
+			}
+		}
+	}
+
+	/**
+	 * Tests the JOIN and LEAVE Operation Messages (i.e., without Text Message) encoded and decoded.
+	 *
+	 * @throws IOException if an Operation Message is not encoded or decoded
+	 */
+	@Test
+	public void testJoinAndLeaveRoundTrip() throws IOException {
+		MulticastChatOperationMessageCodec operationMessageCodec = new MulticastChatOperationMessageCodec();
+		String username = "peer\u0000\ud83d\udd12";
+
+		for(int operationMessageCode : new int[] { CommonUtils.JOIN_MESSAGE, CommonUtils.LEAVE_MESSAGE }) {
+			byte[] operationMessageSerialized = writeOperationMessage(operationMessageCode, username, null);
+			byte[] buffer = new byte[MulticastChatOperationMessageCodec.sizeOfOperationMessage(username, null)];
+
+			MulticastChatOperationMessageCodec.encode(buffer, 0, operationMessageCode, username, null);
+
+			assertArrayEquals(operationMessageSerialized, buffer);
+			assertTrue(operationMessageCodec.decode(buffer, 0, buffer.length));
+			assertEquals(operationMessageCode, operationMessageCodec.getOperationMessageCode());
+			assertEquals(username, operationMessageCodec.getUsername());
+			assertNull(operationMessageCodec.getTextMessage());
+			assertEquals(-1, operationMessageCodec.getTextMessageOffset());
+		}
+	}
+
+	/**
+	 * Tests that the Strings longer than 65535 bytes are rejected, as done by writeUTF.
+	 *
+	 * @throws IOException if an Operation Message is not encoded
+	 */
+	@Test
+	public void testStringTooLong() throws IOException {
+		char[] characters = new char[0xFFFF];
+		Arrays.fill(characters, 'a');
+
+		String longestString = new String(characters);
+		byte[] buffer = new byte[MulticastChatOperationMessageCodec.sizeOfOperationMessage("peer1", longestString)];
+
+		MulticastChatOperationMessageCodec.encode(buffer, 0, CommonUtils.TEXT_MESSAGE, "peer1", longestString);
+
+		assertArrayEquals(writeOperationMessage(CommonUtils.TEXT_MESSAGE, "peer1", longestString), buffer);
+
+		// The NUL char takes 2 bytes, in the modified UTF-8 of writeUTF
+		characters[0] = '\u0000';
+
+		try {
+			MulticastChatOperationMessageCodec.encode(new byte[buffer.length + 1], 0, CommonUtils.TEXT_MESSAGE,
+													  "peer1", new String(characters));
+			assertTrue("The String serialized longer than 65535 bytes was encoded", false);
+		}
+		catch (UTFDataFormatException utfDataFormatException) {
+			// The String serialized is longer than 65535 bytes, as expected
+		}
+	}
+
+	/**
+	 * Tests that the Operation Messages without the Magic Number are ignored,
+	 * and that the Operation Messages truncated are rejected.
+	 *
+	 * @throws IOException if an Operation Message is not written
+	 */
+	@Test
+	public void testDecodeInvalid() throws IOException {
+		MulticastChatOperationMessageCodec operationMessageCodec = new MulticastChatOperationMessageCodec();
+
+		byte[] operationMessageSerialized = writeOperationMessage(CommonUtils.TEXT_MESSAGE, "peer1", "Hello!");
+
+		byte[] withoutMagicNumber = operationMessageSerialized.clone();
+		withoutMagicNumber[0] ^= 0x01;
+
+		assertFalse(operationMessageCodec.decode(withoutMagicNumber, 0, withoutMagicNumber.length));
+
+		for(int sizeOfOperationMessage = 0; sizeOfOperationMessage < operationMessageSerialized.length; sizeOfOperationMessage++) {
+			try {
+				operationMessageCodec.decode(operationMessageSerialized, 0, sizeOfOperationMessage);
+				assertTrue("The Operation Message truncated to " + sizeOfOperationMessage + " bytes was decoded", false);
+			}
+			catch (EOFException eofException) {
+				// The Operation Message is truncated, as expected
+			}
+		}
+	}
+
+	/**
+	 * Tests that the malformed sequences of the Strings received are replaced, instead of rejecting the Operation Message.
+	 *
+	 * @throws IOException if an Operation Message is not decoded
+	 */
+	@Test
+	public void testDecodeMalformedString() throws IOException {
+		MulticastChatOperationMessageCodec operationMessageCodec = new MulticastChatOperationMessageCodec();
+
+		byte[] buffer = new byte[MulticastChatOperationMessageCodec.sizeOfOperationMessage("abc", null)];
+
+		MulticastChatOperationMessageCodec.encode(buffer, 0, CommonUtils.JOIN_MESSAGE, "abc", null);
+
+		// A leading byte of 2 bytes, followed by an ASCII char (i.e., not a continuation byte)
+		buffer[buffer.length - 3] = (byte) 0xC3;
+
+		assertTrue(operationMessageCodec.decode(buffer, 0, buffer.length));
+		assertEquals("\ufffdbc", operationMessageCodec.getUsername());
+	}
+
+	/**
+	 * Returns an Operation Message written by the Data Output Streams (i.e., as in the previous versions).
+	 *
+	 * @param operationMessageCode the Operation Message's Code
+	 * @param username the Username of the User (Client) sending the Operation Message
+	 * @param textMessage the Text Message (null, if it's not a TEXT Operation Message)
+	 *
+	 * @return an Operation Message written by the Data Output Streams
+	 *
+	 * @throws IOException if the Operation Message is not written
+	 */
+	private static byte[] writeOperationMessage(int operationMessageCode, String username, String textMessage) throws IOException {
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+
+		dataOutputStream.writeLong(CommonUtils.SECURE_MULTICAST_CHAT_MAGIC_NUMBER);
+		dataOutputStream.writeInt(operationMessageCode);
+		dataOutputStream.writeUTF(username);
+
+		if(textMessage != null) {
+			dataOutputStream.writeUTF(textMessage);
+		}
+
+		return byteArrayOutputStream.toByteArray();
+	}
+
+}
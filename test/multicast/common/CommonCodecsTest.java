@@ -0,0 +1,225 @@
+package multicast.common;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ *
+ * Tests of the Common Codecs and of the Variable-Length Integers of the Common Utilities.
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public class CommonCodecsTest {
+
+	// Invariants/Constants:
+	/**
+	 * The Long Numbers written and read (i.e., the limits and the ones using the 2 most significant bytes)
+	 */
+	private static final long[] LONG_NUMBERS = { 0L, 1L, -1L, Long.MIN_VALUE, Long.MAX_VALUE,
+												 0x0102030405060708L, 0xFFFF000000000000L, 0x0000FFFFFFFFFFFFL + 1 };
+
+	/**
+	 * The Integer Numbers of the boundaries of the sizes of the Variable-Length Integers
+	 */
+	private static final int[] VARIABLE_LENGTH_INTEGER_BOUNDARIES = { 0, 127, 128, 16383, 16384, 2097151, 2097152,
+																	  268435455, 268435456, Integer.MAX_VALUE };
+
+	/**
+	 * The Strings encoded in UTF-8 (i.e., ASCII, 2 bytes, 3 bytes, a surrogate pair and the NUL char)
+	 */
+	private static final String[] STRINGS = { "", "peer1", "R\u00faben Andr\u00e9", "\u30e6\u30fc\u30b6\u30fc",
+											  "lock \ud83d\udd12", "\u0000NUL\u0000", "\u07ff\u0800\uffff" };
+
+
+	// Methods:
+	/**
+	 * Tests that the Long Numbers take 8 bytes (i.e., the LONG_LENGTH was 6, truncating the 2 most significant bytes).
+	 */
+	@Test
+	public void testLongLengthIsEightBytes() {
+		assertEquals(Long.BYTES, CommonUtils.LONG_LENGTH);
+
+		for(long longNumber : LONG_NUMBERS) {
+			byte[] longNumberSerialized = CommonUtils.fromLongToByteArray(longNumber);
+
+			assertEquals(Long.BYTES, longNumberSerialized.length);
+			assertEquals(longNumber, CommonUtils.fromByteArrayToLong(longNumberSerialized));
+		}
+	}
+
+	/**
+	 * Tests the Short, Integer and Long Numbers written and read, in the network order, against the Byte Buffers.
+	 */
+	@Test
+	public void testNetworkOrderRoundTrip() {
+		byte[] bytes = new byte[3 + Long.BYTES];
+
+		for(long longNumber : LONG_NUMBERS) {
+			assertEquals(3 + Long.BYTES, CommonCodecs.writeLong(bytes, 3, longNumber));
+			assertEquals(longNumber, CommonCodecs.readLong(bytes, 3));
+			assertEquals(longNumber, ByteBuffer.wrap(bytes, 3, Long.BYTES).order(ByteOrder.BIG_ENDIAN).getLong());
+
+			assertEquals(3 + Integer.BYTES, CommonCodecs.writeInt(bytes, 3, (int) longNumber));
+			assertEquals((int) longNumber, CommonCodecs.readInt(bytes, 3));
+			assertEquals((int) longNumber, ByteBuffer.wrap(bytes, 3, Integer.BYTES).order(ByteOrder.BIG_ENDIAN).getInt());
+
+			assertEquals(3 + Short.BYTES, CommonCodecs.writeShort(bytes, 3, (short) longNumber));
+			assertEquals((short) longNumber, CommonCodecs.readShort(bytes, 3));
+			assertEquals((short) longNumber, ByteBuffer.wrap(bytes, 3, Short.BYTES).order(ByteOrder.BIG_ENDIAN).getShort());
+		}
+	}
+
+	/**
+	 * Tests the Short, Integer and Long Numbers written and read, in the native order (i.e., the one of the VERSION_01 format),
+	 * against the Byte Buffers used before.
+	 */
+	@Test
+	public void testNativeOrderRoundTrip() {
+		byte[] bytes = new byte[Long.BYTES];
+
+		for(long longNumber : LONG_NUMBERS) {
+			CommonCodecs.writeLongNativeOrder(bytes, 0, longNumber);
+			assertArrayEquals(ByteBuffer.allocate(Long.BYTES).order(ByteOrder.nativeOrder()).putLong(longNumber).array(), bytes);
+			assertEquals(longNumber, CommonCodecs.readLongNativeOrder(bytes, 0));
+
+			CommonCodecs.writeIntNativeOrder(bytes, 0, (int) longNumber);
+			assertArrayEquals(ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.nativeOrder()).putInt((int) longNumber).array(),
+							  Arrays.copyOf(bytes, Integer.BYTES));
+			assertEquals((int) longNumber, CommonCodecs.readIntNativeOrder(bytes, 0));
+
+			CommonCodecs.writeShortNativeOrder(bytes, 0, (short) longNumber);
+			assertArrayEquals(ByteBuffer.allocate(Short.BYTES).order(ByteOrder.nativeOrder()).putShort((short) longNumber).array(),
+							  Arrays.copyOf(bytes, Short.BYTES));
+			assertEquals((short) longNumber, CommonCodecs.readShortNativeOrder(bytes, 0));
+		}
+	}
+
+	/**
+	 * Tests the sizes of the Variable-Length Integers and their round trip, in the boundaries of their sizes.
+	 */
+	@Test
+	public void testVariableLengthIntegerBoundaries() {
+		byte[] bytes = new byte[CommonUtils.VARIABLE_LENGTH_INTEGER_MAX_LENGTH + 1];
+
+		for(int i = 0; i < VARIABLE_LENGTH_INTEGER_BOUNDARIES.length; i++) {
+			int integerNumber = VARIABLE_LENGTH_INTEGER_BOUNDARIES[i];
+			int sizeOfVariableLengthInteger = ( i / 2 ) + 1;
+
+			assertEquals(sizeOfVariableLengthInteger, CommonUtils.sizeOfVariableLengthInteger(integerNumber));
+			assertEquals(1 + sizeOfVariableLengthInteger, CommonUtils.writeVariableLengthInteger(bytes, 1, integerNumber));
+			assertEquals(integerNumber, CommonUtils.readVariableLengthInteger(bytes, 1, 1 + sizeOfVariableLengthInteger));
+		}
+	}
+
+	/**
+	 * Tests that the Variable-Length Integers truncated by the limit are rejected.
+	 */
+	@Test
+	public void testVariableLengthIntegerTruncated() {
+		byte[] bytes = new byte[CommonUtils.VARIABLE_LENGTH_INTEGER_MAX_LENGTH];
+
+		int sizeOfVariableLengthInteger = CommonUtils.writeVariableLengthInteger(bytes, 0, Integer.MAX_VALUE);
+
+		for(int limit = 0; limit < sizeOfVariableLengthInteger; limit++) {
+			assertEquals(-1, CommonUtils.readVariableLengthInteger(bytes, 0, limit));
+		}
+	}
+
+	/**
+	 * Tests that the Variable-Length Integers not in their shortest encoding are rejected
+	 * (i.e., each Integer Number has only one representation).
+	 */
+	@Test
+	public void testVariableLengthIntegerNotShortestEncoding() {
+		byte[][] notShortestEncodings = { { (byte) 0x80, 0x00 }, { (byte) 0x81, 0x00 },
+										  { (byte) 0xFF, (byte) 0x80, 0x00 }, { (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x00 } };
+
+		for(byte[] notShortestEncoding : notShortestEncodings) {
+			assertEquals(-1, CommonUtils.readVariableLengthInteger(notShortestEncoding, 0, notShortestEncoding.length));
+		}
+
+		// The zero, in one single byte, is the shortest encoding
+		assertEquals(0, CommonUtils.readVariableLengthInteger(new byte[] { 0x00 }, 0, 1));
+	}
+
+	/**
+	 * Tests that the Variable-Length Integers of the negative Integer Numbers, or longer than 5 bytes, are rejected.
+	 */
+	@Test
+	public void testVariableLengthIntegerOverflow() {
+		byte[] bytes = new byte[CommonUtils.VARIABLE_LENGTH_INTEGER_MAX_LENGTH + 1];
+
+		for(int negativeIntegerNumber : new int[] { -1, Integer.MIN_VALUE }) {
+			int sizeOfVariableLengthInteger = CommonUtils.writeVariableLengthInteger(bytes, 0, negativeIntegerNumber);
+
+			assertEquals(CommonUtils.VARIABLE_LENGTH_INTEGER_MAX_LENGTH, sizeOfVariableLengthInteger);
+			assertEquals(-1, CommonUtils.readVariableLengthInteger(bytes, 0, sizeOfVariableLengthInteger));
+		}
+
+		byte[] tooLong = { (byte) 0x81, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x00 };
+
+		assertEquals(-1, CommonUtils.readVariableLengthInteger(tooLong, 0, tooLong.length));
+	}
+
+	/**
+	 * Tests the Strings written and read in UTF-8, against the Standard Charsets.
+	 */
+	@Test
+	public void testStringRoundTrip() {
+		for(String string : STRINGS) {
+			byte[] stringSerialized = string.getBytes(StandardCharsets.UTF_8);
+			byte[] bytes = new byte[2 + stringSerialized.length];
+
+			assertEquals(stringSerialized.length, CommonCodecs.sizeOfStringSerialized(string));
+			assertEquals(bytes.length, CommonCodecs.writeString(bytes, 2, string));
+			assertArrayEquals(stringSerialized, Arrays.copyOfRange(bytes, 2, bytes.length));
+			assertEquals(string, CommonCodecs.readString(bytes, 2, stringSerialized.length));
+			assertArrayEquals(stringSerialized, CommonCodecs.fromStringToByteArray(string));
+		}
+	}
+
+	/**
+	 * Tests the unpaired surrogates written and the malformed sequences read, against the Standard Charsets.
+	 */
+	@Test
+	public void testStringMalformed() {
+		for(String unpairedSurrogates : new String[] { "\ud83d", "a\udd12b", "\udd12\ud83d", "end\ud83d" }) {
+			byte[] stringSerialized = unpairedSurrogates.getBytes(StandardCharsets.UTF_8);
+
+			assertEquals(stringSerialized.length, CommonCodecs.sizeOfStringSerialized(unpairedSurrogates));
+			assertArrayEquals(stringSerialized, CommonCodecs.fromStringToByteArray(unpairedSurrogates));
+		}
+
+		byte[] malformed = { 'a', (byte) 0xC3, 'b', (byte) 0xFF, (byte) 0xE3, (byte) 0x83 };
+
+		assertEquals(new String(malformed, StandardCharsets.UTF_8), CommonCodecs.readString(malformed, 0, malformed.length));
+	}
+
+}
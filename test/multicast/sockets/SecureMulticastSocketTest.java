@@ -0,0 +1,255 @@
+package multicast.sockets;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.security.GeneralSecurityException;
+import java.security.Security;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import multicast.chat.MulticastChatOperationMessageCodec;
+import multicast.common.CommonUtils;
+import multicast.common.MessageType;
+import multicast.sockets.messages.FinalSecureMessageEncoder;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionCipherSuite;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionParameters;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionRejections;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionRejections.Rejection;
+
+/**
+ *
+ * Tests of the receiving process of the Secure Multicast Socket (i.e., the Datagram Packets not accepted
+ * are never handed to the caller, such as the Operation Messages sent in clear, by any host, without the Secret Keys,
+ * and the collisions of From Peer's IDs are reported).
+ *
+ * NOTE:
+ * - The Sessions are the ones of SMCP.conf, with the Secret Keys of the Keystore of the project;
+ * - The Datagram Packets are sent in unicast, through the loopback interface, to the port of the Secure Multicast Socket;
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public class SecureMulticastSocketTest {
+
+	// Invariants/Constants:
+	/**
+	 * The IDs of the Sessions tested (i.e., a Symmetric Encryption with a MAC and an Authenticated Encryption)
+	 */
+	private static final String[] SESSION_IDS = { "224.1.1.1:9876", "224.1.1.5:9999" };
+
+	/**
+	 * The timeout of the Secure Multicast Sockets of the tests (in milliseconds)
+	 */
+	private static final int TIMEOUT = 500;
+
+
+	// Methods:
+	/**
+	 * Installs the BouncyCastle Cryptographic Provider, as done by the (Secure) Multicast Chat.
+	 */
+	@BeforeClass
+	public static void installBouncyCastleProvider() {
+		Security.addProvider(new BouncyCastleProvider());
+	}
+
+	/**
+	 * Tests that the Operation Messages sent in clear (i.e., forged without the Secret Keys of the Session)
+	 * and the Final Secure Messages replayed are never returned by the receiving process, being only returned
+	 * the Final Secure Messages accepted, even if they are received after the forged ones.
+	 *
+	 * @throws GeneralSecurityException if the Cipher Suite of a Session could not be compiled
+	 * @throws IOException if an Input/Output error occurred
+	 */
+	@Test
+	public void testForgedOperationMessageNotDispatched() throws GeneralSecurityException, IOException {
+		for(String sessionID : SESSION_IDS) {
+			SecureMulticastChatSessionCipherSuite cipherSuite =
+					SecureMulticastChatSessionCipherSuite.compileCipherSuite(new SecureMulticastChatSessionParameters("res/SMCP.conf",
+																													  sessionID));
+
+			byte[] forgedOperationMessage = new byte[CommonUtils.DEFAULT_MESSAGE_DATAGRAM_PACKET_RECEIVED_SIZE];
+			int sizeOfForgedOperationMessage = MulticastChatOperationMessageCodec.encode(forgedOperationMessage, 0, CommonUtils.TEXT_MESSAGE,
+																						 "mallory", "forged");
+
+			byte[] operationMessage = new byte[CommonUtils.DEFAULT_MESSAGE_DATAGRAM_PACKET_RECEIVED_SIZE];
+			int sizeOfOperationMessage = MulticastChatOperationMessageCodec.encode(operationMessage, 0, CommonUtils.TEXT_MESSAGE,
+																				   "alice", "hello");
+
+			FinalSecureMessageEncoder finalSecureMessageEncoder = new FinalSecureMessageEncoder("alice", cipherSuite);
+			int sizeOfFinalSecureMessage = finalSecureMessageEncoder.encode(operationMessage, 0, sizeOfOperationMessage,
+																			1, 42, MessageType.MESSAGE_TYPE_1.getMessageType());
+			byte[] finalSecureMessageSerialized = finalSecureMessageEncoder.getFinalSecureMessageSerialized().clone();
+
+			try(SecureMulticastSocket secureMulticastSocket = new SecureMulticastSocket("bob", 0, cipherSuite);
+				DatagramSocket senderSocket = new DatagramSocket()) {
+
+				secureMulticastSocket.setSoTimeout(TIMEOUT);
+
+				InetAddress loopbackAddress = InetAddress.getLoopbackAddress();
+				int port = secureMulticastSocket.getLocalPort();
+
+				byte[] receivedBuffer = new byte[CommonUtils.DEFAULT_MESSAGE_DATAGRAM_PACKET_RECEIVED_SIZE];
+				DatagramPacket receivedDatagramPacket = new DatagramPacket(receivedBuffer, receivedBuffer.length);
+
+				// The forged Operation Message is skipped, being only returned the Final Secure Message sent after it
+				senderSocket.send(new DatagramPacket(forgedOperationMessage, sizeOfForgedOperationMessage, loopbackAddress, port));
+				senderSocket.send(new DatagramPacket(finalSecureMessageSerialized, sizeOfFinalSecureMessage, loopbackAddress, port));
+
+				secureMulticastSocket.receive(receivedDatagramPacket);
+
+				MulticastChatOperationMessageCodec operationMessageCodec = new MulticastChatOperationMessageCodec();
+
+				assertTrue(sessionID, operationMessageCodec.decode(receivedDatagramPacket.getData(), receivedDatagramPacket.getOffset(),
+																   receivedDatagramPacket.getLength()));
+				assertEquals(sessionID, "alice", operationMessageCodec.getUsername());
+				assertEquals(sessionID, "hello", operationMessageCodec.getTextMessage());
+
+				// The forged Operation Message and the Final Secure Message replayed are never returned
+				senderSocket.send(new DatagramPacket(forgedOperationMessage, sizeOfForgedOperationMessage, loopbackAddress, port));
+				senderSocket.send(new DatagramPacket(finalSecureMessageSerialized, sizeOfFinalSecureMessage, loopbackAddress, port));
+
+				receivedDatagramPacket.setData(receivedBuffer);
+
+				try {
+					secureMulticastSocket.receive(receivedDatagramPacket);
+					fail(sessionID + ": a Datagram Packet not accepted was returned");
+				}
+				catch(SocketTimeoutException socketTimeoutException) {
+					assertEquals(sessionID, 0, receivedDatagramPacket.getLength());
+				}
+
+				// The timeout of the Socket is restored, after being shortened by the Datagram Packets rejected
+				assertEquals(sessionID, TIMEOUT, secureMulticastSocket.getSoTimeout());
+			}
+		}
+	}
+
+	/**
+	 * Tests that the Final Secure Messages of two clients with the same From Peer's ID, from different Inet Addresses,
+	 * are reported as collisions of From Peer's IDs, while the ones replayed from the Inet Address of their Peer
+	 * are still reported as duplicated.
+	 *
+	 * @throws GeneralSecurityException if the Cipher Suite of a Session could not be compiled
+	 * @throws IOException if an Input/Output error occurred
+	 */
+	@Test
+	public void testSharedFromPeerIDReported() throws GeneralSecurityException, IOException {
+		for(String sessionID : SESSION_IDS) {
+			SecureMulticastChatSessionCipherSuite cipherSuite =
+					SecureMulticastChatSessionCipherSuite.compileCipherSuite(new SecureMulticastChatSessionParameters("res/SMCP.conf",
+																													  sessionID));
+
+			// The Cipher Suite (and its Rejections) is shared by all the tests of the Session
+			SecureMulticastChatSessionRejections rejections = cipherSuite.getRejections();
+
+			long numCollisions = rejections.getNumSecureMessagesRejected(Rejection.FROM_PEER_ID_COLLISION);
+			long numDuplicates = rejections.getNumSecureMessagesRejected(Rejection.DUPLICATE_SEQUENCE_NUMBER);
+
+			// Two clients with the same From Peer's ID number their Final Secure Messages from the same Sequence Number
+			byte[][] finalSecureMessagesSerialized = new byte[2][];
+			int[] sizesOfFinalSecureMessages = new int[2];
+
+			for(int client = 0; client < 2; client++) {
+				byte[] operationMessage = new byte[CommonUtils.DEFAULT_MESSAGE_DATAGRAM_PACKET_RECEIVED_SIZE];
+				int sizeOfOperationMessage = MulticastChatOperationMessageCodec.encode(operationMessage, 0, CommonUtils.TEXT_MESSAGE,
+																					   "carol", "hello #" + client);
+
+				FinalSecureMessageEncoder finalSecureMessageEncoder = new FinalSecureMessageEncoder("carol", cipherSuite);
+
+				sizesOfFinalSecureMessages[client] = finalSecureMessageEncoder.encode(operationMessage, 0, sizeOfOperationMessage,
+																					  1, 7 + client,
+																					  MessageType.MESSAGE_TYPE_1.getMessageType());
+				finalSecureMessagesSerialized[client] = finalSecureMessageEncoder.getFinalSecureMessageSerialized().clone();
+			}
+
+			InetAddress loopbackAddress = InetAddress.getByName("127.0.0.1");
+
+			try(SecureMulticastSocket secureMulticastSocket = new SecureMulticastSocket("bob", 0, cipherSuite);
+				DatagramSocket senderSocket = new DatagramSocket(new InetSocketAddress(loopbackAddress, 0));
+				DatagramSocket otherHostSenderSocket = new DatagramSocket(new InetSocketAddress(InetAddress.getByName("127.0.0.2"), 0))) {
+
+				secureMulticastSocket.setSoTimeout(TIMEOUT);
+
+				int port = secureMulticastSocket.getLocalPort();
+
+				byte[] receivedBuffer = new byte[CommonUtils.DEFAULT_MESSAGE_DATAGRAM_PACKET_RECEIVED_SIZE];
+				DatagramPacket receivedDatagramPacket = new DatagramPacket(receivedBuffer, receivedBuffer.length);
+
+				senderSocket.send(new DatagramPacket(finalSecureMessagesSerialized[0], sizesOfFinalSecureMessages[0],
+													 loopbackAddress, port));
+				secureMulticastSocket.receive(receivedDatagramPacket);
+
+				// The Final Secure Message of the other client, sent from another Inet Address, is reported as a collision
+				otherHostSenderSocket.send(new DatagramPacket(finalSecureMessagesSerialized[1], sizesOfFinalSecureMessages[1],
+															  loopbackAddress, port));
+				assertNotReceived(sessionID, secureMulticastSocket, receivedDatagramPacket, receivedBuffer);
+
+				assertEquals(sessionID, numCollisions + 1, rejections.getNumSecureMessagesRejected(Rejection.FROM_PEER_ID_COLLISION));
+				assertEquals(sessionID, numDuplicates, rejections.getNumSecureMessagesRejected(Rejection.DUPLICATE_SEQUENCE_NUMBER));
+
+				// The Final Secure Message replayed, from the Inet Address of its Peer, is still reported as duplicated
+				senderSocket.send(new DatagramPacket(finalSecureMessagesSerialized[0], sizesOfFinalSecureMessages[0],
+													 loopbackAddress, port));
+				assertNotReceived(sessionID, secureMulticastSocket, receivedDatagramPacket, receivedBuffer);
+
+				assertEquals(sessionID, numCollisions + 1, rejections.getNumSecureMessagesRejected(Rejection.FROM_PEER_ID_COLLISION));
+				assertEquals(sessionID, numDuplicates + 1, rejections.getNumSecureMessagesRejected(Rejection.DUPLICATE_SEQUENCE_NUMBER));
+			}
+		}
+	}
+
+	/**
+	 * Asserts that no Datagram Packet is returned by the receiving process of the given Secure Multicast Socket,
+	 * until its timeout.
+	 *
+	 * @param sessionID the ID of the Session tested
+	 * @param secureMulticastSocket the Secure Multicast Socket
+	 * @param receivedDatagramPacket the Datagram Packet to receive
+	 * @param receivedBuffer the buffer of the Datagram Packet to receive
+	 *
+	 * @throws IOException if an Input/Output error occurred
+	 */
+	private static void assertNotReceived(String sessionID, SecureMulticastSocket secureMulticastSocket,
+										  DatagramPacket receivedDatagramPacket, byte[] receivedBuffer) throws IOException {
+
+		receivedDatagramPacket.setData(receivedBuffer);
+
+		try {
+			secureMulticastSocket.receive(receivedDatagramPacket);
+			fail(sessionID + ": a Datagram Packet not accepted was returned");
+		}
+		catch(SocketTimeoutException socketTimeoutException) {
+			assertEquals(sessionID, 0, receivedDatagramPacket.getLength());
+		}
+	}
+
+}
@@ -0,0 +1,248 @@
+package multicast.sockets.messages;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.DatagramPacket;
+import java.security.GeneralSecurityException;
+import java.security.Security;
+import java.util.Arrays;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import multicast.common.MessageType;
+import multicast.common.VersionNumber;
+import multicast.sockets.messages.components.SecureMessage;
+import multicast.sockets.messages.components.SecureMessagePayload;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionCipherSuite;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionParameters;
+
+/**
+ *
+ * Tests of the Final Secure Message's Encoder, against the Final Secure Message (i.e., the reference of the VERSION_01 format),
+ * and against the Final Secure Message's Decoder.
+ *
+ * NOTE:
+ * - The Sessions are the ones of SMCP.conf, with the Secret Keys of the Keystore of the project;
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public class FinalSecureMessageEncoderTest {
+
+	// Invariants/Constants:
+	/**
+	 * The IDs of the Sessions tested (i.e., a Symmetric Encryption with a MAC and an Authenticated Encryption)
+	 */
+	private static final String[] SESSION_IDS = { "224.1.1.3:6789", "224.1.1.5:9999" };
+
+	/**
+	 * The Message serialized, sent in each Secure Message
+	 */
+	private static final byte[] MESSAGE_SERIALIZED = "Hello, Secure Multicast Chat!".getBytes();
+
+	/**
+	 * The Message's Type of the Secure Messages
+	 */
+	private static final byte MESSAGE_TYPE = MessageType.MESSAGE_TYPE_1.getMessageType();
+
+
+	// Methods:
+	/**
+	 * Installs the BouncyCastle Cryptographic Provider, as done by the (Secure) Multicast Chat.
+	 */
+	@BeforeClass
+	public static void installBouncyCastleProvider() {
+		Security.addProvider(new BouncyCastleProvider());
+	}
+
+	/**
+	 * Tests that the Final Secure Messages encoded in the VERSION_01 format are compatible with the ones built by
+	 * the Final Secure Message (i.e., the same size and the same bytes in clear), and accepted by its receiving process.
+	 *
+	 * @throws GeneralSecurityException if the Cipher Suite of a Session could not be compiled
+	 */
+	@Test
+	public void testVersion01CompatibleWithFinalSecureMessage() throws GeneralSecurityException {
+		for(String sessionID : SESSION_IDS) {
+			SecureMulticastChatSessionCipherSuite cipherSuite = compileCipherSuite(sessionID);
+
+			FinalSecureMessageEncoder finalSecureMessageEncoder =
+					new FinalSecureMessageEncoder("peer1", cipherSuite, VersionNumber.VERSION_01.getVersionNumber());
+
+			FinalSecureMessage referenceFinalSecureMessage =
+					new FinalSecureMessage(new DatagramPacket(MESSAGE_SERIALIZED, MESSAGE_SERIALIZED.length),
+										   "peer1", cipherSuite, 1, 42, MESSAGE_TYPE);
+			referenceFinalSecureMessage.buildFinalSecureMessageSerialized();
+
+			int sizeOfFinalSecureMessage = finalSecureMessageEncoder.encode(MESSAGE_SERIALIZED, 0, MESSAGE_SERIALIZED.length,
+																			1, 42, MESSAGE_TYPE);
+			byte[] finalSecureMessageSerialized = Arrays.copyOf(finalSecureMessageEncoder.getFinalSecureMessageSerialized(),
+																sizeOfFinalSecureMessage);
+
+			assertEquals(sessionID, referenceFinalSecureMessage.getSizeOfFinalSecureMessageSerialized(), sizeOfFinalSecureMessage);
+
+			// The bytes in clear (i.e., everything before the Secure Message's Payload ciphered) must be the same
+			FinalSecureMessageDecoder finalSecureMessageDecoder = new FinalSecureMessageDecoder(cipherSuite);
+
+			assertTrue(sessionID, finalSecureMessageDecoder.decode(finalSecureMessageSerialized.clone(), 0, sizeOfFinalSecureMessage));
+
+			int secureMessagePayloadOffset = finalSecureMessageDecoder.getSecureMessagePayloadOffset();
+
+			assertArrayEquals(sessionID, Arrays.copyOf(referenceFinalSecureMessage.getFinalSecureMessageSerialized(), secureMessagePayloadOffset),
+							  Arrays.copyOf(finalSecureMessageSerialized, secureMessagePayloadOffset));
+
+			// The Final Secure Message encoded must be accepted by the receiving process of the Final Secure Message
+			FinalSecureMessage receivedFinalSecureMessage =
+					new FinalSecureMessage(new DatagramPacket(finalSecureMessageSerialized, sizeOfFinalSecureMessage), cipherSuite);
+			receivedFinalSecureMessage.buildFinalSecureMessageComponents();
+
+			assertTrue(sessionID, receivedFinalSecureMessage.isFinalSecureMessageCheckValid());
+
+			SecureMessage receivedSecureMessage = receivedFinalSecureMessage.getSecureMessage();
+			receivedSecureMessage.buildSecureMessageComponents();
+
+			SecureMessagePayload receivedSecureMessagePayload = receivedSecureMessage.getSecureMessagePayload();
+			receivedSecureMessagePayload.setIVBytes(receivedFinalSecureMessage.getIVBytes());
+			receivedSecureMessagePayload.setAssociatedData(receivedFinalSecureMessage.getAssociatedData(), 0,
+														   receivedFinalSecureMessage.getSizeOfAssociatedData());
+			receivedSecureMessagePayload.buildSecureMessagePayloadSerializationSymmetricEncryptionDeciphered();
+
+			assertTrue(sessionID, receivedSecureMessagePayload.checkIfIsSecureMessagePayloadSerializedSizeValid());
+
+			receivedSecureMessagePayload.buildSecureMessagePayloadComponents();
+
+			assertTrue(sessionID, receivedSecureMessagePayload.checkIfIsIntegrityControlHashedSerializedValid());
+			assertArrayEquals(sessionID, MESSAGE_SERIALIZED, receivedSecureMessagePayload.getMessageSerialized());
+			assertEquals(sessionID, "peer1", receivedSecureMessagePayload.getFromPeerID());
+			assertEquals(sessionID, 1, receivedSecureMessagePayload.getSequenceNumber());
+			assertEquals(sessionID, 42, receivedSecureMessagePayload.getRandomNonce());
+		}
+	}
+
+	/**
+	 * Tests that the Final Secure Messages are encoded in the VERSION_01 format, if no Version Number is selected for the Session,
+	 * so the Peers only supporting it can still join the Session.
+	 *
+	 * @throws GeneralSecurityException if the Cipher Suite of a Session could not be compiled
+	 */
+	@Test
+	public void testVersion01ByDefault() throws GeneralSecurityException {
+		for(String sessionID : SESSION_IDS) {
+			SecureMulticastChatSessionCipherSuite cipherSuite = compileCipherSuite(sessionID);
+
+			FinalSecureMessageEncoder finalSecureMessageEncoder = new FinalSecureMessageEncoder("peer1", cipherSuite);
+			FinalSecureMessageDecoder finalSecureMessageDecoder = new FinalSecureMessageDecoder(cipherSuite);
+
+			int sizeOfFinalSecureMessage = finalSecureMessageEncoder.encode(MESSAGE_SERIALIZED, 0, MESSAGE_SERIALIZED.length,
+																			1, 42, MESSAGE_TYPE);
+
+			assertEquals(sessionID, VersionNumber.VERSION_01.getVersionNumber(), cipherSuite.getVersionNumber());
+			assertTrue(sessionID, finalSecureMessageDecoder.decode(finalSecureMessageEncoder.getFinalSecureMessageSerialized(), 0,
+																   sizeOfFinalSecureMessage));
+			assertEquals(sessionID, VersionNumber.VERSION_01.getVersionNumber(), finalSecureMessageDecoder.getVersionNumber());
+		}
+	}
+
+	/**
+	 * Tests that the Final Secure Messages encoded in the VERSION_02 format (i.e., the compact one) are accepted by the Decoder,
+	 * being shorter than the ones in the VERSION_01 format.
+	 *
+	 * @throws GeneralSecurityException if the Cipher Suite of a Session could not be compiled
+	 */
+	@Test
+	public void testVersion02RoundTrip() throws GeneralSecurityException {
+		for(String sessionID : SESSION_IDS) {
+			SecureMulticastChatSessionCipherSuite cipherSuite = compileCipherSuite(sessionID);
+
+			FinalSecureMessageEncoder finalSecureMessageEncoder =
+					new FinalSecureMessageEncoder("peer1", cipherSuite, VersionNumber.VERSION_01.getVersionNumber());
+			FinalSecureMessageEncoder compactFinalSecureMessageEncoder =
+					new FinalSecureMessageEncoder("peer1", cipherSuite, VersionNumber.VERSION_02.getVersionNumber());
+			FinalSecureMessageDecoder finalSecureMessageDecoder = new FinalSecureMessageDecoder(cipherSuite);
+
+			int sizeOfFinalSecureMessage = finalSecureMessageEncoder.encode(MESSAGE_SERIALIZED, 0, MESSAGE_SERIALIZED.length,
+																			1, 42, MESSAGE_TYPE);
+			int sizeOfCompactFinalSecureMessage = compactFinalSecureMessageEncoder.encode(MESSAGE_SERIALIZED, 0, MESSAGE_SERIALIZED.length,
+																						  Integer.MAX_VALUE, -42, MESSAGE_TYPE);
+
+			assertTrue(sessionID, sizeOfCompactFinalSecureMessage < sizeOfFinalSecureMessage);
+			assertTrue(sessionID, finalSecureMessageDecoder.decode(compactFinalSecureMessageEncoder.getFinalSecureMessageSerialized(), 0,
+																   sizeOfCompactFinalSecureMessage));
+			assertEquals(sessionID, VersionNumber.VERSION_02.getVersionNumber(), finalSecureMessageDecoder.getVersionNumber());
+			assertArrayEquals(sessionID, MESSAGE_SERIALIZED, Arrays.copyOfRange(finalSecureMessageDecoder.getFinalSecureMessageSerialized(),
+																				finalSecureMessageDecoder.getMessageOffset(),
+																				finalSecureMessageDecoder.getMessageOffset() +
+																				finalSecureMessageDecoder.getSizeOfMessage()));
+			assertEquals(sessionID, "peer1", finalSecureMessageDecoder.getFromPeerID());
+			assertEquals(sessionID, Integer.MAX_VALUE, finalSecureMessageDecoder.getSequenceNumber());
+			assertEquals(sessionID, -42, finalSecureMessageDecoder.getRandomNonce());
+		}
+	}
+
+	/**
+	 * Tests that a Final Secure Message encoded in the VERSION_02 format, tampered in any byte, is rejected by the Decoder.
+	 *
+	 * @throws GeneralSecurityException if the Cipher Suite of a Session could not be compiled
+	 */
+	@Test
+	public void testVersion02Tampered() throws GeneralSecurityException {
+		for(String sessionID : SESSION_IDS) {
+			SecureMulticastChatSessionCipherSuite cipherSuite = compileCipherSuite(sessionID);
+
+			FinalSecureMessageEncoder compactFinalSecureMessageEncoder =
+					new FinalSecureMessageEncoder("peer1", cipherSuite, VersionNumber.VERSION_02.getVersionNumber());
+			FinalSecureMessageDecoder finalSecureMessageDecoder = new FinalSecureMessageDecoder(cipherSuite);
+
+			int sizeOfCompactFinalSecureMessage = compactFinalSecureMessageEncoder.encode(MESSAGE_SERIALIZED, 0, MESSAGE_SERIALIZED.length,
+																						  1, 42, MESSAGE_TYPE);
+			byte[] compactFinalSecureMessageSerialized = Arrays.copyOf(compactFinalSecureMessageEncoder.getFinalSecureMessageSerialized(),
+																	   sizeOfCompactFinalSecureMessage);
+
+			for(int i = 0; i < sizeOfCompactFinalSecureMessage; i++) {
+				byte[] tamperedFinalSecureMessageSerialized = compactFinalSecureMessageSerialized.clone();
+				tamperedFinalSecureMessageSerialized[i] ^= 0x01;
+
+				assertTrue(sessionID + " (byte " + i + ")",
+						   !finalSecureMessageDecoder.decode(tamperedFinalSecureMessageSerialized, 0, sizeOfCompactFinalSecureMessage));
+			}
+		}
+	}
+
+	/**
+	 * Returns the compiled Cipher Suite of the given Session of SMCP.conf.
+	 *
+	 * @param sessionID the ID of the Session (i.e., <ip>:<port>)
+	 *
+	 * @return the compiled Cipher Suite of the given Session of SMCP.conf
+	 *
+	 * @throws GeneralSecurityException if the Cipher Suite of the Session could not be compiled
+	 */
+	private static SecureMulticastChatSessionCipherSuite compileCipherSuite(String sessionID) throws GeneralSecurityException {
+		return SecureMulticastChatSessionCipherSuite.compileCipherSuite(new SecureMulticastChatSessionParameters("res/SMCP.conf",
+																												 sessionID));
+	}
+
+}
@@ -0,0 +1,261 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import multicast.common.CommonUtils;
+
+/**
+ *
+ * Tests of the Anti-Replay Window of a Peer (i.e., the Sequence Numbers accepted out of order, the duplicated and the stale ones,
+ * the slides of its circular bitmap, its seal, for a Peer interned again, and the bounds of its size).
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public class SecureMulticastChatAntiReplayWindowTest {
+
+	// Invariants/Constants:
+	/**
+	 * The size of the windows of the tests
+	 */
+	private static final int WINDOW_SIZE = 256;
+
+	/**
+	 * The first Sequence Number received from the Peer of the tests
+	 */
+	private static final int FIRST_SEQUENCE_NUMBER = 1000;
+
+
+	// Methods:
+	/**
+	 * Tests that the Sequence Numbers received out of order are accepted, while they are inside the window,
+	 * even the ones sent before the first Sequence Number received from the Peer.
+	 */
+	@Test
+	public void testOutOfOrderAccepted() {
+		SecureMulticastChatAntiReplayWindow antiReplayWindow =
+				new SecureMulticastChatAntiReplayWindow(WINDOW_SIZE, FIRST_SEQUENCE_NUMBER, 0);
+
+		assertEquals(FIRST_SEQUENCE_NUMBER - 1, antiReplayWindow.getHighestSequenceNumber());
+
+		int[] sequenceNumbers = { FIRST_SEQUENCE_NUMBER, FIRST_SEQUENCE_NUMBER + 5, FIRST_SEQUENCE_NUMBER + 2,
+								  FIRST_SEQUENCE_NUMBER + 1, FIRST_SEQUENCE_NUMBER - 100, FIRST_SEQUENCE_NUMBER + 4 };
+
+		for(int i = 0; i < sequenceNumbers.length; i++) {
+			assertAccepted(antiReplayWindow, sequenceNumbers[i], i);
+		}
+
+		assertEquals(FIRST_SEQUENCE_NUMBER + 5, antiReplayWindow.getHighestSequenceNumber());
+		assertEquals(sequenceNumbers.length - 1, antiReplayWindow.getTimestamp());
+
+		// The Sequence Number skipped is still accepted, behind the highest one
+		assertAccepted(antiReplayWindow, FIRST_SEQUENCE_NUMBER + 3, sequenceNumbers.length);
+
+		assertEquals(FIRST_SEQUENCE_NUMBER + 5, antiReplayWindow.getHighestSequenceNumber());
+	}
+
+	/**
+	 * Tests that the Sequence Numbers already accepted are rejected as duplicated, being the other ones,
+	 * sharing their blocks of the bitmap, still accepted.
+	 */
+	@Test
+	public void testDuplicateRejected() {
+		SecureMulticastChatAntiReplayWindow antiReplayWindow =
+				new SecureMulticastChatAntiReplayWindow(WINDOW_SIZE, FIRST_SEQUENCE_NUMBER, 0);
+
+		for(int sequenceNumber = FIRST_SEQUENCE_NUMBER; sequenceNumber < FIRST_SEQUENCE_NUMBER + 100; sequenceNumber += 2) {
+			assertAccepted(antiReplayWindow, sequenceNumber, 0);
+		}
+
+		for(int sequenceNumber = FIRST_SEQUENCE_NUMBER; sequenceNumber < FIRST_SEQUENCE_NUMBER + 100; sequenceNumber++) {
+			assertFalse(antiReplayWindow.isStale(sequenceNumber));
+			assertEquals(String.valueOf(sequenceNumber), ( sequenceNumber % 2 ) == 0, antiReplayWindow.isDuplicate(sequenceNumber));
+		}
+
+		// The Sequence Numbers ahead of the highest one are never duplicated
+		assertFalse(antiReplayWindow.isDuplicate(FIRST_SEQUENCE_NUMBER + 100));
+		assertFalse(antiReplayWindow.isDuplicate(Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Tests that the Sequence Numbers are only stale once they are older than the window, right after its edge.
+	 */
+	@Test
+	public void testStaleRejectedPastEdge() {
+		SecureMulticastChatAntiReplayWindow antiReplayWindow =
+				new SecureMulticastChatAntiReplayWindow(WINDOW_SIZE, FIRST_SEQUENCE_NUMBER, 0);
+
+		int highestSequenceNumber = FIRST_SEQUENCE_NUMBER + 37;
+
+		assertAccepted(antiReplayWindow, highestSequenceNumber, 0);
+
+		// The oldest Sequence Number inside the window is still accepted, but not the one right after its edge
+		assertFalse(antiReplayWindow.isStale(highestSequenceNumber - WINDOW_SIZE + 1));
+		assertTrue(antiReplayWindow.isStale(highestSequenceNumber - WINDOW_SIZE));
+		assertTrue(antiReplayWindow.isStale(Integer.MIN_VALUE));
+
+		assertAccepted(antiReplayWindow, highestSequenceNumber - WINDOW_SIZE + 1, 0);
+
+		// The edge follows the highest Sequence Number
+		assertAccepted(antiReplayWindow, highestSequenceNumber + 1, 0);
+
+		assertTrue(antiReplayWindow.isStale(highestSequenceNumber - WINDOW_SIZE + 1));
+		assertFalse(antiReplayWindow.isStale(highestSequenceNumber - WINDOW_SIZE + 2));
+	}
+
+	/**
+	 * Tests the slides of the window across the boundaries of the blocks of 64 bits of its circular bitmap
+	 * (i.e., the blocks reused are cleared), and a jump larger than the whole window.
+	 */
+	@Test
+	public void testSlideAcrossBlocks() {
+		SecureMulticastChatAntiReplayWindow antiReplayWindow = new SecureMulticastChatAntiReplayWindow(WINDOW_SIZE, 60, 0);
+
+		// The Sequence Numbers across the boundary of the first two blocks
+		for(int sequenceNumber = 60; sequenceNumber <= 70; sequenceNumber++) {
+			assertAccepted(antiReplayWindow, sequenceNumber, 0);
+		}
+
+		// The window is slid, one block at a time, through all the blocks of the circular bitmap, more than once
+		int numBlocks = ( WINDOW_SIZE / Long.SIZE ) + 1;
+
+		for(int block = 2; block <= 3 * numBlocks; block++) {
+			int sequenceNumber = ( block * Long.SIZE ) + 5;
+
+			assertAccepted(antiReplayWindow, sequenceNumber, block);
+
+			// Only the Sequence Numbers accepted are duplicated, being the ones of the blocks reused free again
+			for(int behind = 1; behind < WINDOW_SIZE; behind++) {
+				int sequenceNumberBehind = sequenceNumber - behind;
+
+				assertFalse(antiReplayWindow.isStale(sequenceNumberBehind));
+				assertEquals(String.valueOf(sequenceNumberBehind),
+							 ( ( sequenceNumberBehind % Long.SIZE ) == 5 && sequenceNumberBehind >= ( 2 * Long.SIZE ) ) ||
+							 ( sequenceNumberBehind >= 60 && sequenceNumberBehind <= 70 ),
+							 antiReplayWindow.isDuplicate(sequenceNumberBehind));
+			}
+		}
+
+		// A jump larger than the whole window leaves only the new Sequence Number accepted
+		long highestSequenceNumber = antiReplayWindow.getHighestSequenceNumber();
+		int jumpedSequenceNumber = (int) highestSequenceNumber + ( 10 * WINDOW_SIZE ) + 17;
+
+		assertAccepted(antiReplayWindow, jumpedSequenceNumber, 0);
+
+		assertTrue(antiReplayWindow.isStale((int) highestSequenceNumber));
+
+		for(int behind = 1; behind < WINDOW_SIZE; behind++) {
+			assertFalse(antiReplayWindow.isStale(jumpedSequenceNumber - behind));
+			assertFalse(antiReplayWindow.isDuplicate(jumpedSequenceNumber - behind));
+		}
+	}
+
+	/**
+	 * Tests the seal of the window of a Peer interned again (i.e., all the Sequence Numbers up to the highest one
+	 * accepted before its eviction are rejected, being the next ones still accepted).
+	 */
+	@Test
+	public void testSeal() {
+		SecureMulticastChatAntiReplayWindow antiReplayWindow =
+				new SecureMulticastChatAntiReplayWindow(WINDOW_SIZE, FIRST_SEQUENCE_NUMBER, 0);
+
+		int sealedSequenceNumber = FIRST_SEQUENCE_NUMBER + 500;
+
+		antiReplayWindow.seal(sealedSequenceNumber);
+
+		assertEquals(sealedSequenceNumber, antiReplayWindow.getHighestSequenceNumber());
+
+		assertTrue(antiReplayWindow.isStale(sealedSequenceNumber - WINDOW_SIZE));
+
+		for(int behind = 0; behind < WINDOW_SIZE; behind++) {
+			assertFalse(antiReplayWindow.isStale(sealedSequenceNumber - behind));
+			assertTrue(antiReplayWindow.isDuplicate(sealedSequenceNumber - behind));
+		}
+
+		// The Sequence Numbers after the sealed one, in its block and in the next ones, are still accepted
+		for(int ahead = 1; ahead <= 2 * Long.SIZE; ahead++) {
+			assertAccepted(antiReplayWindow, sealedSequenceNumber + ahead, 0);
+		}
+
+		// A seal behind the highest Sequence Number accepted does not change the window
+		antiReplayWindow.seal(FIRST_SEQUENCE_NUMBER);
+
+		assertEquals(sealedSequenceNumber + ( 2 * Long.SIZE ), antiReplayWindow.getHighestSequenceNumber());
+		assertFalse(antiReplayWindow.isDuplicate(sealedSequenceNumber + ( 2 * Long.SIZE ) + 1));
+	}
+
+	/**
+	 * Tests that the sizes of the windows are rounded up to a multiple of 64 and bounded between 64 and 4096.
+	 */
+	@Test
+	public void testBoundWindowSize() {
+		int[][] windowSizes = {
+			{ Integer.MIN_VALUE, CommonUtils.MIN_ANTI_REPLAY_WINDOW_SIZE },
+			{ -1, CommonUtils.MIN_ANTI_REPLAY_WINDOW_SIZE },
+			{ 0, CommonUtils.MIN_ANTI_REPLAY_WINDOW_SIZE },
+			{ 1, CommonUtils.MIN_ANTI_REPLAY_WINDOW_SIZE },
+			{ 64, 64 },
+			{ 65, 128 },
+			{ 255, 256 },
+			{ 256, 256 },
+			{ 257, 320 },
+			{ 4095, CommonUtils.MAX_ANTI_REPLAY_WINDOW_SIZE },
+			{ 4096, CommonUtils.MAX_ANTI_REPLAY_WINDOW_SIZE },
+			{ 4097, CommonUtils.MAX_ANTI_REPLAY_WINDOW_SIZE },
+			{ Integer.MAX_VALUE, CommonUtils.MAX_ANTI_REPLAY_WINDOW_SIZE }
+		};
+
+		for(int[] windowSize : windowSizes) {
+			String description = String.valueOf(windowSize[0]);
+
+			assertEquals(description, windowSize[1], SecureMulticastChatAntiReplayWindow.boundWindowSize(windowSize[0]));
+			assertEquals(description, windowSize[1], new SecureMulticastChatAntiReplayWindow(windowSize[0], 1, 0).getWindowSize());
+
+			// The bitmap has one more block of 64 bits than the window
+			assertEquals(description, ( ( windowSize[1] / Long.SIZE ) + 1 ) * Long.BYTES,
+						 SecureMulticastChatAntiReplayWindow.getMemoryFootprintOf(windowSize[0]));
+		}
+	}
+
+	/**
+	 * Asserts that the given Sequence Number is accepted by the given window (i.e., not stale, nor duplicated),
+	 * marking it as accepted, and that it's duplicated, right after.
+	 *
+	 * @param antiReplayWindow the Anti-Replay Window
+	 * @param sequenceNumber the Sequence Number
+	 * @param timestamp the timestamp of the Sequence Number
+	 */
+	private static void assertAccepted(SecureMulticastChatAntiReplayWindow antiReplayWindow, int sequenceNumber, long timestamp) {
+		String description = String.valueOf(sequenceNumber);
+
+		assertFalse(description, antiReplayWindow.isStale(sequenceNumber));
+		assertFalse(description, antiReplayWindow.isDuplicate(sequenceNumber));
+
+		antiReplayWindow.update(sequenceNumber, timestamp);
+
+		assertTrue(description, antiReplayWindow.isDuplicate(sequenceNumber));
+	}
+
+}
@@ -0,0 +1,315 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import multicast.common.CommonUtils;
+import multicast.sockets.messages.utils.SecureMulticastChatPeers.PressureState;
+
+/**
+ *
+ * Tests of the table of the Peers (i.e., the interning and the lookup of the From Peer's IDs with colliding hashes,
+ * the removal of the Peers in the middle of a probing sequence, the eviction under pressure and the saturation).
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public class SecureMulticastChatPeersTest {
+
+	// Invariants/Constants:
+	/**
+	 * The From Peer's IDs with the same hash (i.e., "Aa" and "BB" have the same polynomial hash, and so their concatenations)
+	 */
+	private static final String[] COLLIDING_FROM_PEER_IDS = { "AaAa", "AaBB", "BBAa", "BBBB" };
+
+	/**
+	 * The offset of the From Peer's IDs serialized, in the buffers of the tests (i.e., as in a Datagram Packet received)
+	 */
+	private static final int FROM_PEER_ID_OFFSET = 7;
+
+	/**
+	 * The timeout of the Peers of the tests (in milliseconds)
+	 */
+	private static final long TIMEOUT = 2000;
+
+	/**
+	 * The interval of time of each generation of the tests (in milliseconds)
+	 */
+	private static final long GENERATION_INTERVAL = 1000;
+
+	/**
+	 * The hard cap of the memory footprint of the tables of the tests, under pressure (in bytes)
+	 */
+	private static final long SMALL_MAX_MEMORY_FOOTPRINT = 1 << 14;
+
+	/**
+	 * The maximum number of From Peer's IDs interned by the tests, to put the tables under pressure
+	 */
+	private static final int MAX_NUM_FROM_PEER_IDS = 100000;
+
+
+	// Methods:
+	/**
+	 * Returns a buffer with the given From Peer's ID serialized, at the offset of the tests, surrounded by other bytes.
+	 *
+	 * @param fromPeerID the From Peer's ID
+	 *
+	 * @return a buffer with the given From Peer's ID serialized, at the offset of the tests
+	 */
+	private static byte[] toBuffer(String fromPeerID) {
+		byte[] fromPeerIDSerialized = fromPeerID.getBytes(StandardCharsets.UTF_8);
+		byte[] buffer = new byte[FROM_PEER_ID_OFFSET + fromPeerIDSerialized.length + 3];
+
+		for(int i = 0; i < buffer.length; i++) {
+			buffer[i] = (byte) ( 0x5A + i );
+		}
+
+		System.arraycopy(fromPeerIDSerialized, 0, buffer, FROM_PEER_ID_OFFSET, fromPeerIDSerialized.length);
+
+		return buffer;
+	}
+
+	/**
+	 * Interns the given From Peer's ID, with the given Sequence Number, at the given time.
+	 *
+	 * @param peers the table of the Peers
+	 * @param fromPeerID the From Peer's ID
+	 * @param sequenceNumber the Sequence Number of the Secure Message received
+	 * @param timestamp the timestamp of the Secure Message received
+	 *
+	 * @return the canonical Peer of the given From Peer's ID, or null, if it was rejected
+	 */
+	private static SecureMulticastChatPeer intern(SecureMulticastChatPeers peers, String fromPeerID, int sequenceNumber, long timestamp) {
+		byte[] buffer = toBuffer(fromPeerID);
+
+		return peers.intern(buffer, FROM_PEER_ID_OFFSET, buffer.length - FROM_PEER_ID_OFFSET - 3,
+							InetAddress.getLoopbackAddress(), sequenceNumber, timestamp);
+	}
+
+	/**
+	 * Finds the given From Peer's ID, without interning it.
+	 *
+	 * @param peers the table of the Peers
+	 * @param fromPeerID the From Peer's ID
+	 *
+	 * @return the canonical Peer of the given From Peer's ID, or null, if it's not interned
+	 */
+	private static SecureMulticastChatPeer find(SecureMulticastChatPeers peers, String fromPeerID) {
+		byte[] buffer = toBuffer(fromPeerID);
+
+		return peers.find(buffer, FROM_PEER_ID_OFFSET, buffer.length - FROM_PEER_ID_OFFSET - 3);
+	}
+
+	/**
+	 * Tests that the From Peer's IDs with the same hash are interned into distinct Peers,
+	 * being each one found and interned again into its own canonical Peer.
+	 */
+	@Test
+	public void testCollidingHashes() {
+		SecureMulticastChatPeers peers = new SecureMulticastChatPeers(CommonUtils.DEFAULT_ANTI_REPLAY_WINDOW_SIZE,
+																	  TIMEOUT, GENERATION_INTERVAL, 1 << 20);
+
+		SecureMulticastChatPeer[] collidingPeers = new SecureMulticastChatPeer[COLLIDING_FROM_PEER_IDS.length];
+
+		for(int i = 0; i < COLLIDING_FROM_PEER_IDS.length; i++) {
+			assertNull(find(peers, COLLIDING_FROM_PEER_IDS[i]));
+
+			collidingPeers[i] = intern(peers, COLLIDING_FROM_PEER_IDS[i], 1, 0);
+
+			assertNotNull(collidingPeers[i]);
+			assertEquals(COLLIDING_FROM_PEER_IDS[i], collidingPeers[i].getFromPeerID());
+			assertEquals(collidingPeers[0].getHash(), collidingPeers[i].getHash());
+		}
+
+		assertEquals(COLLIDING_FROM_PEER_IDS.length, peers.size());
+
+		for(int i = 0; i < COLLIDING_FROM_PEER_IDS.length; i++) {
+			assertSame(collidingPeers[i], find(peers, COLLIDING_FROM_PEER_IDS[i]));
+			assertSame(collidingPeers[i], intern(peers, COLLIDING_FROM_PEER_IDS[i], 2, 10));
+
+			for(int j = 0; j < i; j++) {
+				assertNotEquals(collidingPeers[j].getPeerID(), collidingPeers[i].getPeerID());
+			}
+		}
+
+		assertEquals(COLLIDING_FROM_PEER_IDS.length, peers.size());
+
+		// The prefixes and the From Peer's IDs with the same hash, but not interned, are not found
+		assertNull(find(peers, "Aa"));
+		assertNull(find(peers, "AaAaAa"));
+		assertNull(find(peers, "AaAaBB"));
+	}
+
+	/**
+	 * Tests that the Peers following, in the same probing sequence, a Peer removed from the table are still found
+	 * (i.e., they are shifted back, instead of being hidden by the free position left).
+	 */
+	@Test
+	public void testRemovalDuringProbing() {
+		SecureMulticastChatPeers peers = new SecureMulticastChatPeers(CommonUtils.DEFAULT_ANTI_REPLAY_WINDOW_SIZE,
+																	  TIMEOUT, GENERATION_INTERVAL, 1 << 20);
+
+		// The first From Peer's ID, at the head of the probing sequence, is interned in an older generation than the other ones
+		SecureMulticastChatPeer firstPeer = intern(peers, COLLIDING_FROM_PEER_IDS[0], 1, 0);
+
+		for(int i = 1; i < COLLIDING_FROM_PEER_IDS.length; i++) {
+			assertNotNull(intern(peers, COLLIDING_FROM_PEER_IDS[i], 1, TIMEOUT));
+		}
+
+		assertEquals(1, peers.expire(TIMEOUT + GENERATION_INTERVAL));
+		assertEquals(COLLIDING_FROM_PEER_IDS.length - 1, peers.size());
+
+		assertNull(find(peers, COLLIDING_FROM_PEER_IDS[0]));
+
+		for(int i = 1; i < COLLIDING_FROM_PEER_IDS.length; i++) {
+			SecureMulticastChatPeer peer = find(peers, COLLIDING_FROM_PEER_IDS[i]);
+
+			assertNotNull(peer);
+			assertSame(peer, intern(peers, COLLIDING_FROM_PEER_IDS[i], 2, TIMEOUT + GENERATION_INTERVAL));
+		}
+
+		assertEquals(COLLIDING_FROM_PEER_IDS.length - 1, peers.size());
+
+		// The Peer removed is interned again, as a new Peer, with a new stable ID
+		SecureMulticastChatPeer firstPeerInternedAgain = intern(peers, COLLIDING_FROM_PEER_IDS[0], 1, TIMEOUT + GENERATION_INTERVAL);
+
+		assertNotSame(firstPeer, firstPeerInternedAgain);
+		assertNotEquals(firstPeer.getPeerID(), firstPeerInternedAgain.getPeerID());
+		assertEquals(COLLIDING_FROM_PEER_IDS.length, peers.size());
+	}
+
+	/**
+	 * Tests that, under pressure, the new Peers are interned with the minimum Anti-Replay Window and the idle Peers
+	 * of the older generations are evicted, being the Secure Messages sent by a Peer evicted, before its eviction,
+	 * still rejected, once it's interned again.
+	 */
+	@Test
+	public void testEvictionUnderPressure() {
+		SecureMulticastChatPeers peers = new SecureMulticastChatPeers(CommonUtils.DEFAULT_ANTI_REPLAY_WINDOW_SIZE,
+																	  TIMEOUT, GENERATION_INTERVAL, SMALL_MAX_MEMORY_FOOTPRINT);
+
+		List<String> oldFromPeerIDs = new ArrayList<>();
+
+		// The older generation is filled, until the table is under pressure
+		while(peers.getPressureState() == PressureState.NORMAL) {
+			String fromPeerID = "old-peer-" + oldFromPeerIDs.size();
+			SecureMulticastChatPeer peer = intern(peers, fromPeerID, 100, 0);
+
+			assertEquals(CommonUtils.DEFAULT_ANTI_REPLAY_WINDOW_SIZE, peer.getAntiReplayWindow().getWindowSize());
+
+			peer.getAntiReplayWindow().update(100, 0);
+			oldFromPeerIDs.add(fromPeerID);
+		}
+
+		assertEquals(PressureState.PRESSURE, peers.getPressureState());
+
+		// The new Peers, in the next generation, evict the idle Peers of the older one, instead of being rejected
+		int numNewPeers = 0;
+
+		while(peers.getNumPeersEvicted() == 0) {
+			SecureMulticastChatPeer peer = intern(peers, "new-peer-" + numNewPeers++, 1, GENERATION_INTERVAL);
+
+			assertNotNull(peer);
+			assertEquals(CommonUtils.MIN_ANTI_REPLAY_WINDOW_SIZE, peer.getAntiReplayWindow().getWindowSize());
+			assertTrue(numNewPeers < MAX_NUM_FROM_PEER_IDS);
+		}
+
+		assertTrue(peers.getMemoryFootprint() <= SMALL_MAX_MEMORY_FOOTPRINT);
+		assertEquals(0, peers.getNumPeersRejected());
+		assertTrue(peers.getNumEvictedPeersRecords() > 0);
+
+		String evictedFromPeerID = null;
+
+		for(String oldFromPeerID : oldFromPeerIDs) {
+			if(find(peers, oldFromPeerID) == null) {
+				evictedFromPeerID = oldFromPeerID;
+				break;
+			}
+		}
+
+		assertNotNull(evictedFromPeerID);
+
+		// The Peer evicted is interned again, with its Anti-Replay Window sealed up to its highest Sequence Number accepted
+		SecureMulticastChatPeer evictedPeerInternedAgain = intern(peers, evictedFromPeerID, 50, GENERATION_INTERVAL);
+		SecureMulticastChatAntiReplayWindow antiReplayWindow = evictedPeerInternedAgain.getAntiReplayWindow();
+
+		assertNotNull(evictedPeerInternedAgain);
+		assertTrue(antiReplayWindow.isStale(50) || antiReplayWindow.isDuplicate(50));
+		assertTrue(antiReplayWindow.isStale(100) || antiReplayWindow.isDuplicate(100));
+		assertFalse(antiReplayWindow.isStale(101) || antiReplayWindow.isDuplicate(101));
+
+		assertTrue(peers.getMemoryFootprint() <= SMALL_MAX_MEMORY_FOOTPRINT);
+	}
+
+	/**
+	 * Tests that, once the table is saturated (i.e., only the Peers of the current generation are left to be evicted),
+	 * the new Peers are rejected (i.e., null is returned), being the Peers already interned still found,
+	 * and the new Peers interned again in the next generation, by evicting the idle ones.
+	 */
+	@Test
+	public void testSaturationReturnsNull() {
+		SecureMulticastChatPeers peers = new SecureMulticastChatPeers(CommonUtils.DEFAULT_ANTI_REPLAY_WINDOW_SIZE,
+																	  TIMEOUT, GENERATION_INTERVAL, SMALL_MAX_MEMORY_FOOTPRINT);
+
+		int numPeers = 0;
+
+		while(intern(peers, "peer-" + numPeers, 1, 0) != null) {
+			numPeers++;
+
+			assertTrue(numPeers < MAX_NUM_FROM_PEER_IDS);
+		}
+
+		assertTrue(numPeers > 0);
+		assertEquals(numPeers, peers.size());
+		assertEquals(1, peers.getNumPeersRejected());
+		assertEquals(0, peers.getNumPeersEvicted());
+		assertEquals(PressureState.SATURATED, peers.getPressureState());
+		assertTrue(peers.getMemoryFootprint() <= SMALL_MAX_MEMORY_FOOTPRINT);
+
+		// The Peers already interned are still found, but the new ones are rejected right away, in the same generation
+		assertNotNull(intern(peers, "peer-0", 2, 10));
+		assertNotNull(find(peers, "peer-" + ( numPeers - 1 )));
+		assertNull(intern(peers, "peer-" + numPeers, 1, 10));
+		assertNull(find(peers, "peer-" + numPeers));
+		assertEquals(2, peers.getNumPeersRejected());
+
+		// In the next generation, the idle Peers of the older one are evicted, so a new Peer is interned again
+		assertNotNull(intern(peers, "peer-" + numPeers, 1, GENERATION_INTERVAL));
+		assertTrue(peers.getNumPeersEvicted() > 0);
+		assertNotEquals(PressureState.SATURATED, peers.getPressureState());
+		assertTrue(peers.getMemoryFootprint() <= SMALL_MAX_MEMORY_FOOTPRINT);
+	}
+
+}
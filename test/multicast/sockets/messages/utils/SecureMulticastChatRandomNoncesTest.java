@@ -0,0 +1,322 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import multicast.common.CommonUtils;
+import multicast.sockets.messages.utils.SecureMulticastChatRandomNonces.AdditionResult;
+
+/**
+ *
+ * Tests of the table of the Random Nonces (i.e., its sizing by a hard cap of memory and by a rate, the linear probing
+ * of each generation, the drop of the generations expired and the full generations).
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public class SecureMulticastChatRandomNoncesTest {
+
+	// Invariants/Constants:
+	/**
+	 * The timeout of the Random Nonces of the tests (in milliseconds)
+	 */
+	private static final long TIMEOUT = 60000;
+
+	/**
+	 * The interval of time of each generation of the tests (in milliseconds)
+	 */
+	private static final long GENERATION_INTERVAL = 10000;
+
+
+	// Methods:
+	/**
+	 * Tests that the tables sized by a hard cap of memory do not exceed it, being the largest ones that fit in it.
+	 */
+	@Test
+	public void testCapacityFitsMemoryFootprint() {
+		long[] maxMemoryFootprints = { 1, 1 << 10, 1 << 18, ( 1 << 18 ) + 12345, 1 << 21, 3 << 20, 1 << 22, 5 << 21 };
+		long[][] timeouts = { { 60000, 10000 }, { 60000, 7000 }, { 1000, 1000 }, { 300000, 60000 } };
+
+		for(long maxMemoryFootprint : maxMemoryFootprints) {
+			for(long[] timeout : timeouts) {
+				int capacity = SecureMulticastChatRandomNonces.getCapacity(maxMemoryFootprint, timeout[0], timeout[1]);
+
+				SecureMulticastChatRandomNonces randomNonces = new SecureMulticastChatRandomNonces(capacity, timeout[0], timeout[1]);
+				String description = maxMemoryFootprint + " B, " + timeout[0] + "/" + timeout[1] + " ms: " + randomNonces;
+
+				assertEquals(description, capacity, randomNonces.getCapacity());
+
+				// The smallest table (i.e., 2 positions per generation of each stripe) is built, even if it does not fit
+				if(randomNonces.getGenerationCapacity() > 16) {
+					assertTrue(description, randomNonces.getMemoryFootprint() <= maxMemoryFootprint);
+
+					// The positions of each generation of each stripe are a power of two, so the next size does not fit
+					assertTrue(description, ( 2 * randomNonces.getMemoryFootprint() ) > maxMemoryFootprint);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tests that the tables sized for a rate of the Secure Messages received keep all their Random Nonces, in each generation,
+	 * and that the default hard cap of memory fits the ones of the default rate.
+	 */
+	@Test
+	public void testCapacityForRate() {
+		for(int rate : new int[] { 1, 136, 1000, CommonUtils.DEFAULT_RANDOM_NONCES_RATE, 5000 }) {
+			for(long[] timeout : new long[][] { { 60000, 10000 }, { 60000, 7000 } }) {
+				SecureMulticastChatRandomNonces randomNonces =
+						new SecureMulticastChatRandomNonces(SecureMulticastChatRandomNonces.getCapacityForRate(rate, timeout[0], timeout[1]),
+															timeout[0], timeout[1]);
+
+				assertTrue(rate + " /s: " + randomNonces, randomNonces.getGenerationCapacity() >= ( ( rate * timeout[1] ) / 1000 ));
+			}
+		}
+
+		int randomNoncesCapacityForRate =
+				SecureMulticastChatRandomNonces.getCapacityForRate(CommonUtils.DEFAULT_RANDOM_NONCES_RATE,
+																   CommonUtils.RANDOM_NONCES_CLEANING_TIMEOUT,
+																   CommonUtils.REPLAY_STATE_GENERATION_INTERVAL);
+		int randomNoncesMaxCapacity =
+				SecureMulticastChatRandomNonces.getCapacity(( ( (long) CommonUtils.DEFAULT_REPLAY_STATE_MAX_MEMORY_FOOTPRINT ) *
+															  CommonUtils.RANDOM_NONCES_MAX_MEMORY_FOOTPRINT_PERCENTAGE ) / 100,
+															CommonUtils.RANDOM_NONCES_CLEANING_TIMEOUT,
+															CommonUtils.REPLAY_STATE_GENERATION_INTERVAL);
+
+		assertTrue(randomNoncesCapacityForRate <= randomNoncesMaxCapacity);
+	}
+
+	/**
+	 * Tests the Random Nonces checked and inserted in a full generation, probing colliding positions.
+	 */
+	@Test
+	public void testAddAndContainsWithProbing() {
+		SecureMulticastChatRandomNonces randomNonces = new SecureMulticastChatRandomNonces(7 * 16 * 8, TIMEOUT, GENERATION_INTERVAL);
+		Random random = new Random(42);
+
+		int[] kept = new int[randomNonces.getGenerationCapacity()];
+		int numKept = 0;
+
+		// Half of the positions of each generation are filled, so the probing sequences cross occupied positions
+		while(numKept < kept.length) {
+			int randomNonce = random.nextInt();
+
+			AdditionResult additionResult = randomNonces.add(randomNonce, 0);
+
+			assertNotEquals(AdditionResult.DUPLICATE, additionResult);
+
+			if(additionResult == AdditionResult.ADDED) {
+				kept[numKept++] = randomNonce;
+			}
+		}
+
+		assertEquals(kept.length, randomNonces.size());
+
+		for(int randomNonce : kept) {
+			assertTrue(randomNonces.contains(randomNonce, 0));
+			assertEquals(AdditionResult.DUPLICATE, randomNonces.add(randomNonce, GENERATION_INTERVAL - 1));
+		}
+
+		// The Random Nonces not kept, mapped to the same stripes and positions, are not found
+		for(int i = 0; i < 10000; i++) {
+			int randomNonce = random.nextInt();
+
+			if(!isKept(kept, randomNonce)) {
+				assertFalse(randomNonces.contains(randomNonce, 0));
+			}
+		}
+	}
+
+	/**
+	 * Tests that the Random Nonces are kept, at least, during their timeout, and, at most, during one more generation,
+	 * being the generations dropped without breaking the probing sequences of the live ones.
+	 */
+	@Test
+	public void testGenerationsDropped() {
+		SecureMulticastChatRandomNonces randomNonces = new SecureMulticastChatRandomNonces(1 << 12, TIMEOUT, GENERATION_INTERVAL);
+
+		int numGenerations = randomNonces.getNumGenerations();
+
+		assertEquals(( TIMEOUT / GENERATION_INTERVAL ) + 1, numGenerations);
+
+		// One Random Nonce per generation, until the ring is full
+		for(int generation = 0; generation < numGenerations; generation++) {
+			assertEquals(AdditionResult.ADDED, randomNonces.add(generation, ( generation * GENERATION_INTERVAL ) + 1));
+		}
+
+		long lastTime = ( numGenerations - 1 ) * GENERATION_INTERVAL;
+
+		for(int generation = 0; generation < numGenerations; generation++) {
+			assertTrue(randomNonces.contains(generation, lastTime));
+		}
+
+		// The oldest generation is only dropped after the timeout of its Random Nonce
+		assertTrue(randomNonces.contains(0, TIMEOUT));
+		assertEquals(1, randomNonces.expire(numGenerations * GENERATION_INTERVAL));
+		assertFalse(randomNonces.contains(0, numGenerations * GENERATION_INTERVAL));
+
+		for(int generation = 1; generation < numGenerations; generation++) {
+			assertTrue(randomNonces.contains(generation, numGenerations * GENERATION_INTERVAL));
+		}
+
+		// The Random Nonce dropped is accepted again, in the reused generation
+		assertEquals(AdditionResult.ADDED, randomNonces.add(0, numGenerations * GENERATION_INTERVAL));
+		assertEquals(AdditionResult.DUPLICATE, randomNonces.add(0, numGenerations * GENERATION_INTERVAL));
+
+		// A jump longer than the whole ring drops all the generations at once
+		assertEquals(numGenerations, randomNonces.expire(10 * numGenerations * GENERATION_INTERVAL));
+		assertEquals(0, randomNonces.size());
+	}
+
+	/**
+	 * Tests that the Random Nonces are reported as not kept, if the current generation of their stripe is full
+	 * (i.e., so their Secure Messages are rejected), being kept again in the next generation.
+	 */
+	@Test
+	public void testFullStripe() {
+		SecureMulticastChatRandomNonces randomNonces = new SecureMulticastChatRandomNonces(1, TIMEOUT, GENERATION_INTERVAL);
+
+		// The smallest table keeps one Random Nonce per generation of each stripe
+		assertEquals(16, randomNonces.getGenerationCapacity());
+
+		Random random = new Random(7);
+		int numAdded = 0;
+
+		while(randomNonces.getGenerationSize(0) < randomNonces.getGenerationCapacity()) {
+			randomNonces.add(random.nextInt(), 0);
+			numAdded++;
+		}
+
+		assertEquals(numAdded - randomNonces.getGenerationCapacity(), randomNonces.getNumRandomNoncesNotKept());
+
+		// All the stripes are full, so any new Random Nonce is not kept, nor found
+		for(int i = 0; i < 100; i++) {
+			int randomNonce = random.nextInt();
+
+			if(!randomNonces.contains(randomNonce, 0)) {
+				long numRandomNoncesNotKept = randomNonces.getNumRandomNoncesNotKept();
+
+				assertEquals(AdditionResult.NOT_KEPT, randomNonces.add(randomNonce, 0));
+				assertEquals(numRandomNoncesNotKept + 1, randomNonces.getNumRandomNoncesNotKept());
+				assertFalse(randomNonces.contains(randomNonce, 0));
+			}
+		}
+
+		assertEquals(randomNonces.getGenerationCapacity(), randomNonces.size());
+
+		// The next generation has free positions again
+		long numRandomNoncesNotKept = randomNonces.getNumRandomNoncesNotKept();
+		int randomNonce;
+
+		do {
+			randomNonce = random.nextInt();
+		}
+		while(randomNonces.contains(randomNonce, GENERATION_INTERVAL));
+
+		assertEquals(AdditionResult.ADDED, randomNonces.add(randomNonce, GENERATION_INTERVAL));
+		assertEquals(numRandomNoncesNotKept, randomNonces.getNumRandomNoncesNotKept());
+		assertTrue(randomNonces.contains(randomNonce, GENERATION_INTERVAL));
+	}
+
+	/**
+	 * Tests that the positions of the generations are only allocated as the Random Nonces are inserted,
+	 * being grown (without losing any Random Nonce kept), up to the cap of the memory footprint of the table.
+	 */
+	@Test
+	public void testAllocationGrowsWithTraffic() {
+		int capacity = SecureMulticastChatRandomNonces.getCapacityForRate(CommonUtils.DEFAULT_RANDOM_NONCES_RATE,
+																		   CommonUtils.RANDOM_NONCES_CLEANING_TIMEOUT,
+																		   CommonUtils.REPLAY_STATE_GENERATION_INTERVAL);
+
+		SecureMulticastChatRandomNonces randomNonces =
+				new SecureMulticastChatRandomNonces(capacity, CommonUtils.RANDOM_NONCES_CLEANING_TIMEOUT,
+													CommonUtils.REPLAY_STATE_GENERATION_INTERVAL);
+
+		long generationInterval = randomNonces.getGenerationInterval();
+
+		assertEquals(0, randomNonces.getAllocatedMemoryFootprint());
+
+		// A few Secure Messages only allocate a few positions, in a few stripes
+		Random random = new Random(3);
+
+		for(int i = 0; i < 10; i++) {
+			assertEquals(AdditionResult.ADDED, randomNonces.add(random.nextInt(), 0));
+		}
+
+		assertTrue(randomNonces.toString(), randomNonces.getAllocatedMemoryFootprint() <= 10 * 16 * 8);
+
+		// A full generation is grown up to its cap, keeping all its Random Nonces, through the rehashing
+		int[] kept = new int[randomNonces.getGenerationCapacity()];
+		int numKept = 0;
+
+		while(numKept < kept.length) {
+			int randomNonce = random.nextInt();
+
+			if(randomNonces.add(randomNonce, generationInterval) == AdditionResult.ADDED) {
+				kept[numKept++] = randomNonce;
+			}
+		}
+
+		for(int randomNonce : kept) {
+			assertTrue(randomNonces.contains(randomNonce, generationInterval));
+		}
+
+		assertTrue(randomNonces.toString(),
+				   randomNonces.getAllocatedMemoryFootprint() <= ( randomNonces.getGenerationMemoryFootprint() + 10 * 16 * 8 ));
+
+		// The positions allocated never exceed the cap, being reused by the next generations
+		for(int generation = 2; generation < ( 2 * randomNonces.getNumGenerations() ); generation++) {
+			for(int i = 0; i < randomNonces.getGenerationCapacity(); i++) {
+				randomNonces.add(random.nextInt(), generation * generationInterval);
+			}
+
+			assertTrue(randomNonces.toString(), randomNonces.getAllocatedMemoryFootprint() <= randomNonces.getMemoryFootprint());
+		}
+
+		assertEquals(randomNonces.getMemoryFootprint(), randomNonces.getAllocatedMemoryFootprint());
+	}
+
+	/**
+	 * Returns true if the given Random Nonce is in the given Random Nonces kept, and false, otherwise.
+	 *
+	 * @param kept the Random Nonces kept
+	 * @param randomNonce the Random Nonce
+	 *
+	 * @return true if the given Random Nonce is in the given Random Nonces kept, and false, otherwise
+	 */
+	private static boolean isKept(int[] kept, int randomNonce) {
+		for(int keptRandomNonce : kept) {
+			if(keptRandomNonce == randomNonce) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+}
@@ -0,0 +1,553 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.security.GeneralSecurityException;
+import java.security.Security;
+import java.util.Arrays;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import multicast.common.CommonCodecs;
+import multicast.common.CommonUtils;
+import multicast.common.MessageType;
+import multicast.common.VersionNumber;
+import multicast.sockets.messages.FinalSecureMessageDecoder;
+import multicast.sockets.messages.FinalSecureMessageEncoder;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionBoundsValidator.RejectionReason;
+import multicast.sockets.messages.utils.SecureMulticastChatSessionRejections.Rejection;
+
+/**
+ *
+ * Tests of the Bounds Validator of a Session (i.e., each malformed size is rejected, being counted by the right reason),
+ * fed directly with the sizes announced, and through the Final Secure Message's Decoder, with forged Final Secure Messages,
+ * in the VERSION_01 format (i.e., with a Secure Message's Meta-Header) and in the VERSION_02 format (i.e., the compact one).
+ *
+ * NOTE:
+ * - The Sessions are the ones of SMCP.conf, with the Secret Keys of the Keystore of the project;
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public class SecureMulticastChatSessionBoundsValidatorTest {
+
+	// Invariants/Constants:
+	/**
+	 * The ID of the Session of the Final Secure Messages forged (i.e., a Symmetric Encryption in the CBC Mode, with a MAC)
+	 */
+	private static final String SESSION_ID = "224.1.1.1:9876";
+
+	/**
+	 * The size of the Secure Message's Meta-Header, in the VERSION_01 format
+	 */
+	private static final int SIZE_OF_SECURE_MESSAGE_META_HEADER =
+			( CommonUtils.NUM_COMPONENTS_META_HEADER * CommonUtils.INTEGER_IN_BYTES_LENGTH ) +
+			( CommonUtils.META_HEADER_OUTSIDE_SEPARATORS * CommonUtils.META_HEADER_OUTSIDE_SEPARATORS_LENGTH ) +
+			( CommonUtils.META_HEADER_INSIDE_SEPARATORS * CommonUtils.META_HEADER_INSIDE_SEPARATORS_LENGTH );
+
+	/**
+	 * The size of the fixed part of the Secure Message's Header, in the VERSION_02 format
+	 * (i.e., the Version Number, the Message Type, the Session Tag, the Sequence Number and the Random Nonce)
+	 */
+	private static final int SIZE_OF_COMPACT_SECURE_MESSAGE_HEADER_FIXED =
+			( 2 * CommonUtils.BYTE_LENGTH ) + ( 3 * CommonUtils.INTEGER_IN_BYTES_LENGTH );
+
+	/**
+	 * The offset of the Final Secure Messages forged, in their buffers (i.e., so the offsets are respected)
+	 */
+	private static final int FINAL_SECURE_MESSAGE_OFFSET = 3;
+
+	/**
+	 * The indexes of the sizes announced by a Secure Message's Meta-Header, in the tables of the sizes of the tests
+	 * (i.e., after the size of the Final Secure Message and of the Secure Message's Meta-Header)
+	 */
+	private static final int FINAL_SECURE_MESSAGE = 0;
+	private static final int HEADER = 2;
+	private static final int ATTRIBUTES = 3;
+	private static final int PAYLOAD = 4;
+	private static final int FROM_PEER_ID = 5;
+	private static final int MESSAGE = 6;
+	private static final int INTEGRITY_CONTROL = 7;
+	private static final int FAST_CHECK = 8;
+	private static final int IV = 9;
+
+	/**
+	 * The maximum sizes of the From Peer's ID and of the Message of the Bounds Validators built directly
+	 */
+	private static final int MAX_SIZE_OF_FROM_PEER_ID = 64;
+	private static final int MAX_SIZE_OF_MESSAGE = 1024;
+
+	/**
+	 * The sizes of a valid Secure Message, of a Bounds Validator of a Symmetric Encryption in the CBC Mode, with a MAC
+	 * (i.e., a SID of 8 bytes, Attributes of 32 bytes, a MAC of 32 bytes, an IV and a block of 16 bytes
+	 * and an Integrity Control of 32 bytes), being its Plain Text of 56 bytes padded to 64 bytes:
+	 * [ Final Secure Message, Meta-Header, Header, Attributes, Payload, From Peer's ID, Message, Integrity Control,
+	 *   Fast Check, IV ]
+	 */
+	private static final int[] VALID_SIZES = { 200, 42, 10, 32, 64, 5, 11, 32, 32, 16 };
+
+	/**
+	 * The sizes of a valid Secure Message, of a Bounds Validator of an Authenticated Encryption
+	 * (i.e., an authentication tag of 16 bytes and an IV of 12 bytes, without any Fast Check, nor Integrity Control)
+	 */
+	private static final int[] VALID_SIZES_AUTHENTICATED_ENCRYPTION = { 140, 42, 10, 32, 40, 5, 11, 0, 0, 12 };
+
+
+	// Methods:
+	/**
+	 * Installs the BouncyCastle Cryptographic Provider, as done by the (Secure) Multicast Chat.
+	 */
+	@BeforeClass
+	public static void installBouncyCastleProvider() {
+		Security.addProvider(new BouncyCastleProvider());
+	}
+
+	/**
+	 * Returns a new Bounds Validator of a Symmetric Encryption in the CBC Mode, with a MAC.
+	 *
+	 * @return a new Bounds Validator of a Symmetric Encryption in the CBC Mode, with a MAC
+	 */
+	private static SecureMulticastChatSessionBoundsValidator newBoundsValidator() {
+		return new SecureMulticastChatSessionBoundsValidator(8, 32, false, 32, 16, 32, 16, true,
+															 MAX_SIZE_OF_FROM_PEER_ID, MAX_SIZE_OF_MESSAGE);
+	}
+
+	/**
+	 * Returns a new Bounds Validator of an Authenticated Encryption.
+	 *
+	 * @return a new Bounds Validator of an Authenticated Encryption
+	 */
+	private static SecureMulticastChatSessionBoundsValidator newAuthenticatedEncryptionBoundsValidator() {
+		return new SecureMulticastChatSessionBoundsValidator(8, 32, true, 16, 12, 20, 16, false,
+															 MAX_SIZE_OF_FROM_PEER_ID, MAX_SIZE_OF_MESSAGE);
+	}
+
+	/**
+	 * Tests the sizes announced by the Secure Message's Meta-Header, in the VERSION_01 format
+	 * (i.e., each malformed size is rejected by the right reason).
+	 */
+	@Test
+	public void testSecureMessageMetaHeader() {
+		Object[][] cases = {
+			{ "valid", FINAL_SECURE_MESSAGE, 200, null },
+			{ "shorter than the Meta-Header", FINAL_SECURE_MESSAGE, 41, RejectionReason.TRUNCATED },
+			{ "negative Header", HEADER, -1, RejectionReason.NEGATIVE_SIZE },
+			{ "negative Attributes", ATTRIBUTES, -1, RejectionReason.NEGATIVE_SIZE },
+			{ "negative Payload", PAYLOAD, Integer.MIN_VALUE, RejectionReason.NEGATIVE_SIZE },
+			{ "negative From Peer's ID", FROM_PEER_ID, -1, RejectionReason.NEGATIVE_SIZE },
+			{ "negative Message", MESSAGE, -1, RejectionReason.NEGATIVE_SIZE },
+			{ "negative Integrity Control", INTEGRITY_CONTROL, -1, RejectionReason.NEGATIVE_SIZE },
+			{ "negative Fast Check", FAST_CHECK, -1, RejectionReason.NEGATIVE_SIZE },
+			{ "negative IV", IV, -1, RejectionReason.NEGATIVE_SIZE },
+			{ "wrong Header size", HEADER, 11, RejectionReason.SECURE_MESSAGE_HEADER_SIZE },
+			{ "wrong Attributes size", ATTRIBUTES, 20, RejectionReason.SECURE_MESSAGE_ATTRIBUTES_SIZE },
+			{ "wrong tag size", FAST_CHECK, 20, RejectionReason.FAST_SECURE_MESSAGE_CHECK_SIZE },
+			{ "wrong IV size", IV, 12, RejectionReason.IV_SIZE },
+			{ "wrong digest size", INTEGRITY_CONTROL, 20, RejectionReason.INTEGRITY_CONTROL_SIZE },
+			{ "From Peer's ID over the maximum", FROM_PEER_ID, MAX_SIZE_OF_FROM_PEER_ID + 1, RejectionReason.FROM_PEER_ID_SIZE },
+			{ "From Peer's ID far over the maximum", FROM_PEER_ID, Integer.MAX_VALUE, RejectionReason.FROM_PEER_ID_SIZE },
+			{ "Message over the maximum", MESSAGE, MAX_SIZE_OF_MESSAGE + 1, RejectionReason.MESSAGE_SIZE },
+			{ "misaligned Cipher Text", PAYLOAD, 65, RejectionReason.SECURE_MESSAGE_PAYLOAD_SIZE },
+			{ "Cipher Text without padding", PAYLOAD, 56, RejectionReason.SECURE_MESSAGE_PAYLOAD_SIZE },
+			{ "Cipher Text padded beyond a block", PAYLOAD, 80, RejectionReason.SECURE_MESSAGE_PAYLOAD_SIZE },
+			{ "Cipher Text shorter than the Plain Text", PAYLOAD, 48, RejectionReason.SECURE_MESSAGE_PAYLOAD_SIZE },
+			{ "Cipher Text overflowing the sizes", PAYLOAD, Integer.MAX_VALUE, RejectionReason.SECURE_MESSAGE_PAYLOAD_SIZE },
+			{ "Datagram Packet longer than announced", FINAL_SECURE_MESSAGE, 201, RejectionReason.DATAGRAM_PACKET_SIZE },
+			{ "Datagram Packet shorter than announced", FINAL_SECURE_MESSAGE, 199, RejectionReason.DATAGRAM_PACKET_SIZE }
+		};
+
+		assertMetaHeaderCases(newBoundsValidator(), VALID_SIZES, cases);
+
+		Object[][] authenticatedEncryptionCases = {
+			{ "valid", FINAL_SECURE_MESSAGE, 140, null },
+			{ "Fast Check with an Authenticated Encryption", FAST_CHECK, 16, RejectionReason.FAST_SECURE_MESSAGE_CHECK_SIZE },
+			{ "Integrity Control with an Authenticated Encryption", INTEGRITY_CONTROL, 20,
+			  RejectionReason.INTEGRITY_CONTROL_SIZE },
+			{ "wrong IV size", IV, 16, RejectionReason.IV_SIZE },
+			{ "Cipher Text without the authentication tag", PAYLOAD, 24, RejectionReason.SECURE_MESSAGE_PAYLOAD_SIZE },
+			{ "Cipher Text with a longer authentication tag", PAYLOAD, 41, RejectionReason.SECURE_MESSAGE_PAYLOAD_SIZE },
+			{ "Datagram Packet longer than announced", FINAL_SECURE_MESSAGE, 141, RejectionReason.DATAGRAM_PACKET_SIZE }
+		};
+
+		assertMetaHeaderCases(newAuthenticatedEncryptionBoundsValidator(), VALID_SIZES_AUTHENTICATED_ENCRYPTION,
+							  authenticatedEncryptionCases);
+	}
+
+	/**
+	 * Tests the size of a Secure Message, in the VERSION_02 format (i.e., derived from the size of the Datagram Packet
+	 * and from the size of its From Peer's ID), and the size of its Message, derived from its Payload deciphered.
+	 */
+	@Test
+	public void testCompactSecureMessage() {
+
+		// [ Header (fixed) || size of the From Peer's ID (1 byte) || From Peer's ID (5 bytes) || Attributes || IV || Payload || MAC ]
+		int sizeOfSecureMessageWithoutPayload = SIZE_OF_COMPACT_SECURE_MESSAGE_HEADER_FIXED + 1 + 5 + 32 + 16 + 32;
+
+		Object[][] cases = {
+			{ "valid", sizeOfSecureMessageWithoutPayload + 48, 5, null },
+			{ "valid, with the maximum Message", sizeOfSecureMessageWithoutPayload + 1072, 5, null },
+			{ "malformed size of the From Peer's ID", sizeOfSecureMessageWithoutPayload + 48, -1, RejectionReason.MALFORMED_SIZE },
+			{ "From Peer's ID over the maximum", sizeOfSecureMessageWithoutPayload + 48, MAX_SIZE_OF_FROM_PEER_ID + 1,
+			  RejectionReason.FROM_PEER_ID_SIZE },
+			{ "From Peer's ID beyond the Datagram Packet", sizeOfSecureMessageWithoutPayload + 48, MAX_SIZE_OF_FROM_PEER_ID,
+			  RejectionReason.TRUNCATED },
+			{ "shorter than its components of fixed size", sizeOfSecureMessageWithoutPayload - 1, 5, RejectionReason.TRUNCATED },
+			{ "empty Payload", sizeOfSecureMessageWithoutPayload, 5, RejectionReason.SECURE_MESSAGE_PAYLOAD_SIZE },
+			{ "misaligned Cipher Text", sizeOfSecureMessageWithoutPayload + 47, 5, RejectionReason.SECURE_MESSAGE_PAYLOAD_SIZE },
+			{ "Cipher Text without room for the Integrity Control", sizeOfSecureMessageWithoutPayload + 32, 5,
+			  RejectionReason.SECURE_MESSAGE_PAYLOAD_SIZE },
+			{ "Message over the maximum", sizeOfSecureMessageWithoutPayload + 1088, 5, RejectionReason.SECURE_MESSAGE_PAYLOAD_SIZE }
+		};
+
+		assertCompactSecureMessageCases(newBoundsValidator(), cases);
+
+		// [ Header (fixed) || size of the From Peer's ID (1 byte) || From Peer's ID (5 bytes) || Attributes || IV || Payload ]
+		int sizeOfAuthenticatedSecureMessageWithoutPayload = SIZE_OF_COMPACT_SECURE_MESSAGE_HEADER_FIXED + 1 + 5 + 32 + 12;
+
+		Object[][] authenticatedEncryptionCases = {
+			{ "valid", sizeOfAuthenticatedSecureMessageWithoutPayload + 27, 5, null },
+			{ "valid, with an empty Message", sizeOfAuthenticatedSecureMessageWithoutPayload + 16, 5, null },
+			{ "Cipher Text without the authentication tag", sizeOfAuthenticatedSecureMessageWithoutPayload + 15, 5,
+			  RejectionReason.SECURE_MESSAGE_PAYLOAD_SIZE },
+			{ "Message over the maximum", sizeOfAuthenticatedSecureMessageWithoutPayload + MAX_SIZE_OF_MESSAGE + 17, 5,
+			  RejectionReason.SECURE_MESSAGE_PAYLOAD_SIZE }
+		};
+
+		assertCompactSecureMessageCases(newAuthenticatedEncryptionBoundsValidator(), authenticatedEncryptionCases);
+
+		Object[][] payloadCases = {
+			{ "empty Message", 0, null },
+			{ "maximum Message", MAX_SIZE_OF_MESSAGE, null },
+			{ "Message over the maximum", MAX_SIZE_OF_MESSAGE + 1, RejectionReason.MESSAGE_SIZE },
+			{ "Message far over the maximum", Integer.MAX_VALUE, RejectionReason.MESSAGE_SIZE }
+		};
+
+		SecureMulticastChatSessionBoundsValidator boundsValidator = newBoundsValidator();
+
+		for(Object[] payloadCase : payloadCases) {
+			long[] numSecureMessagesRejected = getNumSecureMessagesRejected(boundsValidator);
+
+			assertEquals((String) payloadCase[0], payloadCase[2],
+						 boundsValidator.validateCompactSecureMessagePayload((Integer) payloadCase[1]));
+			assertCounted((String) payloadCase[0], boundsValidator, numSecureMessagesRejected, (RejectionReason) payloadCase[2]);
+		}
+	}
+
+	/**
+	 * Tests the Final Secure Messages forged, in the VERSION_01 format, with malformed sizes in their Secure Message's Meta-Header
+	 * (i.e., each one is rejected by the Final Secure Message's Decoder, being counted by the right reason,
+	 * by the Bounds Validator and by the Rejections of the Session).
+	 *
+	 * @throws GeneralSecurityException if the Cipher Suite of the Session could not be compiled
+	 */
+	@Test
+	public void testDecoderRejectsMalformedMetaHeader() throws GeneralSecurityException {
+		SecureMulticastChatSessionCipherSuite cipherSuite = compileCipherSuite();
+
+		byte[] finalSecureMessageSerialized = encode(cipherSuite, VersionNumber.VERSION_01.getVersionNumber());
+		int sizeOfFinalSecureMessage = finalSecureMessageSerialized.length - FINAL_SECURE_MESSAGE_OFFSET - 1;
+
+		FinalSecureMessageDecoder finalSecureMessageDecoder = new FinalSecureMessageDecoder(cipherSuite);
+
+		assertTrue(finalSecureMessageDecoder.decode(finalSecureMessageSerialized.clone(), FINAL_SECURE_MESSAGE_OFFSET,
+													sizeOfFinalSecureMessage));
+
+		// The sizes announced, as encoded: [ Header, Attributes, Payload, From Peer's ID, Message, Integrity Control, Tag, IV ]
+		int[] sizes = new int[CommonUtils.NUM_COMPONENTS_META_HEADER];
+
+		for(int component = 0; component < sizes.length; component++) {
+			sizes[component] = CommonCodecs.readIntNativeOrder(finalSecureMessageSerialized, getMetaHeaderSizeOffset(component));
+		}
+
+		// In the CBC Mode, the size of the block is the size of the IV
+		int blockSize = cipherSuite.getIVLength();
+
+		Object[][] cases = {
+			{ "negative Payload", 2, -1, RejectionReason.NEGATIVE_SIZE },
+			{ "negative From Peer's ID", 3, Integer.MIN_VALUE, RejectionReason.NEGATIVE_SIZE },
+			{ "wrong Header size", 0, sizes[0] + 1, RejectionReason.SECURE_MESSAGE_HEADER_SIZE },
+			{ "wrong Attributes size", 1, sizes[1] - 1, RejectionReason.SECURE_MESSAGE_ATTRIBUTES_SIZE },
+			{ "wrong tag size", 6, sizes[6] - 1, RejectionReason.FAST_SECURE_MESSAGE_CHECK_SIZE },
+			{ "wrong IV size", 7, 2 * sizes[7], RejectionReason.IV_SIZE },
+			{ "wrong digest size", 5, 20, RejectionReason.INTEGRITY_CONTROL_SIZE },
+			{ "From Peer's ID over the maximum", 3, CommonUtils.DEFAULT_MAX_SIZE_OF_FROM_PEER_ID_SERIALIZED + 1,
+			  RejectionReason.FROM_PEER_ID_SIZE },
+			{ "Message over the maximum", 4, CommonUtils.DEFAULT_MAX_SIZE_OF_MESSAGE_SERIALIZED + 1, RejectionReason.MESSAGE_SIZE },
+			{ "misaligned Cipher Text", 2, sizes[2] + 1, RejectionReason.SECURE_MESSAGE_PAYLOAD_SIZE },
+			{ "Cipher Text padded beyond a block", 2, sizes[2] + blockSize, RejectionReason.SECURE_MESSAGE_PAYLOAD_SIZE },
+			{ "Message longer than the Datagram Packet", 4, sizes[4] + blockSize, RejectionReason.SECURE_MESSAGE_PAYLOAD_SIZE }
+		};
+
+		for(Object[] metaHeaderCase : cases) {
+			byte[] finalSecureMessageForged = finalSecureMessageSerialized.clone();
+
+			CommonCodecs.writeIntNativeOrder(finalSecureMessageForged, getMetaHeaderSizeOffset((Integer) metaHeaderCase[1]),
+											 (Integer) metaHeaderCase[2]);
+
+			assertDecoderRejects((String) metaHeaderCase[0], cipherSuite, finalSecureMessageForged, sizeOfFinalSecureMessage,
+								 (RejectionReason) metaHeaderCase[3]);
+		}
+
+		// The Datagram Packets of another size than the one announced, or shorter than the Meta-Header
+		assertDecoderRejects("Datagram Packet shorter than announced", cipherSuite, finalSecureMessageSerialized.clone(),
+							 sizeOfFinalSecureMessage - 1, RejectionReason.DATAGRAM_PACKET_SIZE);
+		assertDecoderRejects("Datagram Packet longer than announced", cipherSuite, finalSecureMessageSerialized.clone(),
+							 sizeOfFinalSecureMessage + 1, RejectionReason.DATAGRAM_PACKET_SIZE);
+		assertDecoderRejects("shorter than the Meta-Header", cipherSuite, finalSecureMessageSerialized.clone(),
+							 SIZE_OF_SECURE_MESSAGE_META_HEADER - 1, RejectionReason.TRUNCATED);
+	}
+
+	/**
+	 * Tests the Final Secure Messages forged, in the VERSION_02 format, with malformed sizes of their From Peer's ID
+	 * (i.e., overlong or not minimal Variable-Length Integers, or sizes not fitting the Datagram Packet), being each one
+	 * rejected by the Final Secure Message's Decoder, and counted by the right reason.
+	 *
+	 * @throws GeneralSecurityException if the Cipher Suite of the Session could not be compiled
+	 */
+	@Test
+	public void testDecoderRejectsMalformedCompactSecureMessage() throws GeneralSecurityException {
+		SecureMulticastChatSessionCipherSuite cipherSuite = compileCipherSuite();
+
+		byte[] finalSecureMessageSerialized = encode(cipherSuite, VersionNumber.VERSION_02.getVersionNumber());
+		int sizeOfFinalSecureMessage = finalSecureMessageSerialized.length - FINAL_SECURE_MESSAGE_OFFSET - 1;
+
+		assertTrue(new FinalSecureMessageDecoder(cipherSuite).decode(finalSecureMessageSerialized.clone(), FINAL_SECURE_MESSAGE_OFFSET,
+																	 sizeOfFinalSecureMessage));
+
+		// The Attributes, the IV and the MAC of the Session
+		int sizeOfComponentsOfSession = cipherSuite.getSessionAttributes().getSecureMessageAttributesSerializedHashed().length +
+										cipherSuite.getIVLength() + cipherSuite.getMacEngine().getMacLength();
+
+		int sizeOfFromPeerIDOverMaximum = CommonUtils.DEFAULT_MAX_SIZE_OF_FROM_PEER_ID_SERIALIZED + 1;
+
+		Object[][] cases = {
+			{ "not minimal size of the From Peer's ID", new byte[] { (byte) 0x85, 0x00 }, 200, RejectionReason.MALFORMED_SIZE },
+			{ "not minimal size of the From Peer's ID, in 3 bytes", new byte[] { (byte) 0x85, (byte) 0x80, 0x00 }, 200,
+			  RejectionReason.MALFORMED_SIZE },
+			{ "overlong size of the From Peer's ID", new byte[] { (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01 },
+			  200, RejectionReason.MALFORMED_SIZE },
+			{ "negative size of the From Peer's ID", new byte[] { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F }, 200,
+			  RejectionReason.MALFORMED_SIZE },
+			{ "size of the From Peer's ID cut by the Datagram Packet", new byte[] { (byte) 0x85 },
+			  SIZE_OF_COMPACT_SECURE_MESSAGE_HEADER_FIXED + 1, RejectionReason.MALFORMED_SIZE },
+			{ "From Peer's ID over the maximum", new byte[] { (byte) ( 0x80 | ( sizeOfFromPeerIDOverMaximum & 0x7F ) ),
+															  (byte) ( sizeOfFromPeerIDOverMaximum >>> 7 ) },
+			  SIZE_OF_COMPACT_SECURE_MESSAGE_HEADER_FIXED + 2 + sizeOfFromPeerIDOverMaximum + sizeOfComponentsOfSession + 64,
+			  RejectionReason.FROM_PEER_ID_SIZE },
+			{ "shorter than the fixed Header", new byte[0], SIZE_OF_COMPACT_SECURE_MESSAGE_HEADER_FIXED - 1, RejectionReason.TRUNCATED },
+			{ "From Peer's ID beyond the Datagram Packet", new byte[] { 0x05 },
+			  SIZE_OF_COMPACT_SECURE_MESSAGE_HEADER_FIXED + 1 + 5 + sizeOfComponentsOfSession - 1, RejectionReason.TRUNCATED },
+			{ "misaligned Cipher Text", new byte[] { 0x05 },
+			  SIZE_OF_COMPACT_SECURE_MESSAGE_HEADER_FIXED + 1 + 5 + sizeOfComponentsOfSession + cipherSuite.getIVLength() + 41,
+			  RejectionReason.SECURE_MESSAGE_PAYLOAD_SIZE }
+		};
+
+		for(Object[] compactCase : cases) {
+			byte[] sizeOfFromPeerIDSerialized = (byte[]) compactCase[1];
+			int sizeOfFinalSecureMessageForged = (Integer) compactCase[2];
+
+			// The fixed Header of the Final Secure Message encoded, followed by the size of the From Peer's ID forged
+			byte[] finalSecureMessageForged = new byte[FINAL_SECURE_MESSAGE_OFFSET + Math.max(sizeOfFinalSecureMessageForged, 200) + 1];
+
+			System.arraycopy(finalSecureMessageSerialized, FINAL_SECURE_MESSAGE_OFFSET, finalSecureMessageForged, FINAL_SECURE_MESSAGE_OFFSET,
+							 SIZE_OF_COMPACT_SECURE_MESSAGE_HEADER_FIXED);
+			System.arraycopy(sizeOfFromPeerIDSerialized, 0, finalSecureMessageForged,
+							 FINAL_SECURE_MESSAGE_OFFSET + SIZE_OF_COMPACT_SECURE_MESSAGE_HEADER_FIXED, sizeOfFromPeerIDSerialized.length);
+
+			// The byte right after the Datagram Packet is never read as a part of the Final Secure Message
+			Arrays.fill(finalSecureMessageForged, FINAL_SECURE_MESSAGE_OFFSET + sizeOfFinalSecureMessageForged,
+						finalSecureMessageForged.length, (byte) 0x80);
+
+			assertDecoderRejects((String) compactCase[0], cipherSuite, finalSecureMessageForged, sizeOfFinalSecureMessageForged,
+								 (RejectionReason) compactCase[3]);
+		}
+	}
+
+	/**
+	 * Asserts the given cases of the sizes announced by a Secure Message's Meta-Header, each one replacing one of the
+	 * given valid sizes, being rejected by the given Bounds Validator, by the given reason (or not rejected, if it's null).
+	 *
+	 * @param boundsValidator the Bounds Validator
+	 * @param validSizes the valid sizes
+	 * @param cases the cases (i.e., their descriptions, the indexes and the values of the sizes replaced, and their reasons)
+	 */
+	private static void assertMetaHeaderCases(SecureMulticastChatSessionBoundsValidator boundsValidator, int[] validSizes,
+											  Object[][] cases) {
+
+		for(Object[] metaHeaderCase : cases) {
+			String description = (String) metaHeaderCase[0];
+			RejectionReason rejectionReason = (RejectionReason) metaHeaderCase[3];
+
+			int[] sizes = validSizes.clone();
+
+			sizes[(Integer) metaHeaderCase[1]] = (Integer) metaHeaderCase[2];
+
+			long[] numSecureMessagesRejected = getNumSecureMessagesRejected(boundsValidator);
+
+			assertEquals(description, rejectionReason,
+						 boundsValidator.validateSecureMessageMetaHeader(sizes[FINAL_SECURE_MESSAGE], sizes[1], sizes[HEADER],
+																		 sizes[ATTRIBUTES], sizes[PAYLOAD], sizes[FROM_PEER_ID],
+																		 sizes[MESSAGE], sizes[INTEGRITY_CONTROL],
+																		 sizes[FAST_CHECK], sizes[IV]));
+			assertCounted(description, boundsValidator, numSecureMessagesRejected, rejectionReason);
+		}
+	}
+
+	/**
+	 * Asserts the given cases of the sizes of a Secure Message, in the VERSION_02 format, being rejected
+	 * by the given Bounds Validator, by the given reason (or not rejected, if it's null).
+	 *
+	 * @param boundsValidator the Bounds Validator
+	 * @param cases the cases (i.e., their descriptions, the sizes of the Final Secure Message and of the From Peer's ID,
+	 *        and their reasons)
+	 */
+	private static void assertCompactSecureMessageCases(SecureMulticastChatSessionBoundsValidator boundsValidator, Object[][] cases) {
+
+		for(Object[] compactCase : cases) {
+			String description = (String) compactCase[0];
+			RejectionReason rejectionReason = (RejectionReason) compactCase[3];
+
+			long[] numSecureMessagesRejected = getNumSecureMessagesRejected(boundsValidator);
+
+			assertEquals(description, rejectionReason,
+						 boundsValidator.validateCompactSecureMessage((Integer) compactCase[1], SIZE_OF_COMPACT_SECURE_MESSAGE_HEADER_FIXED,
+																	  (Integer) compactCase[2]));
+			assertCounted(description, boundsValidator, numSecureMessagesRejected, rejectionReason);
+		}
+	}
+
+	/**
+	 * Asserts that the given Final Secure Message forged is rejected by a Final Secure Message's Decoder of the given Session,
+	 * being counted by the given reason, by its Bounds Validator, and by its Rejections (i.e., by its sizes).
+	 *
+	 * @param description the description of the Final Secure Message forged
+	 * @param cipherSuite the Cipher Suite of the Session
+	 * @param finalSecureMessageForged the buffer of the Final Secure Message forged (at the offset of the tests)
+	 * @param sizeOfFinalSecureMessage the size of the Datagram Packet of the Final Secure Message forged
+	 * @param rejectionReason the reason of the rejection
+	 */
+	private static void assertDecoderRejects(String description, SecureMulticastChatSessionCipherSuite cipherSuite,
+											 byte[] finalSecureMessageForged, int sizeOfFinalSecureMessage,
+											 RejectionReason rejectionReason) {
+
+		SecureMulticastChatSessionBoundsValidator boundsValidator = cipherSuite.getBoundsValidator();
+
+		long[] numSecureMessagesRejected = getNumSecureMessagesRejected(boundsValidator);
+		long numSecureMessagesRejectedBySizes = cipherSuite.getRejections().getNumSecureMessagesRejected(Rejection.SECURE_MESSAGE_SIZES);
+
+		assertFalse(description, new FinalSecureMessageDecoder(cipherSuite).decode(finalSecureMessageForged, FINAL_SECURE_MESSAGE_OFFSET,
+																				   sizeOfFinalSecureMessage));
+
+		assertCounted(description, boundsValidator, numSecureMessagesRejected, rejectionReason);
+		assertEquals(description, numSecureMessagesRejectedBySizes + 1,
+					 cipherSuite.getRejections().getNumSecureMessagesRejected(Rejection.SECURE_MESSAGE_SIZES));
+	}
+
+	/**
+	 * Asserts that only the counter of the given reason of the rejection (if any) was incremented, by one,
+	 * since the given counters of the given Bounds Validator.
+	 *
+	 * @param description the description of the case
+	 * @param boundsValidator the Bounds Validator
+	 * @param numSecureMessagesRejected the counters of the Bounds Validator, before the case, indexed by reason
+	 * @param rejectionReason the reason of the rejection (or null, if it was not rejected)
+	 */
+	private static void assertCounted(String description, SecureMulticastChatSessionBoundsValidator boundsValidator,
+									  long[] numSecureMessagesRejected, RejectionReason rejectionReason) {
+
+		for(RejectionReason reason : RejectionReason.values()) {
+			assertEquals(description + " (" + reason + ")",
+						 numSecureMessagesRejected[reason.ordinal()] + ( ( reason == rejectionReason ) ? 1 : 0 ),
+						 boundsValidator.getNumSecureMessagesRejected(reason));
+		}
+	}
+
+	/**
+	 * Returns the counters of the given Bounds Validator, indexed by reason.
+	 *
+	 * @param boundsValidator the Bounds Validator
+	 *
+	 * @return the counters of the given Bounds Validator, indexed by reason
+	 */
+	private static long[] getNumSecureMessagesRejected(SecureMulticastChatSessionBoundsValidator boundsValidator) {
+		long[] numSecureMessagesRejected = new long[RejectionReason.values().length];
+
+		for(RejectionReason reason : RejectionReason.values()) {
+			numSecureMessagesRejected[reason.ordinal()] = boundsValidator.getNumSecureMessagesRejected(reason);
+		}
+
+		return numSecureMessagesRejected;
+	}
+
+	/**
+	 * Returns the offset of the given size announced by the Secure Message's Meta-Header, in the buffers of the tests.
+	 *
+	 * @param component the index of the size announced, in the Secure Message's Meta-Header
+	 *
+	 * @return the offset of the given size announced by the Secure Message's Meta-Header, in the buffers of the tests
+	 */
+	private static int getMetaHeaderSizeOffset(int component) {
+		return FINAL_SECURE_MESSAGE_OFFSET + CommonUtils.META_HEADER_OUTSIDE_SEPARATORS_LENGTH +
+			   ( component * ( CommonUtils.INTEGER_IN_BYTES_LENGTH + CommonUtils.META_HEADER_INSIDE_SEPARATORS_LENGTH ) );
+	}
+
+	/**
+	 * Returns the compiled Cipher Suite of the Session of the Final Secure Messages forged.
+	 *
+	 * @return the compiled Cipher Suite of the Session of the Final Secure Messages forged
+	 *
+	 * @throws GeneralSecurityException if the Cipher Suite of the Session could not be compiled
+	 */
+	private static SecureMulticastChatSessionCipherSuite compileCipherSuite() throws GeneralSecurityException {
+		return SecureMulticastChatSessionCipherSuite.compileCipherSuite(new SecureMulticastChatSessionParameters("res/SMCP.conf",
+																												SESSION_ID));
+	}
+
+	/**
+	 * Returns a buffer with a valid Final Secure Message of the given Session, in the given format, at the offset of the tests
+	 * (followed by one more byte, so a Datagram Packet longer than the one encoded can be forged).
+	 *
+	 * @param cipherSuite the Cipher Suite of the Session
+	 * @param versionNumber the Version Number of the format of the Final Secure Message
+	 *
+	 * @return a buffer with a valid Final Secure Message of the given Session, in the given format, at the offset of the tests
+	 */
+	private static byte[] encode(SecureMulticastChatSessionCipherSuite cipherSuite, byte versionNumber) {
+		byte[] messageSerialized = "Hello, Secure Multicast Chat!".getBytes();
+
+		FinalSecureMessageEncoder finalSecureMessageEncoder = new FinalSecureMessageEncoder("alice", cipherSuite, versionNumber);
+
+		int sizeOfFinalSecureMessage = finalSecureMessageEncoder.encode(messageSerialized, 0, messageSerialized.length, 1, 42,
+																		MessageType.MESSAGE_TYPE_1.getMessageType());
+
+		byte[] finalSecureMessageSerialized = new byte[FINAL_SECURE_MESSAGE_OFFSET + sizeOfFinalSecureMessage + 1];
+
+		System.arraycopy(finalSecureMessageEncoder.getFinalSecureMessageSerialized(), 0, finalSecureMessageSerialized,
+						 FINAL_SECURE_MESSAGE_OFFSET, sizeOfFinalSecureMessage);
+
+		return finalSecureMessageSerialized;
+	}
+
+}
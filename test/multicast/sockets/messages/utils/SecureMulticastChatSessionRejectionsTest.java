@@ -0,0 +1,90 @@
+package multicast.sockets.messages.utils;
+
+/**
+ *
+ * Secure Multicast Peer Group Oriented Chat - Phase #1
+ *
+ * Network and Computer Systems Security
+ *
+ * Faculty of Science and Technology of New University of Lisbon
+ * (FCT NOVA | FCT/UNL)
+ *
+ * Integrated Master of Computer Science and Engineering
+ * (BSc. + MSc. Bologna Degree)
+ *
+ * Academic Year 2019/2020
+ *
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import multicast.sockets.messages.utils.SecureMulticastChatSessionRejections.Rejection;
+
+/**
+ *
+ * Tests of the Rejections of the Secure Messages received (i.e., all of them counted, but each reason only reported
+ * once per interval of time).
+ *
+ * @supervisor Prof. Henrique Joao Domingos - hj@fct.unl.pt
+ *
+ * @author Eduardo Bras Silva (no. 41798) - emf.silva@campus.fct.unl.pt
+ * @author Ruben Andre Barreiro (no. 42648) - r.barreiro@campus.fct.unl.pt
+ *
+ */
+public class SecureMulticastChatSessionRejectionsTest {
+
+	// Invariants/Constants:
+	/**
+	 * The number of Secure Messages rejected of the tests (i.e., a flood of forged Datagram Packets)
+	 */
+	private static final int NUM_SECURE_MESSAGES_REJECTED = 100000;
+
+
+	// Methods:
+	/**
+	 * Tests that a flood of Secure Messages rejected, by the same reason, is counted, but only reported once per interval of time,
+	 * without suppressing the reports of the other reasons.
+	 */
+	@Test
+	public void testFloodReportedOncePerInterval() {
+		SecureMulticastChatSessionRejections rejections = new SecureMulticastChatSessionRejections(3600000);
+
+		int numReports = 0;
+
+		for(int i = 0; i < NUM_SECURE_MESSAGES_REJECTED; i++) {
+			numReports += rejections.reject(Rejection.FAST_SECURE_MESSAGE_CHECK) ? 1 : 0;
+		}
+
+		assertEquals(1, numReports);
+		assertEquals(NUM_SECURE_MESSAGES_REJECTED, rejections.getNumSecureMessagesRejected(Rejection.FAST_SECURE_MESSAGE_CHECK));
+
+		assertTrue(rejections.reject(Rejection.SECURE_MESSAGE_SIZES, "the Secure Message is shorter than its components of fixed size"));
+		assertFalse(rejections.reject(Rejection.SECURE_MESSAGE_SIZES));
+
+		assertEquals(2, rejections.getNumSecureMessagesRejected(Rejection.SECURE_MESSAGE_SIZES));
+		assertEquals(0, rejections.getNumSecureMessagesRejected(Rejection.INTEGRITY_CONTROL));
+	}
+
+	/**
+	 * Tests that the Secure Messages rejected are reported again, once the interval of time has elapsed.
+	 *
+	 * @throws InterruptedException if the Thread of the test is interrupted
+	 */
+	@Test
+	public void testReportedAgainAfterInterval() throws InterruptedException {
+		SecureMulticastChatSessionRejections rejections = new SecureMulticastChatSessionRejections(20);
+
+		assertTrue(rejections.reject(Rejection.DUPLICATE_RANDOM_NONCE));
+		assertFalse(rejections.reject(Rejection.DUPLICATE_RANDOM_NONCE));
+
+		Thread.sleep(50);
+
+		assertTrue(rejections.reject(Rejection.DUPLICATE_RANDOM_NONCE));
+		assertEquals(3, rejections.getNumSecureMessagesRejected(Rejection.DUPLICATE_RANDOM_NONCE));
+	}
+
+}